@@ -0,0 +1,9 @@
+package com.example.ecommerce.admission;
+
+public enum QueueTicketStatus {
+    WAITING,   // Sırada bekliyor
+    ADMITTED,  // Checkout hakkı verildi, pencere süresince geçerli
+    IN_USE,    // Bilet ile bir checkout şu anda çalışıyor
+    USED,      // Checkout bu bilet ile tamamlandı
+    EXPIRED    // Pencere doldu ya da bilet sahibi sırayı terk etti
+}
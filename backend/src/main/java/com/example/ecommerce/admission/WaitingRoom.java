@@ -0,0 +1,261 @@
+package com.example.ecommerce.admission;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded first-in-first-out queue in front of checkout for one product.
+ * <p>
+ * Buyers join the queue and get a ticket. A token bucket refilled at {@code admissionsPerSecond}
+ * admits tickets from the head. An admitted ticket allows one checkout within the admission window:
+ * the checkout claims it first, so two concurrent requests cannot both run on the same ticket.
+ * A waiting ticket whose owner has stopped polling is skipped when it reaches the head, without
+ * using a token. When the queue is full, new buyers are refused instead of queued.
+ * <p>
+ * All state is guarded by the instance lock. Every operation is a few map or deque steps.
+ */
+public final class WaitingRoom {
+
+    private final Long productId;
+    private double admissionsPerSecond;
+    private int capacity;
+
+    private final ArrayDeque<Ticket> waiting = new ArrayDeque<>();
+    private final ArrayDeque<Ticket> admitted = new ArrayDeque<>();
+    // Biten biletler pencere süresi kadar daha sorgulanabilir kalır
+    private final ArrayDeque<Ticket> finished = new ArrayDeque<>();
+    private final Map<String, Ticket> ticketsById = new HashMap<>();
+    private final Map<String, Ticket> activeTicketsByUser = new HashMap<>();
+
+    private long lastJoinedSequence;
+    private long lastDequeuedSequence;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public WaitingRoom(Long productId, double admissionsPerSecond, int capacity, long nowNanos) {
+        this.productId = productId;
+        this.lastRefillNanos = nowNanos;
+        reconfigure(admissionsPerSecond, capacity);
+    }
+
+    public synchronized void reconfigure(double admissionsPerSecond, int capacity) {
+        if (admissionsPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Admission rate and queue capacity must be positive.");
+        }
+        this.admissionsPerSecond = admissionsPerSecond;
+        this.capacity = capacity;
+        this.tokens = Math.min(tokens, burst());
+    }
+
+    /**
+     * Returns the user's existing ticket, or a new one at the tail. Returns {@code null} when the
+     * queue is full.
+     */
+    public synchronized Snapshot join(String username, long nowMillis) {
+        Ticket existing = activeTicketsByUser.get(username);
+        if (existing != null) {
+            existing.lastSeenMillis = nowMillis;
+            return snapshot(existing);
+        }
+        if (waiting.size() >= capacity) {
+            return null;
+        }
+        Ticket ticket = new Ticket(productId + "-" + UUID.randomUUID(), username, ++lastJoinedSequence, nowMillis);
+        waiting.addLast(ticket);
+        ticketsById.put(ticket.id, ticket);
+        activeTicketsByUser.put(username, ticket);
+        return snapshot(ticket);
+    }
+
+    /** Current state of a ticket; also records that its owner is still there. */
+    public synchronized Snapshot poll(String ticketId, long nowMillis) {
+        Ticket ticket = ticketsById.get(ticketId);
+        if (ticket == null) {
+            return null;
+        }
+        ticket.lastSeenMillis = nowMillis;
+        return snapshot(ticket);
+    }
+
+    /**
+     * Refills the token bucket and admits from the head. Also expires admitted tickets whose window
+     * has passed. Returns the tickets whose status changed.
+     */
+    public synchronized List<Snapshot> admit(long nowNanos, long nowMillis, long admissionWindowMillis,
+                                             long abandonAfterMillis) {
+        List<Snapshot> changed = new ArrayList<>();
+        double elapsedSeconds = (nowNanos - lastRefillNanos) / 1_000_000_000.0;
+        lastRefillNanos = nowNanos;
+        tokens = Math.min(burst(), tokens + elapsedSeconds * admissionsPerSecond);
+
+        while (!waiting.isEmpty() && (tokens >= 1 || isAbandoned(waiting.peekFirst(), nowMillis, abandonAfterMillis))) {
+            Ticket ticket = waiting.pollFirst();
+            lastDequeuedSequence = ticket.sequence;
+            if (isAbandoned(ticket, nowMillis, abandonAfterMillis)) {
+                finish(ticket, QueueTicketStatus.EXPIRED, nowMillis);
+            } else {
+                tokens -= 1;
+                ticket.status = QueueTicketStatus.ADMITTED;
+                ticket.admittedUntilMillis = nowMillis + admissionWindowMillis;
+                admitted.addLast(ticket);
+            }
+            changed.add(snapshot(ticket));
+        }
+        // Pencere süresi sabit olduğundan kabul sırası aynı zamanda bitiş sırasıdır.
+        // Checkout'u süren bilet sonucu belli olana kadar kuyrukta kalır; başarısız olursa geri verilir.
+        while (!admitted.isEmpty()) {
+            Ticket head = admitted.peekFirst();
+            if (head.status == QueueTicketStatus.IN_USE
+                    || (head.status == QueueTicketStatus.ADMITTED && head.admittedUntilMillis > nowMillis)) {
+                break;
+            }
+            admitted.pollFirst();
+            if (head.status == QueueTicketStatus.ADMITTED) {
+                finish(head, QueueTicketStatus.EXPIRED, nowMillis);
+                changed.add(snapshot(head));
+            }
+        }
+        while (!finished.isEmpty() && finished.peekFirst().finishedAtMillis + admissionWindowMillis <= nowMillis) {
+            ticketsById.remove(finished.pollFirst().id);
+        }
+        return changed;
+    }
+
+    /**
+     * Claims an admitted ticket for one checkout (ADMITTED to IN_USE). Returns {@code false} if the
+     * ticket is not the user's, is not admitted, its window has passed, or another checkout holds it.
+     */
+    public synchronized boolean claim(String ticketId, String username, long nowMillis) {
+        Ticket ticket = ticketsById.get(ticketId);
+        if (ticket == null || !ticket.username.equals(username)
+                || ticket.status != QueueTicketStatus.ADMITTED || ticket.admittedUntilMillis <= nowMillis) {
+            return false;
+        }
+        ticket.status = QueueTicketStatus.IN_USE;
+        return true;
+    }
+
+    /** Gives a claimed ticket back after its checkout failed; it stays usable until its window ends. */
+    public synchronized void release(String ticketId) {
+        Ticket ticket = ticketsById.get(ticketId);
+        if (ticket != null && ticket.status == QueueTicketStatus.IN_USE) {
+            ticket.status = QueueTicketStatus.ADMITTED;
+        }
+    }
+
+    /** Spends a claimed ticket after its checkout went through. */
+    public synchronized void markUsed(String ticketId, long nowMillis) {
+        Ticket ticket = ticketsById.get(ticketId);
+        if (ticket != null && ticket.status == QueueTicketStatus.IN_USE) {
+            finish(ticket, QueueTicketStatus.USED, nowMillis);
+        }
+    }
+
+    /** Seconds until a ticket {@code position} places from the head is admitted at the current rate. */
+    public synchronized long estimatedWaitSeconds(long position) {
+        return (long) Math.ceil(Math.max(0, position) / admissionsPerSecond);
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(productId, admissionsPerSecond, capacity, waiting.size(), admitted.size());
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    private void finish(Ticket ticket, QueueTicketStatus status, long nowMillis) {
+        ticket.status = status;
+        ticket.finishedAtMillis = nowMillis;
+        activeTicketsByUser.remove(ticket.username, ticket);
+        finished.addLast(ticket);
+    }
+
+    private boolean isAbandoned(Ticket ticket, long nowMillis, long abandonAfterMillis) {
+        return ticket.lastSeenMillis + abandonAfterMillis < nowMillis;
+    }
+
+    // En fazla bir saniyelik birikim: sessiz bir dönemin ardından tek seferde yığılma olmaz
+    private double burst() {
+        return Math.max(1.0, admissionsPerSecond);
+    }
+
+    private Snapshot snapshot(Ticket ticket) {
+        long position = ticket.status == QueueTicketStatus.WAITING ? ticket.sequence - lastDequeuedSequence : 0;
+        return new Snapshot(ticket.id, productId, ticket.username, ticket.status, position,
+                estimatedWaitSeconds(position), ticket.admittedUntilMillis);
+    }
+
+    private static final class Ticket {
+        private final String id;
+        private final String username;
+        private final long sequence;
+        private QueueTicketStatus status = QueueTicketStatus.WAITING;
+        private long lastSeenMillis;
+        private long admittedUntilMillis;
+        private long finishedAtMillis;
+
+        private Ticket(String id, String username, long sequence, long nowMillis) {
+            this.id = id;
+            this.username = username;
+            this.sequence = sequence;
+            this.lastSeenMillis = nowMillis;
+        }
+    }
+
+    /** Immutable view of a ticket at one point in time. */
+    public static final class Snapshot {
+        private final String ticketId;
+        private final Long productId;
+        private final String username;
+        private final QueueTicketStatus status;
+        private final long position;
+        private final long estimatedWaitSeconds;
+        private final long admittedUntilMillis;
+
+        private Snapshot(String ticketId, Long productId, String username, QueueTicketStatus status,
+                         long position, long estimatedWaitSeconds, long admittedUntilMillis) {
+            this.ticketId = ticketId;
+            this.productId = productId;
+            this.username = username;
+            this.status = status;
+            this.position = position;
+            this.estimatedWaitSeconds = estimatedWaitSeconds;
+            this.admittedUntilMillis = admittedUntilMillis;
+        }
+
+        public String getTicketId() { return ticketId; }
+        public Long getProductId() { return productId; }
+        public String getUsername() { return username; }
+        public QueueTicketStatus getStatus() { return status; }
+        public long getPosition() { return position; }
+        public long getEstimatedWaitSeconds() { return estimatedWaitSeconds; }
+        public long getAdmittedUntilMillis() { return admittedUntilMillis; }
+    }
+
+    public static final class Stats {
+        private final Long productId;
+        private final double admissionsPerSecond;
+        private final int capacity;
+        private final int waiting;
+        private final int admitted;
+
+        private Stats(Long productId, double admissionsPerSecond, int capacity, int waiting, int admitted) {
+            this.productId = productId;
+            this.admissionsPerSecond = admissionsPerSecond;
+            this.capacity = capacity;
+            this.waiting = waiting;
+            this.admitted = admitted;
+        }
+
+        public Long getProductId() { return productId; }
+        public double getAdmissionsPerSecond() { return admissionsPerSecond; }
+        public int getCapacity() { return capacity; }
+        public int getWaiting() { return waiting; }
+        public int getAdmitted() { return admitted; }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.dto.ProductCacheStatsDto;
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.event.ProductChangedEvent;
+import com.example.ecommerce.event.ProductStockChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of {@link ProductDto}s keyed by product id (Caffeine, W-TinyLFU eviction).
+ * <p>
+ * Every product write path publishes a {@link ProductChangedEvent} (or, for stock alone, a
+ * {@link ProductStockChangedEvent}); the affected entries are dropped once the writing transaction has
+ * committed, so the next read reloads committed state.
+ * The expire-after-write TTL is only a safety net for writes that bypass the event.
+ * <p>
+ * A single-key load runs inside Caffeine's per-key compute, so an invalidation of that key waits for
+ * it and then drops the result. A bulk load is not atomic that way. If any invalidation happens while
+ * it runs, the ids it loaded are dropped again, because their rows may have been read before the
+ * commit that caused the invalidation.
+ */
+@Component
+public class ProductCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCache.class);
+
+    private final Cache<Long, ProductDto> cache;
+    private final long maximumSize;
+    // Her invalidate'te artar; bulk yükleme bunu öncesinde ve sonrasında okur
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductCache(@Value("${app.cache.product.max-size:10000}") long maximumSize,
+                        @Value("${app.cache.product.ttl-minutes:30}") long ttlMinutes) {
+        this.maximumSize = maximumSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+    }
+
+    /** Returns the cached product or loads it; {@code null} from the loader (not found) is not cached. */
+    public ProductDto get(Long productId, Function<Long, ProductDto> loader) {
+        return cache.get(productId, loader);
+    }
+
+    /**
+     * Returns the products for the given ids, loading all misses with a single call to
+     * {@code bulkLoader}. Ids the loader does not return are simply absent from the result.
+     */
+    public Map<Long, ProductDto> getAll(Collection<Long> productIds,
+                                        Function<Set<Long>, Map<Long, ProductDto>> bulkLoader) {
+        long invalidationsBefore = invalidations.get();
+        Set<Long> loadedIds = new HashSet<>();
+        Map<Long, ProductDto> products = cache.getAll(productIds, missingIds -> {
+            loadedIds.addAll(missingIds);
+            return bulkLoader.apply(Collections.unmodifiableSet(missingIds));
+        });
+        // Sayaç invalidate'ten önce artırıldığından: ya değişikliği burada görürüz ya da o invalidate
+        // bizim yazdığımız girdileri sonradan siler. Dönen sonuç bu istek için yine geçerlidir.
+        if (!loadedIds.isEmpty() && invalidations.get() != invalidationsBefore) {
+            cache.invalidateAll(loadedIds);
+            logger.debug("Dropped {} bulk-loaded products that raced with an invalidation", loadedIds.size());
+        }
+        return products;
+    }
+
+    public void invalidate(Collection<Long> productIds) {
+        invalidations.incrementAndGet();
+        cache.invalidateAll(productIds);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+        logger.info("Product cache cleared.");
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event.getProductIds());
+        logger.debug("Product cache invalidated for product IDs: {}", event.getProductIds());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(ProductStockChangedEvent event) {
+        invalidate(event.getProductIds());
+    }
+
+    public ProductCacheStatsDto stats() {
+        CacheStats stats = cache.stats();
+        return new ProductCacheStatsDto(
+                cache.estimatedSize(),
+                maximumSize,
+                stats.requestCount(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount(),
+                stats.loadFailureCount(),
+                stats.averageLoadPenalty() / 1_000_000.0
+        );
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.ecommerce.checkout;
+
+public enum CheckoutJobStatus {
+    QUEUED,      // Kabul edildi, boş bir checkout worker'ı bekliyor
+    PROCESSING,  // Worker sepeti siparişe çeviriyor (ürünler, sipariş kaydı, stok ayırma, sepet temizliği)
+    COMPLETED,   // Sipariş oluşturuldu; orderId dolu
+    FAILED       // Checkout yapılamadı; errorStatus / errorMessage senkron uç noktanın vereceği hatayı taşır
+}
@@ -0,0 +1,79 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.entity.CartItem;
+import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.entity.OrderItem;
+import com.example.ecommerce.entity.Product;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the table-emulated id sequences (MySQL has no native sequences, so Hibernate stores the
+ * next value in a {@code <name>_seq} table) ahead of the ids already present in their tables.
+ * <p>
+ * Hibernate seeds a freshly created sequence table with 1; on a database that already had rows
+ * inserted with AUTO_INCREMENT this would hand out duplicate ids. Runs after the schema update
+ * (it depends on the {@code entityManagerFactory} bean) and before anything is inserted.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequenceInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    // sequence tablosu -> id'leri tutan tablo ve allocationSize
+    private static final Map<String, SequenceTarget> SEQUENCES = new LinkedHashMap<>();
+    static {
+        SEQUENCES.put("products_seq", new SequenceTarget("products", Product.ID_ALLOCATION_SIZE));
+        SEQUENCES.put("orders_seq", new SequenceTarget("orders", Order.ID_ALLOCATION_SIZE));
+        SEQUENCES.put("order_items_seq", new SequenceTarget("order_items", OrderItem.ID_ALLOCATION_SIZE));
+        SEQUENCES.put("cart_items_seq", new SequenceTarget("cart_items", CartItem.ID_ALLOCATION_SIZE));
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void alignSequences() {
+        SEQUENCES.forEach((sequenceTable, target) -> align(sequenceTable, target.table, target.allocationSize));
+    }
+
+    private void align(String sequenceTable, String table, int allocationSize) {
+        Long nextValue;
+        try {
+            nextValue = jdbcTemplate.queryForObject("SELECT next_val FROM " + sequenceTable, Long.class);
+        } catch (DataAccessException e) {
+            // Native sequence kullanan veritabanlarında tablo yoktur; yapılacak bir şey yok
+            logger.debug("No sequence table {} found, skipping alignment: {}", sequenceTable, e.getMessage());
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        // Pooled optimizer saklanan değeri bloğun üst sınırı sayar; bir blok pay bırakılır
+        long required = maxId + allocationSize + 1;
+        if (nextValue == null || nextValue < required) {
+            jdbcTemplate.update("UPDATE " + sequenceTable + " SET next_val = ?", required);
+            logger.info("Sequence table {} moved from {} to {} (max {}.id = {})", sequenceTable, nextValue, required, table, maxId);
+        }
+    }
+
+    private static final class SequenceTarget {
+        private final String table;
+        private final int allocationSize;
+
+        private SequenceTarget(String table, int allocationSize) {
+            this.table = table;
+            this.allocationSize = allocationSize;
+        }
+    }
+}
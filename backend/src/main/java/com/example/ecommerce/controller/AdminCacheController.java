@@ -0,0 +1,54 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.cache.ProductCache;
+import com.example.ecommerce.dto.ProductCacheStatsDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@Tag(name = "Admin: Cache Management", description = "API endpoints for administrators to inspect and reset in-memory caches")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminCacheController {
+
+    private final ProductCache productCache;
+
+    @Autowired
+    public AdminCacheController(ProductCache productCache) {
+        this.productCache = productCache;
+    }
+
+    @Operation(summary = "Get product cache statistics", description = "Hit/miss/eviction counters and size of the product cache, for sizing it.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved cache statistics",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductCacheStatsDto.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @GetMapping("/products/stats")
+    public ResponseEntity<ProductCacheStatsDto> getProductCacheStats() {
+        return ResponseEntity.ok(productCache.stats());
+    }
+
+    @Operation(summary = "Clear product cache", description = "Drops every cached product; subsequent reads reload from the database.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Cache cleared"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @DeleteMapping("/products")
+    public ResponseEntity<Void> clearProductCache() {
+        productCache.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.CursorPageDto;
+import com.example.ecommerce.dto.HotSkuDto;
+import com.example.ecommerce.dto.InventoryLedgerEntryDto;
+import com.example.ecommerce.dto.InventoryReconciliationResultDto;
+import com.example.ecommerce.dto.WaitingRoomDto;
+import com.example.ecommerce.dto.WaitingRoomRequestDto;
+import com.example.ecommerce.service.CheckoutAdmissionService;
+import com.example.ecommerce.service.HotSkuInventory;
+import com.example.ecommerce.service.InventoryLedger;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/inventory")
+@Tag(name = "Admin: Inventory", description = "API endpoints for administrators to manage hot SKU (flash sale) inventory mode, checkout waiting rooms and the inventory ledger")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminInventoryController {
+
+    private final HotSkuInventory hotSkuInventory;
+    private final CheckoutAdmissionService checkoutAdmissionService;
+    private final InventoryLedger inventoryLedger;
+
+    @Autowired
+    public AdminInventoryController(HotSkuInventory hotSkuInventory, CheckoutAdmissionService checkoutAdmissionService,
+                                    InventoryLedger inventoryLedger) {
+        this.hotSkuInventory = hotSkuInventory;
+        this.checkoutAdmissionService = checkoutAdmissionService;
+        this.inventoryLedger = inventoryLedger;
+    }
+
+    @Operation(summary = "List hot SKU products", description = "Products whose available stock is counted in memory, with the current counter values.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved hot SKU products",
+                    content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = HotSkuDto.class)))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @GetMapping("/hot-skus")
+    public ResponseEntity<List<HotSkuDto>> listHotSkus() {
+        return ResponseEntity.ok(hotSkuInventory.list());
+    }
+
+    @Operation(summary = "Switch a product to hot SKU mode",
+               description = "Checkouts for the product are accepted or refused from an in-memory counter and persisted write-behind. " +
+                             "Stock edits for the product are refused while the mode is on. Intended for a single application instance.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Product switched to hot SKU mode",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = HotSkuDto.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "Product is already in hot SKU mode")
+    })
+    @PutMapping("/hot-skus/{productId}")
+    public ResponseEntity<HotSkuDto> enableHotSku(@Parameter(description = "ID of the product") @PathVariable Long productId) {
+        return ResponseEntity.ok(hotSkuInventory.enable(productId));
+    }
+
+    @Operation(summary = "Switch a product back from hot SKU mode",
+               description = "Applies the product's pending stock changes and returns it to database row-lock checkout. Best done after the sale.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Product switched back"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden"),
+            @ApiResponse(responseCode = "404", description = "Product is not in hot SKU mode")
+    })
+    @DeleteMapping("/hot-skus/{productId}")
+    public ResponseEntity<Void> disableHotSku(@Parameter(description = "ID of the product") @PathVariable Long productId) {
+        hotSkuInventory.disable(productId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "List checkout waiting rooms", description = "Products whose checkouts require an admitted queue ticket, with queue sizes.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved waiting rooms",
+                    content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = WaitingRoomDto.class)))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @GetMapping("/waiting-rooms")
+    public ResponseEntity<List<WaitingRoomDto>> listWaitingRooms() {
+        return ResponseEntity.ok(checkoutAdmissionService.list());
+    }
+
+    @Operation(summary = "Open or adjust a product's checkout waiting room",
+               description = "Checkouts of carts containing the product then need an admitted ticket from its queue, which admits buyers at the given rate. " +
+                             "Calling it again for an open room changes the rate and capacity and keeps the queue. Intended for a single application instance.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Waiting room open",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = WaitingRoomDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid rate or capacity"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden"),
+            @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    @PutMapping("/waiting-rooms/{productId}")
+    public ResponseEntity<WaitingRoomDto> openWaitingRoom(
+            @Parameter(description = "ID of the product") @PathVariable Long productId,
+            @Valid @RequestBody(required = false) WaitingRoomRequestDto request) {
+        return ResponseEntity.ok(checkoutAdmissionService.open(productId, request != null ? request : new WaitingRoomRequestDto()));
+    }
+
+    @Operation(summary = "Close a product's checkout waiting room", description = "Checkouts of the product are no longer gated; queued tickets are dropped.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Waiting room closed"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden"),
+            @ApiResponse(responseCode = "404", description = "No waiting room is open for the product")
+    })
+    @DeleteMapping("/waiting-rooms/{productId}")
+    public ResponseEntity<Void> closeWaitingRoom(@Parameter(description = "ID of the product") @PathVariable Long productId) {
+        checkoutAdmissionService.close(productId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Get a product's inventory ledger",
+               description = "Every recorded change of the product's stock quantity with reason and reference, newest first. " +
+                             "Pass the returned nextCursor as 'cursor' to get older entries.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved ledger entries",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid page size"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @GetMapping("/ledger/products/{productId}")
+    public ResponseEntity<CursorPageDto<InventoryLedgerEntryDto>> getLedger(
+            @Parameter(description = "ID of the product") @PathVariable Long productId,
+            @Parameter(description = "nextCursor of the previous page; omit for the newest entries") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Page size (at most 200)", example = "50") @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(inventoryLedger.getHistory(productId, cursor, size));
+    }
+
+    @Operation(summary = "Reconcile stock with the inventory ledger",
+               description = "Compares every product's stock with the sum of its ledger entries, as the nightly job does. " +
+                             "With repair=true, each drift is closed with a RECONCILIATION entry; stock itself is never changed.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reconciliation finished",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = InventoryReconciliationResultDto.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden"),
+            @ApiResponse(responseCode = "409", description = "A reconciliation is already running")
+    })
+    @PostMapping("/ledger/reconcile")
+    public ResponseEntity<InventoryReconciliationResultDto> reconcileLedger(
+            @Parameter(description = "Record RECONCILIATION entries for the drifts found") @RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.ok(inventoryLedger.reconcile(repair));
+    }
+}
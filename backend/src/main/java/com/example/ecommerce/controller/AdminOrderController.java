@@ -1,8 +1,10 @@
 package com.example.ecommerce.controller;
 
 import com.example.ecommerce.dto.OrderDto;
+import com.example.ecommerce.dto.OrderSearchPageDto;
 import com.example.ecommerce.dto.UpdateOrderStatusRequestDto;
 import com.example.ecommerce.entity.OrderStatus;
+import com.example.ecommerce.service.AdminOrderSearchService;
 import com.example.ecommerce.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -32,22 +34,26 @@ import java.time.LocalDate;
 public class AdminOrderController {
 
     private final OrderService orderService;
+    private final AdminOrderSearchService adminOrderSearchService;
 
     @Autowired
-    public AdminOrderController(OrderService orderService) {
+    public AdminOrderController(OrderService orderService, AdminOrderSearchService adminOrderSearchService) {
         this.orderService = orderService;
+        this.adminOrderSearchService = adminOrderSearchService;
     }
 
     @Operation(summary = "List all orders with filters and pagination",
-               description = "Retrieves a paginated list of all orders. Admins can filter by customer username, order status, and date range. Requires ADMIN role.")
+               description = "Retrieves a paginated list of all orders, archived ones included, newest first. Admins can filter by customer username, order status, and date range. Requires ADMIN role. " +
+                             "Offset paging with a full count; the sort parameter is ignored. Prefer /search on large order tables.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved list of orders",
                     content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = Page.class))) // Page<OrderDto> dönecek
+                            schema = @Schema(implementation = Page.class))), // Page<OrderDto> dönecek
+            @ApiResponse(responseCode = "400", description = "Invalid date range or page too deep")
     })
     @GetMapping
     public ResponseEntity<Page<OrderDto>> getAllOrders(
-            @PageableDefault(size = 10, sort = "orderDate,desc") Pageable pageable,
+            @PageableDefault(size = 10) Pageable pageable,
             @Parameter(description = "Filter by customer username (partial match, case-insensitive)", example = "johndoe")
             @RequestParam(required = false) String customerUsername,
             @Parameter(description = "Filter by order status", example = "PENDING")
@@ -56,10 +62,38 @@ public class AdminOrderController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @Parameter(description = "Filter by end date (inclusive, format: YYYY-MM-DD)", example = "2024-12-31")
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        Page<OrderDto> ordersPage = orderService.getAllOrdersForAdmin(pageable, customerUsername, status, startDate, endDate);
+        Page<OrderDto> ordersPage = adminOrderSearchService.list(pageable, customerUsername, status, startDate, endDate);
         return ResponseEntity.ok(ordersPage);
     }
 
+    @Operation(summary = "Search orders (cursor pagination)",
+               description = "Retrieves one page of orders matching the filters, newest first. Pass the returned nextCursor as 'cursor' to get the next page. " +
+                             "The total count is only computed when includeCount=true and stops at a server-side cap. Page size is capped on the server. Requires ADMIN role.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page of orders",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = OrderSearchPageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, page size or date range, or username prefix too broad")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<OrderSearchPageDto> searchOrders(
+            @Parameter(description = "Filter by customer username prefix (case-insensitive)", example = "john")
+            @RequestParam(required = false) String customerUsername,
+            @Parameter(description = "Filter by order status", example = "PENDING")
+            @RequestParam(required = false) OrderStatus status,
+            @Parameter(description = "Filter by start date (inclusive, format: YYYY-MM-DD)", example = "2024-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Filter by end date (inclusive, format: YYYY-MM-DD)", example = "2024-12-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "nextCursor value from the previous page (omit for the first page)")
+            @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Requested page size (capped by the server)")
+            @RequestParam(required = false) Integer size,
+            @Parameter(description = "Also return the (capped) number of matching orders")
+            @RequestParam(defaultValue = "false") boolean includeCount) {
+        return ResponseEntity.ok(adminOrderSearchService.search(customerUsername, status, startDate, endDate,
+                cursor, size, includeCount));
+    }
+
     @Operation(summary = "Get order details by ID for Admin",
                description = "Retrieves all details for a specific order by its ID. Requires ADMIN role.")
     @ApiResponses(value = {
@@ -82,7 +116,7 @@ public class AdminOrderController {
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = OrderDto.class))),
             @ApiResponse(responseCode = "400", description = "Invalid request (e.g., invalid status, trying to cancel via this endpoint)"),
             @ApiResponse(responseCode = "404", description = "Order not found"),
-            @ApiResponse(responseCode = "409", description = "Conflict (e.g., trying to change status of a CANCELED order)")
+            @ApiResponse(responseCode = "409", description = "Conflict (transition from the current status is not allowed, e.g. a CANCELLED or DELIVERED order)")
     })
     @PutMapping("/{orderId}/status")
     public ResponseEntity<OrderDto> updateOrderStatus(
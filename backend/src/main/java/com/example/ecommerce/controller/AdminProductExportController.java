@@ -0,0 +1,59 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.service.ProductExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+@RestController
+@RequestMapping("/api/admin/products")
+@Tag(name = "Admin: Product Export", description = "API endpoints for administrators to export the catalog for downstream feeds")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminProductExportController {
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType APPLICATION_GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final ProductExportService productExportService;
+
+    @Autowired
+    public AdminProductExportController(ProductExportService productExportService) {
+        this.productExportService = productExportService;
+    }
+
+    @Operation(summary = "Export active catalog as NDJSON",
+               description = "Streams every active product as one JSON object per line, in product ID order. " +
+                             "With gzip=true the body is a gzip file (.ndjson.gz).")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export stream"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @GetMapping(value = "/export", produces = {"application/x-ndjson", "application/gzip"})
+    public ResponseEntity<StreamingResponseBody> exportActiveProducts(
+            @Parameter(description = "Compress the export with gzip")
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        String filename = "catalog-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + (gzip ? ".ndjson.gz" : ".ndjson");
+        // Gövde, istek thread'i serbest bırakıldıktan sonra async olarak yazılır
+        StreamingResponseBody body = out -> productExportService.exportActiveProducts(out, gzip);
+        return ResponseEntity.ok()
+                .contentType(gzip ? APPLICATION_GZIP : APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
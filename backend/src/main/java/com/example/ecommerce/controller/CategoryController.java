@@ -18,6 +18,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -29,15 +30,18 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private ConditionalGetSupport conditionalGetSupport;
+
     // GET All Categories
     @Operation(summary = "Get All Categories", security = {})
     @ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Successfully retrieved list",
             content = @Content(mediaType = "application/json",
                     array = @ArraySchema(schema = @Schema(implementation = CategoryDto.class)))) })
     @GetMapping
-    public ResponseEntity<List<CategoryDto>> getAllCategories() {
-        List<CategoryDto> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<List<CategoryDto>> getAllCategories(WebRequest webRequest) {
+        String etag = categoryService.getCategoryListETag();
+        return conditionalGetSupport.respond(webRequest, etag, categoryService::getAllCategories);
     }
 
     // GET Category by ID
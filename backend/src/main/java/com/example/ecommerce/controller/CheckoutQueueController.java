@@ -0,0 +1,88 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.QueueTicketDto;
+import com.example.ecommerce.service.CheckoutAdmissionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/checkout-queue")
+@Tag(name = "Checkout Queue API", description = "Waiting room for checking out high-demand (flash sale) products")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('USER')")
+public class CheckoutQueueController {
+
+    private final CheckoutAdmissionService checkoutAdmissionService;
+
+    @Autowired
+    public CheckoutQueueController(CheckoutAdmissionService checkoutAdmissionService) {
+        this.checkoutAdmissionService = checkoutAdmissionService;
+    }
+
+    private String getCurrentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || !(authentication.getPrincipal() instanceof UserDetails)) {
+            throw new IllegalStateException("User not authenticated or authentication principal is not UserDetails");
+        }
+        return ((UserDetails) authentication.getPrincipal()).getUsername();
+    }
+
+    @Operation(summary = "Join a product's waiting room",
+               description = "Returns a ticket with the buyer's place in the queue. Joining again returns the same ticket. " +
+                             "Once the ticket is ADMITTED, send its ID in the X-Queue-Ticket header of POST /api/orders before admittedUntil.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ticket issued",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = QueueTicketDto.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden"),
+            @ApiResponse(responseCode = "404", description = "No waiting room is open for the product"),
+            @ApiResponse(responseCode = "429", description = "Waiting room is full (see Retry-After)")
+    })
+    @PostMapping("/products/{productId}/tickets")
+    public ResponseEntity<QueueTicketDto> joinQueue(@Parameter(description = "ID of the product") @PathVariable Long productId) {
+        return ResponseEntity.ok(checkoutAdmissionService.join(productId, getCurrentUsername()));
+    }
+
+    @Operation(summary = "Get a queue ticket's status",
+               description = "Position and estimated wait while WAITING. Poll again after pollAfterSeconds; tickets that are not polled are dropped.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ticket status",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = QueueTicketDto.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Ticket belongs to another user"),
+            @ApiResponse(responseCode = "404", description = "Ticket not found or no longer valid")
+    })
+    @GetMapping("/tickets/{ticketId}")
+    public ResponseEntity<QueueTicketDto> getTicket(@Parameter(description = "ID of the ticket") @PathVariable String ticketId) {
+        return ResponseEntity.ok(checkoutAdmissionService.getTicket(ticketId, getCurrentUsername()));
+    }
+
+    @Operation(summary = "Stream a queue ticket's status",
+               description = "Server-sent 'ticket' events with the same body as the status endpoint, about once a second while WAITING. " +
+                             "The stream ends after the ADMITTED or EXPIRED event.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream", content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Ticket belongs to another user"),
+            @ApiResponse(responseCode = "404", description = "Ticket not found or no longer valid")
+    })
+    @GetMapping(value = "/tickets/{ticketId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTicket(@Parameter(description = "ID of the ticket") @PathVariable String ticketId) {
+        return checkoutAdmissionService.stream(ticketId, getCurrentUsername());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.ecommerce.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Shared ETag / {@code Cache-Control} handling for the public catalog GET endpoints.
+ * <p>
+ * The caller computes a cheap ETag first (usually from row count and latest {@code updatedAt});
+ * when it matches {@code If-None-Match} a bodyless 304 is returned and the body supplier is never called,
+ * so neither the data load nor the JSON serialization happens.
+ * Anonymous responses are {@code public} so shared caches/CDNs may store them; authenticated ones are
+ * {@code private}. {@code Vary: Authorization} keeps the two apart.
+ */
+@Component
+public class ConditionalGetSupport {
+
+    @Value("${app.http.cache.public-max-age-seconds:30}")
+    private long publicMaxAgeSeconds;
+
+    public <T> ResponseEntity<T> respond(WebRequest request, String etag, Supplier<T> body) {
+        CacheControl cacheControl = isAnonymous()
+                ? CacheControl.maxAge(publicMaxAgeSeconds, TimeUnit.SECONDS).cachePublic().mustRevalidate()
+                : CacheControl.noCache().cachePrivate();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.AUTHORIZATION)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .body(body.get());
+    }
+
+    private boolean isAnonymous() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken || !authentication.isAuthenticated();
+    }
+}
@@ -2,10 +2,16 @@ package com.example.ecommerce.controller;
 
 import com.example.ecommerce.dto.*;
 import com.example.ecommerce.exception.ResourceNotFoundException;
+import com.example.ecommerce.service.AsyncCheckoutService;
+import com.example.ecommerce.service.CheckoutAdmissionService;
+import com.example.ecommerce.service.IdempotencyService;
 import com.example.ecommerce.service.OrderService;
+import com.example.ecommerce.service.OrderStatusTransitionService;
+import com.example.ecommerce.service.SellerOrderFeedService;
 import com.stripe.exception.StripeException;
 import org.springframework.security.access.AccessDeniedException;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -16,6 +22,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -40,6 +47,21 @@ public class OrderController {
         @Autowired
         private OrderService orderService;
 
+        @Autowired
+        private CheckoutAdmissionService checkoutAdmissionService;
+
+        @Autowired
+        private IdempotencyService idempotencyService;
+
+        @Autowired
+        private AsyncCheckoutService asyncCheckoutService;
+
+        @Autowired
+        private SellerOrderFeedService sellerOrderFeedService;
+
+        @Autowired
+        private OrderStatusTransitionService orderStatusTransitionService;
+
         private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
 
         private String getCurrentUsername() {
@@ -61,20 +83,82 @@ public class OrderController {
                         @ApiResponse(responseCode = "400", description = "Invalid input (e.g., empty cart, invalid address ID, insufficient stock)", content = @Content),
                         @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
                         @ApiResponse(responseCode = "403", description = "Forbidden (User is not ROLE_USER or address doesn't belong to user)", content = @Content),
-                        @ApiResponse(responseCode = "404", description = "Shipping address or Product not found", content = @Content) })
+                        @ApiResponse(responseCode = "404", description = "Shipping address or Product not found", content = @Content),
+                        @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still being processed", content = @Content),
+                        @ApiResponse(responseCode = "429", description = "Cart contains a waiting-room product and no admitted queue ticket was sent, or too many such checkouts are running (see Retry-After)", content = @Content) })
         @PostMapping
         @PreAuthorize("hasAuthority('ROLE_USER')")
         public ResponseEntity<OrderDto> createOrder(
-                        @Valid @org.springframework.web.bind.annotation.RequestBody CreateOrderRequestDto requestDto) {
-                OrderDto createdOrder = orderService.createOrder(requestDto);
+                        @Valid @org.springframework.web.bind.annotation.RequestBody CreateOrderRequestDto requestDto,
+                        @Parameter(description = "Admitted waiting room ticket IDs, one per high-demand product in the cart")
+                        @RequestHeader(value = "X-Queue-Ticket", required = false) List<String> queueTickets,
+                        @Parameter(description = "Client-generated unique key; retries with the same key return the first order instead of creating a new one")
+                        @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+                String username = getCurrentUsername();
+                // Tekrarlanan istek bekleme odasına hiç girmez; bilet ilk istekte zaten kullanılmıştır
+                IdempotencyService.Result<OrderDto> result = idempotencyService.execute(username, idempotencyKey,
+                                "POST /api/orders", requestDto, OrderDto.class,
+                                () -> checkoutAdmissionService.checkout(username, queueTickets,
+                                                () -> orderService.createOrder(requestDto)));
+                OrderDto createdOrder = result.getBody();
                 URI location = ServletUriComponentsBuilder
                                 .fromCurrentRequest().path("/{id}")
                                 .buildAndExpand(createdOrder.getId()).toUri();
-                return ResponseEntity.created(location).body(createdOrder);
+                return markReplayed(ResponseEntity.created(location), result).body(createdOrder);
+        }
+
+        private static ResponseEntity.BodyBuilder markReplayed(ResponseEntity.BodyBuilder builder,
+                        IdempotencyService.Result<?> result) {
+                return result.isReplayed() ? builder.header(IdempotencyService.REPLAYED_HEADER, "true") : builder;
+        }
+
+        // POST /api/orders/async
+        @Operation(summary = "Create a new order from cart asynchronously", description = "Validates the request and queues the checkout. Returns 202 with a checkout reference; poll GET /api/orders/checkouts/{reference} until it is COMPLETED (orderId set) or FAILED. Requires USER role.")
+        @RequestBody(description = "Request containing the ID of the shipping address to use", required = true, content = @Content(schema = @Schema(implementation = CreateOrderRequestDto.class)))
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "202", description = "Checkout queued", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CheckoutStatusDto.class))),
+                        @ApiResponse(responseCode = "400", description = "Empty cart or invalid input", content = @Content),
+                        @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
+                        @ApiResponse(responseCode = "403", description = "Forbidden (User is not ROLE_USER or address doesn't belong to user)", content = @Content),
+                        @ApiResponse(responseCode = "404", description = "Shipping address not found", content = @Content),
+                        @ApiResponse(responseCode = "429", description = "Checkout queue is full (see Retry-After)", content = @Content) })
+        @PostMapping("/async")
+        @PreAuthorize("hasAuthority('ROLE_USER')")
+        public ResponseEntity<CheckoutStatusDto> createOrderAsync(
+                        @Valid @org.springframework.web.bind.annotation.RequestBody CreateOrderRequestDto requestDto,
+                        @Parameter(description = "Admitted waiting room ticket IDs, one per high-demand product in the cart")
+                        @RequestHeader(value = "X-Queue-Ticket", required = false) List<String> queueTickets,
+                        @Parameter(description = "Client-generated unique key; retries with the same key return the first checkout and its current state until it fails")
+                        @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+                String username = getCurrentUsername();
+                // Anahtar, checkout'un kendisiyle eşlenir: FAILED olan checkout aynı anahtarla yeniden denenebilir
+                IdempotencyService.Result<CheckoutStatusDto> result = asyncCheckoutService.submit(username, idempotencyKey,
+                                requestDto, queueTickets);
+                CheckoutStatusDto checkout = result.getBody();
+                URI location = ServletUriComponentsBuilder
+                                .fromCurrentContextPath().path("/api/orders/checkouts/{reference}")
+                                .buildAndExpand(checkout.getReference()).toUri();
+                return markReplayed(ResponseEntity.accepted(), result)
+                                .location(location)
+                                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, checkout.getPollAfterSeconds())))
+                                .body(checkout);
+        }
+
+        // GET /api/orders/checkouts/{reference}
+        @Operation(summary = "Get Asynchronous Checkout Status", description = "Returns the state of a checkout started with POST /api/orders/async. Finished checkouts are kept for a limited time.")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Checkout state", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CheckoutStatusDto.class))),
+                        @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
+                        @ApiResponse(responseCode = "403", description = "Checkout belongs to another user", content = @Content),
+                        @ApiResponse(responseCode = "404", description = "Unknown or expired checkout reference", content = @Content) })
+        @GetMapping("/checkouts/{reference}")
+        @PreAuthorize("isAuthenticated()")
+        public ResponseEntity<CheckoutStatusDto> getCheckoutStatus(@PathVariable String reference) {
+                return ResponseEntity.ok(asyncCheckoutService.getStatus(getCurrentUsername(), reference));
         }
 
         // GET /api/orders/my-orders
-        @Operation(summary = "Get My Orders", description = "Retrieves all orders placed by the currently authenticated user.") // Corrected
+        @Operation(summary = "Get My Orders", description = "Retrieves the newest orders placed by the currently authenticated user, up to a server-side cap. Use /my-orders/page to reach older orders.") // Corrected
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Successfully retrieved orders", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = OrderDto.class)))), // Corrected
                         @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content) })
@@ -85,6 +169,24 @@ public class OrderController {
                 return ResponseEntity.ok(orders);
         }
 
+        // GET /api/orders/my-orders/page (cursor/keyset pagination)
+        @Operation(summary = "Get My Orders Page (cursor pagination)", description = "Retrieves one page of the current user's orders, newest first. Returns OrderSummaryDto items (no items or address) by default; with details=true returns full OrderDto items. Pass the returned nextCursor as 'cursor' to get the next page. Page size is capped on the server.")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Successfully retrieved page of orders", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPageDto.class))),
+                        @ApiResponse(responseCode = "400", description = "Invalid page size", content = @Content),
+                        @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content) })
+        @GetMapping("/my-orders/page")
+        @PreAuthorize("isAuthenticated()")
+        public ResponseEntity<CursorPageDto<?>> getMyOrdersPage(
+                        @Parameter(description = "nextCursor value from the previous page (omit for the first page)")
+                        @RequestParam(required = false) Long cursor,
+                        @Parameter(description = "Requested page size (capped by the server)")
+                        @RequestParam(required = false) Integer size,
+                        @Parameter(description = "Return full orders with items and shipping address instead of summaries")
+                        @RequestParam(defaultValue = "false") boolean details) {
+                return ResponseEntity.ok(orderService.getMyOrdersPage(cursor, size, details));
+        }
+
         @Operation(summary = "Cancel an Entire Order (Admin/Owner)", description = "Admins can cancel any order (full refund if applicable). Owners can cancel their PENDING/PREPARING orders (no refund via this endpoint).")
         @ApiResponses(value = {
         // ... (uygun response'lar) ...
@@ -122,7 +224,7 @@ public class OrderController {
         }
 
         // GET /api/orders/seller
-        @Operation(summary = "Get Orders for Seller's Products", description = "Retrieves orders containing products sold by the currently authenticated seller.") // Corrected
+        @Operation(summary = "Get Orders for Seller's Products", description = "Retrieves all orders containing products sold by the currently authenticated seller, newest first. Each order lists only the seller's items and the seller's subtotal. Prefer /seller/page for large sellers.") // Corrected
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Successfully retrieved orders", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = OrderDto.class)))), // Corrected
                         @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
@@ -130,10 +232,27 @@ public class OrderController {
         @GetMapping("/seller")
         @PreAuthorize("hasRole('SELLER')")
         public ResponseEntity<List<OrderDto>> getOrdersForMyProducts() {
-                List<OrderDto> orders = orderService.getOrdersForSeller();
+                List<OrderDto> orders = sellerOrderFeedService.getAllSellerOrders(getCurrentUsername());
                 return ResponseEntity.ok(orders);
         }
 
+        // GET /api/orders/seller/page (cursor/keyset pagination)
+        @Operation(summary = "Get Seller Orders Page (cursor pagination)", description = "Retrieves one page of orders containing the seller's products, newest first. Each order lists only the seller's items and the seller's subtotal. Pass the returned nextCursor as 'cursor' to get the next page. Page size is capped on the server.")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Successfully retrieved page of orders", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPageDto.class))),
+                        @ApiResponse(responseCode = "400", description = "Invalid cursor or page size", content = @Content),
+                        @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
+                        @ApiResponse(responseCode = "403", description = "Forbidden (User is not a SELLER)", content = @Content) })
+        @GetMapping("/seller/page")
+        @PreAuthorize("hasRole('SELLER')")
+        public ResponseEntity<CursorPageDto<OrderDto>> getOrdersForMyProductsPage(
+                        @Parameter(description = "nextCursor value from the previous page (omit for the first page)")
+                        @RequestParam(required = false) Long cursor,
+                        @Parameter(description = "Requested page size (capped by the server)")
+                        @RequestParam(required = false) Integer size) {
+                return ResponseEntity.ok(sellerOrderFeedService.getSellerOrders(getCurrentUsername(), cursor, size));
+        }
+
         // GET /api/orders/{id}
         @Operation(summary = "Get Order by ID", description = "Retrieves a specific order by its ID. Accessible only by the owner or an admin.") // Corrected
         @ApiResponses(value = {
@@ -149,14 +268,15 @@ public class OrderController {
         }
 
         // PATCH /api/orders/{id}/status
-        @Operation(summary = "Update Order Status (Admin/Seller)", description = "Updates the status of a specific order (excludes cancellation). Requires ADMIN or SELLER role (seller must own a product in the order). Use /cancel endpoint for cancellations.") // Corrected
+        @Operation(summary = "Update Order Status (Admin/Seller)", description = "Updates the status of a specific order (excludes cancellation). Requires ADMIN or SELLER role (seller must own a product in the order). Use /cancel endpoint for cancellations. Use /bulk-status for many orders.") // Corrected
         @RequestBody(description = "New status for the order", required = true, content = @Content(schema = @Schema(implementation = UpdateOrderStatusRequestDto.class)))
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Order status updated successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = OrderDto.class))), // Corrected
                         @ApiResponse(responseCode = "400", description = "Invalid input data (e.g., invalid status)", content = @Content),
                         @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
                         @ApiResponse(responseCode = "403", description = "Forbidden (User not authorized to update status)", content = @Content),
-                        @ApiResponse(responseCode = "404", description = "Order not found", content = @Content) })
+                        @ApiResponse(responseCode = "404", description = "Order not found", content = @Content),
+                        @ApiResponse(responseCode = "409", description = "Transition from the current status is not allowed", content = @Content) })
         @PatchMapping("/{id}/status")
         @PreAuthorize("hasAnyRole('ADMIN', 'SELLER')")
         public ResponseEntity<OrderDto> updateOrderStatus(
@@ -166,6 +286,21 @@ public class OrderController {
                 return ResponseEntity.ok(updatedOrder);
         }
 
+        // PATCH /api/orders/bulk-status
+        @Operation(summary = "Bulk Update Order Status (Admin/Seller)", description = "Moves many orders to the same status in one request (excludes cancellation). Sellers may only update orders containing their products and only to PREPARING, SHIPPED or DELIVERED. Orders that cannot be updated (not found, not allowed, invalid transition) are skipped and reported; the others are still updated.")
+        @RequestBody(description = "Order IDs and their new status", required = true, content = @Content(schema = @Schema(implementation = BulkOrderStatusUpdateRequestDto.class)))
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Request processed; see results for the outcome of each order", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkOrderStatusUpdateResultDto.class))),
+                        @ApiResponse(responseCode = "400", description = "Invalid input, CANCELLED as target or too many orders", content = @Content),
+                        @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
+                        @ApiResponse(responseCode = "403", description = "Forbidden (User is not ADMIN or SELLER)", content = @Content) })
+        @PatchMapping("/bulk-status")
+        @PreAuthorize("hasAnyRole('ADMIN', 'SELLER')")
+        public ResponseEntity<BulkOrderStatusUpdateResultDto> bulkUpdateOrderStatus(
+                        @Valid @org.springframework.web.bind.annotation.RequestBody BulkOrderStatusUpdateRequestDto requestDto) {
+                return ResponseEntity.ok(orderStatusTransitionService.updateStatuses(requestDto.getOrderIds(), requestDto.getNewStatus()));
+        }
+
         @Operation(summary = "Create Stripe Payment Intent")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Payment Intent created successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = PaymentIntentDto.class))),
@@ -179,10 +314,14 @@ public class OrderController {
         })
         @PostMapping("/{id}/create-payment-intent")
         @PreAuthorize("isAuthenticated()")
-        public ResponseEntity<?> createPaymentIntentForOrder(@PathVariable Long id) {
+        public ResponseEntity<?> createPaymentIntentForOrder(@PathVariable Long id,
+                        @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
                 try {
-                        PaymentIntentDto paymentIntentDto = orderService.createPaymentIntent(id);
-                        return ResponseEntity.ok(paymentIntentDto);
+                        IdempotencyService.Result<PaymentIntentDto> result = idempotencyService.execute(
+                                        getCurrentUsername(), idempotencyKey,
+                                        "POST /api/orders/" + id + "/create-payment-intent", null, PaymentIntentDto.class,
+                                        () -> orderService.createPaymentIntent(id, idempotencyKey));
+                        return markReplayed(ResponseEntity.ok(), result).body(result.getBody());
                 } catch (StripeException e) {
                         logger.error("Stripe error creating PaymentIntent for order {}: {}", id, e.getMessage());
                         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -198,6 +337,9 @@ public class OrderController {
                 } catch (IllegalStateException e) {
                         logger.warn("Failed to create payment intent for order {}: {}", id, e.getMessage());
                         return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage()); // Return 409
+                } catch (IllegalArgumentException e) { // Geçersiz ya da başka istekte kullanılmış Idempotency-Key
+                        logger.warn("Failed to create payment intent for order {}: {}", id, e.getMessage());
+                        return ResponseEntity.badRequest().body(e.getMessage()); // Return 400
                 }
                 // === DÜZELTME SONU ===
                 catch (Exception e) { // Diğer beklenmedik hatalar
@@ -1,8 +1,20 @@
 package com.example.ecommerce.controller;
 
+import com.example.ecommerce.dto.CursorPageDto;
+import com.example.ecommerce.dto.ProductBatchResponseDto;
+import com.example.ecommerce.dto.ProductBulkUpdateRequestDto;
+import com.example.ecommerce.dto.ProductBulkUpdateResultDto;
 import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.dto.ProductFilterResultDto;
+import com.example.ecommerce.dto.ProductImportResultDto;
 import com.example.ecommerce.dto.ProductRequestDto; // Use the new combined DTO
+import com.example.ecommerce.dto.ProductSuggestionsDto;
+import com.example.ecommerce.dto.VersionStampDto;
+import com.example.ecommerce.service.ProductFacetService;
+import com.example.ecommerce.service.ProductImportService;
+import com.example.ecommerce.service.ProductSearchService;
 import com.example.ecommerce.service.ProductService;
+import com.example.ecommerce.service.ProductSuggestService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -16,14 +28,23 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*; // Use wildcard
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/products")
@@ -32,10 +53,22 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
+    private final ProductFacetService productFacetService;
+    private final ProductImportService productImportService;
+    private final ProductSuggestService productSuggestService;
+    private final ConditionalGetSupport conditionalGetSupport;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductSearchService productSearchService,
+                             ProductFacetService productFacetService, ProductImportService productImportService,
+                             ProductSuggestService productSuggestService, ConditionalGetSupport conditionalGetSupport) {
         this.productService = productService;
+        this.productSearchService = productSearchService;
+        this.productFacetService = productFacetService;
+        this.productImportService = productImportService;
+        this.productSuggestService = productSuggestService;
+        this.conditionalGetSupport = conditionalGetSupport;
     }
 
     // GET All Products (Optionally filtered by categoryId)
@@ -51,8 +84,8 @@ public class ProductController {
     public ResponseEntity<List<ProductDto>> getAllProducts(
             @Parameter(description = "Optional Category ID to filter products")
             @RequestParam(required = false) Long categoryId,
-            org.springframework.security.core.Authentication authentication) {
-        List<ProductDto> products;
+            org.springframework.security.core.Authentication authentication,
+            WebRequest webRequest) {
 
         boolean isAdmin = false;
         if (authentication != null && authentication.getAuthorities().stream()
@@ -60,23 +93,114 @@ public class ProductController {
             isAdmin = true;
         }
 
-        if (categoryId != null) {
-            // Kategori filtresi varsa, admin olup olmamasına bakılmaksızın kategoriye göre ürünler getirilir.
-            // Bu kısım daha da geliştirilebilir: admin kategoriye göre tümünü, kullanıcı sadece aktifleri.
-            // Şimdilik basit tutalım: Kategori filtresi varsa, productService.getProductsByCategoryId çağırılır (bu sadece aktifleri döner).
-            // Admin için kategoriye göre tüm ürünleri getiren ayrı bir servis metodu daha iyi olabilir.
-            // VEYA getProductsByCategoryId(Long categoryId, boolean includeInactive) şeklinde bir parametre alabilir.
-            // Şimdilik mevcut public metodu kullanalım, bu sadece aktifleri getirir.
-            // TODO: Admin için kategoriye göre tüm ürünleri (aktif/pasif) getirme özelliği eklenebilir.
-            products = productService.getProductsByCategoryId(categoryId); 
-        } else {
-            if (isAdmin) {
-                products = productService.getAllProductsForAdmin(); // Admin tüm ürünleri görür
-            } else {
-                products = productService.getAllProducts(); // Normal kullanıcı sadece aktif ürünleri görür
+        boolean includeInactive = isAdmin && categoryId == null;
+        // Önce ucuz versiyon sorgusu; ETag eşleşirse ürünler hiç yüklenmeden 304 döner
+        String etag = productService.getProductListETag(categoryId, includeInactive);
+        return conditionalGetSupport.respond(webRequest, etag, () -> {
+            if (categoryId != null) {
+                // Kategori filtresi varsa, admin olup olmamasına bakılmaksızın kategoriye göre ürünler getirilir (sadece aktifler).
+                // TODO: Admin için kategoriye göre tüm ürünleri (aktif/pasif) getirme özelliği eklenebilir.
+                return productService.getProductsByCategoryId(categoryId);
             }
-        }
-        return ResponseEntity.ok(products);
+            return includeInactive
+                    ? productService.getAllProductsForAdmin() // Admin tüm ürünleri görür
+                    : productService.getAllProducts(); // Normal kullanıcı sadece aktif ürünleri görür
+        });
+    }
+
+    // GET Products page (cursor/keyset pagination)
+    @Operation(summary = "Get Products Page (cursor pagination)",
+               description = "Retrieves one page of products ordered by ID. Pass the returned nextCursor as 'cursor' to get the next page. " +
+                             "Page size is capped on the server. Can be filtered by categoryId.",
+               security = {})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page of products",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid page size", content = @Content)
+    })
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDto<ProductDto>> getProductsPage(
+            @Parameter(description = "Optional Category ID to filter products")
+            @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "nextCursor value from the previous page (omit for the first page)")
+            @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Requested page size (capped by the server)")
+            @RequestParam(required = false) Integer size,
+            org.springframework.security.core.Authentication authentication) {
+        boolean isAdmin = authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+        CursorPageDto<ProductDto> page = productService.getProductsPage(categoryId, cursor, size, isAdmin);
+        return ResponseEntity.ok(page);
+    }
+
+    // GET Autocomplete suggestions
+    @Operation(summary = "Suggest Products and Categories",
+               description = "Search-as-you-type suggestions: active product names and category names that start with the typed prefix " +
+                             "(or have a later word that does), most popular first. Matching ignores case and Turkish diacritics (I/ı/İ/i, ç, ğ, ö, ş, ü).",
+               security = {})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved suggestions",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductSuggestionsDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit", content = @Content)
+    })
+    @GetMapping("/suggest")
+    public ResponseEntity<ProductSuggestionsDto> suggestProducts(
+            @Parameter(description = "What the user has typed so far", example = "ışık")
+            @RequestParam(required = false) String prefix,
+            @Parameter(description = "Maximum suggestions per list (capped at 10)")
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productSuggestService.suggest(prefix, limit));
+    }
+
+    // GET Full-text product search
+    @Operation(summary = "Search Products",
+               description = "Full-text search over active products' name, description and category name. " +
+                             "All terms must match; the last term also matches as a prefix. Results are ranked by relevance.",
+               security = {})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved search results",
+                         content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "400", description = "Empty query or invalid paging parameters", content = @Content)
+    })
+    @GetMapping("/search")
+    public ResponseEntity<Page<ProductDto>> searchProducts(
+            @Parameter(description = "Search text", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Zero-based page number")
+            @RequestParam(required = false) Integer page,
+            @Parameter(description = "Requested page size (capped by the server)")
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(productSearchService.search(q, page, size));
+    }
+
+    // GET Faceted product filter
+    @Operation(summary = "Filter Products with Facets",
+               description = "Filters active products by any combination of categories (OR), price range, minimum rating and stock. " +
+                             "Returns a cursor paginated page plus facet counts; each facet's counts are computed with all other filters applied.",
+               security = {})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully filtered products",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductFilterResultDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid filter or paging parameters", content = @Content)
+    })
+    @GetMapping("/filter")
+    public ResponseEntity<ProductFilterResultDto> filterProducts(
+            @Parameter(description = "Category IDs to include (repeat the parameter for several categories)")
+            @RequestParam(required = false) Set<Long> categoryId,
+            @Parameter(description = "Minimum price (inclusive)")
+            @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Maximum price (inclusive)")
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Minimum average rating in stars (1-5)")
+            @RequestParam(required = false) Integer minRating,
+            @Parameter(description = "Only products with stock > 0")
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @Parameter(description = "nextCursor value from the previous page (omit for the first page)")
+            @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Requested page size (capped by the server)")
+            @RequestParam(required = false) Integer size) {
+        ProductFilterResultDto result = productFacetService.filter(categoryId, minPrice, maxPrice, minRating, inStock, cursor, size);
+        return ResponseEntity.ok(result);
     }
 
     // GET Product by ID
@@ -85,34 +209,34 @@ public class ProductController {
             @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductDto.class))),
             @ApiResponse(responseCode = "404", description = "Product not found", content = @Content) })
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDto> getProductById(@Parameter(description = "ID of product to retrieve") @PathVariable Long id) {
+    public ResponseEntity<ProductDto> getProductById(@Parameter(description = "ID of product to retrieve") @PathVariable Long id,
+                                                     WebRequest webRequest) {
         ProductDto productDto = productService.getProductById(id);
-        return ResponseEntity.ok(productDto);
+        String etag = VersionStampDto.toETag("product-" + id, productDto.getUpdatedAt());
+        return conditionalGetSupport.respond(webRequest, etag, () -> productDto);
     }
 
-    // DTO for batch IDs
+    // POST multi-get by IDs
     @Operation(
         summary = "Get Multiple Products by their IDs",
-        description = "Retrieves a list of products based on a provided list of product IDs. Publicly accessible."
+        description = "Retrieves products for a list of IDs. Duplicate IDs are ignored, products are returned in request order " +
+                      "and IDs without a product are listed in missingIds. The number of distinct IDs per request is capped. Publicly accessible."
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Successfully retrieved list of products",
-            content = @Content(mediaType = "application/json",
-                array = @ArraySchema(schema = @Schema(implementation = ProductDto.class)))),
-        @ApiResponse(responseCode = "400", description = "Request body is empty or invalid")
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved products",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductBatchResponseDto.class))),
+        @ApiResponse(responseCode = "400", description = "Request body is empty or has too many IDs")
     })
     @PostMapping("/batch")
-    public ResponseEntity<List<ProductDto>> getProductsByIds(
-        @RequestBody IdsRequest request) {
+    public ResponseEntity<ProductBatchResponseDto> getProductsByIds(
+        @org.springframework.web.bind.annotation.RequestBody IdsRequest request) {
         List<Long> ids = request.getIds();
         if (ids == null || ids.isEmpty()) {
-            return ResponseEntity.badRequest().body(Collections.emptyList());
+            return ResponseEntity.badRequest().body(new ProductBatchResponseDto(Collections.emptyList(), Collections.emptyList()));
         }
-        List<ProductDto> products = productService.getProductsByIds(ids);
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(productService.getProductBatch(ids));
     }
 
-    // DTO for batch IDs
     public static class IdsRequest {
         @Schema(description = "List of product IDs", example = "[1,2,3]")
         private List<Long> ids;
@@ -153,6 +277,27 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    // GET Products by Seller Username (cursor/keyset pagination)
+    @Operation(summary = "Get Active Products Page by Seller Username",
+               description = "Retrieves one page of active products for a seller, ordered by ID. Pass the returned nextCursor as 'cursor' to get the next page.",
+               security = {}) // Public endpoint
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page of products",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid page size", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Seller not found")
+    })
+    @GetMapping("/by-seller/{username}/page")
+    public ResponseEntity<CursorPageDto<ProductDto>> getProductsBySellerUsernamePage(
+            @Parameter(description = "Username of the seller") @PathVariable String username,
+            @Parameter(description = "nextCursor value from the previous page (omit for the first page)")
+            @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Requested page size (capped by the server)")
+            @RequestParam(required = false) Integer size) {
+        CursorPageDto<ProductDto> page = productService.getProductsBySellerUsernamePage(username, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
     // CREATE Product
     @Operation(summary = "Create a New Product")
     @RequestBody(description = "Product data to create", required = true, content = @Content(schema = @Schema(implementation = ProductRequestDto.class))) // Use Save DTO
@@ -171,6 +316,51 @@ public class ProductController {
         return ResponseEntity.created(location).body(createdProductDto);
     }
 
+    // BULK UPDATE price/stock
+    @Operation(summary = "Bulk Update Product Prices and Stock",
+               description = "Applies partial price and/or stock changes to many products in one request. " +
+                             "Sellers may only change their own products; unknown and foreign product IDs are skipped and listed in the result.")
+    @RequestBody(description = "Changes to apply", required = true, content = @Content(schema = @Schema(implementation = ProductBulkUpdateRequestDto.class)))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changes applied",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductBulkUpdateResultDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid items, duplicate IDs or too many items"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden"),
+            @ApiResponse(responseCode = "409", description = "Stock of a product is in hot SKU mode or below the quantity reserved by unpaid orders")})
+    @PatchMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SELLER')")
+    public ResponseEntity<ProductBulkUpdateResultDto> bulkUpdateProducts(
+            @Valid @org.springframework.web.bind.annotation.RequestBody ProductBulkUpdateRequestDto requestDto) {
+        return ResponseEntity.ok(productService.bulkUpdateProducts(requestDto.getItems()));
+    }
+
+    // BULK IMPORT Products
+    @Operation(summary = "Bulk Import Products",
+               description = "Streams a CSV (text/csv, with header row) or NDJSON (application/x-ndjson) upload and creates one product per row. " +
+                             "Columns/fields: name, description, price, stockQuantity, categoryId or categoryName, imageUrl. " +
+                             "Invalid rows are skipped and reported with their line number; valid rows are still imported.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished (see failedCount/errors for rejected rows)",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductImportResultDto.class))),
+            @ApiResponse(responseCode = "400", description = "Empty file, missing CSV columns or sellerId missing for Admin"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")})
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SELLER')")
+    public ResponseEntity<ProductImportResultDto> importProducts(
+            @Parameter(description = "Seller to import for (required for Admin, ignored for Seller's own import)")
+            @RequestParam(required = false) Long sellerId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException { // Gövde belleğe alınmadan satır satır okunur
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        ProductImportResultDto result = productImportService.importProducts(body,
+                ProductImportService.Format.fromMediaType(mediaType),
+                mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8,
+                sellerId);
+        return ResponseEntity.ok(result);
+    }
+
     // UPDATE Product
     @Operation(summary = "Update an Existing Product")
     @RequestBody(description = "Updated product data", required = true, content = @Content(schema = @Schema(implementation = ProductRequestDto.class))) // Use Save DTO
@@ -179,7 +369,8 @@ public class ProductController {
             @ApiResponse(responseCode = "400", description = "Invalid input data"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "403", description = "Forbidden"),
-            @ApiResponse(responseCode = "404", description = "Product not found")})
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "Stock is in hot SKU mode or below the quantity reserved by unpaid orders")})
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('SELLER') and @productSecurityService.isOwner(principal, #id)")
     public ResponseEntity<ProductDto> updateProduct(
@@ -26,16 +26,19 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @Tag(name = "Product Review API", description = "API endpoints for managing product reviews and ratings")
 public class ReviewController {
 
     private final ReviewService reviewService;
+    private final ConditionalGetSupport conditionalGetSupport;
 
     @Autowired
-    public ReviewController(ReviewService reviewService) {
+    public ReviewController(ReviewService reviewService, ConditionalGetSupport conditionalGetSupport) {
         this.reviewService = reviewService;
+        this.conditionalGetSupport = conditionalGetSupport;
     }
 
     @Operation(summary = "Create a new review for a product",
@@ -71,7 +74,8 @@ public class ReviewController {
     @GetMapping("/api/products/{productId}/reviews")
     public ResponseEntity<Page<ReviewDto>> getReviewsForProduct(
             @Parameter(description = "ID of the product whose reviews are to be retrieved", required = true) @PathVariable Long productId,
-            @PageableDefault(size = 5, sort = "reviewDate", direction = Sort.Direction.DESC) Pageable pageable) {
+            @PageableDefault(size = 5, sort = "reviewDate", direction = Sort.Direction.DESC) Pageable pageable,
+            WebRequest webRequest) {
 
         Sort effectiveSort;
         Sort requestedSort = pageable.getSort();
@@ -87,8 +91,9 @@ public class ReviewController {
 
         Pageable effectivePageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), effectiveSort);
 
-        Page<ReviewDto> reviewsPage = reviewService.getReviewsForProduct(productId, effectivePageable);
-        return ResponseEntity.ok(reviewsPage);
+        String etag = reviewService.getReviewsETag(productId, effectivePageable);
+        return conditionalGetSupport.respond(webRequest, etag,
+                () -> reviewService.getReviewsForProduct(productId, effectivePageable));
     }
 
     @Operation(summary = "Update an existing review",
@@ -0,0 +1,25 @@
+package com.example.ecommerce.dto;
+
+import com.example.ecommerce.entity.OrderStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+@Schema(description = "Moves many orders to the same status")
+public class BulkOrderStatusUpdateRequestDto {
+
+    @Schema(description = "IDs of the orders to update; duplicates are ignored", requiredMode = Schema.RequiredMode.REQUIRED, example = "[101, 102, 103]")
+    @NotEmpty(message = "Order IDs cannot be empty")
+    private List<@NotNull Long> orderIds;
+
+    @Schema(description = "The new status for all given orders", requiredMode = Schema.RequiredMode.REQUIRED, example = "SHIPPED")
+    @NotNull(message = "New status cannot be null")
+    private OrderStatus newStatus;
+
+    // Getters & Setters
+    public List<Long> getOrderIds() { return orderIds; }
+    public void setOrderIds(List<Long> orderIds) { this.orderIds = orderIds; }
+    public OrderStatus getNewStatus() { return newStatus; }
+    public void setNewStatus(OrderStatus newStatus) { this.newStatus = newStatus; }
+}
@@ -0,0 +1,33 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Summary and per-order outcome of a bulk status change")
+public class BulkOrderStatusUpdateResultDto {
+
+    @Schema(description = "Number of distinct order IDs in the request", example = "1000")
+    private int requestedCount;
+
+    @Schema(description = "Number of orders whose status was changed", example = "996")
+    private int updatedCount;
+
+    @Schema(description = "Outcome for every requested order, in request order")
+    private List<OrderStatusUpdateResultDto> results;
+
+    public BulkOrderStatusUpdateResultDto() {}
+
+    public BulkOrderStatusUpdateResultDto(int requestedCount, int updatedCount, List<OrderStatusUpdateResultDto> results) {
+        this.requestedCount = requestedCount;
+        this.updatedCount = updatedCount;
+        this.results = results;
+    }
+
+    // Getters & Setters
+    public int getRequestedCount() { return requestedCount; }
+    public void setRequestedCount(int requestedCount) { this.requestedCount = requestedCount; }
+    public int getUpdatedCount() { return updatedCount; }
+    public void setUpdatedCount(int updatedCount) { this.updatedCount = updatedCount; }
+    public List<OrderStatusUpdateResultDto> getResults() { return results; }
+    public void setResults(List<OrderStatusUpdateResultDto> results) { this.results = results; }
+}
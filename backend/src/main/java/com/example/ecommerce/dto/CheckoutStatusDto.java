@@ -0,0 +1,58 @@
+package com.example.ecommerce.dto;
+
+import com.example.ecommerce.checkout.CheckoutJobStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "State of an asynchronous checkout")
+public class CheckoutStatusDto {
+
+    @Schema(description = "Checkout reference returned by POST /api/orders/async", example = "3f0c9a52-5d7e-4f3b-8a2e-9c1d7b6e4a10")
+    private String reference;
+
+    @Schema(description = "QUEUED, PROCESSING, COMPLETED or FAILED", example = "QUEUED")
+    private CheckoutJobStatus status;
+
+    @Schema(description = "Checkouts ahead of this one; only set while QUEUED", example = "12")
+    private long position;
+
+    @Schema(description = "ID of the created order; only set once COMPLETED", example = "1024")
+    private Long orderId;
+
+    @Schema(description = "HTTP status the synchronous endpoint would have returned; only set when FAILED", example = "400")
+    private Integer errorStatus;
+
+    @Schema(description = "Reason of the failure; only set when FAILED", example = "Insufficient stock for product ID 42.")
+    private String errorMessage;
+
+    @Schema(description = "Time the checkout was accepted")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Time of the last status change")
+    private LocalDateTime updatedAt;
+
+    @Schema(description = "Suggested seconds before polling again; 0 once the checkout is finished", example = "1")
+    private long pollAfterSeconds;
+
+    public CheckoutStatusDto() {}
+
+    public String getReference() { return reference; }
+    public void setReference(String reference) { this.reference = reference; }
+    public CheckoutJobStatus getStatus() { return status; }
+    public void setStatus(CheckoutJobStatus status) { this.status = status; }
+    public long getPosition() { return position; }
+    public void setPosition(long position) { this.position = position; }
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    public Integer getErrorStatus() { return errorStatus; }
+    public void setErrorStatus(Integer errorStatus) { this.errorStatus = errorStatus; }
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    public long getPollAfterSeconds() { return pollAfterSeconds; }
+    public void setPollAfterSeconds(long pollAfterSeconds) { this.pollAfterSeconds = pollAfterSeconds; }
+}
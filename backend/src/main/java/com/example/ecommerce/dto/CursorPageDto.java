@@ -0,0 +1,39 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "A single page of a cursor (keyset) paginated listing")
+public class CursorPageDto<T> {
+
+    @Schema(description = "Items on this page, in ascending key order")
+    private List<T> items;
+
+    @Schema(description = "Number of items on this page", example = "20")
+    private int size;
+
+    @Schema(description = "Whether more items exist after this page", example = "true")
+    private boolean hasNext;
+
+    @Schema(description = "Cursor to pass as 'cursor' to fetch the next page; null on the last page", example = "1520", nullable = true)
+    private Long nextCursor;
+
+    public CursorPageDto() {}
+
+    public CursorPageDto(List<T> items, boolean hasNext, Long nextCursor) {
+        this.items = items;
+        this.size = items.size();
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters & Setters
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+    public boolean isHasNext() { return hasNext; }
+    public void setHasNext(boolean hasNext) { this.hasNext = hasNext; }
+    public Long getNextCursor() { return nextCursor; }
+    public void setNextCursor(Long nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,32 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "A single facet value with the number of products it would match")
+public class FacetCountDto {
+
+    @Schema(description = "Value to send back as the filter parameter", example = "3")
+    private String value;
+
+    @Schema(description = "Human readable label of the facet value", example = "Elektronik")
+    private String label;
+
+    @Schema(description = "Number of matching products", example = "1204")
+    private long count;
+
+    public FacetCountDto() {}
+
+    public FacetCountDto(String value, String label, long count) {
+        this.value = value;
+        this.label = label;
+        this.count = count;
+    }
+
+    // Getters & Setters
+    public String getValue() { return value; }
+    public void setValue(String value) { this.value = value; }
+    public String getLabel() { return label; }
+    public void setLabel(String label) { this.label = label; }
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+}
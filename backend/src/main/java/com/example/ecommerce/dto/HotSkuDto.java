@@ -0,0 +1,37 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "A product in hot SKU mode, whose available stock is counted in memory")
+public class HotSkuDto {
+
+    @Schema(description = "ID of the product", example = "42")
+    private Long productId;
+
+    @Schema(description = "Units that can still be ordered, according to the in-memory counter", example = "1870")
+    private long availableQuantity;
+
+    @Schema(description = "Number of stripes the counter is split into", example = "8")
+    private int stripes;
+
+    @Schema(description = "True while the counter is being loaded from the database; checkouts are refused meanwhile", example = "false")
+    private boolean loading;
+
+    public HotSkuDto() {}
+
+    public HotSkuDto(Long productId, long availableQuantity, int stripes, boolean loading) {
+        this.productId = productId;
+        this.availableQuantity = availableQuantity;
+        this.stripes = stripes;
+        this.loading = loading;
+    }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public long getAvailableQuantity() { return availableQuantity; }
+    public void setAvailableQuantity(long availableQuantity) { this.availableQuantity = availableQuantity; }
+    public int getStripes() { return stripes; }
+    public void setStripes(int stripes) { this.stripes = stripes; }
+    public boolean isLoading() { return loading; }
+    public void setLoading(boolean loading) { this.loading = loading; }
+}
@@ -0,0 +1,37 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "A product whose stock does not match the sum of its ledger entries")
+public class InventoryDriftDto {
+
+    @Schema(description = "ID of the product", example = "42")
+    private Long productId;
+
+    @Schema(description = "Stock quantity, including hot SKU changes not yet written to the product", example = "118")
+    private long stockQuantity;
+
+    @Schema(description = "Sum of the product's ledger entries", example = "120")
+    private long ledgerQuantity;
+
+    @Schema(description = "stockQuantity - ledgerQuantity", example = "-2")
+    private long drift;
+
+    public InventoryDriftDto() {}
+
+    public InventoryDriftDto(Long productId, long stockQuantity, long ledgerQuantity) {
+        this.productId = productId;
+        this.stockQuantity = stockQuantity;
+        this.ledgerQuantity = ledgerQuantity;
+        this.drift = stockQuantity - ledgerQuantity;
+    }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public long getStockQuantity() { return stockQuantity; }
+    public void setStockQuantity(long stockQuantity) { this.stockQuantity = stockQuantity; }
+    public long getLedgerQuantity() { return ledgerQuantity; }
+    public void setLedgerQuantity(long ledgerQuantity) { this.ledgerQuantity = ledgerQuantity; }
+    public long getDrift() { return drift; }
+    public void setDrift(long drift) { this.drift = drift; }
+}
@@ -0,0 +1,65 @@
+package com.example.ecommerce.dto;
+
+import com.example.ecommerce.entity.InventoryLedgerReason;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "One recorded change of a product's stock quantity")
+public class InventoryLedgerEntryDto {
+
+    @Schema(description = "ID of the ledger entry", example = "90211")
+    private Long id;
+
+    @Schema(description = "ID of the product", example = "42")
+    private Long productId;
+
+    @Schema(description = "Change of the stock quantity; negative when units left stock", example = "-2")
+    private int quantityDelta;
+
+    @Schema(description = "Why the stock changed", example = "ORDER_PAID")
+    private InventoryLedgerReason reason;
+
+    @Schema(description = "Order the change belongs to, if any", example = "1501", nullable = true)
+    private Long orderId;
+
+    @Schema(description = "Order item the change belongs to, if any", example = "3307", nullable = true)
+    private Long orderItemId;
+
+    @Schema(description = "User who made the change; null for system jobs", example = "seller1", nullable = true)
+    private String actor;
+
+    @Schema(description = "When the change was recorded")
+    private LocalDateTime createdAt;
+
+    public InventoryLedgerEntryDto() {}
+
+    public InventoryLedgerEntryDto(Long id, Long productId, int quantityDelta, InventoryLedgerReason reason,
+                                   Long orderId, Long orderItemId, String actor, LocalDateTime createdAt) {
+        this.id = id;
+        this.productId = productId;
+        this.quantityDelta = quantityDelta;
+        this.reason = reason;
+        this.orderId = orderId;
+        this.orderItemId = orderItemId;
+        this.actor = actor;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public int getQuantityDelta() { return quantityDelta; }
+    public void setQuantityDelta(int quantityDelta) { this.quantityDelta = quantityDelta; }
+    public InventoryLedgerReason getReason() { return reason; }
+    public void setReason(InventoryLedgerReason reason) { this.reason = reason; }
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    public Long getOrderItemId() { return orderItemId; }
+    public void setOrderItemId(Long orderItemId) { this.orderItemId = orderItemId; }
+    public String getActor() { return actor; }
+    public void setActor(String actor) { this.actor = actor; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
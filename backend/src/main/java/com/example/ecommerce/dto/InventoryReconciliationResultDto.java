@@ -0,0 +1,46 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Outcome of comparing every product's stock with its inventory ledger")
+public class InventoryReconciliationResultDto {
+
+    @Schema(description = "Number of products compared", example = "15230")
+    private int productsChecked;
+
+    @Schema(description = "Products without ledger entries, for which an opening balance was recorded", example = "0")
+    private int openingBalancesRecorded;
+
+    @Schema(description = "Number of products whose stock and ledger disagree", example = "2")
+    private int driftCount;
+
+    @Schema(description = "Whether the drifts were closed with RECONCILIATION ledger entries", example = "false")
+    private boolean repaired;
+
+    @Schema(description = "The drifting products (capped by app.inventory.ledger.reconcile.max-reported-drifts)")
+    private List<InventoryDriftDto> drifts;
+
+    public InventoryReconciliationResultDto() {}
+
+    public InventoryReconciliationResultDto(int productsChecked, int openingBalancesRecorded, int driftCount,
+                                            boolean repaired, List<InventoryDriftDto> drifts) {
+        this.productsChecked = productsChecked;
+        this.openingBalancesRecorded = openingBalancesRecorded;
+        this.driftCount = driftCount;
+        this.repaired = repaired;
+        this.drifts = drifts;
+    }
+
+    public int getProductsChecked() { return productsChecked; }
+    public void setProductsChecked(int productsChecked) { this.productsChecked = productsChecked; }
+    public int getOpeningBalancesRecorded() { return openingBalancesRecorded; }
+    public void setOpeningBalancesRecorded(int openingBalancesRecorded) { this.openingBalancesRecorded = openingBalancesRecorded; }
+    public int getDriftCount() { return driftCount; }
+    public void setDriftCount(int driftCount) { this.driftCount = driftCount; }
+    public boolean isRepaired() { return repaired; }
+    public void setRepaired(boolean repaired) { this.repaired = repaired; }
+    public List<InventoryDriftDto> getDrifts() { return drifts; }
+    public void setDrifts(List<InventoryDriftDto> drifts) { this.drifts = drifts; }
+}
@@ -0,0 +1,28 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "A cursor page of the admin order search, optionally with a capped total count")
+public class OrderSearchPageDto extends CursorPageDto<OrderDto> {
+
+    @Schema(description = "Number of matching orders; only set when includeCount=true. If totalCountCapped is true this is a lower bound", example = "10000", nullable = true)
+    private Long totalCount;
+
+    @Schema(description = "Whether counting stopped at the server's cap, i.e. at least totalCount orders match", example = "false")
+    private boolean totalCountCapped;
+
+    public OrderSearchPageDto() {}
+
+    public OrderSearchPageDto(List<OrderDto> items, boolean hasNext, Long nextCursor, Long totalCount, boolean totalCountCapped) {
+        super(items, hasNext, nextCursor);
+        this.totalCount = totalCount;
+        this.totalCountCapped = totalCountCapped;
+    }
+
+    // Getters & Setters
+    public Long getTotalCount() { return totalCount; }
+    public void setTotalCount(Long totalCount) { this.totalCount = totalCount; }
+    public boolean isTotalCountCapped() { return totalCountCapped; }
+    public void setTotalCountCapped(boolean totalCountCapped) { this.totalCountCapped = totalCountCapped; }
+}
@@ -0,0 +1,47 @@
+package com.example.ecommerce.dto;
+
+import com.example.ecommerce.entity.OrderStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of a status change for a single order")
+public class OrderStatusUpdateResultDto {
+
+    public enum Outcome {
+        UPDATED,            // Durum değiştirildi
+        UNCHANGED,          // Sipariş zaten istenen durumdaydı
+        NOT_FOUND,          // Böyle bir sipariş yok
+        FORBIDDEN,          // İşlemi yapanın bu siparişte yetkisi yok
+        INVALID_TRANSITION  // Mevcut durumdan istenen duruma geçilemez
+    }
+
+    @Schema(description = "ID of the order", example = "101")
+    private Long orderId;
+
+    @Schema(description = "UPDATED, UNCHANGED, NOT_FOUND, FORBIDDEN or INVALID_TRANSITION", example = "UPDATED")
+    private Outcome outcome;
+
+    @Schema(description = "Status before the request; null if the order does not exist", example = "PREPARING", nullable = true)
+    private OrderStatus previousStatus;
+
+    @Schema(description = "Reason when the order was not updated", example = "Cannot change order status from DELIVERED to SHIPPED.", nullable = true)
+    private String message;
+
+    public OrderStatusUpdateResultDto() {}
+
+    public OrderStatusUpdateResultDto(Long orderId, Outcome outcome, OrderStatus previousStatus, String message) {
+        this.orderId = orderId;
+        this.outcome = outcome;
+        this.previousStatus = previousStatus;
+        this.message = message;
+    }
+
+    // Getters & Setters
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    public Outcome getOutcome() { return outcome; }
+    public void setOutcome(Outcome outcome) { this.outcome = outcome; }
+    public OrderStatus getPreviousStatus() { return previousStatus; }
+    public void setPreviousStatus(OrderStatus previousStatus) { this.previousStatus = previousStatus; }
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
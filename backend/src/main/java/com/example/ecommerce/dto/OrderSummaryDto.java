@@ -0,0 +1,56 @@
+package com.example.ecommerce.dto;
+
+import com.example.ecommerce.entity.OrderStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Schema(description = "Lightweight view of an order for order history listings (no items or address)")
+public class OrderSummaryDto {
+
+    @Schema(description = "Unique identifier of the order", example = "101")
+    private Long id;
+
+    @Schema(description = "Date and time when the order was placed")
+    private LocalDateTime orderDate;
+
+    @Schema(description = "Current status of the order", example = "SHIPPED")
+    private OrderStatus status;
+
+    @Schema(description = "Total amount for the order", example = "16350.75")
+    private BigDecimal totalAmount;
+
+    @Schema(description = "Number of order lines", example = "3")
+    private long itemCount;
+
+    @Schema(description = "Total number of units across all lines", example = "5")
+    private long totalQuantity;
+
+    public OrderSummaryDto() {}
+
+    // JPQL constructor expression (OrderRepository) tarafından kullanılır; SUM boş siparişte null döner
+    public OrderSummaryDto(Long id, LocalDateTime orderDate, OrderStatus status, BigDecimal totalAmount,
+                           Long itemCount, Long totalQuantity) {
+        this.id = id;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.itemCount = itemCount != null ? itemCount : 0;
+        this.totalQuantity = totalQuantity != null ? totalQuantity : 0;
+    }
+
+    // Getters & Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+    public long getItemCount() { return itemCount; }
+    public void setItemCount(long itemCount) { this.itemCount = itemCount; }
+    public long getTotalQuantity() { return totalQuantity; }
+    public void setTotalQuantity(long totalQuantity) { this.totalQuantity = totalQuantity; }
+}
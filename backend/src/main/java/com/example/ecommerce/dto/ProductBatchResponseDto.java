@@ -0,0 +1,27 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Result of a multi-get by product IDs")
+public class ProductBatchResponseDto {
+
+    @Schema(description = "Found products, in the order their IDs were first requested (duplicates removed)")
+    private List<ProductDto> products;
+
+    @Schema(description = "Requested IDs for which no product exists, in request order", example = "[42]")
+    private List<Long> missingIds;
+
+    public ProductBatchResponseDto() {}
+
+    public ProductBatchResponseDto(List<ProductDto> products, List<Long> missingIds) {
+        this.products = products;
+        this.missingIds = missingIds;
+    }
+
+    // Getters & Setters
+    public List<ProductDto> getProducts() { return products; }
+    public void setProducts(List<ProductDto> products) { this.products = products; }
+    public List<Long> getMissingIds() { return missingIds; }
+    public void setMissingIds(List<Long> missingIds) { this.missingIds = missingIds; }
+}
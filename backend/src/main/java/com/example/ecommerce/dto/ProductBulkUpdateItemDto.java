@@ -0,0 +1,31 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+@Schema(description = "Partial price/stock change for one product; omitted fields are left unchanged")
+public class ProductBulkUpdateItemDto {
+
+    @Schema(description = "ID of the product to change", requiredMode = Schema.RequiredMode.REQUIRED, example = "12")
+    @NotNull(message = "Product ID cannot be null")
+    private Long id;
+
+    @Schema(description = "New price (optional)", example = "1899.90")
+    @DecimalMin(value = "0.0", inclusive = true, message = "Price must be zero or positive")
+    private BigDecimal price;
+
+    @Schema(description = "New stock quantity (optional)", example = "40")
+    @Min(value = 0, message = "Stock quantity cannot be negative")
+    private Integer stockQuantity;
+
+    // Getters & Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+    public Integer getStockQuantity() { return stockQuantity; }
+    public void setStockQuantity(Integer stockQuantity) { this.stockQuantity = stockQuantity; }
+}
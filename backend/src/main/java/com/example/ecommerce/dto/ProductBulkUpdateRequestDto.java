@@ -0,0 +1,19 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Schema(description = "Batch of partial price/stock changes")
+public class ProductBulkUpdateRequestDto {
+
+    @Schema(description = "Changes to apply; each product ID may appear only once", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotEmpty(message = "Items cannot be empty")
+    @Valid
+    private List<ProductBulkUpdateItemDto> items;
+
+    // Getters & Setters
+    public List<ProductBulkUpdateItemDto> getItems() { return items; }
+    public void setItems(List<ProductBulkUpdateItemDto> items) { this.items = items; }
+}
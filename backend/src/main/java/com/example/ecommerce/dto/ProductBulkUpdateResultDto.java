@@ -0,0 +1,39 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Summary of a bulk price/stock update")
+public class ProductBulkUpdateResultDto {
+
+    @Schema(description = "Number of items in the request", example = "500")
+    private int requestedCount;
+
+    @Schema(description = "Number of products changed", example = "497")
+    private int updatedCount;
+
+    @Schema(description = "Requested IDs for which no product exists", example = "[9001]")
+    private List<Long> notFoundIds;
+
+    @Schema(description = "Requested IDs of products owned by another seller (not changed)", example = "[17, 18]")
+    private List<Long> notOwnedIds;
+
+    public ProductBulkUpdateResultDto() {}
+
+    public ProductBulkUpdateResultDto(int requestedCount, int updatedCount, List<Long> notFoundIds, List<Long> notOwnedIds) {
+        this.requestedCount = requestedCount;
+        this.updatedCount = updatedCount;
+        this.notFoundIds = notFoundIds;
+        this.notOwnedIds = notOwnedIds;
+    }
+
+    // Getters & Setters
+    public int getRequestedCount() { return requestedCount; }
+    public void setRequestedCount(int requestedCount) { this.requestedCount = requestedCount; }
+    public int getUpdatedCount() { return updatedCount; }
+    public void setUpdatedCount(int updatedCount) { this.updatedCount = updatedCount; }
+    public List<Long> getNotFoundIds() { return notFoundIds; }
+    public void setNotFoundIds(List<Long> notFoundIds) { this.notFoundIds = notFoundIds; }
+    public List<Long> getNotOwnedIds() { return notOwnedIds; }
+    public void setNotOwnedIds(List<Long> notOwnedIds) { this.notOwnedIds = notOwnedIds; }
+}
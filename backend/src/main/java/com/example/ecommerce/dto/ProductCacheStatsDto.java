@@ -0,0 +1,69 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Statistics of the in-memory product cache, counted since application start or the last clear")
+public class ProductCacheStatsDto {
+
+    @Schema(description = "Approximate number of cached products", example = "8421")
+    private long estimatedSize;
+
+    @Schema(description = "Configured maximum number of cached products", example = "10000")
+    private long maximumSize;
+
+    @Schema(description = "Total number of lookups (hits + misses)", example = "120000")
+    private long requestCount;
+
+    @Schema(description = "Lookups served from the cache", example = "114000")
+    private long hitCount;
+
+    @Schema(description = "Lookups that had to load from the database", example = "6000")
+    private long missCount;
+
+    @Schema(description = "hitCount / requestCount (1.0 when there were no requests)", example = "0.95")
+    private double hitRate;
+
+    @Schema(description = "Entries evicted because of the size limit or expiry", example = "310")
+    private long evictionCount;
+
+    @Schema(description = "Loads that failed or found no product", example = "12")
+    private long loadFailureCount;
+
+    @Schema(description = "Average time spent loading a miss, in milliseconds", example = "1.8")
+    private double averageLoadPenaltyMillis;
+
+    public ProductCacheStatsDto() {}
+
+    public ProductCacheStatsDto(long estimatedSize, long maximumSize, long requestCount, long hitCount, long missCount,
+                                double hitRate, long evictionCount, long loadFailureCount, double averageLoadPenaltyMillis) {
+        this.estimatedSize = estimatedSize;
+        this.maximumSize = maximumSize;
+        this.requestCount = requestCount;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.hitRate = hitRate;
+        this.evictionCount = evictionCount;
+        this.loadFailureCount = loadFailureCount;
+        this.averageLoadPenaltyMillis = averageLoadPenaltyMillis;
+    }
+
+    // Getters & Setters
+    public long getEstimatedSize() { return estimatedSize; }
+    public void setEstimatedSize(long estimatedSize) { this.estimatedSize = estimatedSize; }
+    public long getMaximumSize() { return maximumSize; }
+    public void setMaximumSize(long maximumSize) { this.maximumSize = maximumSize; }
+    public long getRequestCount() { return requestCount; }
+    public void setRequestCount(long requestCount) { this.requestCount = requestCount; }
+    public long getHitCount() { return hitCount; }
+    public void setHitCount(long hitCount) { this.hitCount = hitCount; }
+    public long getMissCount() { return missCount; }
+    public void setMissCount(long missCount) { this.missCount = missCount; }
+    public double getHitRate() { return hitRate; }
+    public void setHitRate(double hitRate) { this.hitRate = hitRate; }
+    public long getEvictionCount() { return evictionCount; }
+    public void setEvictionCount(long evictionCount) { this.evictionCount = evictionCount; }
+    public long getLoadFailureCount() { return loadFailureCount; }
+    public void setLoadFailureCount(long loadFailureCount) { this.loadFailureCount = loadFailureCount; }
+    public double getAverageLoadPenaltyMillis() { return averageLoadPenaltyMillis; }
+    public void setAverageLoadPenaltyMillis(double averageLoadPenaltyMillis) { this.averageLoadPenaltyMillis = averageLoadPenaltyMillis; }
+}
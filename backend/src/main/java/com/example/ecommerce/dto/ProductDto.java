@@ -20,9 +20,12 @@ public class ProductDto {
     @Schema(description = "Price of the product", example = "2499.99")
     private BigDecimal price;
 
-    @Schema(description = "Available stock quantity", example = "50")
+    @Schema(description = "Stock quantity on hand", example = "50")
     private Integer stockQuantity;
 
+    @Schema(description = "Quantity that can still be ordered: stock on hand minus quantities held for unpaid orders", example = "47")
+    private Integer availableQuantity;
+
     @Schema(description = "ID of the product's category", example = "3")
     private Long categoryId;
 
@@ -54,14 +57,19 @@ public class ProductDto {
     @Schema(description = "Username of the seller of the product", example = "seller_username")
     private String sellerName;
 
+    @Schema(description = "Timestamp of the last change to the product", nullable = true)
+    private LocalDateTime updatedAt;
+
     public ProductDto(Long id, String name, String description, BigDecimal price, Integer stockQuantity, Long categoryId, String categoryName, String imageUrl, BigDecimal averageRating, Integer reviewCount, boolean isActive, String deactivationReason, LocalDateTime deactivatedAt,
-                        Long sellerId, String sellerName) {
+                        Long sellerId, String sellerName, LocalDateTime updatedAt, Integer reservedQuantity) {
         this.imageUrl = imageUrl;
         this.id = id;
         this.name = name;
         this.description = description;
         this.price = price;
         this.stockQuantity = stockQuantity;
+        this.availableQuantity = stockQuantity != null
+                ? Math.max(0, stockQuantity - (reservedQuantity != null ? reservedQuantity : 0)) : null;
         this.categoryId = categoryId;
         this.categoryName = categoryName;
         this.averageRating = averageRating;
@@ -71,6 +79,7 @@ public class ProductDto {
         this.deactivatedAt = deactivatedAt;
         this.sellerId = sellerId;
         this.sellerName = sellerName;
+        this.updatedAt = updatedAt;
     }
     public ProductDto() {} // Default constructor
 
@@ -85,6 +94,8 @@ public class ProductDto {
     public void setPrice(BigDecimal price) { this.price = price; } // Accept BigDecimal
     public Integer getStockQuantity() { return stockQuantity; } // Getter for stock
     public void setStockQuantity(Integer stockQuantity) { this.stockQuantity = stockQuantity; } // Setter for stock
+    public Integer getAvailableQuantity() { return availableQuantity; }
+    public void setAvailableQuantity(Integer availableQuantity) { this.availableQuantity = availableQuantity; }
     public Long getCategoryId() { return categoryId; }
     public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
     public String getCategoryName() { return categoryName; }
@@ -138,4 +149,12 @@ public class ProductDto {
     public void setSellerName(String sellerName) {
         this.sellerName = sellerName;
     }
-}
\ No newline at end of file
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Filtered product page together with facet counts for the current filter combination")
+public class ProductFilterResultDto {
+
+    @Schema(description = "Current page of matching products (cursor paginated, ascending ID)")
+    private CursorPageDto<ProductDto> products;
+
+    @Schema(description = "Total number of products matching all filters", example = "87")
+    private long totalCount;
+
+    @Schema(description = "Category facet counts (computed with all other filters applied)")
+    private List<FacetCountDto> categories;
+
+    @Schema(description = "Price range facet counts; value is 'from-to' (to omitted for the last range)")
+    private List<FacetCountDto> priceRanges;
+
+    @Schema(description = "Minimum rating facet counts; value is the star threshold")
+    private List<FacetCountDto> ratings;
+
+    @Schema(description = "Number of matching products that are in stock (computed without the inStock filter)", example = "64")
+    private long inStockCount;
+
+    public ProductFilterResultDto() {}
+
+    public ProductFilterResultDto(CursorPageDto<ProductDto> products, long totalCount, List<FacetCountDto> categories,
+                                  List<FacetCountDto> priceRanges, List<FacetCountDto> ratings, long inStockCount) {
+        this.products = products;
+        this.totalCount = totalCount;
+        this.categories = categories;
+        this.priceRanges = priceRanges;
+        this.ratings = ratings;
+        this.inStockCount = inStockCount;
+    }
+
+    // Getters & Setters
+    public CursorPageDto<ProductDto> getProducts() { return products; }
+    public void setProducts(CursorPageDto<ProductDto> products) { this.products = products; }
+    public long getTotalCount() { return totalCount; }
+    public void setTotalCount(long totalCount) { this.totalCount = totalCount; }
+    public List<FacetCountDto> getCategories() { return categories; }
+    public void setCategories(List<FacetCountDto> categories) { this.categories = categories; }
+    public List<FacetCountDto> getPriceRanges() { return priceRanges; }
+    public void setPriceRanges(List<FacetCountDto> priceRanges) { this.priceRanges = priceRanges; }
+    public List<FacetCountDto> getRatings() { return ratings; }
+    public void setRatings(List<FacetCountDto> ratings) { this.ratings = ratings; }
+    public long getInStockCount() { return inStockCount; }
+    public void setInStockCount(long inStockCount) { this.inStockCount = inStockCount; }
+}
@@ -0,0 +1,26 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "A row of a bulk product import that was not imported")
+public class ProductImportErrorDto {
+
+    @Schema(description = "1-based line number in the uploaded file (for CSV, the line the record starts on)", example = "17")
+    private long line;
+
+    @Schema(description = "Why the row was rejected", example = "price: Price must be zero or positive")
+    private String message;
+
+    public ProductImportErrorDto() {}
+
+    public ProductImportErrorDto(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    // Getters & Setters
+    public long getLine() { return line; }
+    public void setLine(long line) { this.line = line; }
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
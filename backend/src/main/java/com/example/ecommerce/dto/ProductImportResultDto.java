@@ -0,0 +1,52 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Summary of a bulk product import")
+public class ProductImportResultDto {
+
+    @Schema(description = "Number of data rows read from the file (header excluded)", example = "1000")
+    private long totalRows;
+
+    @Schema(description = "Number of products created", example = "998")
+    private long importedCount;
+
+    @Schema(description = "Number of rows rejected", example = "2")
+    private long failedCount;
+
+    @Schema(description = "Per-row errors, in file order (capped, see errorsTruncated)")
+    private List<ProductImportErrorDto> errors;
+
+    @Schema(description = "True if more rows failed than are listed in errors", example = "false")
+    private boolean errorsTruncated;
+
+    @Schema(description = "Server-side processing time in milliseconds", example = "840")
+    private long durationMillis;
+
+    public ProductImportResultDto() {}
+
+    public ProductImportResultDto(long totalRows, long importedCount, long failedCount,
+                                  List<ProductImportErrorDto> errors, boolean errorsTruncated, long durationMillis) {
+        this.totalRows = totalRows;
+        this.importedCount = importedCount;
+        this.failedCount = failedCount;
+        this.errors = errors;
+        this.errorsTruncated = errorsTruncated;
+        this.durationMillis = durationMillis;
+    }
+
+    // Getters & Setters
+    public long getTotalRows() { return totalRows; }
+    public void setTotalRows(long totalRows) { this.totalRows = totalRows; }
+    public long getImportedCount() { return importedCount; }
+    public void setImportedCount(long importedCount) { this.importedCount = importedCount; }
+    public long getFailedCount() { return failedCount; }
+    public void setFailedCount(long failedCount) { this.failedCount = failedCount; }
+    public List<ProductImportErrorDto> getErrors() { return errors; }
+    public void setErrors(List<ProductImportErrorDto> errors) { this.errors = errors; }
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+    public long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+}
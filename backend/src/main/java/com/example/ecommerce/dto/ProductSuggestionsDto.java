@@ -0,0 +1,27 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Autocomplete suggestions for a typed prefix, most popular first")
+public class ProductSuggestionsDto {
+
+    @Schema(description = "Matching active products")
+    private List<SuggestionDto> products;
+
+    @Schema(description = "Matching categories that have at least one active product")
+    private List<SuggestionDto> categories;
+
+    public ProductSuggestionsDto() {}
+
+    public ProductSuggestionsDto(List<SuggestionDto> products, List<SuggestionDto> categories) {
+        this.products = products;
+        this.categories = categories;
+    }
+
+    // Getters & Setters
+    public List<SuggestionDto> getProducts() { return products; }
+    public void setProducts(List<SuggestionDto> products) { this.products = products; }
+    public List<SuggestionDto> getCategories() { return categories; }
+    public void setCategories(List<SuggestionDto> categories) { this.categories = categories; }
+}
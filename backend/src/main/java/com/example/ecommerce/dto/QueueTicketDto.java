@@ -0,0 +1,59 @@
+package com.example.ecommerce.dto;
+
+import com.example.ecommerce.admission.QueueTicketStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "A buyer's place in a product's checkout waiting room")
+public class QueueTicketDto {
+
+    @Schema(description = "Ticket ID; send it in the X-Queue-Ticket header when checking out", example = "42-6f1c2a0e-8d4b-4a43-9f0e-1b2c3d4e5f60")
+    private String ticketId;
+
+    @Schema(description = "ID of the queued product", example = "42")
+    private Long productId;
+
+    @Schema(description = "WAITING, ADMITTED (checkout allowed until admittedUntil), USED or EXPIRED", example = "WAITING")
+    private QueueTicketStatus status;
+
+    @Schema(description = "Place in the queue, 1 being next; 0 once the ticket has left the queue", example = "118")
+    private long position;
+
+    @Schema(description = "Estimated seconds until admission at the current rate", example = "6")
+    private long estimatedWaitSeconds;
+
+    @Schema(description = "End of the checkout window; only set once admitted")
+    private LocalDateTime admittedUntil;
+
+    @Schema(description = "Suggested seconds before polling the ticket again", example = "2")
+    private long pollAfterSeconds;
+
+    public QueueTicketDto() {}
+
+    public QueueTicketDto(String ticketId, Long productId, QueueTicketStatus status, long position,
+                          long estimatedWaitSeconds, LocalDateTime admittedUntil, long pollAfterSeconds) {
+        this.ticketId = ticketId;
+        this.productId = productId;
+        this.status = status;
+        this.position = position;
+        this.estimatedWaitSeconds = estimatedWaitSeconds;
+        this.admittedUntil = admittedUntil;
+        this.pollAfterSeconds = pollAfterSeconds;
+    }
+
+    public String getTicketId() { return ticketId; }
+    public void setTicketId(String ticketId) { this.ticketId = ticketId; }
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public QueueTicketStatus getStatus() { return status; }
+    public void setStatus(QueueTicketStatus status) { this.status = status; }
+    public long getPosition() { return position; }
+    public void setPosition(long position) { this.position = position; }
+    public long getEstimatedWaitSeconds() { return estimatedWaitSeconds; }
+    public void setEstimatedWaitSeconds(long estimatedWaitSeconds) { this.estimatedWaitSeconds = estimatedWaitSeconds; }
+    public LocalDateTime getAdmittedUntil() { return admittedUntil; }
+    public void setAdmittedUntil(LocalDateTime admittedUntil) { this.admittedUntil = admittedUntil; }
+    public long getPollAfterSeconds() { return pollAfterSeconds; }
+    public void setPollAfterSeconds(long pollAfterSeconds) { this.pollAfterSeconds = pollAfterSeconds; }
+}
@@ -0,0 +1,26 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "A single autocomplete suggestion")
+public class SuggestionDto {
+
+    @Schema(description = "ID of the suggested product or category", example = "42")
+    private Long id;
+
+    @Schema(description = "Text to show (product or category name as stored)", example = "Çelik Termos 1L")
+    private String text;
+
+    public SuggestionDto() {}
+
+    public SuggestionDto(Long id, String text) {
+        this.id = id;
+        this.text = text;
+    }
+
+    // Getters & Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+}
@@ -0,0 +1,38 @@
+package com.example.ecommerce.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Row count and latest {@code updatedAt} of a set of rows. Any insert, update or delete in the set
+ * changes at least one of the two, so together they make a cheap version for a collection ETag.
+ */
+public class VersionStampDto {
+
+    private final long count;
+    private final LocalDateTime lastModified;
+
+    public VersionStampDto(Long count, LocalDateTime lastModified) {
+        this.count = count != null ? count : 0L;
+        this.lastModified = lastModified;
+    }
+
+    public long getCount() { return count; }
+    public LocalDateTime getLastModified() { return lastModified; }
+
+    /** Builds an (unquoted) ETag value; {@code scope} must identify the resource and its query parameters. */
+    public String toETag(String scope) {
+        return scope + "-" + count + "-" + toMicros(lastModified);
+    }
+
+    public static String toETag(String scope, LocalDateTime lastModified) {
+        return scope + "-" + toMicros(lastModified);
+    }
+
+    private static long toMicros(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return 0L;
+        }
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "A product whose checkouts go through a waiting room")
+public class WaitingRoomDto {
+
+    @Schema(description = "ID of the product", example = "42")
+    private Long productId;
+
+    @Schema(description = "Checkouts admitted per second", example = "20")
+    private double admissionsPerSecond;
+
+    @Schema(description = "Maximum number of waiting buyers", example = "10000")
+    private int capacity;
+
+    @Schema(description = "Buyers currently waiting", example = "3120")
+    private int waiting;
+
+    @Schema(description = "Buyers admitted and not yet checked out", example = "35")
+    private int admitted;
+
+    public WaitingRoomDto() {}
+
+    public WaitingRoomDto(Long productId, double admissionsPerSecond, int capacity, int waiting, int admitted) {
+        this.productId = productId;
+        this.admissionsPerSecond = admissionsPerSecond;
+        this.capacity = capacity;
+        this.waiting = waiting;
+        this.admitted = admitted;
+    }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public double getAdmissionsPerSecond() { return admissionsPerSecond; }
+    public void setAdmissionsPerSecond(double admissionsPerSecond) { this.admissionsPerSecond = admissionsPerSecond; }
+    public int getCapacity() { return capacity; }
+    public void setCapacity(int capacity) { this.capacity = capacity; }
+    public int getWaiting() { return waiting; }
+    public void setWaiting(int waiting) { this.waiting = waiting; }
+    public int getAdmitted() { return admitted; }
+    public void setAdmitted(int admitted) { this.admitted = admitted; }
+}
@@ -0,0 +1,25 @@
+package com.example.ecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+
+@Schema(description = "Settings for a product's checkout waiting room; omitted values fall back to the configured defaults")
+public class WaitingRoomRequestDto {
+
+    @Schema(description = "Checkouts admitted from the head of the queue per second", example = "20")
+    @Positive(message = "Admissions per second must be positive")
+    private Double admissionsPerSecond;
+
+    @Schema(description = "Maximum number of waiting buyers; further buyers are refused with 429", example = "10000")
+    @Min(value = 1, message = "Capacity must be at least 1")
+    @Max(value = 1000000, message = "Capacity cannot exceed 1000000")
+    private Integer capacity;
+
+    // Getters & Setters
+    public Double getAdmissionsPerSecond() { return admissionsPerSecond; }
+    public void setAdmissionsPerSecond(Double admissionsPerSecond) { this.admissionsPerSecond = admissionsPerSecond; }
+    public Integer getCapacity() { return capacity; }
+    public void setCapacity(Integer capacity) { this.capacity = capacity; }
+}
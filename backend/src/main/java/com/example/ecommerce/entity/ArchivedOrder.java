@@ -0,0 +1,62 @@
+package com.example.ecommerce.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Completed order moved out of {@code orders} by {@code OrderArchiveService}. Same columns as
+ * {@link Order}, with the same ids, plus {@code archived_at}. Rows are written and read with plain
+ * JDBC; this entity defines the table. There are no foreign keys, so archived orders never block
+ * changes to users, addresses or products.
+ */
+@Entity
+@Table(name = "orders_archive", indexes = {
+        // Müşterinin siparişleri id'ye göre (my-orders sayfası) ve admin araması için (tarih, id) sıraları
+        @Index(name = "idx_orders_archive_customer_id", columnList = "customer_user_id, id"),
+        @Index(name = "idx_orders_archive_date_id", columnList = "order_date, id"),
+        @Index(name = "idx_orders_archive_status_date_id", columnList = "status, order_date, id"),
+        @Index(name = "idx_orders_archive_customer_date_id", columnList = "customer_user_id, order_date, id")
+})
+public class ArchivedOrder {
+
+    @Id
+    private Long id;
+
+    @Column(name = "order_date", nullable = false)
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private OrderStatus status;
+
+    @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "customer_user_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "shipping_address_id", nullable = false)
+    private Long shippingAddressId;
+
+    @Column(name = "stripe_payment_intent_id", length = 255)
+    private String stripePaymentIntentId;
+
+    @Column(name = "total_refunded_amount", precision = 10, scale = 2)
+    private BigDecimal totalRefundedAmount;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public ArchivedOrder() {}
+
+    public Long getId() { return id; }
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public OrderStatus getStatus() { return status; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public Long getCustomerId() { return customerId; }
+    public Long getShippingAddressId() { return shippingAddressId; }
+    public String getStripePaymentIntentId() { return stripePaymentIntentId; }
+    public BigDecimal getTotalRefundedAmount() { return totalRefundedAmount; }
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+}
@@ -0,0 +1,66 @@
+package com.example.ecommerce.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Item of an {@link ArchivedOrder}, moved out of {@code order_items} together with its order. Same
+ * columns as {@link OrderItem} plus {@code archived_at}; written and read with plain JDBC.
+ */
+@Entity
+@Table(name = "order_items_archive", indexes = {
+        @Index(name = "idx_order_items_archive_order", columnList = "order_id"),
+        // Satıcının arşivlenmiş siparişleri (satıcı sipariş akışı)
+        @Index(name = "idx_order_items_archive_seller_date", columnList = "seller_id, order_date, order_id")
+})
+public class ArchivedOrderItem {
+
+    @Id
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "seller_id")
+    private Long sellerId;
+
+    @Column(name = "order_date")
+    private LocalDateTime orderDate;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "price_at_purchase", nullable = false, precision = 10, scale = 2)
+    private BigDecimal priceAtPurchase;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private OrderItemStatus status;
+
+    @Column(name = "stripe_refund_id", length = 255)
+    private String stripeRefundId;
+
+    @Column(name = "refunded_amount", precision = 10, scale = 2)
+    private BigDecimal refundedAmount;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public ArchivedOrderItem() {}
+
+    public Long getId() { return id; }
+    public Long getOrderId() { return orderId; }
+    public Long getProductId() { return productId; }
+    public Long getSellerId() { return sellerId; }
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public Integer getQuantity() { return quantity; }
+    public BigDecimal getPriceAtPurchase() { return priceAtPurchase; }
+    public OrderItemStatus getStatus() { return status; }
+    public String getStripeRefundId() { return stripeRefundId; }
+    public BigDecimal getRefundedAmount() { return refundedAmount; }
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+}
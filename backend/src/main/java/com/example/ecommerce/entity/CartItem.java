@@ -7,8 +7,12 @@ import jakarta.validation.constraints.Min;
 @Table(name = "cart_items")
 public class CartItem {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled sequence (cart_items_seq): sepet satırları da insert'ten önce id alır (bkz. Product.id)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_items_seq")
+    @SequenceGenerator(name = "cart_items_seq", sequenceName = "cart_items_seq", allocationSize = CartItem.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Min(1) // Quantity must be at least 1
@@ -1,6 +1,9 @@
 package com.example.ecommerce.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
 import java.util.HashSet; // Import HashSet
 import java.util.Set; // Import Set
 
@@ -22,6 +25,11 @@ public class Category {
     @OneToMany(mappedBy = "category", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     private Set<Product> products = new HashSet<>(); // Initialize the set
 
+    // ETag / koşullu GET için; her insert/update'te Hibernate tarafından yenilenir
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     // Constructors
     public Category() {
     }
@@ -55,6 +63,14 @@ public class Category {
         this.products = products;
     }
 
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     // Optional: Helper methods to add/remove products safely
     public void addProduct(Product product) {
         this.products.add(product);
@@ -0,0 +1,8 @@
+package com.example.ecommerce.entity;
+
+public enum IdempotencyStatus {
+    CLAIMED,     // Anahtar alındı, işlem henüz başlamadı; sahibi burada çökerse kilit süresinden sonra devralınır
+    IN_PROGRESS, // İşlem başladı; aynı anahtarla gelenler onu bekler. Yapılıp yapılmadığı bilinemeyeceği için devralınmaz
+    COMPLETED,   // İşlem başarıyla bitti, cevap saklandı; tekrarlar bu cevabı alır
+    UNRECORDED   // İşlem yapıldı ama cevap saklanamadı; tekrarlar anahtarın süresi dolana kadar reddedilir
+}
@@ -0,0 +1,45 @@
+package com.example.ecommerce.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Pending stock change of a hot SKU product, written in the same transaction as the order change
+ * that caused it and folded into {@code products} by {@code HotSkuInventory}'s write-behind flush.
+ * Rows are written and deleted with plain JDBC; this entity defines the table.
+ */
+@Entity
+@Table(name = "inventory_journal", indexes = {
+        @Index(name = "idx_inventory_journal_product", columnList = "product_id")
+})
+public class InventoryJournalEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Ürün silinse bile journal uygulanabilsin diye yabancı anahtar yerine düz kolon
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "stock_delta", nullable = false)
+    private int stockDelta;
+
+    @Column(name = "reserved_delta", nullable = false)
+    private int reservedDelta;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public InventoryJournalEntry() {}
+
+    public Long getId() { return id; }
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public int getStockDelta() { return stockDelta; }
+    public void setStockDelta(int stockDelta) { this.stockDelta = stockDelta; }
+    public int getReservedDelta() { return reservedDelta; }
+    public void setReservedDelta(int reservedDelta) { this.reservedDelta = reservedDelta; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
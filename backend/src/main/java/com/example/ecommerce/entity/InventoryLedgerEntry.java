@@ -0,0 +1,63 @@
+package com.example.ecommerce.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One change of a product's {@code stock_quantity}, written in the same transaction as the change.
+ * The table is append-only: rows are never updated or deleted, and the sum of a product's
+ * {@code quantity_delta} equals its stock. Rows are inserted with plain JDBC by {@code InventoryLedger};
+ * this entity defines the table.
+ */
+@Entity
+@Table(name = "inventory_ledger", indexes = {
+        @Index(name = "idx_inventory_ledger_product", columnList = "product_id, id")
+})
+public class InventoryLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Geçmiş kayıtlar ürün/sipariş silinse ya da arşivlense de kalsın diye yabancı anahtar yerine düz kolonlar
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "quantity_delta", nullable = false)
+    private int quantityDelta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private InventoryLedgerReason reason;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "order_item_id")
+    private Long orderItemId;
+
+    // İşlemi yapan kullanıcı; zamanlanmış işler için null
+    @Column(length = 100)
+    private String actor;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public InventoryLedgerEntry() {}
+
+    public Long getId() { return id; }
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public int getQuantityDelta() { return quantityDelta; }
+    public void setQuantityDelta(int quantityDelta) { this.quantityDelta = quantityDelta; }
+    public InventoryLedgerReason getReason() { return reason; }
+    public void setReason(InventoryLedgerReason reason) { this.reason = reason; }
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    public Long getOrderItemId() { return orderItemId; }
+    public void setOrderItemId(Long orderItemId) { this.orderItemId = orderItemId; }
+    public String getActor() { return actor; }
+    public void setActor(String actor) { this.actor = actor; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
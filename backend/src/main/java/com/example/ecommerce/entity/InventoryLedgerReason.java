@@ -0,0 +1,10 @@
+package com.example.ecommerce.entity;
+
+public enum InventoryLedgerReason {
+    INITIAL_STOCK,     // Ürün oluşturulurken (elle veya import ile) girilen stok
+    STOCK_ADJUSTMENT,  // Satıcı/admin stoğu düzenledi (tekli veya toplu güncelleme)
+    ORDER_PAID,        // Ödeme alındı, ayrılan adet stoktan düşüldü
+    ORDER_CANCELLED,   // Ödenmiş kalem iptal edildi, adet stoğa geri kondu
+    OPENING_BALANCE,   // Defter başlamadan önce var olan stok (ilk mutabakatta yazılır)
+    RECONCILIATION     // Mutabakatta bulunan farkı kapatan düzeltme kaydı
+}
@@ -7,11 +7,21 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Admin sipariş araması: (tarih, id) üzerinde keyset sayfalama; durum/müşteri filtresi indeksin önünde
+        @Index(name = "idx_orders_date_id", columnList = "order_date, id"),
+        @Index(name = "idx_orders_status_date_id", columnList = "status, order_date, id"),
+        @Index(name = "idx_orders_customer_date_id", columnList = "customer_user_id, order_date, id")
+})
 public class Order {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // IDENTITY yerine pooled sequence: sipariş ve kalemleri insert edilmeden id alır, böylece
+    // checkout insert'leri flush sırasında batch'lenir (bkz. Product.id, IdSequenceInitializer)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = Order.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
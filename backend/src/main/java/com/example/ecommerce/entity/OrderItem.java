@@ -2,13 +2,22 @@ package com.example.ecommerce.entity;
 
 import jakarta.persistence.*;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        // Satıcı sipariş akışı: satıcının kalemleri tarih sırasıyla, orders/products join'i olmadan
+        @Index(name = "idx_order_items_seller_date", columnList = "seller_id, order_date, order_id")
+})
 public class OrderItem {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Bir siparişin tüm kalemleri tek bir JDBC batch'i olarak yazılsın diye id'ler order_items_seq
+    // tablosundan 50'lik bloklar halinde alınır (bkz. Product.id)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = OrderItem.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -27,6 +36,14 @@ public class OrderItem {
     @JoinColumn(name = "product_id", referencedColumnName = "id", nullable = false)
     private Product product;
 
+    // Satın alma anındaki satıcı (products.seller_user_id) ve sipariş tarihi (orders.order_date) kopyası;
+    // satıcı listeleri ve yetki kontrolleri ürün/sipariş satırlarına gitmeden bu kolonlarla yapılır
+    @Column(name = "seller_id")
+    private Long sellerId;
+
+    @Column(name = "order_date")
+    private LocalDateTime orderDate;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false, length = 50)
     private OrderItemStatus status = OrderItemStatus.ACTIVE; // Varsayılan durum
@@ -51,6 +68,10 @@ public class OrderItem {
     public void setOrder(Order order) { this.order = order; }
     public Product getProduct() { return product; }
     public void setProduct(Product product) { this.product = product; }
+    public Long getSellerId() { return sellerId; }
+    public void setSellerId(Long sellerId) { this.sellerId = sellerId; }
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
     public OrderItemStatus getStatus() { return status; }
     public void setStatus(OrderItemStatus status) { this.status = status; }
     public String getStripeRefundId() { return stripeRefundId; }
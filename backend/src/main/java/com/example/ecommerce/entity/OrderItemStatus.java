@@ -1,5 +1,10 @@
 package com.example.ecommerce.entity;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderItemStatus {
     ACTIVE,                 // Kalem aktif, işlenmeyi bekliyor veya işlendi
     PENDING_CANCELLATION,   // Kullanıcı/Satıcı/Admin tarafından iptal istendi
@@ -8,5 +13,23 @@ public enum OrderItemStatus {
     REFUNDED,               // İade başarıyla tamamlandı
     DELIVERED,              // Bu kalem teslim edildi (eğer kalem bazlı teslimat takibi varsa)
     SHIPPED,                // Bu kalem kargoya verildi (eğer kalem bazlı kargo takibi varsa)
-    RETURN_REQUESTED        // Kullanıcı tarafından iade talep edildi
-}
\ No newline at end of file
+    RETURN_REQUESTED;       // Kullanıcı tarafından iade talep edildi
+
+    // İzin verilen geçişler; CANCELLED ve REFUNDED son durumlardır
+    private static final Map<OrderItemStatus, Set<OrderItemStatus>> TRANSITIONS = new EnumMap<>(OrderItemStatus.class);
+
+    static {
+        TRANSITIONS.put(ACTIVE, EnumSet.of(PENDING_CANCELLATION, CANCELLED, REFUND_PROCESSING, REFUNDED, SHIPPED, DELIVERED));
+        TRANSITIONS.put(PENDING_CANCELLATION, EnumSet.of(ACTIVE, CANCELLED, REFUND_PROCESSING, REFUNDED));
+        TRANSITIONS.put(REFUND_PROCESSING, EnumSet.of(CANCELLED, REFUNDED));
+        TRANSITIONS.put(SHIPPED, EnumSet.of(CANCELLED, REFUND_PROCESSING, REFUNDED, DELIVERED));
+        TRANSITIONS.put(DELIVERED, EnumSet.of(RETURN_REQUESTED));
+        TRANSITIONS.put(RETURN_REQUESTED, EnumSet.of(REFUND_PROCESSING, REFUNDED, DELIVERED));
+        TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderItemStatus.class));
+        TRANSITIONS.put(REFUNDED, EnumSet.noneOf(OrderItemStatus.class));
+    }
+
+    public boolean canTransitionTo(OrderItemStatus target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
+}
@@ -1,5 +1,10 @@
 package com.example.ecommerce.entity; // Or enums package
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,        // Sipariş alındı, ödeme/işlem bekleniyor
     PROCESSING,     // Ödeme başarılı, sipariş hazırlanıyor
@@ -7,5 +12,44 @@ public enum OrderStatus {
     PREPARING,      // Satıcı hazırlıyor (PROCESSING ile birleştirilebilir veya ayrı kullanılabilir)
     SHIPPED,        // Kargoya verildi
     DELIVERED,      // Teslim edildi
-    CANCELLED       // İptal edildi
-}
\ No newline at end of file
+    CANCELLED;      // İptal edildi
+
+    // İzin verilen geçişler: teslimat akışına (PREPARING/SHIPPED/DELIVERED) yalnızca ödenmiş (PROCESSING)
+    // siparişten girilir; ödenmemiş sipariş stoğu yalnızca süreli ayırmayla tuttuğundan kargolanamaz.
+    // Akışta yalnızca ileri gidilir (adım atlanabilir). DELIVERED ve CANCELLED son durumlardır.
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(PROCESSING, PAYMENT_FAILED, CANCELLED));
+        TRANSITIONS.put(PAYMENT_FAILED, EnumSet.of(PENDING, PROCESSING, CANCELLED));
+        TRANSITIONS.put(PROCESSING, EnumSet.of(PREPARING, SHIPPED, DELIVERED, CANCELLED));
+        TRANSITIONS.put(PREPARING, EnumSet.of(SHIPPED, DELIVERED, CANCELLED));
+        TRANSITIONS.put(SHIPPED, EnumSet.of(DELIVERED, CANCELLED));
+        TRANSITIONS.put(DELIVERED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
+
+    /**
+     * Whether the order is not paid yet. Only the payment webhook and admins may move such an order;
+     * sellers never can.
+     */
+    public boolean isAwaitingPayment() {
+        return this == PENDING || this == PAYMENT_FAILED;
+    }
+
+    /** Status the order's items follow when the order moves to this status, or {@code null} if they keep theirs. */
+    public OrderItemStatus itemStatus() {
+        switch (this) {
+            case SHIPPED:
+                return OrderItemStatus.SHIPPED;
+            case DELIVERED:
+                return OrderItemStatus.DELIVERED;
+            default:
+                return null;
+        }
+    }
+}
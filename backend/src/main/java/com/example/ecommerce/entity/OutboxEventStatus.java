@@ -0,0 +1,7 @@
+package com.example.ecommerce.entity;
+
+public enum OutboxEventStatus {
+    PENDING,    // Gönderilmeyi (veya yeniden denenmeyi) bekliyor
+    DONE,       // Handler başarıyla çalıştı (ya da bu tip için handler yok)
+    FAILED      // Deneme hakkı bitti; elle incelenmeli
+}
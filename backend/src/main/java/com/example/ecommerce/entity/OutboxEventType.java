@@ -0,0 +1,8 @@
+package com.example.ecommerce.entity;
+
+public enum OutboxEventType {
+    ORDER_PLACED,       // Sipariş oluşturuldu, stok ayrıldı
+    PAYMENT_SUCCEEDED,  // Stripe ödemesi başarılı, sipariş PROCESSING
+    PAYMENT_FAILED,     // Stripe ödemesi başarısız, ayrılan stok bırakıldı
+    REFUND_REQUESTED    // Kalemler iade için işaretlendi; Stripe iadesi relay tarafından yapılır
+}
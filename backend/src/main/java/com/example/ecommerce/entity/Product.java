@@ -2,17 +2,36 @@ package com.example.ecommerce.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min; // For @Min
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
 import java.math.BigDecimal; // Import BigDecimal
 import java.time.LocalDateTime; // LocalDateTime import edildi
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // Cursor (keyset) sayfalama sorguları için: WHERE ... AND id > ? ORDER BY id
+        @Index(name = "idx_products_active_id", columnList = "is_active, id"),
+        @Index(name = "idx_products_category_active_id", columnList = "category_id, is_active, id"),
+        @Index(name = "idx_products_seller_active_id", columnList = "seller_user_id, is_active, id"),
+        // Liste ETag'leri için COUNT + MAX(updated_at) sorguları indeks üzerinden cevaplanır
+        @Index(name = "idx_products_active_updated", columnList = "is_active, updated_at"),
+        @Index(name = "idx_products_category_active_updated", columnList = "category_id, is_active, updated_at")
+})
+// Stok JDBC ile (ödeme, iade, journal) atomik güncellenir; entity kaydı yalnızca değişen kolonları yazar ki
+// yükleme ile kayıt arasında commit edilen bir stok değişikliği eski değerle ezilmesin
+@DynamicUpdate
 public class Product {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // IDENTITY, Hibernate'in insert'leri JDBC batch'ine koymasını engeller (her insert'ten sonra id okunmalı).
+    // Pooled sequence ile id'ler 50'lik bloklar halinde önceden alınır; MySQL'de sequence yerine
+    // products_seq tablosu kullanılır (bkz. IdSequenceInitializer).
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = Product.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "name", nullable = false)
@@ -34,6 +53,16 @@ public class Product {
     @Column(name = "stock_quantity", nullable = false, columnDefinition = "INT DEFAULT 0")
     private Integer stockQuantity = 0; // Default stock to 0
 
+    // Ödemesi beklenen siparişlerin ayırdığı adet (stock_reservations'taki ACTIVE kayıtların toplamı).
+    // Yalnızca InventoryService'in koşullu UPDATE'leri değiştirir; JPA bu kolonu hiç yazmaz, böylece
+    // ürün düzenleme gibi entity save'leri eşzamanlı bir ayırmayı ezemez.
+    @Column(name = "reserved_quantity", nullable = false, insertable = false, updatable = false, columnDefinition = "INT DEFAULT 0")
+    private int reservedQuantity;
+
+    // Flash sale modu: stok bellekteki sayaçta tutulur (bkz. HotSkuInventory); yalnızca JDBC ile değiştirilir
+    @Column(name = "hot_sku", nullable = false, insertable = false, updatable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
+    private boolean hotSku;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "seller_user_id", referencedColumnName = "id", nullable = false)
     private User seller;
@@ -55,6 +84,11 @@ public class Product {
     @Column(name = "deactivated_at")
     private LocalDateTime deactivatedAt;
 
+    // ETag / koşullu GET için; her insert/update'te Hibernate tarafından yenilenir
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     public Product() {
     }
 
@@ -99,6 +133,19 @@ public class Product {
         this.stockQuantity = stockQuantity;
     }
 
+    public int getReservedQuantity() {
+        return reservedQuantity;
+    }
+
+    public boolean isHotSku() {
+        return hotSku;
+    }
+
+    // Satılabilir adet: eldeki stoktan aktif ayırmalar düşülür
+    public int getAvailableQuantity() {
+        return Math.max(0, (stockQuantity != null ? stockQuantity : 0) - reservedQuantity);
+    }
+
     public User getSeller() {
         return seller;
     }
@@ -163,4 +210,12 @@ public class Product {
     public void setDeactivatedAt(LocalDateTime deactivatedAt) {
         this.deactivatedAt = deactivatedAt;
     }
-}
\ No newline at end of file
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
@@ -12,6 +13,10 @@ import java.time.LocalDateTime;
        uniqueConstraints = {
                // Bir kullanıcı bir ürüne sadece bir yorum yapabilsin istiyorsak:
                @UniqueConstraint(columnNames = {"product_id", "user_id"})
+       },
+       indexes = {
+               // Ürün yorumları ETag'i için COUNT + MAX(updated_at)
+               @Index(name = "idx_reviews_product_updated", columnList = "product_id, updated_at")
        })
 public class Review {
 
@@ -40,6 +45,11 @@ public class Review {
     @Column(nullable = false)
     private LocalDateTime reviewDate;
 
+    // ETag / koşullu GET için; her insert/update'te Hibernate tarafından yenilenir
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     // Constructors
     public Review() {
         this.reviewDate = LocalDateTime.now();
@@ -93,4 +103,12 @@ public class Review {
     public void setReviewDate(LocalDateTime reviewDate) {
         this.reviewDate = reviewDate;
     }
-}
\ No newline at end of file
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
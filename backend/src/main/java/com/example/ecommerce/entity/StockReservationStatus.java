@@ -0,0 +1,7 @@
+package com.example.ecommerce.entity;
+
+public enum StockReservationStatus {
+    ACTIVE,     // Stok ayrıldı, ödeme bekleniyor (expires_at'e kadar geçerli)
+    COMMITTED,  // Ödeme alındı, adet stoktan düşüldü
+    RELEASED    // Ödeme başarısız oldu, süre doldu veya kalem iptal edildi; ayrılan adet geri bırakıldı
+}
@@ -0,0 +1,28 @@
+package com.example.ecommerce.event;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Published by the product write paths whenever one or more products are created or changed.
+ * Listeners (search index, caches, ...) receive it after the surrounding transaction commits
+ * and reload whatever state they need from the database.
+ */
+public class ProductChangedEvent {
+
+    private final Set<Long> productIds;
+
+    public ProductChangedEvent(Collection<Long> productIds) {
+        this.productIds = Collections.unmodifiableSet(new LinkedHashSet<>(productIds));
+    }
+
+    public static ProductChangedEvent of(Long productId) {
+        return new ProductChangedEvent(Collections.singleton(productId));
+    }
+
+    public Set<Long> getProductIds() {
+        return productIds;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.ecommerce.event;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Published by the inventory write paths (holds, releases, payments, restocks, hot SKU flushes) when
+ * only the stock or reserved quantity of products changed. Nothing indexed as text changes, so
+ * listeners only drop cached copies and refresh the in-stock flag instead of reloading the product.
+ */
+public class ProductStockChangedEvent {
+
+    private final Set<Long> productIds;
+
+    public ProductStockChangedEvent(Collection<Long> productIds) {
+        this.productIds = Collections.unmodifiableSet(new LinkedHashSet<>(productIds));
+    }
+
+    public Set<Long> getProductIds() {
+        return productIds;
+    }
+}
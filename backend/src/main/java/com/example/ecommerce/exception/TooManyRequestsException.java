@@ -0,0 +1,20 @@
+package com.example.ecommerce.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Kapasite dolduğunda hızlıca reddetmek için; istemci Retry-After kadar bekleyip tekrar dener
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS) // 429 Too Many Requests
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.ecommerce.inventory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free stock counter for products under heavy concurrent checkout.
+ * <p>
+ * The available quantity is split over several stripes, each updated with compare-and-set. A take
+ * starts at a random stripe and moves on to the next ones only when that stripe runs dry. Concurrent
+ * buyers therefore mostly update different memory locations instead of all retrying on one. Stripes
+ * are padded apart so they do not share a CPU cache line.
+ * <p>
+ * A take is all or nothing. Units taken from some stripes are returned if the rest cannot be found.
+ * Near zero, two concurrent takes can briefly hold each other's partial units and both fail. This
+ * rejects a buyer that could just have been served, but it can never oversell.
+ */
+public final class StripedStockCounter {
+
+    // 16 long = 128 byte: komşu şeritler aynı cache line'a düşmez
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+
+    public StripedStockCounter(long initial, int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("At least one stripe is required.");
+        }
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PADDING);
+        long initialPerStripe = Math.max(0, initial) / stripes;
+        long remainder = Math.max(0, initial) % stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells.set(i * PADDING, initialPerStripe + (i < remainder ? 1 : 0));
+        }
+    }
+
+    /** Takes {@code quantity} units if that many are available; otherwise changes nothing. */
+    public boolean tryTake(int quantity) {
+        if (quantity <= 0) {
+            return true;
+        }
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        long remaining = quantity;
+        for (int n = 0; n < stripes && remaining > 0; n++) {
+            int index = ((start + n) % stripes) * PADDING;
+            while (remaining > 0) {
+                long current = cells.get(index);
+                if (current <= 0) {
+                    break;
+                }
+                long take = Math.min(current, remaining);
+                if (cells.compareAndSet(index, current, current - take)) {
+                    remaining -= take;
+                }
+            }
+        }
+        if (remaining > 0) {
+            add(quantity - remaining);
+            return false;
+        }
+        return true;
+    }
+
+    /** Returns units to the counter (released hold, restock, rolled-back take). */
+    public void add(long quantity) {
+        if (quantity != 0) {
+            cells.getAndAdd(ThreadLocalRandom.current().nextInt(stripes) * PADDING, quantity);
+        }
+    }
+
+    /** Sum over all stripes; only a snapshot while takes are in flight. */
+    public long available() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+}
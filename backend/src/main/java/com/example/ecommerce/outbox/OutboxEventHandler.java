@@ -0,0 +1,18 @@
+package com.example.ecommerce.outbox;
+
+import com.example.ecommerce.entity.OutboxEventType;
+
+/**
+ * Consumes outbox events of one type. {@code OutboxRelay} calls {@link #handle} in a new transaction
+ * and marks the event done in that same transaction, so the handler's database changes commit only
+ * together with it. Delivery is at-least-once: an event can reach the handler again after a crash
+ * or a failed commit. Handlers must be idempotent, and external calls need a key derived from
+ * {@link OutboxMessage#getId()}.
+ */
+public interface OutboxEventHandler {
+
+    OutboxEventType getEventType();
+
+    /** Throwing any exception schedules a retry with backoff. */
+    void handle(OutboxMessage message) throws Exception;
+}
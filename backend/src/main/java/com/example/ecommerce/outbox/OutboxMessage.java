@@ -0,0 +1,29 @@
+package com.example.ecommerce.outbox;
+
+import com.example.ecommerce.entity.OutboxEventType;
+
+/** A claimed outbox event as passed to its {@link OutboxEventHandler}. */
+public class OutboxMessage {
+
+    private final Long id;
+    private final OutboxEventType eventType;
+    private final Long aggregateId;
+    private final String payload;
+    private final int attempts;
+
+    public OutboxMessage(Long id, OutboxEventType eventType, Long aggregateId, String payload, int attempts) {
+        this.id = id;
+        this.eventType = eventType;
+        this.aggregateId = aggregateId;
+        this.payload = payload;
+        this.attempts = attempts;
+    }
+
+    public Long getId() { return id; }
+    public OutboxEventType getEventType() { return eventType; }
+    public Long getAggregateId() { return aggregateId; }
+    /** Event data as JSON. */
+    public String getPayload() { return payload; }
+    /** Failed attempts so far. */
+    public int getAttempts() { return attempts; }
+}
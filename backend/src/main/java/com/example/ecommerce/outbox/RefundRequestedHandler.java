@@ -0,0 +1,39 @@
+package com.example.ecommerce.outbox;
+
+import com.example.ecommerce.entity.OutboxEventType;
+import com.example.ecommerce.service.OrderService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Refunds cancelled or returned order items through Stripe ({@link OrderService#completeRefund}). */
+@Component
+public class RefundRequestedHandler implements OutboxEventHandler {
+
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public RefundRequestedHandler(OrderService orderService, ObjectMapper objectMapper) {
+        this.orderService = orderService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public OutboxEventType getEventType() {
+        return OutboxEventType.REFUND_REQUESTED;
+    }
+
+    @Override
+    public void handle(OutboxMessage message) throws Exception {
+        JsonNode payload = objectMapper.readTree(message.getPayload());
+        List<Long> itemIds = new ArrayList<>();
+        payload.get("itemIds").forEach(id -> itemIds.add(id.asLong()));
+        orderService.completeRefund(message.getId(), message.getAggregateId(), itemIds,
+                payload.get("paymentIntentId").asText());
+    }
+}
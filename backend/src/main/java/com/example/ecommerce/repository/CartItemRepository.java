@@ -2,9 +2,17 @@ package com.example.ecommerce.repository;
 
 import com.example.ecommerce.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 import java.util.Optional;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     // Find a specific item within a specific cart by product ID
     Optional<CartItem> findByCartIdAndProductId(Long cartId, Long productId);
-}
\ No newline at end of file
+
+    // Checkout öncesi bekleme odası kontrolü için; ürün/sepet entity'leri yüklenmez
+    @Query("SELECT ci.product.id FROM CartItem ci WHERE ci.cart.user.username = :username")
+    List<Long> findProductIdsByUsername(@Param("username") String username);
+}
@@ -1,7 +1,9 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.VersionStampDto;
 import com.example.ecommerce.entity.Category; // Import Category entity
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import java.util.Optional; // Import Optional
 
 // No @Repository needed, Spring Data JPA handles bean creation
@@ -15,5 +17,9 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
      */
     Optional<Category> findByName(String name);
 
+    // Kategori listesi ETag'i için: satır sayısı + en son güncelleme zamanı
+    @Query("SELECT new com.example.ecommerce.dto.VersionStampDto(COUNT(c), MAX(c.updatedAt)) FROM Category c")
+    VersionStampDto findVersion();
+
     // Basic CRUD methods are inherited from JpaRepository
 }
\ No newline at end of file
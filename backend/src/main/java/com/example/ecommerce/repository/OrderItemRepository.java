@@ -2,7 +2,34 @@ package com.example.ecommerce.repository;
 
 import com.example.ecommerce.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
-    // Basic CRUD methods are enough for now
-}
\ No newline at end of file
+
+    // Ürün başına satılan adet ([ürün id, toplam adet]); iptal/iade edilen kalemler ve ödenmemiş (PENDING,
+    // PAYMENT_FAILED) siparişler sayılmaz. Arşivdeki siparişler de sayılır ki popülerlik arşivlemeyle düşmesin
+    String UNITS_SOLD_WHERE = "WHERE oi.status NOT IN ('CANCELLED', 'REFUNDED') " +
+            "AND o.status NOT IN ('PENDING', 'PAYMENT_FAILED', 'CANCELLED') ";
+    String UNITS_SOLD_LIVE = "SELECT oi.product_id, oi.quantity FROM order_items oi " +
+            "JOIN orders o ON o.id = oi.order_id " + UNITS_SOLD_WHERE;
+    String UNITS_SOLD_ARCHIVED = "SELECT oi.product_id, oi.quantity FROM order_items_archive oi " +
+            "JOIN orders_archive o ON o.id = oi.order_id " + UNITS_SOLD_WHERE;
+    String UNITS_SOLD_SELECT = "SELECT sold.product_id, SUM(sold.quantity) FROM (";
+    String UNITS_SOLD_GROUP = ") sold GROUP BY sold.product_id";
+    String PRODUCT_FILTER = "AND oi.product_id IN (:productIds) ";
+
+    @Query(value = UNITS_SOLD_SELECT + UNITS_SOLD_LIVE + "UNION ALL " + UNITS_SOLD_ARCHIVED + UNITS_SOLD_GROUP,
+            nativeQuery = true)
+    List<Object[]> findUnitsSoldPerProduct();
+
+    @Query(value = UNITS_SOLD_SELECT + UNITS_SOLD_LIVE + PRODUCT_FILTER +
+            "UNION ALL " + UNITS_SOLD_ARCHIVED + PRODUCT_FILTER + UNITS_SOLD_GROUP, nativeQuery = true)
+    List<Object[]> findUnitsSoldByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    // Satıcı yetki kontrolü: denormalize seller_id kolonu üzerinden, ürün satırlarına gitmeden
+    boolean existsByOrderIdAndSellerId(Long orderId, Long sellerId);
+}
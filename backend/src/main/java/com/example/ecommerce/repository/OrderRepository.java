@@ -1,18 +1,45 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.OrderSummaryDto;
 import com.example.ecommerce.entity.Order;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
-    List<Order> findByCustomerUsername(String username);
+    Optional<Order> findByStripePaymentIntentId(String paymentIntentId);
 
-    @Query("SELECT DISTINCT o FROM Order o JOIN o.orderItems oi JOIN oi.product p WHERE p.seller.id = :sellerId ORDER BY o.orderDate DESC")
-    List<Order> findOrdersContainingProductFromSeller(@Param("sellerId") Long sellerId);
+    // SELECT ... FOR UPDATE: siparişin kalemlerini ve toplamlarını değiştiren işlemler sırayla çalışır
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
 
-    Optional<Order> findByStripePaymentIntentId(String paymentIntentId);
-}
\ No newline at end of file
+    // Sipariş detayı için gereken her şey (kalemler, ürünleri, adres, müşteri) tek JOIN'li sorguyla yüklenir;
+    // siparişler ve kalemler üzerinde lazy gezinme (N+1) olmaz
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product", "shippingAddress", "customer"})
+    @Query("SELECT DISTINCT o FROM Order o WHERE o.id IN :ids ORDER BY o.id DESC")
+    List<Order> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Keyset (cursor) sayfalama: müşterinin siparişleri id'ye göre azalan sırada (en yeni önce).
+    // customer_user_id FK indeksi InnoDB'de id'yi de içerdiğinden aralık taraması indeksten yapılır.
+    // Pageable sadece LIMIT için kullanılır (sayfa numarası her zaman 0), count sorgusu çalışmaz.
+    @Query("SELECT new com.example.ecommerce.dto.OrderSummaryDto(" +
+            "o.id, o.orderDate, o.status, o.totalAmount, COUNT(oi), SUM(oi.quantity)) " +
+            "FROM Order o LEFT JOIN o.orderItems oi " +
+            "WHERE o.customer.id = :customerId AND o.id < :beforeId " +
+            "GROUP BY o.id, o.orderDate, o.status, o.totalAmount ORDER BY o.id DESC")
+    List<OrderSummaryDto> findSummaryPageBefore(@Param("customerId") Long customerId,
+                                                @Param("beforeId") Long beforeId, Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.customer.id = :customerId AND o.id < :beforeId ORDER BY o.id DESC")
+    List<Long> findIdPageBefore(@Param("customerId") Long customerId, @Param("beforeId") Long beforeId, Pageable pageable);
+}
@@ -1,9 +1,12 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.ProductDto;
 import com.example.ecommerce.entity.ProductComparison;
 import com.example.ecommerce.entity.User;
 import com.example.ecommerce.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface ProductComparisonRepository extends JpaRepository<ProductComparison, Long> {
@@ -11,4 +14,9 @@ public interface ProductComparisonRepository extends JpaRepository<ProductCompar
     boolean existsByUserAndProduct(User user, Product product);
     void deleteByUserAndProduct(User user, Product product);
     void deleteByUser(User user);
+
+    // Karşılaştırma listesindeki ürünleri tek sorguda ProductDto olarak getirir
+    @Query(ProductRepository.PRODUCT_DTO_SELECT + "FROM ProductComparison pc JOIN pc.product p " +
+           ProductRepository.PRODUCT_DTO_JOINS + "WHERE pc.user.id = :userId ORDER BY pc.createdAt ASC, pc.id ASC")
+    List<ProductDto> findProductDtosByUserId(@Param("userId") Long userId);
 } 
\ No newline at end of file
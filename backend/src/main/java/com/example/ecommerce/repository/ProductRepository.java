@@ -1,11 +1,26 @@
 package com.example.ecommerce.repository; // Make sure this package declaration is correct
 
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.dto.VersionStampDto;
 import com.example.ecommerce.entity.Product; // Import the Product entity
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository; // Import JpaRepository
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 // import org.springframework.stereotype.Repository; // This annotation is optional
 
 // No need for @Repository usually, as extending JpaRepository registers it as a bean
@@ -24,4 +39,119 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     java.util.Optional<Product> findByIdAndIsActiveTrue(Long id);
 
     List<Product> findBySellerUsernameAndIsActiveTrue(String username);
-}
\ No newline at end of file
+
+    // --- ProductDto projeksiyonları ---
+    // Listeleme sorguları ProductDto'yu tek bir JOIN'li sorgudan doğrudan oluşturur; böylece
+    // lazy category/seller ilişkileri için ürün başına ek SELECT (N+1) çalışmaz.
+    // Diğer repository'ler de (favoriler, karşılaştırma) aynı SELECT ifadesini kullanır.
+    String PRODUCT_DTO_SELECT = "SELECT new com.example.ecommerce.dto.ProductDto(" +
+            "p.id, p.name, p.description, p.price, p.stockQuantity, c.id, c.name, p.imageUrl, " +
+            "p.averageRating, p.reviewCount, p.isActive, p.deactivationReason, p.deactivatedAt, s.id, s.username, p.updatedAt, " +
+            "p.reservedQuantity) ";
+    String PRODUCT_DTO_JOINS = "LEFT JOIN p.category c JOIN p.seller s ";
+
+    @Query(PRODUCT_DTO_SELECT + "FROM Product p " + PRODUCT_DTO_JOINS + "WHERE p.id = :id")
+    Optional<ProductDto> findDtoById(@Param("id") Long id);
+
+    @Query(PRODUCT_DTO_SELECT + "FROM Product p " + PRODUCT_DTO_JOINS + "WHERE p.id IN :ids")
+    List<ProductDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Büyük id listelerini (ör. kategori değişikliği event'i) tek bir dev IN yerine parça parça yükler
+    default List<ProductDto> findDtosByIdInBatches(Collection<Long> ids, int batchSize) {
+        List<Long> idList = new ArrayList<>(ids);
+        List<ProductDto> result = new ArrayList<>(idList.size());
+        for (int from = 0; from < idList.size(); from += batchSize) {
+            result.addAll(findDtosByIdIn(idList.subList(from, Math.min(from + batchSize, idList.size()))));
+        }
+        return result;
+    }
+
+    // Toplu güncellemede sahiplik kontrolü için yalnızca [ürün id, satıcı id] çiftleri okunur
+    @Query("SELECT p.id, p.seller.id FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findSellerIdPairsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /** Maps each existing product id in {@code ids} to its seller's id; unknown ids are absent from the result. */
+    default Map<Long, Long> findSellerIdsByIdInBatches(Collection<Long> ids, int batchSize) {
+        List<Long> idList = new ArrayList<>(ids);
+        Map<Long, Long> result = new HashMap<>(idList.size() * 2);
+        for (int from = 0; from < idList.size(); from += batchSize) {
+            for (Object[] pair : findSellerIdPairsByIdIn(idList.subList(from, Math.min(from + batchSize, idList.size())))) {
+                result.put((Long) pair[0], (Long) pair[1]);
+            }
+        }
+        return result;
+    }
+
+    // Stok değişikliklerinden sonra yalnızca [ürün id, satılabilir adet] çiftleri okunur
+    @Query("SELECT p.id, p.stockQuantity - p.reservedQuantity FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findAvailableQuantityPairsByIdIn(@Param("ids") Collection<Long> ids);
+
+    default Map<Long, Integer> findAvailableQuantitiesByIdInBatches(Collection<Long> ids, int batchSize) {
+        List<Long> idList = new ArrayList<>(ids);
+        Map<Long, Integer> result = new HashMap<>(idList.size() * 2);
+        for (int from = 0; from < idList.size(); from += batchSize) {
+            for (Object[] pair : findAvailableQuantityPairsByIdIn(idList.subList(from, Math.min(from + batchSize, idList.size())))) {
+                result.put((Long) pair[0], ((Number) pair[1]).intValue());
+            }
+        }
+        return result;
+    }
+
+    @Query(PRODUCT_DTO_SELECT + "FROM Product p " + PRODUCT_DTO_JOINS + "ORDER BY p.id ASC")
+    List<ProductDto> findAllDtos();
+
+    @Query(PRODUCT_DTO_SELECT + "FROM Product p " + PRODUCT_DTO_JOINS + "WHERE p.isActive = true ORDER BY p.id ASC")
+    List<ProductDto> findAllActiveDtos();
+
+    // Katalog export'u: satırlar sürücüden fetch-size'lık parçalarla okunur (MySQL'de useCursorFetch=true ile
+    // sunucu tarafı cursor), DTO projeksiyonu olduğu için persistence context'te entity birikmez.
+    // Stream, açık bir transaction içinde tüketilmeli ve kapatılmalıdır.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(PRODUCT_DTO_SELECT + "FROM Product p " + PRODUCT_DTO_JOINS + "WHERE p.isActive = true ORDER BY p.id ASC")
+    Stream<ProductDto> streamAllActiveDtos();
+
+    @Query(PRODUCT_DTO_SELECT + "FROM Product p " + PRODUCT_DTO_JOINS + "WHERE p.isActive = true AND c.id = :categoryId ORDER BY p.id ASC")
+    List<ProductDto> findActiveDtosByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query(PRODUCT_DTO_SELECT + "FROM Product p " + PRODUCT_DTO_JOINS + "WHERE s.username = :username ORDER BY p.id ASC")
+    List<ProductDto> findDtosBySellerUsername(@Param("username") String username);
+
+    @Query(PRODUCT_DTO_SELECT + "FROM Product p " + PRODUCT_DTO_JOINS + "WHERE p.isActive = true AND s.username = :username ORDER BY p.id ASC")
+    List<ProductDto> findActiveDtosBySellerUsername(@Param("username") String username);
+
+    // Keyset (cursor) sayfalama: id'ye göre artan sırada, verilen id'den sonraki ürünler.
+    // Pageable sadece LIMIT için kullanılır (sayfa numarası her zaman 0), count sorgusu çalışmaz.
+    @Query(PRODUCT_DTO_SELECT + "FROM Product p " + PRODUCT_DTO_JOINS + "WHERE p.id > :afterId ORDER BY p.id ASC")
+    List<ProductDto> findDtoPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(PRODUCT_DTO_SELECT + "FROM Product p " + PRODUCT_DTO_JOINS + "WHERE p.isActive = true AND p.id > :afterId ORDER BY p.id ASC")
+    List<ProductDto> findActiveDtoPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(PRODUCT_DTO_SELECT + "FROM Product p " + PRODUCT_DTO_JOINS + "WHERE p.isActive = true AND c.id = :categoryId AND p.id > :afterId ORDER BY p.id ASC")
+    List<ProductDto> findActiveDtoPageByCategoryAfter(@Param("categoryId") Long categoryId, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(PRODUCT_DTO_SELECT + "FROM Product p " + PRODUCT_DTO_JOINS + "WHERE p.isActive = true AND s.username = :username AND p.id > :afterId ORDER BY p.id ASC")
+    List<ProductDto> findActiveDtoPageBySellerAfter(@Param("username") String username, @Param("afterId") Long afterId, Pageable pageable);
+
+    // --- ETag (koşullu GET) versiyon sorguları ---
+    @Query("SELECT new com.example.ecommerce.dto.VersionStampDto(COUNT(p), MAX(p.updatedAt)) FROM Product p")
+    VersionStampDto findVersion();
+
+    @Query("SELECT new com.example.ecommerce.dto.VersionStampDto(COUNT(p), MAX(p.updatedAt)) FROM Product p WHERE p.isActive = true")
+    VersionStampDto findActiveVersion();
+
+    @Query("SELECT new com.example.ecommerce.dto.VersionStampDto(COUNT(p), MAX(p.updatedAt)) FROM Product p WHERE p.isActive = true AND p.category.id = :categoryId")
+    VersionStampDto findActiveVersionByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query("SELECT p.id FROM Product p WHERE p.category.id = :categoryId")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+
+    // Kategori adı ürün DTO'sunun parçası; adı değişince ürünlerin ETag'leri de değişmeli
+    @Modifying
+    @Query("UPDATE Product p SET p.updatedAt = :now WHERE p.category.id = :categoryId")
+    int touchByCategoryId(@Param("categoryId") Long categoryId, @Param("now") LocalDateTime now);
+}
@@ -1,6 +1,7 @@
 // src/main/java/com/example/ecommerce/repository/ReviewRepository.java
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.VersionStampDto;
 import com.example.ecommerce.entity.Review;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -25,6 +26,10 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
 
     Optional<Review> findByProductIdAndUserId(Long productId, Long userId);
 
+    // Ürün yorumları ETag'i için: yorum sayısı + en son güncelleme zamanı
+    @Query("SELECT new com.example.ecommerce.dto.VersionStampDto(COUNT(r), MAX(r.updatedAt)) FROM Review r WHERE r.product.id = :productId")
+    VersionStampDto findVersionByProductId(@Param("productId") Long productId);
+
     @Query("SELECT r.rating FROM Review r WHERE r.product.id = :productId")
     List<Integer> findRatingsByProductId(@Param("productId") Long productId);
 
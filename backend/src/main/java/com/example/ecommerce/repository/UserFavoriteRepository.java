@@ -1,10 +1,19 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.ProductDto;
 import com.example.ecommerce.entity.UserFavorite; // Entity adı güncellendi
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserFavoriteRepository extends JpaRepository<UserFavorite, Long> {
     // Optional<UserFavorite> findByUserId(Long userId); // Bu da kalabilir
     Optional<UserFavorite> findByUserUsername(String username);
+
+    // Favori ürünleri tek sorguda ProductDto olarak getirir (kategori/satıcı için ek SELECT yok)
+    @Query(ProductRepository.PRODUCT_DTO_SELECT + "FROM UserFavorite uf JOIN uf.products p " +
+           ProductRepository.PRODUCT_DTO_JOINS + "WHERE uf.id = :favoriteId ORDER BY p.id ASC")
+    List<ProductDto> findProductDtosByFavoriteId(@Param("favoriteId") Long favoriteId);
 }
\ No newline at end of file
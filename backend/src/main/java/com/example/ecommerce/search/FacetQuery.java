@@ -0,0 +1,47 @@
+package com.example.ecommerce.search;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Filter combination for {@link ProductFacetIndex}. Every criterion is optional; an empty
+ * category set means "any category". Categories are OR'ed together, all other criteria are AND'ed.
+ */
+public class FacetQuery {
+
+    private final Set<Long> categoryIds;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final Integer minRating;
+    private final boolean inStockOnly;
+
+    public FacetQuery(Set<Long> categoryIds, BigDecimal minPrice, BigDecimal maxPrice, Integer minRating, boolean inStockOnly) {
+        this.categoryIds = categoryIds == null ? Collections.emptySet() : Collections.unmodifiableSet(new LinkedHashSet<>(categoryIds));
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.minRating = minRating;
+        this.inStockOnly = inStockOnly;
+    }
+
+    public Set<Long> getCategoryIds() {
+        return categoryIds;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public Integer getMinRating() {
+        return minRating;
+    }
+
+    public boolean isInStockOnly() {
+        return inStockOnly;
+    }
+}
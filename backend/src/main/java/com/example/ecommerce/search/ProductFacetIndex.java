@@ -0,0 +1,415 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.dto.ProductDto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitset index for faceted filtering on category, price, rating and stock.
+ * <p>
+ * Every product gets a dense ordinal in arrival order; ordinals are never moved, so a product that
+ * commits after one with a higher id only appends. A separate array lists the ordinals in product id
+ * order, which is what the usual {@code cursor} (last seen id) paging walks. Each facet value owns a
+ * {@link BitSet} of ordinals; a filter combination is a handful of AND/OR operations and facet counts
+ * are cardinalities of intersections.
+ * <p>
+ * Facet counts are disjunctive: the counts of one facet are computed with every <em>other</em>
+ * filter applied, so selecting a category still shows how many products the other categories have.
+ */
+public class ProductFacetIndex {
+
+    /** Minimum star thresholds offered as rating facets ("4 ve üzeri" ...). */
+    public static final int MAX_RATING_THRESHOLD = 4;
+
+    private static final long NO_CATEGORY = 0L;
+
+    private enum Facet { CATEGORY, PRICE, RATING, STOCK }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Fiyat dilimlerinin üst sınırları (kuruş); son dilim açık uçludur
+    private final long[] priceBoundsCents;
+
+    private final Map<Long, Integer> ordinalByProductId = new HashMap<>();
+    private long[] productIdByOrdinal = new long[1024];
+    private long[] categoryIdByOrdinal = new long[1024];
+    private long[] priceCentsByOrdinal = new long[1024];
+    private int[] ratingStarsByOrdinal = new int[1024];
+    private boolean[] inStockByOrdinal = new boolean[1024];
+    private boolean[] activeByOrdinal = new boolean[1024];
+    // Ürün id'sine göre sıralı ordinal'ler (cursor sayfalaması için)
+    private int[] ordinalsInIdOrder = new int[1024];
+    private int size = 0;
+
+    private final BitSet active = new BitSet();
+    private final BitSet inStock = new BitSet();
+    private final Map<Long, BitSet> byCategory = new TreeMap<>();
+    private final BitSet[] byPriceBucket;
+    // ratingAtLeast[n]: ortalama puanı n ve üzeri olan ürünler (1..MAX_RATING_THRESHOLD)
+    private final BitSet[] ratingAtLeast = new BitSet[MAX_RATING_THRESHOLD + 1];
+
+    public ProductFacetIndex(List<BigDecimal> priceBucketUpperBounds) {
+        this.priceBoundsCents = priceBucketUpperBounds.stream()
+                .mapToLong(bound -> toCents(bound, RoundingMode.HALF_UP))
+                .sorted()
+                .distinct()
+                .toArray();
+        this.byPriceBucket = new BitSet[priceBoundsCents.length + 1];
+        for (int i = 0; i < byPriceBucket.length; i++) {
+            byPriceBucket[i] = new BitSet();
+        }
+        for (int i = 1; i <= MAX_RATING_THRESHOLD; i++) {
+            ratingAtLeast[i] = new BitSet();
+        }
+    }
+
+    /** Adds or refreshes a product. Inactive products stay known to the index but never match. */
+    public void put(ProductDto product) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinalByProductId.get(product.getId());
+            int ordinal;
+            if (existing != null) {
+                ordinal = existing;
+                clearBits(ordinal);
+            } else {
+                ordinal = size;
+                ensureCapacity(size + 1);
+                productIdByOrdinal[ordinal] = product.getId();
+                addInIdOrder(ordinal);
+                size++;
+                ordinalByProductId.put(product.getId(), ordinal);
+            }
+            store(ordinal, product);
+            setBits(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Drops a product that no longer exists; it stops matching any filter. */
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalByProductId.get(productId);
+            if (ordinal != null) {
+                clearBits(ordinal);
+                activeByOrdinal[ordinal] = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Updates only the in-stock flag of a known product; its other facets are left as they are. */
+    public void setInStock(Long productId, boolean available) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalByProductId.get(productId);
+            if (ordinal == null) {
+                return;
+            }
+            inStockByOrdinal[ordinal] = available;
+            if (available && activeByOrdinal[ordinal]) {
+                inStock.set(ordinal);
+            } else {
+                inStock.clear(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int activeCount() {
+        lock.readLock().lock();
+        try {
+            return active.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Price buckets as [from, to) pairs; {@code to} is null for the open-ended last bucket. */
+    public List<BigDecimal[]> getPriceBuckets() {
+        List<BigDecimal[]> buckets = new ArrayList<>(byPriceBucket.length);
+        for (int i = 0; i < byPriceBucket.length; i++) {
+            BigDecimal from = i == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(priceBoundsCents[i - 1], 2);
+            BigDecimal to = i < priceBoundsCents.length ? BigDecimal.valueOf(priceBoundsCents[i], 2) : null;
+            buckets.add(new BigDecimal[]{from, to});
+        }
+        return buckets;
+    }
+
+    /**
+     * Evaluates the filter and returns up to {@code limit} product ids greater than {@code afterId}
+     * (in id order), the total match count and the disjunctive facet counts. The page is read by
+     * walking the id-ordered ordinals from the cursor and stops once it is full.
+     */
+    public FacetResult query(FacetQuery query, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<Facet, BitSet> constraints = new LinkedHashMap<>();
+            if (!query.getCategoryIds().isEmpty()) {
+                BitSet categories = new BitSet();
+                for (Long categoryId : query.getCategoryIds()) {
+                    BitSet bits = byCategory.get(categoryId);
+                    if (bits != null) {
+                        categories.or(bits);
+                    }
+                }
+                constraints.put(Facet.CATEGORY, categories);
+            }
+            if (query.getMinPrice() != null || query.getMaxPrice() != null) {
+                constraints.put(Facet.PRICE, priceRange(query.getMinPrice(), query.getMaxPrice()));
+            }
+            if (query.getMinRating() != null && query.getMinRating() > 0) {
+                int threshold = Math.min(query.getMinRating(), MAX_RATING_THRESHOLD + 1);
+                constraints.put(Facet.RATING, threshold <= MAX_RATING_THRESHOLD ? ratingAtLeast[threshold] : ratingExactlyMax());
+            }
+            if (query.isInStockOnly()) {
+                constraints.put(Facet.STOCK, inStock);
+            }
+
+            BitSet matches = combine(constraints, null);
+
+            List<Long> productIds = new ArrayList<>(Math.min(limit, 1024));
+            boolean hasNext = false;
+            for (int position = firstPositionAfter(afterId); position < size; position++) {
+                int ordinal = ordinalsInIdOrder[position];
+                if (!matches.get(ordinal)) {
+                    continue;
+                }
+                if (productIds.size() == limit) {
+                    hasNext = true;
+                    break;
+                }
+                productIds.add(productIdByOrdinal[ordinal]);
+            }
+
+            // Sayımlar tek bir çalışma bitset'i üzerinde yapılır: kategori başına kopya bitset ayrılmaz
+            BitSet scratch = new BitSet(size);
+
+            BitSet withoutCategory = without(constraints, Facet.CATEGORY, matches);
+            Map<Long, Integer> categoryCounts = new LinkedHashMap<>();
+            for (Map.Entry<Long, BitSet> entry : byCategory.entrySet()) {
+                int count = intersectionSize(entry.getValue(), withoutCategory, scratch);
+                if (count > 0 || query.getCategoryIds().contains(entry.getKey())) {
+                    categoryCounts.put(entry.getKey(), count);
+                }
+            }
+
+            BitSet withoutPrice = without(constraints, Facet.PRICE, matches);
+            int[] priceCounts = new int[byPriceBucket.length];
+            for (int i = 0; i < byPriceBucket.length; i++) {
+                priceCounts[i] = intersectionSize(byPriceBucket[i], withoutPrice, scratch);
+            }
+
+            BitSet withoutRating = without(constraints, Facet.RATING, matches);
+            int[] ratingCounts = new int[MAX_RATING_THRESHOLD + 1];
+            for (int i = 1; i <= MAX_RATING_THRESHOLD; i++) {
+                ratingCounts[i] = intersectionSize(ratingAtLeast[i], withoutRating, scratch);
+            }
+
+            int inStockCount = intersectionSize(inStock, without(constraints, Facet.STOCK, matches), scratch);
+
+            return new FacetResult(productIds, hasNext, matches.cardinality(), categoryCounts,
+                    priceCounts, ratingCounts, inStockCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet combine(Map<Facet, BitSet> constraints, Facet excluded) {
+        BitSet result = (BitSet) active.clone();
+        for (Map.Entry<Facet, BitSet> entry : constraints.entrySet()) {
+            if (entry.getKey() != excluded) {
+                result.and(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    // Filtrelenmemiş bir facet'in "kendisi hariç" kümesi tüm filtrelerin sonucuyla aynıdır; yeniden kurulmaz
+    private BitSet without(Map<Facet, BitSet> constraints, Facet facet, BitSet matches) {
+        return constraints.containsKey(facet) ? combine(constraints, facet) : matches;
+    }
+
+    // scratch kapasitesi yeterli olduğundan clear/or/and bellek ayırmaz
+    private static int intersectionSize(BitSet a, BitSet b, BitSet scratch) {
+        scratch.clear();
+        scratch.or(a);
+        scratch.and(b);
+        return scratch.cardinality();
+    }
+
+    // Tamamen aralık içindeki dilimler doğrudan OR'lanır; sadece sınır dilimlerinde ürün ürün fiyat kontrolü yapılır
+    private BitSet priceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        long min = minPrice != null ? toCents(minPrice, RoundingMode.CEILING) : Long.MIN_VALUE;
+        long max = maxPrice != null ? toCents(maxPrice, RoundingMode.FLOOR) : Long.MAX_VALUE;
+        BitSet result = new BitSet();
+        if (min > max) {
+            return result;
+        }
+        for (int bucket = 0; bucket < byPriceBucket.length; bucket++) {
+            long bucketFrom = bucket == 0 ? Long.MIN_VALUE : priceBoundsCents[bucket - 1];
+            long bucketToInclusive = bucket < priceBoundsCents.length ? priceBoundsCents[bucket] - 1 : Long.MAX_VALUE;
+            if (bucketToInclusive < min || bucketFrom > max) {
+                continue;
+            }
+            BitSet bits = byPriceBucket[bucket];
+            if (bucketFrom >= min && bucketToInclusive <= max) {
+                result.or(bits);
+            } else {
+                for (int ordinal = bits.nextSetBit(0); ordinal >= 0; ordinal = bits.nextSetBit(ordinal + 1)) {
+                    long price = priceCentsByOrdinal[ordinal];
+                    if (price >= min && price <= max) {
+                        result.set(ordinal);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private BitSet ratingExactlyMax() {
+        BitSet result = new BitSet();
+        BitSet candidates = ratingAtLeast[MAX_RATING_THRESHOLD];
+        for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+            if (ratingStarsByOrdinal[ordinal] > MAX_RATING_THRESHOLD) {
+                result.set(ordinal);
+            }
+        }
+        return result;
+    }
+
+    // ordinalsInIdOrder içinde id'si afterId'den büyük ilk konum
+    private int firstPositionAfter(long afterId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (productIdByOrdinal[ordinalsInIdOrder[mid]] <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Çoğunlukla sona eklenir; eşzamanlı commit'ler yüzünden sonradan gelen küçük id'li ürün için yalnızca
+    // bu int dizisi kaydırılır, bitset'lere dokunulmaz
+    private void addInIdOrder(int ordinal) {
+        int position = firstPositionAfter(productIdByOrdinal[ordinal]);
+        System.arraycopy(ordinalsInIdOrder, position, ordinalsInIdOrder, position + 1, size - position);
+        ordinalsInIdOrder[position] = ordinal;
+    }
+
+    private void store(int ordinal, ProductDto product) {
+        productIdByOrdinal[ordinal] = product.getId();
+        categoryIdByOrdinal[ordinal] = product.getCategoryId() != null ? product.getCategoryId() : NO_CATEGORY;
+        priceCentsByOrdinal[ordinal] = product.getPrice() != null ? toCents(product.getPrice(), RoundingMode.HALF_UP) : 0L;
+        ratingStarsByOrdinal[ordinal] = product.getAverageRating() != null ? product.getAverageRating().intValue() : 0;
+        inStockByOrdinal[ordinal] = product.getAvailableQuantity() != null && product.getAvailableQuantity() > 0;
+        activeByOrdinal[ordinal] = product.isActive();
+    }
+
+    private void setBits(int ordinal) {
+        if (!activeByOrdinal[ordinal]) {
+            return;
+        }
+        active.set(ordinal);
+        if (inStockByOrdinal[ordinal]) {
+            inStock.set(ordinal);
+        }
+        long categoryId = categoryIdByOrdinal[ordinal];
+        if (categoryId != NO_CATEGORY) {
+            byCategory.computeIfAbsent(categoryId, id -> new BitSet()).set(ordinal);
+        }
+        byPriceBucket[priceBucketOf(priceCentsByOrdinal[ordinal])].set(ordinal);
+        for (int i = 1; i <= Math.min(ratingStarsByOrdinal[ordinal], MAX_RATING_THRESHOLD); i++) {
+            ratingAtLeast[i].set(ordinal);
+        }
+    }
+
+    private void clearBits(int ordinal) {
+        active.clear(ordinal);
+        inStock.clear(ordinal);
+        BitSet category = byCategory.get(categoryIdByOrdinal[ordinal]);
+        if (category != null) {
+            category.clear(ordinal);
+        }
+        byPriceBucket[priceBucketOf(priceCentsByOrdinal[ordinal])].clear(ordinal);
+        for (int i = 1; i <= MAX_RATING_THRESHOLD; i++) {
+            ratingAtLeast[i].clear(ordinal);
+        }
+    }
+
+    private int priceBucketOf(long priceCents) {
+        int index = Arrays.binarySearch(priceBoundsCents, priceCents);
+        // Sınır değeri bir üst dilime aittir: [from, to)
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= productIdByOrdinal.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, productIdByOrdinal.length * 2);
+        productIdByOrdinal = Arrays.copyOf(productIdByOrdinal, newLength);
+        categoryIdByOrdinal = Arrays.copyOf(categoryIdByOrdinal, newLength);
+        priceCentsByOrdinal = Arrays.copyOf(priceCentsByOrdinal, newLength);
+        ratingStarsByOrdinal = Arrays.copyOf(ratingStarsByOrdinal, newLength);
+        inStockByOrdinal = Arrays.copyOf(inStockByOrdinal, newLength);
+        activeByOrdinal = Arrays.copyOf(activeByOrdinal, newLength);
+        ordinalsInIdOrder = Arrays.copyOf(ordinalsInIdOrder, newLength);
+    }
+
+    private static long toCents(BigDecimal amount, RoundingMode roundingMode) {
+        return amount.movePointRight(2).setScale(0, roundingMode).longValue();
+    }
+
+    /** One page of matching product ids plus the facet counts for the whole result. */
+    public static final class FacetResult {
+
+        private final List<Long> productIds;
+        private final boolean hasNext;
+        private final int totalCount;
+        private final Map<Long, Integer> categoryCounts;
+        private final int[] priceBucketCounts;
+        private final int[] ratingCounts;
+        private final int inStockCount;
+
+        FacetResult(List<Long> productIds, boolean hasNext, int totalCount, Map<Long, Integer> categoryCounts,
+                    int[] priceBucketCounts, int[] ratingCounts, int inStockCount) {
+            this.productIds = Collections.unmodifiableList(productIds);
+            this.hasNext = hasNext;
+            this.totalCount = totalCount;
+            this.categoryCounts = Collections.unmodifiableMap(categoryCounts);
+            this.priceBucketCounts = priceBucketCounts;
+            this.ratingCounts = ratingCounts;
+            this.inStockCount = inStockCount;
+        }
+
+        public List<Long> getProductIds() { return productIds; }
+        public boolean isHasNext() { return hasNext; }
+        public int getTotalCount() { return totalCount; }
+        public Map<Long, Integer> getCategoryCounts() { return categoryCounts; }
+        public int getPriceBucketCount(int bucket) { return priceBucketCounts[bucket]; }
+        /** Number of matching products rated at least {@code stars} (1..{@link #MAX_RATING_THRESHOLD}). */
+        public int getRatingAtLeastCount(int stars) { return ratingCounts[stars]; }
+        public int getInStockCount() { return inStockCount; }
+    }
+}
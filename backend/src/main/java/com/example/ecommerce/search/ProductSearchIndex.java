@@ -0,0 +1,437 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.dto.ProductDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, category name and description.
+ * <p>
+ * Every indexed product gets a dense int ordinal; postings are primitive arrays of ordinals
+ * (always ascending, since new versions get new ordinals) with a field-weighted term frequency.
+ * Updating a product tombstones its old ordinal and appends a new one, so there is never an
+ * in-place rewrite of a postings list; an update that leaves the analyzed terms unchanged (price,
+ * stock, rating) keeps its ordinal. Once enough tombstones pile up the index compacts itself.
+ * <p>
+ * Queries use AND semantics across terms; the last query term also matches as a prefix
+ * (search-as-you-type). Hits are ranked with BM25.
+ */
+public class ProductSearchIndex {
+
+    private static final float NAME_WEIGHT = 2.0f;
+    private static final float CATEGORY_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // Prefix eşleşmeleri tam eşleşmenin biraz altında puanlanır
+    private static final float PREFIX_BOOST = 0.8f;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final NavigableMap<String, Postings> postingsByTerm = new TreeMap<>();
+    private final Map<Long, Integer> ordinalByProductId = new HashMap<>();
+    private final BitSet live = new BitSet();
+
+    private long[] productIdByOrdinal = new long[1024];
+    private float[] docLengthByOrdinal = new float[1024];
+    private String[][] termsByOrdinal = new String[1024][];
+    private float[][] weightsByOrdinal = new float[1024][];
+    private int nextOrdinal = 0;
+    private int liveCount = 0;
+    private double totalDocLength = 0;
+
+    /**
+     * Adds or replaces the given product. Callers are expected to pass active products only;
+     * inactive ones should be {@link #remove(Long) removed}.
+     */
+    public void put(ProductDto product) {
+        Map<String, Float> termWeights = analyze(product);
+        lock.writeLock().lock();
+        try {
+            Integer current = ordinalByProductId.get(product.getId());
+            if (current != null && sameTerms(current, termWeights)) {
+                return;
+            }
+            removeInternal(product.getId());
+            int ordinal = nextOrdinal++;
+            ensureCapacity(ordinal + 1);
+
+            float docLength = 0;
+            String[] terms = new String[termWeights.size()];
+            float[] weights = new float[termWeights.size()];
+            int i = 0;
+            for (Map.Entry<String, Float> entry : termWeights.entrySet()) {
+                postingsByTerm.computeIfAbsent(entry.getKey(), t -> new Postings()).add(ordinal, entry.getValue());
+                docLength += entry.getValue();
+                terms[i] = entry.getKey();
+                weights[i++] = entry.getValue();
+            }
+            productIdByOrdinal[ordinal] = product.getId();
+            docLengthByOrdinal[ordinal] = docLength;
+            termsByOrdinal[ordinal] = terms;
+            weightsByOrdinal[ordinal] = weights;
+            ordinalByProductId.put(product.getId(), ordinal);
+            live.set(ordinal);
+            liveCount++;
+            totalDocLength += docLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        compactIfNeeded();
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        compactIfNeeded();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs the query and returns the ids of the hits on the requested page, best first,
+     * together with the total number of matching products.
+     */
+    public SearchHits search(String query, int page, int size) {
+        List<String> tokens = TextAnalyzer.tokenize(query);
+        if (tokens.isEmpty() || size < 1 || page < 0) {
+            return SearchHits.EMPTY;
+        }
+        // Tekrarlanan terimler sonucu değiştirmez, sırayı koruyarak tekilleştir
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(tokens));
+        String lastToken = tokens.get(tokens.size() - 1);
+
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0) {
+                return SearchHits.EMPTY;
+            }
+            List<Map<Postings, Float>> clauses = new ArrayList<>(distinct.size());
+            for (String token : distinct) {
+                Map<Postings, Float> clause = new LinkedHashMap<>();
+                Postings exact = postingsByTerm.get(token);
+                if (exact != null) {
+                    clause.put(exact, 1.0f);
+                }
+                if (token.equals(lastToken)) {
+                    int expansions = 0;
+                    for (Map.Entry<String, Postings> e : postingsByTerm.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+                        if (expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                            break;
+                        }
+                        clause.put(e.getValue(), PREFIX_BOOST);
+                    }
+                }
+                if (clause.isEmpty()) {
+                    return SearchHits.EMPTY; // AND: eşleşmeyen terim varsa sonuç yok
+                }
+                clauses.add(clause);
+            }
+
+            // En seçici (en az posting içeren) koşuldan başlayarak adayları daralt
+            clauses.sort((a, b) -> Integer.compare(postingCount(a), postingCount(b)));
+            BitSet candidates = null;
+            for (Map<Postings, Float> clause : clauses) {
+                BitSet matches = new BitSet(nextOrdinal);
+                for (Postings postings : clause.keySet()) {
+                    for (int i = 0; i < postings.size; i++) {
+                        int ordinal = postings.ordinals[i];
+                        if (candidates == null ? live.get(ordinal) : candidates.get(ordinal)) {
+                            matches.set(ordinal);
+                        }
+                    }
+                }
+                candidates = matches;
+                if (candidates.isEmpty()) {
+                    return SearchHits.EMPTY;
+                }
+            }
+
+            int totalHits = candidates.cardinality();
+            int offset = page * size;
+            if (offset >= totalHits) {
+                return new SearchHits(totalHits, Collections.emptyList());
+            }
+
+            float avgDocLength = (float) (totalDocLength / liveCount);
+            // Puanlar yalnızca adaylar için tutulur (artan ordinal sırasıyla); diziler isabet sayısı kadardır,
+            // indeks boyutu kadar değil. Posting'ler de artan sırada olduğundan eşleştirme tek geçişte yapılır
+            int[] candidateOrdinals = candidates.stream().toArray();
+            float[] scores = new float[totalHits];
+            for (Map<Postings, Float> clause : clauses) {
+                for (Map.Entry<Postings, Float> entry : clause.entrySet()) {
+                    Postings postings = entry.getKey();
+                    float idf = idf(postings.liveDocFreq);
+                    float boost = entry.getValue();
+                    int candidate = 0;
+                    for (int i = 0; i < postings.size && candidate < totalHits; i++) {
+                        int ordinal = postings.ordinals[i];
+                        while (candidate < totalHits && candidateOrdinals[candidate] < ordinal) {
+                            candidate++;
+                        }
+                        if (candidate == totalHits || candidateOrdinals[candidate] != ordinal) {
+                            continue;
+                        }
+                        float tf = postings.weights[i];
+                        float norm = K1 * (1 - B + B * docLengthByOrdinal[ordinal] / avgDocLength);
+                        float termScore = boost * idf * (tf * (K1 + 1)) / (tf + norm);
+                        scores[candidate] += termScore;
+                    }
+                }
+            }
+            return new SearchHits(totalHits, topIds(candidateOrdinals, scores, offset, Math.min(size, totalHits - offset)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Sadece offset + size kadar aday sırası tutan min-heap (int dizisi); kökte en kötü sıradaki aday durur.
+    // Tüm sonuçları sıralamaktan daha ucuz.
+    private List<Long> topIds(int[] candidateOrdinals, float[] scores, int offset, int count) {
+        int k = offset + count;
+        int[] heap = new int[k];
+        int heapSize = 0;
+        for (int candidate = 0; candidate < candidateOrdinals.length; candidate++) {
+            if (heapSize < k) {
+                heap[heapSize] = candidate;
+                siftUp(heap, heapSize++, scores);
+            } else if (ranksAbove(candidate, heap[0], scores)) {
+                heap[0] = candidate;
+                siftDown(heap, heapSize, scores);
+            }
+        }
+        Long[] ordered = new Long[heapSize];
+        for (int i = ordered.length - 1; i >= 0; i--) {
+            ordered[i] = productIdByOrdinal[candidateOrdinals[heap[0]]];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, scores);
+        }
+        return Arrays.asList(ordered).subList(offset, Math.min(ordered.length, k));
+    }
+
+    // Yüksek puan önde; eşit puanda önceki aday (küçük ordinal, daha eski kayıt) önde
+    private static boolean ranksAbove(int a, int b, float[] scores) {
+        int cmp = Float.compare(scores[a], scores[b]);
+        return cmp != 0 ? cmp > 0 : a < b;
+    }
+
+    private static void siftUp(int[] heap, int index, float[] scores) {
+        int ordinal = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksAbove(heap[parent], ordinal, scores)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = ordinal;
+    }
+
+    private static void siftDown(int[] heap, int heapSize, float[] scores) {
+        if (heapSize == 0) {
+            return;
+        }
+        int ordinal = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && ranksAbove(heap[child], heap[child + 1], scores)) {
+                child++;
+            }
+            if (!ranksAbove(ordinal, heap[child], scores)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = ordinal;
+    }
+
+    private float idf(int docFreq) {
+        return (float) Math.log(1 + (liveCount - docFreq + 0.5) / (docFreq + 0.5));
+    }
+
+    private static int postingCount(Map<Postings, Float> clause) {
+        int total = 0;
+        for (Postings postings : clause.keySet()) {
+            total += postings.size;
+        }
+        return total;
+    }
+
+    // Fiyat, stok, puan gibi aranmayan alanlar değiştiyse terimler ve ağırlıkları aynı kalır
+    private boolean sameTerms(int ordinal, Map<String, Float> termWeights) {
+        String[] terms = termsByOrdinal[ordinal];
+        if (terms.length != termWeights.size()) {
+            return false;
+        }
+        float[] weights = weightsByOrdinal[ordinal];
+        for (int i = 0; i < terms.length; i++) {
+            Float weight = termWeights.get(terms[i]);
+            if (weight == null || weight != weights[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void removeInternal(Long productId) {
+        Integer ordinal = ordinalByProductId.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        live.clear(ordinal);
+        liveCount--;
+        totalDocLength -= docLengthByOrdinal[ordinal];
+        for (String term : termsByOrdinal[ordinal]) {
+            Postings postings = postingsByTerm.get(term);
+            if (postings != null) {
+                postings.liveDocFreq--;
+            }
+        }
+        termsByOrdinal[ordinal] = null;
+        weightsByOrdinal[ordinal] = null;
+    }
+
+    // Tombstone oranı yarıyı geçince tüm ordinal'ler yeniden numaralandırılır
+    private void compactIfNeeded() {
+        lock.writeLock().lock();
+        try {
+            int dead = nextOrdinal - liveCount;
+            if (dead < 1024 || dead < liveCount) {
+                return;
+            }
+            int[] remap = new int[nextOrdinal];
+            int newOrdinal = 0;
+            for (int old = live.nextSetBit(0); old >= 0; old = live.nextSetBit(old + 1)) {
+                remap[old] = newOrdinal;
+                productIdByOrdinal[newOrdinal] = productIdByOrdinal[old];
+                docLengthByOrdinal[newOrdinal] = docLengthByOrdinal[old];
+                termsByOrdinal[newOrdinal] = termsByOrdinal[old];
+                weightsByOrdinal[newOrdinal] = weightsByOrdinal[old];
+                ordinalByProductId.put(productIdByOrdinal[newOrdinal], newOrdinal);
+                newOrdinal++;
+            }
+            Arrays.fill(termsByOrdinal, newOrdinal, nextOrdinal, null);
+            Arrays.fill(weightsByOrdinal, newOrdinal, nextOrdinal, null);
+            postingsByTerm.values().removeIf(postings -> {
+                postings.compact(live, remap);
+                return postings.size == 0;
+            });
+            live.clear();
+            live.set(0, newOrdinal);
+            nextOrdinal = newOrdinal;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= productIdByOrdinal.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, productIdByOrdinal.length * 2);
+        productIdByOrdinal = Arrays.copyOf(productIdByOrdinal, newLength);
+        docLengthByOrdinal = Arrays.copyOf(docLengthByOrdinal, newLength);
+        termsByOrdinal = Arrays.copyOf(termsByOrdinal, newLength);
+        weightsByOrdinal = Arrays.copyOf(weightsByOrdinal, newLength);
+    }
+
+    private static Map<String, Float> analyze(ProductDto product) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, product.getName(), NAME_WEIGHT);
+        addField(weights, product.getCategoryName(), CATEGORY_WEIGHT);
+        addField(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+        return weights;
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float weight) {
+        for (String token : TextAnalyzer.tokenize(text)) {
+            weights.merge(token, weight, Float::sum);
+        }
+    }
+
+    /** Postings of one term: ascending ordinals with their weighted term frequencies. */
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+        private int liveDocFreq;
+
+        void add(int ordinal, float weight) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ordinals[size] = ordinal;
+            weights[size] = weight;
+            size++;
+            liveDocFreq++;
+        }
+
+        void compact(BitSet live, int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (live.get(ordinals[i])) {
+                    ordinals[kept] = remap[ordinals[i]];
+                    weights[kept] = weights[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            ordinals = Arrays.copyOf(ordinals, Math.max(kept, 1));
+            weights = Arrays.copyOf(weights, Math.max(kept, 1));
+        }
+    }
+
+    /** Product ids of one result page, best first, plus the total number of hits. */
+    public static final class SearchHits {
+
+        static final SearchHits EMPTY = new SearchHits(0, Collections.emptyList());
+
+        private final int totalHits;
+        private final List<Long> productIds;
+
+        SearchHits(int totalHits, List<Long> productIds) {
+            this.totalHits = totalHits;
+            this.productIds = productIds;
+        }
+
+        public int getTotalHits() {
+            return totalHits;
+        }
+
+        public List<Long> getProductIds() {
+            return productIds;
+        }
+    }
+}
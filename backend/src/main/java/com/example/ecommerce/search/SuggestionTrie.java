@@ -0,0 +1,381 @@
+package com.example.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix index for search-as-you-type suggestions.
+ * <p>
+ * A radix tree (path-compressed trie) over normalized keys. Each entry is stored under its full
+ * text and under the suffixes starting at its next few words, so "pro" also suggests
+ * "Apple MacBook Pro". Every node caches the best {@link #MAX_SUGGESTIONS} entries of its subtree,
+ * ranked by score. A lookup is therefore one walk down the prefix with no subtree scan, and
+ * its cost does not grow with the number of indexed entries.
+ * <p>
+ * Entries are added, removed and re-scored one at a time. Only the cached lists on the affected
+ * key paths are recomputed.
+ */
+public class SuggestionTrie {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    // Bir girdinin kaç kelime başlangıcından bulunabileceği ve anahtarların en fazla uzunluğu
+    private static final int MAX_WORD_STARTS = 4;
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private final Map<Long, Entry> entriesById = new HashMap<>();
+
+    /** Adds the entry, or replaces the one with the same id (text and score may both change). */
+    public void put(long id, String text, double score) {
+        Entry entry = new Entry(id, text, score);
+        List<String> keys = keysFor(text);
+        lock.writeLock().lock();
+        try {
+            Entry previous = entriesById.put(id, entry);
+            if (previous != null) {
+                for (String key : keysFor(previous.text)) {
+                    removeKey(key, previous);
+                }
+            }
+            for (String key : keys) {
+                insertKey(key, entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entriesById.remove(id);
+            if (previous != null) {
+                for (String key : keysFor(previous.text)) {
+                    removeKey(key, previous);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entriesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} (at most {@link #MAX_SUGGESTIONS}) entries whose text, or one of
+     * its later words, starts with {@code prefix}, best first. A trailing separator in the prefix
+     * restricts matches to the next whole word ("ayakkabı " does not match "ayakkabılık").
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = prefixKey(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = find(key);
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            int count = Math.min(Math.min(limit, MAX_SUGGESTIONS), node.topSize);
+            List<Suggestion> suggestions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Entry entry = node.top[i];
+                suggestions.add(new Suggestion(entry.id, entry.text, entry.score));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- anahtarlar -----------------------------------------------------------------------------
+
+    // "Apple MacBook Pro 14" -> ["apple macbook pro 14", "macbook pro 14", "pro 14", "14"]
+    private static List<String> keysFor(String text) {
+        List<String> tokens = TextAnalyzer.tokenize(text);
+        List<String> keys = new ArrayList<>(Math.min(tokens.size(), MAX_WORD_STARTS));
+        for (int start = 0; start < tokens.size() && start < MAX_WORD_STARTS; start++) {
+            String key = truncate(String.join(" ", tokens.subList(start, tokens.size())));
+            if (!keys.contains(key)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static String prefixKey(String prefix) {
+        List<String> tokens = TextAnalyzer.tokenize(prefix);
+        if (tokens.isEmpty()) {
+            return "";
+        }
+        String key = String.join(" ", tokens);
+        char last = prefix.charAt(prefix.length() - 1);
+        if (!Character.isLetterOrDigit(last) && last != '\u0307') {
+            key += " ";
+        }
+        return truncate(key);
+    }
+
+    private static String truncate(String key) {
+        return key.length() <= MAX_KEY_LENGTH ? key : key.substring(0, MAX_KEY_LENGTH);
+    }
+
+    // --- ağaç işlemleri -------------------------------------------------------------------------
+
+    private Node find(String key) {
+        Node node = root;
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.child(key.charAt(pos));
+            if (child == null) {
+                return null;
+            }
+            int remaining = key.length() - pos;
+            if (remaining <= child.edge.length()) {
+                // Önek bu kenarın ortasında bitiyor olabilir
+                return child.edge.startsWith(key.substring(pos)) ? child : null;
+            }
+            if (!key.startsWith(child.edge, pos)) {
+                return null;
+            }
+            pos += child.edge.length();
+            node = child;
+        }
+        return node;
+    }
+
+    private void insertKey(String key, Entry entry) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.child(key.charAt(pos));
+            if (child == null) {
+                Node leaf = new Node(key.substring(pos));
+                node.addChild(leaf);
+                node = leaf;
+                path.add(node);
+                break;
+            }
+            int common = commonPrefixLength(child.edge, key, pos);
+            if (common < child.edge.length()) {
+                // Kenarı böl: ortak kısım yeni bir ara düğüm olur
+                Node middle = new Node(child.edge.substring(0, common));
+                node.replaceChild(child, middle);
+                child.edge = child.edge.substring(common);
+                middle.addChild(child);
+                middle.copyTopFrom(child);
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            pos += common;
+        }
+        node.terminals.add(entry);
+        for (Node onPath : path) {
+            onPath.offer(entry);
+        }
+    }
+
+    private void removeKey(String key, Entry entry) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.child(key.charAt(pos));
+            if (child == null || !key.startsWith(child.edge, pos)) {
+                return;
+            }
+            node = child;
+            path.add(node);
+            pos += child.edge.length();
+        }
+        if (!node.terminals.remove(entry)) {
+            return;
+        }
+
+        // Alttan yukarı: yalnızca bu girdiyi önbelleğinde tutan düğümler yeniden hesaplanır
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node current = path.get(i);
+            if (i > 0 && current.terminals.isEmpty() && current.childCount == 0) {
+                path.get(i - 1).removeChild(current);
+                continue;
+            }
+            if (i > 0 && current.terminals.isEmpty() && current.childCount == 1) {
+                // Tek çocuklu boş ara düğümü çocuğuyla birleştir (sıkıştırmayı koru)
+                Node only = current.children[0];
+                only.edge = current.edge + only.edge;
+                path.get(i - 1).replaceChild(current, only);
+                continue;
+            }
+            if (current.holds(entry)) {
+                current.recomputeTop();
+            }
+        }
+    }
+
+    private static int commonPrefixLength(String edge, String key, int offset) {
+        int max = Math.min(edge.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && edge.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    // Yüksek puan önce; eşitlikte kısa metin, sonra küçük id
+    private static int compare(Entry a, Entry b) {
+        int byScore = Double.compare(b.score, a.score);
+        if (byScore != 0) {
+            return byScore;
+        }
+        int byLength = Integer.compare(a.text.length(), b.text.length());
+        return byLength != 0 ? byLength : Long.compare(a.id, b.id);
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final String text;
+        private final double score;
+
+        private Entry(long id, String text, double score) {
+            this.id = id;
+            this.text = text;
+            this.score = score;
+        }
+    }
+
+    private static final class Node {
+        private String edge;
+        private char[] firstChars = new char[0];
+        private Node[] children = new Node[0];
+        private int childCount;
+        private final List<Entry> terminals = new ArrayList<>(1);
+        private final Entry[] top = new Entry[MAX_SUGGESTIONS];
+        private int topSize;
+
+        private Node(String edge) {
+            this.edge = edge;
+        }
+
+        private Node child(char first) {
+            int index = Arrays.binarySearch(firstChars, 0, childCount, first);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private void addChild(Node child) {
+            char first = child.edge.charAt(0);
+            int index = -Arrays.binarySearch(firstChars, 0, childCount, first) - 1;
+            if (childCount == children.length) {
+                int capacity = Math.max(2, childCount * 2);
+                firstChars = Arrays.copyOf(firstChars, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(firstChars, index, firstChars, index + 1, childCount - index);
+            System.arraycopy(children, index, children, index + 1, childCount - index);
+            firstChars[index] = first;
+            children[index] = child;
+            childCount++;
+        }
+
+        // İlk karakteri aynı kalan bir çocuğu başka bir düğümle değiştirir
+        private void replaceChild(Node oldChild, Node newChild) {
+            int index = Arrays.binarySearch(firstChars, 0, childCount, oldChild.edge.charAt(0));
+            children[index] = newChild;
+        }
+
+        private void removeChild(Node child) {
+            int index = Arrays.binarySearch(firstChars, 0, childCount, child.edge.charAt(0));
+            System.arraycopy(firstChars, index + 1, firstChars, index, childCount - index - 1);
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            childCount--;
+            children[childCount] = null;
+        }
+
+        private boolean holds(Entry entry) {
+            for (int i = 0; i < topSize; i++) {
+                if (top[i] == entry) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void copyTopFrom(Node other) {
+            System.arraycopy(other.top, 0, top, 0, other.topSize);
+            topSize = other.topSize;
+        }
+
+        /** Inserts the entry into this node's cached ranking if it belongs there. */
+        private void offer(Entry entry) {
+            if (holds(entry)) {
+                return;
+            }
+            if (topSize == MAX_SUGGESTIONS && compare(entry, top[topSize - 1]) >= 0) {
+                return;
+            }
+            int index = topSize < MAX_SUGGESTIONS ? topSize++ : topSize - 1;
+            while (index > 0 && compare(entry, top[index - 1]) < 0) {
+                top[index] = top[index - 1];
+                index--;
+            }
+            top[index] = entry;
+        }
+
+        private void recomputeTop() {
+            Arrays.fill(top, null);
+            topSize = 0;
+            for (Entry entry : terminals) {
+                offer(entry);
+            }
+            for (int c = 0; c < childCount; c++) {
+                Node child = children[c];
+                for (int i = 0; i < child.topSize; i++) {
+                    offer(child.top[i]);
+                }
+            }
+        }
+    }
+
+    public static final class Suggestion {
+        private final long id;
+        private final String text;
+        private final double score;
+
+        private Suggestion(long id, String text, double score) {
+            this.id = id;
+            this.text = text;
+            this.score = score;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+}
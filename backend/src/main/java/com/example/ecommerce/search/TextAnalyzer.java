@@ -0,0 +1,84 @@
+package com.example.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits free text into normalized index terms. Used both when indexing products and
+ * when parsing search queries, so both sides always agree on the term form.
+ */
+public final class TextAnalyzer {
+
+    // "i̇" gibi ayrık yazılmış noktalı i'lerdeki birleşik nokta
+    private static final char COMBINING_DOT_ABOVE = '\u0307';
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Lower-cases and folds the text so that Turkish spellings match regardless of casing and keyboard:
+     * I/ı/İ/i all become {@code i} and ç, ğ, ö, ş, ü lose their diacritics. Plain
+     * {@code toLowerCase(Locale.ROOT)} would turn "İ" into "i" + combining dot and keep "ı" distinct
+     * from "i", so "IŞIK", "ışık" and "isik" would never meet.
+     */
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch != COMBINING_DOT_ABOVE) {
+                normalized.append(fold(ch));
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static char fold(char ch) {
+        switch (ch) {
+            case 'I': case 'ı': case 'İ':
+                return 'i';
+            case 'Ç': case 'ç':
+                return 'c';
+            case 'Ğ': case 'ğ':
+                return 'g';
+            case 'Ö': case 'ö':
+                return 'o';
+            case 'Ş': case 'ş':
+                return 's';
+            case 'Ü': case 'ü':
+                return 'u';
+            default:
+                return Character.toLowerCase(ch);
+        }
+    }
+
+    /**
+     * Returns the terms of the given text in order (duplicates kept). A term is a maximal
+     * run of letters/digits; everything else is treated as a separator.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = normalize(text);
+        int start = -1;
+        for (int i = 0; i < normalized.length(); i++) {
+            char ch = normalized.charAt(i);
+            if (Character.isLetterOrDigit(ch)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            tokens.add(normalized.substring(start));
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.OrderDto;
+import com.example.ecommerce.dto.OrderSearchPageDto;
+import com.example.ecommerce.entity.OrderStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Admin order search, newest first, with keyset pagination on {@code (order_date, id)}.
+ * <p>
+ * Each filter combination is served by one of the composite indexes on {@code orders}
+ * ({@code (order_date, id)}, {@code (status, order_date, id)}, {@code (customer_user_id, order_date, id)}),
+ * so a page costs the same at any depth and no {@code COUNT(*)} runs unless the caller asks for it. Even
+ * then counting stops at {@code count-cap}. The archive tables, which carry the same indexes, are read
+ * only when the date range and the page reach past the newest archived order. The username filter is a
+ * case-insensitive prefix match. It is resolved to customer ids on the unique username index first,
+ * instead of a leading-wildcard {@code LIKE} over every order's customer. The page's orders are then
+ * loaded with their details in one entity-graph query ({@link OrderService#getOrdersWithDetails}).
+ * <p>
+ * {@link #list} serves the older offset-paged admin list from the same tables.
+ */
+@Service
+public class AdminOrderSearchService {
+
+    private static final String CUSTOMERS_BY_PREFIX_SQL =
+            "SELECT id FROM users WHERE username LIKE :prefix ORDER BY username LIMIT :limit";
+    private static final String CUSTOMERS_BY_SUBSTRING_FILTER =
+            "AND o.customer_user_id IN (SELECT u.id FROM users u WHERE LOWER(u.username) LIKE :usernamePattern) ";
+
+    private static final String LIVE_TABLE = "orders";
+    private static final String ARCHIVE_TABLE = "orders_archive";
+
+    private static final Comparator<PageRow> NEWEST_FIRST =
+            Comparator.comparing((PageRow row) -> row.orderDate).thenComparingLong(row -> row.id).reversed();
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final OrderService orderService;
+    private final OrderArchiveService orderArchiveService;
+
+    @Value("${app.orders.page-size.default:20}")
+    private int defaultPageSize;
+
+    @Value("${app.orders.page-size.max:100}")
+    private int maxPageSize;
+
+    @Value("${app.admin.orders.count-cap:10000}")
+    private long countCap;
+
+    @Value("${app.admin.orders.username-match-limit:200}")
+    private int usernameMatchLimit;
+
+    @Autowired
+    public AdminOrderSearchService(NamedParameterJdbcTemplate namedJdbcTemplate, OrderService orderService,
+                                   OrderArchiveService orderArchiveService) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.orderService = orderService;
+        this.orderArchiveService = orderArchiveService;
+    }
+
+    /**
+     * One page of orders matching all given filters, newest first.
+     *
+     * @param usernamePrefix case-insensitive prefix of the customer's username, or {@code null}
+     * @param startDate      first day to include, or {@code null}
+     * @param endDate        last day to include, or {@code null}
+     * @param cursor         {@code nextCursor} of the previous page, or {@code null} for the first page
+     * @param includeCount   whether to count the matching orders (up to {@code count-cap})
+     */
+    @Transactional(readOnly = true)
+    public OrderSearchPageDto search(String usernamePrefix, OrderStatus status, LocalDate startDate, LocalDate endDate,
+                                     Long cursor, Integer size, boolean includeCount) {
+        int limit = PageSizes.resolve(size, defaultPageSize, maxPageSize);
+        if (startDate != null && endDate != null && endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date.");
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder where = new StringBuilder("WHERE 1 = 1 ");
+        if (usernamePrefix != null && !usernamePrefix.isBlank()) {
+            List<Long> customerIds = findCustomerIdsByPrefix(usernamePrefix.trim());
+            if (customerIds.isEmpty()) {
+                return new OrderSearchPageDto(List.of(), false, null, includeCount ? 0L : null, false);
+            }
+            where.append("AND o.customer_user_id IN (:customerIds) ");
+            params.addValue("customerIds", customerIds);
+        }
+        appendStatusAndDates(where, params, status, startDate, endDate);
+
+        LocalDateTime fromDate = startDate == null ? null : startDate.atStartOfDay();
+        Long totalCount = null;
+        boolean totalCountCapped = false;
+        if (includeCount) {
+            long counted = countCapped(LIVE_TABLE, where, params, countCap + 1);
+            // Arşiv yalnızca tarih aralığı arşivlenmiş siparişlere uzanıyorsa sayılır
+            if (counted <= countCap && orderArchiveService.coversDate(fromDate)) {
+                counted += countCapped(ARCHIVE_TABLE, where, params, countCap + 1 - counted);
+            }
+            totalCountCapped = counted > countCap;
+            totalCount = totalCountCapped ? countCap : counted;
+        }
+
+        String pageWhere = where.toString();
+        if (cursor != null) {
+            pageWhere += orderArchiveService.afterDateCursor(cursor, "o", "id", params);
+        }
+        params.addValue("limit", limit + 1);
+        List<PageRow> rows = findPageRows(LIVE_TABLE, pageWhere, params);
+        if (orderArchiveService.isNeededForDatePage(rows.size(), limit + 1,
+                rows.isEmpty() ? null : rows.get(rows.size() - 1).orderDate, fromDate)) {
+            rows.addAll(findPageRows(ARCHIVE_TABLE, pageWhere, params));
+            rows.sort(NEWEST_FIRST);
+            rows = rows.subList(0, Math.min(rows.size(), limit + 1));
+        }
+        List<Long> orderIds = rows.stream().map(row -> row.id).collect(Collectors.toList());
+
+        boolean hasNext = orderIds.size() > limit;
+        if (hasNext) {
+            orderIds = orderIds.subList(0, limit);
+        }
+        return new OrderSearchPageDto(orderService.getOrdersWithDetails(orderIds), hasNext,
+                hasNext ? orderIds.get(limit - 1) : null, totalCount, totalCountCapped);
+    }
+
+    /**
+     * Offset page of orders for the plain admin list, live and archived together, newest first, with the
+     * full number of matches. The username filter is a case-insensitive substring match. A page reads the
+     * first {@code offset + size} rows of each table, so {@link #search} is the better fit for deep pages.
+     */
+    @Transactional(readOnly = true)
+    public Page<OrderDto> list(Pageable pageable, String customerUsername, OrderStatus status,
+                               LocalDate startDate, LocalDate endDate) {
+        if (startDate != null && endDate != null && endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date.");
+        }
+        long wanted = pageable.getOffset() + pageable.getPageSize();
+        if (wanted > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Page is too deep. Please use /api/admin/orders/search.");
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder where = new StringBuilder("WHERE 1 = 1 ");
+        if (customerUsername != null && !customerUsername.isBlank()) {
+            where.append(CUSTOMERS_BY_SUBSTRING_FILTER);
+            params.addValue("usernamePattern", "%" + escapeLike(customerUsername.trim().toLowerCase()) + "%");
+        }
+        appendStatusAndDates(where, params, status, startDate, endDate);
+
+        LocalDateTime fromDate = startDate == null ? null : startDate.atStartOfDay();
+        boolean archiveInRange = orderArchiveService.coversDate(fromDate);
+        long total = count(LIVE_TABLE, where, params) + (archiveInRange ? count(ARCHIVE_TABLE, where, params) : 0);
+        if (pageable.getOffset() >= total) {
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+
+        // Sayfanın yeri iki tablonun birleşik sırasında belirlenir: her ikisinden ilk offset + size satır okunur
+        params.addValue("limit", (int) wanted);
+        List<PageRow> rows = findPageRows(LIVE_TABLE, where.toString(), params);
+        if (archiveInRange && orderArchiveService.isNeededForDatePage(rows.size(), (int) wanted,
+                rows.isEmpty() ? null : rows.get(rows.size() - 1).orderDate, fromDate)) {
+            rows.addAll(findPageRows(ARCHIVE_TABLE, where.toString(), params));
+            rows.sort(NEWEST_FIRST);
+        }
+        List<Long> orderIds = rows.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(row -> row.id)
+                .collect(Collectors.toList());
+        return new PageImpl<>(orderService.getOrdersWithDetails(orderIds), pageable, total);
+    }
+
+    private static void appendStatusAndDates(StringBuilder where, MapSqlParameterSource params, OrderStatus status,
+                                             LocalDate startDate, LocalDate endDate) {
+        if (status != null) {
+            where.append("AND o.status = :status ");
+            params.addValue("status", status.name());
+        }
+        if (startDate != null) {
+            where.append("AND o.order_date >= :fromDate ");
+            params.addValue("fromDate", Timestamp.valueOf(startDate.atStartOfDay()));
+        }
+        if (endDate != null) {
+            // Bitiş günü dahil: ertesi günün başlangıcından önceki her an
+            where.append("AND o.order_date < :toDate ");
+            params.addValue("toDate", Timestamp.valueOf(endDate.plusDays(1).atStartOfDay()));
+        }
+    }
+
+    private long count(String table, CharSequence where, MapSqlParameterSource params) {
+        Long counted = namedJdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " o " + where, params, Long.class);
+        return counted == null ? 0 : counted;
+    }
+
+    // Alt sorgu limit satırda durur; sonuç limit'e ulaşırsa çağıran "en az cap" olarak raporlar
+    private long countCapped(String table, CharSequence where, MapSqlParameterSource params, long limit) {
+        Long counted = namedJdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT 1 FROM " + table + " o " + where + "LIMIT :countLimit) matched",
+                new MapSqlParameterSource(params.getValues()).addValue("countLimit", limit), Long.class);
+        return counted == null ? 0 : counted;
+    }
+
+    private List<PageRow> findPageRows(String table, String where, MapSqlParameterSource params) {
+        return namedJdbcTemplate.query(
+                "SELECT o.id, o.order_date FROM " + table + " o " + where + "ORDER BY o.order_date DESC, o.id DESC LIMIT :limit",
+                params, (rs, rowNum) -> new PageRow(rs.getLong("id"), rs.getTimestamp("order_date").toLocalDateTime()));
+    }
+
+    private static final class PageRow {
+        private final long id;
+        private final LocalDateTime orderDate;
+
+        private PageRow(long id, LocalDateTime orderDate) {
+            this.id = id;
+            this.orderDate = orderDate;
+        }
+    }
+
+    private List<Long> findCustomerIdsByPrefix(String prefix) {
+        List<Long> ids = namedJdbcTemplate.queryForList(CUSTOMERS_BY_PREFIX_SQL,
+                new MapSqlParameterSource("prefix", escapeLike(prefix) + "%").addValue("limit", usernameMatchLimit + 1), Long.class);
+        if (ids.size() > usernameMatchLimit) {
+            throw new IllegalArgumentException("Username prefix '" + prefix + "' matches more than "
+                    + usernameMatchLimit + " customers. Please type more characters.");
+        }
+        return ids;
+    }
+
+    // LIKE joker karakterleri kaçışlanır; users.username kolasyonu büyük/küçük harf duyarsızdır
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.checkout.CheckoutJobStatus;
+import com.example.ecommerce.dto.CheckoutStatusDto;
+import com.example.ecommerce.dto.CreateOrderRequestDto;
+import com.example.ecommerce.dto.OrderDto;
+import com.example.ecommerce.exception.ResourceNotFoundException;
+import com.example.ecommerce.exception.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous checkout: the request is validated and queued, and a bounded pool of checkout workers
+ * turns carts into orders.
+ * <p>
+ * The request thread only runs {@link OrderService#validateCheckoutRequest} and hands the checkout
+ * to the pool, so a burst shows up as queue depth instead of busy Tomcat threads and timeouts. When
+ * the queue is full, new checkouts are refused with 429. A worker runs the same pipeline as
+ * {@code POST /api/orders} (waiting room check, then {@link OrderService#createOrder}) with the
+ * caller's security context. Each state change is recorded on the checkout, and the client polls it
+ * by reference. Finished checkouts stay queryable for {@code result-retention-minutes}.
+ * <p>
+ * Checkouts live in memory and are meant for a single application instance, like the waiting rooms.
+ * Queued checkouts are lost on shutdown; their polls then return 404 and the client can retry.
+ * <p>
+ * A retry with the same {@code Idempotency-Key} gets the checkout it started, with its current state,
+ * as long as that checkout is kept. Once the checkout has FAILED the key starts a new one. The
+ * shared {@link IdempotencyService} is not used here because it would store the QUEUED snapshot as
+ * the final response and replay it even after the checkout failed.
+ */
+@Service
+public class AsyncCheckoutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncCheckoutService.class);
+
+    private static final long MAX_POLL_AFTER_SECONDS = 10;
+
+    private final OrderService orderService;
+    private final CheckoutAdmissionService checkoutAdmissionService;
+    private final ThreadPoolExecutor workers;
+    private final int workerCount;
+    private final Map<String, CheckoutJob> jobs = new ConcurrentHashMap<>();
+    // Kullanıcı + Idempotency-Key -> checkout referansı; checkout silinince eşleme de düşer
+    private final Map<String, String> referencesByKey = new ConcurrentHashMap<>();
+    // Kuyruk FIFO olduğundan sıra = kabul sırası - en son başlayan checkout'un sırası
+    private final AtomicLong lastSubmittedSequence = new AtomicLong();
+    private final AtomicLong lastStartedSequence = new AtomicLong();
+
+    @Value("${app.checkout.async.result-retention-minutes:15}")
+    private long resultRetentionMinutes;
+
+    @Autowired
+    public AsyncCheckoutService(OrderService orderService,
+                                CheckoutAdmissionService checkoutAdmissionService,
+                                @Value("${app.checkout.async.workers:8}") int workerCount,
+                                @Value("${app.checkout.async.queue-capacity:1000}") int queueCapacity) {
+        this.orderService = orderService;
+        this.checkoutAdmissionService = checkoutAdmissionService;
+        this.workerCount = workerCount;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "checkout-worker-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Validates the request and queues the checkout for the current user. With an idempotency key,
+     * a checkout already started with that key is returned instead (replayed) unless it failed.
+     *
+     * @throws IllegalArgumentException the key is malformed or was used for a different request
+     * @throws TooManyRequestsException the checkout queue is full
+     */
+    public IdempotencyService.Result<CheckoutStatusDto> submit(String username, String idempotencyKey,
+                                                               CreateOrderRequestDto requestDto, List<String> queueTickets) {
+        if (idempotencyKey == null) {
+            orderService.validateCheckoutRequest(requestDto);
+            return new IdempotencyService.Result<>(toDto(enqueue(username, requestDto, queueTickets)), false);
+        }
+        IdempotencyService.validateKey(idempotencyKey);
+        String dedupeKey = username + '\n' + idempotencyKey;
+        // Sepeti ilk checkout boşaltmış olabilir; tekrar doğrulamadan önce bakılır
+        CheckoutJob started = reusableJob(dedupeKey, requestDto);
+        if (started == null) {
+            orderService.validateCheckoutRequest(requestDto);
+            synchronized (referencesByKey) {
+                started = reusableJob(dedupeKey, requestDto);
+                if (started == null) {
+                    CheckoutJob job = enqueue(username, requestDto, queueTickets);
+                    referencesByKey.put(dedupeKey, job.reference);
+                    return new IdempotencyService.Result<>(toDto(job), false);
+                }
+            }
+        }
+        logger.debug("Returning checkout {} for idempotency key {} of user {}", started.reference, idempotencyKey, username);
+        return new IdempotencyService.Result<>(toDto(started), true);
+    }
+
+    /**
+     * Current state of a checkout of the given user.
+     *
+     * @throws ResourceNotFoundException unknown or already evicted reference
+     * @throws AccessDeniedException     the checkout belongs to another user
+     */
+    public CheckoutStatusDto getStatus(String username, String reference) {
+        CheckoutJob job = jobs.get(reference);
+        if (job == null) {
+            throw new ResourceNotFoundException("Checkout not found with reference: " + reference);
+        }
+        if (!job.username.equals(username)) {
+            throw new AccessDeniedException("This checkout belongs to another user.");
+        }
+        return toDto(job);
+    }
+
+    /** Forgets finished checkouts older than the retention period. */
+    @Scheduled(fixedDelayString = "${app.checkout.async.eviction-interval-ms:60000}")
+    public void evictFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(resultRetentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.updatedAt.isBefore(cutoff));
+        referencesByKey.values().removeIf(reference -> !jobs.containsKey(reference));
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // Çalışan checkout'lar bitirilir; kuyrukta bekleyenler bırakılır
+        int dropped = workers.getQueue().drainTo(new ArrayList<>());
+        workers.shutdown();
+        if (dropped > 0) {
+            logger.warn("Dropped {} queued checkouts on shutdown", dropped);
+        }
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Checkout workers did not finish within 30 seconds");
+        }
+    }
+
+    private CheckoutJob enqueue(String username, CreateOrderRequestDto requestDto, List<String> queueTickets) {
+        CheckoutJob job = new CheckoutJob(UUID.randomUUID().toString(), username, requestDto.getShippingAddressId(),
+                lastSubmittedSequence.incrementAndGet(), LocalDateTime.now());
+        jobs.put(job.reference, job);
+        try {
+            // Worker, isteği yapan kullanıcının security context'i ile çalışır (OrderService onu okur)
+            workers.execute(new DelegatingSecurityContextRunnable(() -> run(job, requestDto, queueTickets)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.reference);
+            // Worker başına saniyede ~10 checkout varsayımıyla kuyruğun erime süresi
+            throw new TooManyRequestsException("Checkout queue is full. Please retry shortly.",
+                    Math.max(1, workers.getQueue().size() / Math.max(1, workerCount * 10L)));
+        }
+        logger.debug("Queued checkout {} for user {} (queue depth {})", job.reference, username, workers.getQueue().size());
+        return job;
+    }
+
+    // Anahtarla başlatılmış ve hâlâ tutulan checkout; FAILED olanın anahtarı yeni checkout'a açıktır
+    private CheckoutJob reusableJob(String dedupeKey, CreateOrderRequestDto requestDto) {
+        String reference = referencesByKey.get(dedupeKey);
+        CheckoutJob job = reference != null ? jobs.get(reference) : null;
+        if (job == null || job.isFailed()) {
+            return null;
+        }
+        if (!job.shippingAddressId.equals(requestDto.getShippingAddressId())) {
+            throw new IllegalArgumentException(IdempotencyService.HEADER + " was already used for a different request.");
+        }
+        return job;
+    }
+
+    private void run(CheckoutJob job, CreateOrderRequestDto requestDto, List<String> queueTickets) {
+        lastStartedSequence.accumulateAndGet(job.sequence, Math::max);
+        job.processing();
+        try {
+            OrderDto order = checkoutAdmissionService.checkout(job.username, queueTickets,
+                    () -> orderService.createOrder(requestDto));
+            job.completed(order.getId());
+            logger.info("Checkout {} completed with order ID {}", job.reference, order.getId());
+        } catch (RuntimeException e) {
+            HttpStatus status = statusOf(e);
+            String message = status == HttpStatus.INTERNAL_SERVER_ERROR ? "An unexpected error occurred." : e.getMessage();
+            job.failed(status.value(), message);
+            if (status == HttpStatus.INTERNAL_SERVER_ERROR) {
+                logger.error("Checkout {} of user {} failed: {}", job.reference, job.username, e.getMessage(), e);
+            } else {
+                logger.warn("Checkout {} of user {} failed: {}", job.reference, job.username, e.getMessage());
+            }
+        }
+    }
+
+    // Senkron uç noktada GlobalExceptionHandler'ın vereceği durum kodu
+    private static HttpStatus statusOf(RuntimeException e) {
+        if (e instanceof ResourceNotFoundException) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (e instanceof AccessDeniedException) {
+            return HttpStatus.FORBIDDEN;
+        }
+        if (e instanceof TooManyRequestsException) {
+            return HttpStatus.TOO_MANY_REQUESTS;
+        }
+        if (e instanceof IllegalArgumentException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        if (e instanceof IllegalStateException || e instanceof DataIntegrityViolationException) {
+            return HttpStatus.CONFLICT;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    private CheckoutStatusDto toDto(CheckoutJob job) {
+        CheckoutStatusDto dto = new CheckoutStatusDto();
+        synchronized (job) {
+            dto.setReference(job.reference);
+            dto.setStatus(job.status);
+            dto.setOrderId(job.orderId);
+            dto.setErrorStatus(job.errorStatus);
+            dto.setErrorMessage(job.errorMessage);
+            dto.setCreatedAt(job.createdAt);
+            dto.setUpdatedAt(job.updatedAt);
+        }
+        long position = 0;
+        long pollAfter = 0;
+        if (dto.getStatus() == CheckoutJobStatus.QUEUED) {
+            position = Math.max(1, job.sequence - lastStartedSequence.get());
+            pollAfter = Math.min(MAX_POLL_AFTER_SECONDS, 1 + position / (workerCount * 10L));
+        } else if (dto.getStatus() == CheckoutJobStatus.PROCESSING) {
+            pollAfter = 1;
+        }
+        dto.setPosition(position);
+        dto.setPollAfterSeconds(pollAfter);
+        return dto;
+    }
+
+    private static final class CheckoutJob {
+        private final String reference;
+        private final String username;
+        private final Long shippingAddressId;
+        private final long sequence;
+        private final LocalDateTime createdAt;
+        private CheckoutJobStatus status = CheckoutJobStatus.QUEUED;
+        private Long orderId;
+        private Integer errorStatus;
+        private String errorMessage;
+        private volatile LocalDateTime updatedAt;
+
+        private CheckoutJob(String reference, String username, Long shippingAddressId, long sequence,
+                            LocalDateTime createdAt) {
+            this.reference = reference;
+            this.username = username;
+            this.shippingAddressId = shippingAddressId;
+            this.sequence = sequence;
+            this.createdAt = createdAt;
+            this.updatedAt = createdAt;
+        }
+
+        private synchronized void processing() {
+            status = CheckoutJobStatus.PROCESSING;
+            updatedAt = LocalDateTime.now();
+        }
+
+        private synchronized void completed(Long orderId) {
+            this.orderId = orderId;
+            status = CheckoutJobStatus.COMPLETED;
+            updatedAt = LocalDateTime.now();
+        }
+
+        private synchronized void failed(int errorStatus, String errorMessage) {
+            this.errorStatus = errorStatus;
+            this.errorMessage = errorMessage;
+            status = CheckoutJobStatus.FAILED;
+            updatedAt = LocalDateTime.now();
+        }
+
+        private synchronized boolean isFailed() {
+            return status == CheckoutJobStatus.FAILED;
+        }
+
+        private synchronized boolean isFinished() {
+            return status == CheckoutJobStatus.COMPLETED || status == CheckoutJobStatus.FAILED;
+        }
+    }
+}
@@ -234,16 +234,17 @@ public class CartService {
          }
      }
 
+    // Ödeme bekleyen siparişlerin ayırdığı adetler satılabilir stoktan düşülür
     private void checkStockAvailability(Product product, int requestedQuantity) {
-         if (product.getStockQuantity() < requestedQuantity) {
+         if (product.getAvailableQuantity() < requestedQuantity) {
              logger.warn("Insufficient stock for product ID: {}. Requested: {}, Available: {}",
-                         product.getId(), requestedQuantity, product.getStockQuantity());
+                         product.getId(), requestedQuantity, product.getAvailableQuantity());
              throw new IllegalArgumentException("Insufficient stock for product: " + product.getName() +
                                                 ". Requested: " + requestedQuantity +
-                                                ", Available: " + product.getStockQuantity());
+                                                ", Available: " + product.getAvailableQuantity());
          }
          logger.debug("Stock check passed for Product ID: {} (Requested: {}, Available: {})",
-                      product.getId(), requestedQuantity, product.getStockQuantity());
+                      product.getId(), requestedQuantity, product.getAvailableQuantity());
     }
 
     // --- DTO Conversion ---
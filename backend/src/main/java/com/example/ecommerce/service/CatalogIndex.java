@@ -0,0 +1,30 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.ProductDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An in-memory index over the product catalog, loaded and kept current by {@link CatalogIndexLoader}.
+ */
+interface CatalogIndex {
+
+    /** Called once before the startup build, inside its read-only transaction. */
+    default void beginBuild() {
+    }
+
+    /** Adds one batch of active products during the startup build. Batches arrive in id order. */
+    void addAll(List<ProductDto> activeProducts);
+
+    /** Called once after the last batch of the startup build. */
+    void endBuild(long elapsedMillis);
+
+    /**
+     * Patches the index after the given products were changed and committed.
+     *
+     * @param current the changed products that still exist, by id, whether active or not
+     */
+    void update(Set<Long> productIds, Map<Long, ProductDto> current);
+}
@@ -0,0 +1,77 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.event.ProductChangedEvent;
+import com.example.ecommerce.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Feeds every {@link CatalogIndex} (search, facets, suggestions) from the database. At startup the
+ * active products are read once, in keyset batches, and each batch is handed to all indexes. After
+ * a {@link ProductChangedEvent} commits, the changed products are re-read once for all indexes.
+ */
+@Component
+public class CatalogIndexLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogIndexLoader.class);
+
+    private final ProductRepository productRepository;
+    private final List<CatalogIndex> indexes;
+
+    @Value("${app.search.index.build-batch-size:1000}")
+    private int buildBatchSize;
+
+    @Autowired
+    public CatalogIndexLoader(ProductRepository productRepository, List<CatalogIndex> indexes) {
+        this.productRepository = productRepository;
+        this.indexes = indexes;
+    }
+
+    // DataInitializer (CommandLineRunner) bittikten sonra çalışır
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildIndexes() {
+        long started = System.currentTimeMillis();
+        indexes.forEach(CatalogIndex::beginBuild);
+        long afterId = 0L;
+        List<ProductDto> batch;
+        do {
+            batch = productRepository.findActiveDtoPageAfter(afterId, PageRequest.of(0, buildBatchSize));
+            if (!batch.isEmpty()) {
+                for (CatalogIndex index : indexes) {
+                    index.addAll(batch);
+                }
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == buildBatchSize);
+        long elapsedMillis = System.currentTimeMillis() - started;
+        indexes.forEach(index -> index.endBuild(elapsedMillis));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Map<Long, ProductDto> current = productRepository.findDtosByIdInBatches(event.getProductIds(), buildBatchSize).stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+        for (CatalogIndex index : indexes) {
+            index.update(event.getProductIds(), current);
+        }
+        logger.debug("Catalog indexes updated for product IDs: {}", event.getProductIds());
+    }
+}
@@ -3,12 +3,16 @@ package com.example.ecommerce.service;
 import com.example.ecommerce.dto.CategoryDto;
 import com.example.ecommerce.dto.CategoryRequestDto; // Use the new DTO name
 import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.event.ProductChangedEvent;
 import com.example.ecommerce.exception.ResourceNotFoundException;
 import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -19,6 +23,12 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional(readOnly = true)
     public List<CategoryDto> getAllCategories() {
         return categoryRepository.findAll().stream()
@@ -26,6 +36,11 @@ public class CategoryService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public String getCategoryListETag() {
+        return categoryRepository.findVersion().toETag("categories");
+    }
+
     @Transactional(readOnly = true)
     public CategoryDto getCategoryById(Long id) {
         Category category = findCategoryEntityById(id);
@@ -55,8 +70,15 @@ public class CategoryService {
              throw new IllegalArgumentException("Another category with name '" + requestDto.getName() + "' already exists.");
         }
 
+        boolean renamed = !existingCategory.getName().equals(requestDto.getName());
         existingCategory.setName(requestDto.getName());
         Category updatedCategory = categoryRepository.save(existingCategory);
+        if (renamed) {
+            // Ürün DTO'ları kategori adını taşıdığı için ürünlerin updatedAt'i (ETag) ve cache/indeksleri de yenilenmeli
+            List<Long> productIds = productRepository.findIdsByCategoryId(id);
+            productRepository.touchByCategoryId(id, LocalDateTime.now());
+            eventPublisher.publishEvent(new ProductChangedEvent(productIds));
+        }
         return convertToDto(updatedCategory);
     }
 
@@ -68,7 +90,10 @@ public class CategoryService {
         }
         // Add logic here later to handle products associated with this category if needed
         // (e.g., set product's category to null, prevent deletion if products exist, etc.)
+        List<Long> productIds = productRepository.findIdsByCategoryId(id);
         categoryRepository.deleteById(id);
+        // Cascade ile silinen ürünler cache ve arama indekslerinden de düşsün
+        eventPublisher.publishEvent(new ProductChangedEvent(productIds));
     }
 
 
@@ -0,0 +1,336 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.admission.QueueTicketStatus;
+import com.example.ecommerce.admission.WaitingRoom;
+import com.example.ecommerce.dto.QueueTicketDto;
+import com.example.ecommerce.dto.WaitingRoomDto;
+import com.example.ecommerce.dto.WaitingRoomRequestDto;
+import com.example.ecommerce.exception.ResourceNotFoundException;
+import com.example.ecommerce.exception.TooManyRequestsException;
+import com.example.ecommerce.repository.CartItemRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Admission control for checkouts of products under a flash sale.
+ * <p>
+ * An administrator opens a {@link WaitingRoom} for a product. From then on, a checkout whose cart
+ * contains that product is accepted only with an admitted ticket from the product's queue. The
+ * queue admits tickets at a fixed rate, so the checkout load on the product's rows is bounded.
+ * On top of that, at most {@code max-concurrent-checkouts} such checkouts run at once. Carts without
+ * waiting-room products are not affected, so Tomcat threads and JDBC connections stay available
+ * for the rest of the shop during a surge.
+ * <p>
+ * Queues live in memory and are meant for a single application instance, like hot SKU mode.
+ */
+@Service
+public class CheckoutAdmissionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutAdmissionService.class);
+
+    private static final long MAX_POLL_AFTER_SECONDS = 10;
+
+    private final ProductRepository productRepository;
+    private final CartItemRepository cartItemRepository;
+    private final Semaphore waitingRoomCheckouts;
+    private final Map<Long, WaitingRoom> rooms = new ConcurrentHashMap<>();
+    private final Map<String, SseEmitter> subscribers = new ConcurrentHashMap<>();
+    private volatile long lastBroadcastMillis;
+
+    @Value("${app.checkout.waiting-room.default-admissions-per-second:20}")
+    private double defaultAdmissionsPerSecond;
+
+    @Value("${app.checkout.waiting-room.default-capacity:10000}")
+    private int defaultCapacity;
+
+    @Value("${app.checkout.waiting-room.admission-window-seconds:120}")
+    private long admissionWindowSeconds;
+
+    @Value("${app.checkout.waiting-room.abandon-after-seconds:60}")
+    private long abandonAfterSeconds;
+
+    @Value("${app.checkout.waiting-room.stream-interval-ms:1000}")
+    private long streamIntervalMs;
+
+    @Value("${app.checkout.waiting-room.stream-timeout-ms:300000}")
+    private long streamTimeoutMs;
+
+    @Autowired
+    public CheckoutAdmissionService(ProductRepository productRepository,
+                                    CartItemRepository cartItemRepository,
+                                    @Value("${app.checkout.waiting-room.max-concurrent-checkouts:16}") int maxConcurrentCheckouts) {
+        this.productRepository = productRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.waitingRoomCheckouts = new Semaphore(maxConcurrentCheckouts);
+    }
+
+    // --- Admin ---
+
+    public List<WaitingRoomDto> list() {
+        return rooms.values().stream()
+                .map(room -> toDto(room.stats()))
+                .sorted(Comparator.comparing(WaitingRoomDto::getProductId))
+                .collect(Collectors.toList());
+    }
+
+    /** Opens a waiting room for the product, or changes the rate/capacity of an open one keeping its queue. */
+    public WaitingRoomDto open(Long productId, WaitingRoomRequestDto request) {
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Product not found with id: " + productId);
+        }
+        double rate = request.getAdmissionsPerSecond() != null ? request.getAdmissionsPerSecond() : defaultAdmissionsPerSecond;
+        int capacity = request.getCapacity() != null ? request.getCapacity() : defaultCapacity;
+        WaitingRoom room = rooms.compute(productId, (id, existing) -> {
+            if (existing == null) {
+                return new WaitingRoom(id, rate, capacity, System.nanoTime());
+            }
+            existing.reconfigure(rate, capacity);
+            return existing;
+        });
+        logger.info("Waiting room for product ID {} set to {} admissions/s, capacity {}", productId, rate, capacity);
+        return toDto(room.stats());
+    }
+
+    /** Closes the room; its checkouts are no longer gated and open streams are ended. */
+    public void close(Long productId) {
+        if (rooms.remove(productId) == null) {
+            throw new ResourceNotFoundException("No waiting room is open for product ID: " + productId);
+        }
+        String prefix = productId + "-";
+        subscribers.entrySet().removeIf(entry -> {
+            if (entry.getKey().startsWith(prefix)) {
+                entry.getValue().complete();
+                return true;
+            }
+            return false;
+        });
+        logger.info("Waiting room for product ID {} closed", productId);
+    }
+
+    // --- Buyer ---
+
+    public QueueTicketDto join(Long productId, String username) {
+        WaitingRoom room = rooms.get(productId);
+        if (room == null) {
+            throw new ResourceNotFoundException("No waiting room is open for product ID: " + productId);
+        }
+        WaitingRoom.Snapshot ticket = room.join(username, System.currentTimeMillis());
+        if (ticket == null) {
+            WaitingRoom.Stats stats = room.stats();
+            throw new TooManyRequestsException("The waiting room for this product is full. Please try again later.",
+                    room.estimatedWaitSeconds(stats.getWaiting()));
+        }
+        return toDto(ticket);
+    }
+
+    public QueueTicketDto getTicket(String ticketId, String username) {
+        return toDto(findOwnTicket(ticketId, username));
+    }
+
+    /** Server-sent events with the ticket's state until it is admitted or expires. */
+    public SseEmitter stream(String ticketId, String username) {
+        WaitingRoom.Snapshot ticket = findOwnTicket(ticketId, username);
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        emitter.onCompletion(() -> subscribers.remove(ticketId, emitter));
+        emitter.onTimeout(() -> subscribers.remove(ticketId, emitter));
+        emitter.onError(e -> subscribers.remove(ticketId, emitter));
+        SseEmitter previous = subscribers.put(ticketId, emitter);
+        if (previous != null) {
+            previous.complete();
+        }
+        push(ticket);
+        return emitter;
+    }
+
+    /**
+     * Runs the checkout, gated by the waiting rooms of the products in the user's cart.
+     *
+     * @param ticketIds tickets the client presents, one per waiting-room product in the cart
+     * @throws TooManyRequestsException if a waiting-room product has no admitted ticket, or too many
+     *                                  waiting-room checkouts are already running
+     */
+    public <T> T checkout(String username, Collection<String> ticketIds, Supplier<T> checkout) {
+        if (rooms.isEmpty()) {
+            return checkout.get();
+        }
+        Set<Long> gatedProductIds = new LinkedHashSet<>();
+        for (Long productId : cartItemRepository.findProductIdsByUsername(username)) {
+            if (rooms.containsKey(productId)) {
+                gatedProductIds.add(productId);
+            }
+        }
+        if (gatedProductIds.isEmpty()) {
+            return checkout.get();
+        }
+
+        long now = System.currentTimeMillis();
+        List<String> claimedTickets = new ArrayList<>(gatedProductIds.size());
+        boolean completed = false;
+        try {
+            for (Long productId : gatedProductIds) {
+                WaitingRoom room = rooms.get(productId);
+                if (room == null) {
+                    continue; // Bu arada kapatıldı
+                }
+                // Bilet burada tek adımda IN_USE'a alınır; aynı biletle gelen ikinci istek onu kabul edilmiş bulamaz
+                String ticketId = claimTicket(room, productId, ticketIds, username, now);
+                if (ticketId == null) {
+                    throw new TooManyRequestsException("Product ID " + productId + " is in high demand. Join its waiting room at "
+                            + "/api/checkout-queue/products/" + productId + "/tickets and check out with the admitted ticket.",
+                            room.estimatedWaitSeconds(room.stats().getWaiting()));
+                }
+                claimedTickets.add(ticketId);
+            }
+
+            // Kabul edilmiş alıcılar da aynı anda en fazla bu kadar checkout çalıştırır; kalan havuz diğer trafiğe kalır
+            if (!waitingRoomCheckouts.tryAcquire()) {
+                throw new TooManyRequestsException("Too many checkouts in progress for high-demand products. Please retry shortly.", 1);
+            }
+            try {
+                T result = checkout.get();
+                completed = true;
+                return result;
+            } finally {
+                waitingRoomCheckouts.release();
+            }
+        } finally {
+            // Başarılı checkout bileti harcar; reddedilen ya da hata veren checkout'ta bilet pencere sonuna kadar geçerli kalır
+            long finishedAt = System.currentTimeMillis();
+            for (String ticketId : claimedTickets) {
+                WaitingRoom room = roomOf(ticketId);
+                if (room == null) {
+                    continue;
+                }
+                if (completed) {
+                    room.markUsed(ticketId, finishedAt);
+                } else {
+                    room.release(ticketId);
+                }
+            }
+        }
+    }
+
+    private static String claimTicket(WaitingRoom room, Long productId, Collection<String> ticketIds,
+                                      String username, long now) {
+        if (ticketIds == null) {
+            return null;
+        }
+        String prefix = productId + "-";
+        for (String ticketId : ticketIds) {
+            if (ticketId.startsWith(prefix) && room.claim(ticketId, username, now)) {
+                return ticketId;
+            }
+        }
+        return null;
+    }
+
+    // --- Admission ---
+
+    @Scheduled(fixedDelayString = "${app.checkout.waiting-room.tick-ms:100}")
+    public void admit() {
+        if (rooms.isEmpty()) {
+            return;
+        }
+        long nowNanos = System.nanoTime();
+        long nowMillis = System.currentTimeMillis();
+        for (WaitingRoom room : rooms.values()) {
+            for (WaitingRoom.Snapshot changed : room.admit(nowNanos, nowMillis,
+                    admissionWindowSeconds * 1000, abandonAfterSeconds * 1000)) {
+                push(changed);
+            }
+        }
+        // Sıra numaraları her admit'te değişir; bekleyenlere bunu seyrek gönder
+        if (!subscribers.isEmpty() && nowMillis - lastBroadcastMillis >= streamIntervalMs) {
+            lastBroadcastMillis = nowMillis;
+            for (String ticketId : subscribers.keySet()) {
+                WaitingRoom room = roomOf(ticketId);
+                WaitingRoom.Snapshot ticket = room != null ? room.poll(ticketId, nowMillis) : null;
+                if (ticket != null && ticket.getStatus() == QueueTicketStatus.WAITING) {
+                    push(ticket);
+                }
+            }
+        }
+    }
+
+    private void push(WaitingRoom.Snapshot ticket) {
+        SseEmitter emitter = subscribers.get(ticket.getTicketId());
+        if (emitter == null) {
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event().name("ticket").data(toDto(ticket)));
+            if (ticket.getStatus() != QueueTicketStatus.WAITING) {
+                subscribers.remove(ticket.getTicketId(), emitter);
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // İstemci bağlantıyı kapatmış; sıra yerini polling ile korur
+            subscribers.remove(ticket.getTicketId(), emitter);
+            logger.debug("Dropped queue stream for ticket {}: {}", ticket.getTicketId(), e.getMessage());
+        }
+    }
+
+    private WaitingRoom.Snapshot findOwnTicket(String ticketId, String username) {
+        WaitingRoom room = roomOf(ticketId);
+        WaitingRoom.Snapshot ticket = room != null ? room.poll(ticketId, System.currentTimeMillis()) : null;
+        if (ticket == null) {
+            throw new ResourceNotFoundException("Queue ticket not found or no longer valid: " + ticketId);
+        }
+        if (!ticket.getUsername().equals(username)) {
+            throw new AccessDeniedException("This queue ticket belongs to another user.");
+        }
+        return ticket;
+    }
+
+    // Bilet ID'si "<productId>-<uuid>" biçimindedir
+    private WaitingRoom roomOf(String ticketId) {
+        int separator = ticketId.indexOf('-');
+        if (separator <= 0) {
+            return null;
+        }
+        try {
+            return rooms.get(Long.valueOf(ticketId.substring(0, separator)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private QueueTicketDto toDto(WaitingRoom.Snapshot ticket) {
+        LocalDateTime admittedUntil = ticket.getAdmittedUntilMillis() > 0
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(ticket.getAdmittedUntilMillis()), ZoneId.systemDefault())
+                : null;
+        long pollAfter = ticket.getStatus() == QueueTicketStatus.WAITING
+                ? Math.max(1, Math.min(MAX_POLL_AFTER_SECONDS, ticket.getEstimatedWaitSeconds() / 2))
+                : 0;
+        return new QueueTicketDto(ticket.getTicketId(), ticket.getProductId(), ticket.getStatus(), ticket.getPosition(),
+                ticket.getEstimatedWaitSeconds(), admittedUntil, pollAfter);
+    }
+
+    private static WaitingRoomDto toDto(WaitingRoom.Stats stats) {
+        return new WaitingRoomDto(stats.getProductId(), stats.getAdmissionsPerSecond(), stats.getCapacity(),
+                stats.getWaiting(), stats.getAdmitted());
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.ecommerce.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader used by the bulk product import: comma separated, fields may be
+ * quoted with {@code "}, quotes inside quoted fields are doubled and quoted fields may span lines.
+ * Only one record is held in memory at a time; blank lines are skipped.
+ */
+class CsvRecordReader {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final char BOM = '\uFEFF';
+
+    private final Reader reader;
+    private final int maxRecordLength;
+    private long line = 1;
+    private long recordLine;
+    private int pushedBack = -2;
+    private boolean started;
+
+    CsvRecordReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /** Line (1-based) on which the record last returned by {@link #next()} starts. */
+    long getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the record's fields, or {@code null} at end of input
+     * @throws IllegalArgumentException if the record is malformed or longer than the configured limit
+     */
+    List<String> next() throws IOException {
+        int c = read();
+        // Boş satırları atla
+        while (c == '\r' || c == '\n') {
+            c = consumeLineBreak(c);
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int recordLength = 0;
+        boolean quoted = false;
+        boolean afterQuotedField = false;
+        while (true) {
+            if (++recordLength > maxRecordLength) {
+                skipRestOfRecord(c, quoted);
+                throw new IllegalArgumentException("Row is longer than " + maxRecordLength + " characters.");
+            }
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted field.");
+                }
+                if (c == QUOTE) {
+                    int peek = read();
+                    if (peek == QUOTE) {
+                        field.append(QUOTE);
+                    } else {
+                        quoted = false;
+                        afterQuotedField = true;
+                        unread(peek);
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+                afterQuotedField = false;
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                fields.add(field.toString());
+                if (c != -1) {
+                    unread(consumeLineBreak(c));
+                }
+                return fields;
+            } else if (c == QUOTE && field.length() == 0 && !afterQuotedField) {
+                quoted = true;
+            } else if (afterQuotedField) {
+                skipRestOfRecord(c, false);
+                throw new IllegalArgumentException("Unexpected character after closing quote.");
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    // Hatalı kaydın geri kalanını atlar ki sonraki kayıt doğru satırdan başlasın
+    private void skipRestOfRecord(int c, boolean quoted) throws IOException {
+        while (c != -1) {
+            if (c == QUOTE) {
+                quoted = !quoted;
+            } else if (!quoted && (c == '\r' || c == '\n')) {
+                unread(consumeLineBreak(c));
+                return;
+            } else if (c == '\n') {
+                line++;
+            }
+            c = read();
+        }
+    }
+
+    // \r\n, \n veya tek \r satır sonunu tüketir; sonraki karakteri döner
+    private int consumeLineBreak(int c) throws IOException {
+        line++;
+        int next = read();
+        if (c == '\r' && next == '\n') {
+            next = read();
+        }
+        return next;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        int c = reader.read();
+        if (!started) {
+            started = true;
+            if (c == BOM) {
+                c = reader.read();
+            }
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.HotSkuDto;
+import com.example.ecommerce.event.ProductStockChangedEvent;
+import com.example.ecommerce.exception.ResourceNotFoundException;
+import com.example.ecommerce.inventory.StripedStockCounter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Hot-SKU mode for flash sales: the available stock of flagged products ({@code products.hot_sku})
+ * is kept in {@link StripedStockCounter}s, so checkouts are accepted or refused from memory instead of
+ * queueing on the product row lock.
+ * <p>
+ * Each change is also inserted into {@code inventory_journal} inside the caller's transaction. This
+ * is an insert-only table with no row contention, and it makes the change exactly as durable as the
+ * order it belongs to. A scheduled flusher coalesces journal rows per product into one
+ * {@code UPDATE products} and deletes them (write-behind). On startup the journal is flushed before
+ * the counters are loaded, so nothing committed is lost on restart.
+ * <p>
+ * The counters are per JVM. Hot mode assumes one application instance serves checkout.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class HotSkuInventory {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotSkuInventory.class);
+
+    private static final String JOURNAL_INSERT_SQL =
+            "INSERT INTO inventory_journal (product_id, stock_delta, reserved_delta, created_at) VALUES (?, ?, ?, ?)";
+    private static final String JOURNAL_APPLY_SQL =
+            "UPDATE products SET stock_quantity = GREATEST(stock_quantity + ?, 0), " +
+            "reserved_quantity = GREATEST(reserved_quantity + ?, 0), updated_at = ? WHERE id = ?";
+    // Ürünün veritabanındaki ve henüz uygulanmamış journal kayıtlarıyla birlikte satılabilir adedi
+    private static final String AVAILABLE_WITH_JOURNAL_SQL =
+            "SELECT p.stock_quantity - p.reserved_quantity + COALESCE(" +
+            "(SELECT SUM(j.stock_delta - j.reserved_delta) FROM inventory_journal j WHERE j.product_id = p.id), 0) " +
+            "FROM products p WHERE p.id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, HotSku> hotSkus = new ConcurrentHashMap<>();
+
+    @Value("${app.inventory.hot-sku.stripes:0}")
+    private int configuredStripes;
+
+    @Value("${app.inventory.hot-sku.flush-batch-size:5000}")
+    private int flushBatchSize;
+
+    @Autowired
+    public HotSkuInventory(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Trafik başlamadan önce: önce bekleyen journal uygulanır, sonra sayaçlar veritabanından yüklenir
+    @PostConstruct
+    void loadCounters() {
+        try {
+            while (transactionTemplate.execute(status -> flushBatch(null, false)) == flushBatchSize) {
+                // bekleyen kayıt kalmayana kadar
+            }
+            jdbcTemplate.query("SELECT id, stock_quantity - reserved_quantity AS available FROM products WHERE hot_sku = TRUE",
+                    rs -> {
+                        hotSkus.put(rs.getLong("id"), new HotSku(new StripedStockCounter(rs.getLong("available"), stripes())));
+                    });
+        } catch (DataAccessException e) {
+            logger.warn("Hot SKU counters could not be loaded, hot mode stays off: {}", e.getMessage());
+            return;
+        }
+        if (!hotSkus.isEmpty()) {
+            logger.info("Loaded {} hot SKU counters: {}", hotSkus.size(), hotSkus.keySet());
+        }
+    }
+
+    public boolean isHot(Long productId) {
+        return hotSkus.containsKey(productId);
+    }
+
+    public long available(Long productId) {
+        return counter(productId).available();
+    }
+
+    /**
+     * Takes every line from memory, all or nothing, and journals the change. If the caller's
+     * transaction rolls back, the units go back to the counters.
+     *
+     * @return ids of the lines that did not fit (nothing was taken then)
+     */
+    public List<Long> takeAll(SortedMap<Long, Integer> lines, int stockSign, int reservedSign) {
+        Map<Long, Integer> taken = new TreeMap<>();
+        List<Long> shortIds = new ArrayList<>();
+        // İlk kısa satırda durulmaz: geri almadan önce her satır denenir, yalnızca gerçekten yetmeyenler raporlanır
+        lines.forEach((productId, quantity) -> {
+            if (counter(productId).tryTake(quantity)) {
+                taken.put(productId, quantity);
+            } else {
+                shortIds.add(productId);
+            }
+        });
+        if (!shortIds.isEmpty()) {
+            taken.forEach((productId, quantity) -> giveBack(productId, quantity));
+            return shortIds;
+        }
+        registerCompensation(taken);
+        journal(lines, stockSign, reservedSign);
+        return shortIds;
+    }
+
+    /** Takes one line from memory if it fits (rolled back with the transaction) and journals it. */
+    public boolean take(Long productId, int quantity, int stockSign, int reservedSign) {
+        if (!counter(productId).tryTake(quantity)) {
+            return false;
+        }
+        SortedMap<Long, Integer> line = new TreeMap<>(Map.of(productId, quantity));
+        registerCompensation(line);
+        journal(line, stockSign, reservedSign);
+        return true;
+    }
+
+    /** Journals a change that returns units (release, restock); memory is credited after commit. */
+    public void giveBackAfterCommit(SortedMap<Long, Integer> lines, int stockSign, int reservedSign) {
+        journal(lines, stockSign, reservedSign);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lines.forEach(HotSkuInventory.this::giveBack);
+            }
+        });
+    }
+
+    /** Journals a change that leaves the available quantity as it is (a hold turning into a sale). */
+    public void journalOnly(SortedMap<Long, Integer> lines, int stockSign, int reservedSign) {
+        journal(lines, stockSign, reservedSign);
+    }
+
+    public List<HotSkuDto> list() {
+        return hotSkus.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> new HotSkuDto(e.getKey(), e.getValue().counter.available(), e.getValue().counter.getStripes(), e.getValue().loading))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Switches a product to hot mode. The counter is installed empty first, so checkouts for the
+     * product already take the in-memory path and are refused until it is loaded. The flag is then set
+     * in the database, which waits for in-flight row-lock checkouts. Then the available quantity is
+     * read, including unflushed journal rows. Give-backs during loading are only journaled, so the
+     * counter can come out slightly low, never high.
+     */
+    public HotSkuDto enable(Long productId) {
+        HotSku hotSku = new HotSku(new StripedStockCounter(0, stripes()));
+        hotSku.loading = true;
+        if (hotSkus.putIfAbsent(productId, hotSku) != null) {
+            throw new IllegalStateException("Product " + productId + " is already in hot SKU mode.");
+        }
+        Long available;
+        try {
+            available = transactionTemplate.execute(status -> {
+                if (jdbcTemplate.update("UPDATE products SET hot_sku = TRUE WHERE id = ?", productId) == 0) {
+                    throw new ResourceNotFoundException("Product not found with id: " + productId);
+                }
+                return jdbcTemplate.queryForObject(AVAILABLE_WITH_JOURNAL_SQL, Long.class, productId);
+            });
+        } catch (RuntimeException e) {
+            hotSkus.remove(productId, hotSku);
+            throw e;
+        }
+        hotSku.counter.add(available != null ? Math.max(0, available) : 0);
+        hotSku.loading = false;
+        logger.info("Product ID {} switched to hot SKU mode with {} units available", productId, available);
+        return new HotSkuDto(productId, hotSku.counter.available(), hotSku.counter.getStripes(), false);
+    }
+
+    /**
+     * Switches a product back to row-lock checkout. Its pending journal rows are applied in the same
+     * transaction. Do this after the sale: a checkout still in flight on the removed counter is only
+     * applied by the next flush.
+     */
+    public void disable(Long productId) {
+        if (hotSkus.remove(productId) == null) {
+            throw new ResourceNotFoundException("Product " + productId + " is not in hot SKU mode.");
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE products SET hot_sku = FALSE WHERE id = ?", productId);
+            flushBatch(productId, true);
+        });
+        logger.info("Product ID {} switched back from hot SKU mode", productId);
+    }
+
+    /** Write-behind: applies the journal to {@code products}, one coalesced update per product. */
+    @Scheduled(fixedDelayString = "${app.inventory.hot-sku.flush-interval-ms:200}")
+    public void flushJournal() {
+        Integer flushed;
+        do {
+            flushed = transactionTemplate.execute(status -> flushBatch(null, true));
+        } while (flushed != null && flushed == flushBatchSize);
+    }
+
+    // --- yardımcılar ----------------------------------------------------------------------------
+
+    private int flushBatch(Long productId, boolean publish) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", flushBatchSize);
+        String where = "";
+        if (productId != null) {
+            where = "WHERE product_id = :productId ";
+            params.addValue("productId", productId);
+        }
+        List<long[]> rows = namedJdbcTemplate.query(
+                "SELECT id, product_id, stock_delta, reserved_delta FROM inventory_journal " + where +
+                "ORDER BY id LIMIT :limit FOR UPDATE", params,
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)});
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        // Ürün başına toplanır; id sırası kilit sırasını belirler
+        SortedMap<Long, long[]> deltas = new TreeMap<>();
+        for (long[] row : rows) {
+            long[] delta = deltas.computeIfAbsent(row[1], id -> new long[2]);
+            delta[0] += row[2];
+            delta[1] += row[3];
+        }
+        List<Map.Entry<Long, long[]>> entries = new ArrayList<>(deltas.entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(JOURNAL_APPLY_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getValue()[0]);
+            ps.setLong(2, entry.getValue()[1]);
+            ps.setTimestamp(3, now);
+            ps.setLong(4, entry.getKey());
+        });
+        namedJdbcTemplate.update("DELETE FROM inventory_journal WHERE id IN (:ids)", new MapSqlParameterSource("ids",
+                rows.stream().map(row -> row[0]).collect(Collectors.toList())));
+        if (publish) {
+            // Yalnızca stok değişti: önbellek düşürülür, stokta bayrağı tazelenir; indeksler yeniden kurulmaz
+            eventPublisher.publishEvent(new ProductStockChangedEvent(deltas.keySet()));
+        }
+        logger.debug("Flushed {} inventory journal rows into {} products", rows.size(), deltas.size());
+        return rows.size();
+    }
+
+    private void journal(SortedMap<Long, Integer> lines, int stockSign, int reservedSign) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(lines.entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(JOURNAL_INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getKey());
+            ps.setInt(2, stockSign * entry.getValue());
+            ps.setInt(3, reservedSign * entry.getValue());
+            ps.setTimestamp(4, now);
+        });
+    }
+
+    // Transaction geri alınırsa bellekten alınan adetler iade edilir
+    private void registerCompensation(Map<Long, Integer> taken) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    taken.forEach(HotSkuInventory.this::giveBack);
+                }
+            }
+        });
+    }
+
+    private void giveBack(Long productId, int quantity) {
+        HotSku hotSku = hotSkus.get(productId);
+        // Yükleme sırasında iade edilen adet zaten okunan değerde olabilir; çift sayılmaması için atlanır
+        if (hotSku != null && !hotSku.loading) {
+            hotSku.counter.add(quantity);
+        }
+    }
+
+    private StripedStockCounter counter(Long productId) {
+        HotSku hotSku = hotSkus.get(productId);
+        // Mod bu arada kapatıldıysa boş sayaç: satır kilidi yoluna geçene kadar checkout reddedilir
+        return hotSku != null ? hotSku.counter : new StripedStockCounter(0, 1);
+    }
+
+    private int stripes() {
+        return configuredStripes > 0 ? configuredStripes : Runtime.getRuntime().availableProcessors();
+    }
+
+    private static final class HotSku {
+        private final StripedStockCounter counter;
+        private volatile boolean loading;
+
+        private HotSku(StripedStockCounter counter) {
+            this.counter = counter;
+        }
+    }
+}
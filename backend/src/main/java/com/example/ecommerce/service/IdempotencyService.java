@@ -0,0 +1,369 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.entity.IdempotencyStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Runs an operation at most once per {@code Idempotency-Key}.
+ * <p>
+ * The first request with a key claims it by inserting a {@code CLAIMED} row (the unique constraint
+ * on user and key decides the race, also across instances), marks it {@code IN_PROGRESS}, runs the
+ * operation and stores its JSON response. Later requests with the same key get that stored response
+ * back without running anything. A duplicate that arrives while the first is still running waits for
+ * it. Inside this instance it waits on the first request's future; a request running on another
+ * instance is polled. If the operation fails, the key is released so the client can retry with the
+ * same key.
+ * <p>
+ * Only a claim whose owner never started the operation is taken over after {@code lock-timeout-seconds}.
+ * Once the operation has started its outcome may be committed, so the key is never run again: if the
+ * response cannot be stored the row is marked {@code UNRECORDED} (or stays {@code IN_PROGRESS}) and
+ * retries are rejected until it expires.
+ * <p>
+ * A key sent again with a different request is rejected. Rows are deleted once they expire.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[\\x21-\\x7E]{1,100}");
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+    private static final int MAX_STORE_ATTEMPTS = 3;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO idempotency_keys (username, idempotency_key, request_hash, status, created_at, expires_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_SQL =
+            "SELECT id, request_hash, status, response_body, created_at, expires_at FROM idempotency_keys " +
+            "WHERE username = ? AND idempotency_key = ?";
+    private static final String START_SQL =
+            "UPDATE idempotency_keys SET status = ? WHERE username = ? AND idempotency_key = ? AND status = ?";
+    private static final String COMPLETE_SQL =
+            "UPDATE idempotency_keys SET status = ?, response_body = ? WHERE username = ? AND idempotency_key = ?";
+    private static final String RELEASE_SQL =
+            "DELETE FROM idempotency_keys WHERE username = ? AND idempotency_key = ? AND status = ?";
+    private static final String DELETE_STALE_SQL =
+            "DELETE FROM idempotency_keys WHERE id = ? AND status = ?";
+    private static final String DELETE_EXPIRED_SQL =
+            "DELETE FROM idempotency_keys WHERE expires_at < ? LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    // Bu instance'ta çalışan istekler (kullanıcı + anahtar); aynı anahtarla gelen tekrarlar bunu bekler
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.lock-timeout-seconds:120}")
+    private long lockTimeoutSeconds;
+
+    @Value("${app.idempotency.in-flight-wait-ms:10000}")
+    private long inFlightWaitMillis;
+
+    @Value("${app.idempotency.poll-interval-ms:100}")
+    private long pollIntervalMillis;
+
+    @Value("${app.idempotency.cleanup-batch-size:1000}")
+    private int cleanupBatchSize;
+
+    @Autowired
+    public IdempotencyService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Runs {@code action} unless the user already sent {@code key}; then returns the stored response.
+     * Without a key the action simply runs.
+     *
+     * @param endpoint identifies the operation; part of the request hash so a key cannot be reused
+     *                 for another endpoint or resource
+     * @param request  request body (may be {@code null}); part of the request hash
+     * @throws IllegalArgumentException the key is malformed or was used for a different request
+     * @throws IllegalStateException    a request with the same key is still running after the wait
+     */
+    public <T, E extends Exception> Result<T> execute(String username, String key, String endpoint, Object request,
+                                                      Class<T> responseType, Action<T, E> action) throws E {
+        if (key == null) {
+            return new Result<>(action.execute(), false);
+        }
+        validateKey(key);
+        String requestHash = hash(endpoint, request);
+        String inFlightKey = username + '\n' + key;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(inFlightWaitMillis);
+
+        while (true) {
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            CompletableFuture<Void> running = inFlight.putIfAbsent(inFlightKey, mine);
+            if (running != null) {
+                awaitRunning(running, deadline);
+                continue;
+            }
+            StoredRecord stored;
+            try {
+                stored = claim(username, key, requestHash);
+                if (stored == null) {
+                    return new Result<>(runClaimed(username, key, action), false);
+                }
+            } finally {
+                inFlight.remove(inFlightKey, mine);
+                mine.complete(null);
+            }
+            if (!stored.requestHash.equals(requestHash)) {
+                throw new IllegalArgumentException(HEADER + " was already used for a different request.");
+            }
+            if (stored.status == IdempotencyStatus.COMPLETED) {
+                logger.debug("Replaying stored response for idempotency key {} of user {}", key, username);
+                return new Result<>(readResponse(stored.responseBody, responseType), true);
+            }
+            if (stored.status == IdempotencyStatus.UNRECORDED
+                    || stored.status == IdempotencyStatus.IN_PROGRESS && isPastLockTimeout(stored, LocalDateTime.now())) {
+                // İşlem yapılmış olabilir; yeniden çalıştırmak ikinci bir sipariş açabilir
+                throw new IllegalStateException("The request with this " + HEADER + " may already have been "
+                        + "processed but its response is not available. Check your orders before retrying with a new key.");
+            }
+            // İlk istek başka bir instance'ta çalışıyor
+            sleepUntilRetry(deadline);
+        }
+    }
+
+    /** @throws IllegalArgumentException the key is not 1-100 printable ASCII characters */
+    static void validateKey(String key) {
+        if (!KEY_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException(HEADER + " must be 1-100 printable ASCII characters.");
+        }
+    }
+
+    /** Deletes expired keys in batches. */
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval-ms:600000}",
+            initialDelayString = "${app.idempotency.cleanup-interval-ms:600000}")
+    public void deleteExpiredKeys() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(DELETE_EXPIRED_SQL, now, cleanupBatchSize);
+            total += deleted;
+        } while (deleted == cleanupBatchSize);
+        if (total > 0) {
+            logger.info("Deleted {} expired idempotency keys", total);
+        }
+    }
+
+    /** Inserts the CLAIMED row. Returns {@code null} if this request now owns the key, otherwise the existing row. */
+    private StoredRecord claim(String username, String key, String requestHash) {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                jdbcTemplate.update(INSERT_SQL, username, key, requestHash, IdempotencyStatus.CLAIMED.name(),
+                        Timestamp.valueOf(now), Timestamp.valueOf(now.plusHours(ttlHours)));
+                return null;
+            } catch (DuplicateKeyException e) {
+                StoredRecord existing = find(username, key);
+                if (existing == null) {
+                    continue; // Arada silindi
+                }
+                // Süresi dolmuş ya da sahibi işleme başlamadan çökmüş (kilit süresini aşmış) kayıt devralınır
+                boolean expired = existing.expiresAt.isBefore(now);
+                boolean abandoned = existing.status == IdempotencyStatus.CLAIMED && isPastLockTimeout(existing, now);
+                if (expired || abandoned) {
+                    jdbcTemplate.update(DELETE_STALE_SQL, existing.id, existing.status.name());
+                    continue;
+                }
+                return existing;
+            }
+        }
+        throw new IllegalStateException("A request with this " + HEADER + " is being processed. Please retry.");
+    }
+
+    private <T, E extends Exception> T runClaimed(String username, String key, Action<T, E> action) throws E {
+        // Sahip kilit süresini aşacak kadar takıldıysa anahtar devralınmış olabilir; o zaman işlem çalıştırılmaz
+        if (jdbcTemplate.update(START_SQL, IdempotencyStatus.IN_PROGRESS.name(), username, key,
+                IdempotencyStatus.CLAIMED.name()) == 0) {
+            throw stillProcessing();
+        }
+        T response;
+        try {
+            response = action.execute();
+        } catch (Throwable t) {
+            // İşlem gerçekleşmedi; istemci aynı anahtarla tekrar deneyebilsin
+            jdbcTemplate.update(RELEASE_SQL, username, key, IdempotencyStatus.IN_PROGRESS.name());
+            throw t;
+        }
+        if (!storeResponse(username, key, response)) {
+            // İşlem yapıldı; anahtar serbest bırakılmaz ki tekrar ikinci kez çalıştırmasın
+            try {
+                jdbcTemplate.update(COMPLETE_SQL, IdempotencyStatus.UNRECORDED.name(), null, username, key);
+            } catch (DataAccessException e) {
+                logger.error("Idempotency key {} of user {} stays IN_PROGRESS until it expires: {}", key, username, e.getMessage());
+            }
+        }
+        return response;
+    }
+
+    // Geçici veritabanı hatalarında birkaç kez denenir
+    private boolean storeResponse(String username, String key, Object response) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            logger.error("Could not serialize response for idempotency key {} of user {}: {}", key, username, e.getMessage(), e);
+            return false;
+        }
+        for (int attempt = 1; attempt <= MAX_STORE_ATTEMPTS; attempt++) {
+            try {
+                jdbcTemplate.update(COMPLETE_SQL, IdempotencyStatus.COMPLETED.name(), body, username, key);
+                return true;
+            } catch (DataAccessException e) {
+                logger.error("Could not store response for idempotency key {} of user {} (attempt {} of {}): {}",
+                        key, username, attempt, MAX_STORE_ATTEMPTS, e.getMessage());
+            }
+            if (attempt < MAX_STORE_ATTEMPTS) {
+                try {
+                    Thread.sleep(pollIntervalMillis * attempt);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isPastLockTimeout(StoredRecord stored, LocalDateTime now) {
+        return stored.createdAt.plusSeconds(lockTimeoutSeconds).isBefore(now);
+    }
+
+    private StoredRecord find(String username, String key) {
+        List<StoredRecord> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new StoredRecord(
+                rs.getLong("id"),
+                rs.getString("request_hash"),
+                IdempotencyStatus.valueOf(rs.getString("status")),
+                rs.getString("response_body"),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getTimestamp("expires_at").toLocalDateTime()), username, key);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private void awaitRunning(CompletableFuture<Void> running, long deadline) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            throw stillProcessing();
+        }
+        try {
+            running.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw stillProcessing();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw stillProcessing();
+        } catch (ExecutionException e) {
+            // Future yalnızca normal tamamlanır
+        }
+    }
+
+    private void sleepUntilRetry(long deadline) {
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remainingMillis <= 0) {
+            throw stillProcessing();
+        }
+        try {
+            Thread.sleep(Math.min(pollIntervalMillis, remainingMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw stillProcessing();
+        }
+    }
+
+    private IllegalStateException stillProcessing() {
+        return new IllegalStateException("A request with this " + HEADER + " is still being processed. Please retry.");
+    }
+
+    private <T> T readResponse(String json, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(json, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for this " + HEADER + " could not be read.", e);
+        }
+    }
+
+    private String hash(String endpoint, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(endpoint.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not hash request", e);
+        }
+    }
+
+    /** Operation guarded by an idempotency key; may throw a checked exception such as {@code StripeException}. */
+    @FunctionalInterface
+    public interface Action<T, E extends Exception> {
+        T execute() throws E;
+    }
+
+    /** Response of the operation and whether it was replayed from an earlier request. */
+    public static final class Result<T> {
+        private final T body;
+        private final boolean replayed;
+
+        Result(T body, boolean replayed) {
+            this.body = body;
+            this.replayed = replayed;
+        }
+
+        public T getBody() { return body; }
+        public boolean isReplayed() { return replayed; }
+    }
+
+    private static final class StoredRecord {
+        private final long id;
+        private final String requestHash;
+        private final IdempotencyStatus status;
+        private final String responseBody;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime expiresAt;
+
+        private StoredRecord(long id, String requestHash, IdempotencyStatus status, String responseBody,
+                             LocalDateTime createdAt, LocalDateTime expiresAt) {
+            this.id = id;
+            this.requestHash = requestHash;
+            this.status = status;
+            this.responseBody = responseBody;
+            this.createdAt = createdAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.CursorPageDto;
+import com.example.ecommerce.dto.InventoryDriftDto;
+import com.example.ecommerce.dto.InventoryLedgerEntryDto;
+import com.example.ecommerce.dto.InventoryReconciliationResultDto;
+import com.example.ecommerce.entity.InventoryLedgerReason;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Append-only record of every change to {@code products.stock_quantity}, with reason and reference.
+ * <p>
+ * {@link #record} only buffers the entry in the current transaction. Just before commit, the buffer
+ * is written as one JDBC batch. The entries therefore commit or roll back together with the stock
+ * change they describe, and a payment or cancellation costs one extra statement, however many lines
+ * it has. Checkout itself only reserves stock and writes no ledger entries.
+ * <p>
+ * {@link #reconcile} compares each product's stock with the sum of its entries and reports, and
+ * optionally closes, any difference.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class InventoryLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLedger.class);
+
+    private static final int DEFAULT_HISTORY_PAGE_SIZE = 50;
+    private static final int MAX_HISTORY_PAGE_SIZE = 200;
+
+    // Defter başlamadan önce var olan ürünlerin stoğu (bekleyen hot SKU journal'ı dahil) açılış bakiyesi olur
+    private static final String OPENING_BALANCES_SQL =
+            "INSERT INTO inventory_ledger (product_id, quantity_delta, reason, created_at) " +
+            "SELECT p.id, p.stock_quantity + COALESCE((SELECT SUM(j.stock_delta) FROM inventory_journal j WHERE j.product_id = p.id), 0), " +
+            "'OPENING_BALANCE', ? FROM products p " +
+            "WHERE NOT EXISTS (SELECT 1 FROM inventory_ledger l WHERE l.product_id = p.id)";
+    private static final String INSERT_SQL =
+            "INSERT INTO inventory_ledger (product_id, quantity_delta, reason, order_id, order_item_id, actor, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate snapshotTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+
+    @Value("${app.inventory.ledger.reconcile.batch-size:1000}")
+    private int reconcileBatchSize;
+
+    @Value("${app.inventory.ledger.reconcile.max-reported-drifts:100}")
+    private int maxReportedDrifts;
+
+    @Autowired
+    public InventoryLedger(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        // Tek anlık görüntü: ürün stoğu, defter toplamı ve journal aynı an itibarıyla okunur
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setReadOnly(true);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void recordOpeningBalances() {
+        try {
+            int recorded = jdbcTemplate.update(OPENING_BALANCES_SQL, Timestamp.valueOf(LocalDateTime.now()));
+            if (recorded > 0) {
+                logger.info("Recorded inventory ledger opening balances for {} products", recorded);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Inventory ledger opening balances could not be recorded: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Adds an entry to the current transaction's ledger buffer. Must be called inside a transaction;
+     * the entry is written just before it commits. Zero changes are ignored.
+     */
+    public void record(Long productId, int quantityDelta, InventoryLedgerReason reason, Long orderId, Long orderItemId) {
+        if (quantityDelta == 0) {
+            return;
+        }
+        currentBuffer().add(new Entry(productId, quantityDelta, reason, orderId, orderItemId, currentActor()));
+    }
+
+    /** A product's ledger entries, newest first; {@code cursor} is the {@code nextCursor} of the previous page. */
+    @Transactional(readOnly = true)
+    public CursorPageDto<InventoryLedgerEntryDto> getHistory(Long productId, Long cursor, Integer size) {
+        int limit = PageSizes.resolve(size, DEFAULT_HISTORY_PAGE_SIZE, MAX_HISTORY_PAGE_SIZE);
+        List<InventoryLedgerEntryDto> entries = namedJdbcTemplate.query(
+                "SELECT id, product_id, quantity_delta, reason, order_id, order_item_id, actor, created_at FROM inventory_ledger " +
+                "WHERE product_id = :productId AND id < :beforeId ORDER BY id DESC LIMIT :limit",
+                new MapSqlParameterSource("productId", productId)
+                        .addValue("beforeId", cursor != null ? cursor : Long.MAX_VALUE)
+                        .addValue("limit", limit + 1),
+                (rs, rowNum) -> new InventoryLedgerEntryDto(rs.getLong("id"), rs.getLong("product_id"), rs.getInt("quantity_delta"),
+                        InventoryLedgerReason.valueOf(rs.getString("reason")), rs.getObject("order_id", Long.class),
+                        rs.getObject("order_item_id", Long.class), rs.getString("actor"),
+                        rs.getTimestamp("created_at").toLocalDateTime()));
+        boolean hasNext = entries.size() > limit;
+        List<InventoryLedgerEntryDto> items = hasNext ? entries.subList(0, limit) : entries;
+        return new CursorPageDto<>(items, hasNext, hasNext ? items.get(items.size() - 1).getId() : null);
+    }
+
+    /**
+     * Walks all products in id order and compares each one's stock (plus unflushed hot SKU journal
+     * rows) with the sum of its ledger entries. Each batch is read in one consistent snapshot, so
+     * changes committing meanwhile are never half counted. A product that still has no entries
+     * (normally recorded at startup) gets an {@code OPENING_BALANCE}. Drifts are logged. With
+     * {@code repair}, each drift is closed with a {@code RECONCILIATION} entry. Stock itself is never
+     * changed here, because the cause of a drift has to be looked at first.
+     *
+     * @throws IllegalStateException if a reconciliation is already running
+     */
+    public InventoryReconciliationResultDto reconcile(boolean repair) {
+        if (!reconciling.compareAndSet(false, true)) {
+            throw new IllegalStateException("An inventory reconciliation is already running.");
+        }
+        try {
+            long started = System.currentTimeMillis();
+            long afterId = 0L;
+            int checked = 0;
+            int openingBalances = 0;
+            int driftCount = 0;
+            List<InventoryDriftDto> reported = new ArrayList<>();
+            while (true) {
+                Snapshot snapshot = readSnapshot(afterId);
+                if (snapshot.stock.isEmpty()) {
+                    break;
+                }
+                List<Entry> corrections = new ArrayList<>();
+                for (Map.Entry<Long, Long> product : snapshot.stock.entrySet()) {
+                    Long productId = product.getKey();
+                    long stock = product.getValue();
+                    Long ledger = snapshot.ledger.get(productId);
+                    if (ledger == null) {
+                        if (stock != 0) {
+                            corrections.add(new Entry(productId, Math.toIntExact(stock), InventoryLedgerReason.OPENING_BALANCE, null, null, null));
+                            openingBalances++;
+                        }
+                    } else if (ledger != stock) {
+                        driftCount++;
+                        logger.warn("Inventory drift for product ID {}: stock {} but ledger sums to {} (drift {})",
+                                productId, stock, ledger, stock - ledger);
+                        if (reported.size() < maxReportedDrifts) {
+                            reported.add(new InventoryDriftDto(productId, stock, ledger));
+                        }
+                        if (repair) {
+                            corrections.add(new Entry(productId, Math.toIntExact(stock - ledger), InventoryLedgerReason.RECONCILIATION, null, null, currentActor()));
+                        }
+                    }
+                }
+                if (!corrections.isEmpty()) {
+                    writeTemplate.executeWithoutResult(status -> insert(corrections));
+                }
+                checked += snapshot.stock.size();
+                afterId = snapshot.lastId;
+                if (snapshot.stock.size() < reconcileBatchSize) {
+                    break;
+                }
+            }
+            logger.info("Inventory reconciliation checked {} products in {} ms: {} drifts{}, {} opening balances recorded",
+                    checked, System.currentTimeMillis() - started, driftCount, repair && driftCount > 0 ? " (repaired)" : "", openingBalances);
+            return new InventoryReconciliationResultDto(checked, openingBalances, driftCount, repair && driftCount > 0, reported);
+        } finally {
+            reconciling.set(false);
+        }
+    }
+
+    // --- yardımcılar ----------------------------------------------------------------------------
+
+    private Snapshot readSnapshot(long afterId) {
+        return snapshotTemplate.execute(status -> {
+            Snapshot snapshot = new Snapshot();
+            jdbcTemplate.query("SELECT id, stock_quantity FROM products WHERE id > ? ORDER BY id LIMIT ?", rs -> {
+                snapshot.stock.put(rs.getLong("id"), rs.getLong("stock_quantity"));
+                snapshot.lastId = rs.getLong("id");
+            }, afterId, reconcileBatchSize);
+            if (snapshot.stock.isEmpty()) {
+                return snapshot;
+            }
+            MapSqlParameterSource ids = new MapSqlParameterSource("ids", new ArrayList<>(snapshot.stock.keySet()));
+            namedJdbcTemplate.query("SELECT product_id, SUM(quantity_delta) FROM inventory_ledger WHERE product_id IN (:ids) GROUP BY product_id",
+                    ids, rs -> {
+                        snapshot.ledger.put(rs.getLong(1), rs.getLong(2));
+                    });
+            // Sıcak ürünlerin henüz ürün satırına yazılmamış stok değişiklikleri
+            namedJdbcTemplate.query("SELECT product_id, SUM(stock_delta) FROM inventory_journal WHERE product_id IN (:ids) GROUP BY product_id",
+                    ids, rs -> {
+                        snapshot.stock.merge(rs.getLong(1), rs.getLong(2), Long::sum);
+                    });
+            return snapshot;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Entry> currentBuffer() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Inventory ledger entries must be recorded inside a transaction.");
+        }
+        List<Entry> buffer = (List<Entry>) TransactionSynchronizationManager.getResource(this);
+        if (buffer == null) {
+            List<Entry> created = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                // İç içe REQUIRES_NEW transaction'lar kendi tamponlarını kullanır
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(InventoryLedger.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(InventoryLedger.this, created);
+                }
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(created);
+                    created.clear();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InventoryLedger.this);
+                }
+            });
+            buffer = created;
+        }
+        return buffer;
+    }
+
+    private void insert(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.productId);
+            ps.setInt(2, entry.quantityDelta);
+            ps.setString(3, entry.reason.name());
+            ps.setObject(4, entry.orderId, Types.BIGINT);
+            ps.setObject(5, entry.orderItemId, Types.BIGINT);
+            ps.setString(6, entry.actor);
+            ps.setTimestamp(7, now);
+        });
+        logger.debug("Appended {} inventory ledger entries", entries.size());
+    }
+
+    // Zamanlanmış işler ve webhook'lar için null
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static final class Snapshot {
+        private final Map<Long, Long> stock = new HashMap<>();
+        private final Map<Long, Long> ledger = new HashMap<>();
+        private long lastId;
+    }
+
+    private static final class Entry {
+        private final Long productId;
+        private final int quantityDelta;
+        private final InventoryLedgerReason reason;
+        private final Long orderId;
+        private final Long orderItemId;
+        private final String actor;
+
+        private Entry(Long productId, int quantityDelta, InventoryLedgerReason reason, Long orderId, Long orderItemId, String actor) {
+            this.productId = productId;
+            this.quantityDelta = quantityDelta;
+            this.reason = reason;
+            this.orderId = orderId;
+            this.orderItemId = orderItemId;
+            this.actor = actor;
+        }
+    }
+}
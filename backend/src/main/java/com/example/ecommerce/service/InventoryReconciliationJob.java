@@ -0,0 +1,37 @@
+package com.example.ecommerce.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nightly comparison of every product's stock with its inventory ledger. Drifts are logged and, if
+ * {@code app.inventory.ledger.reconcile.repair} is set, closed with reconciliation entries.
+ */
+@Component
+public class InventoryReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryReconciliationJob.class);
+
+    private final InventoryLedger inventoryLedger;
+
+    @Value("${app.inventory.ledger.reconcile.repair:false}")
+    private boolean repair;
+
+    @Autowired
+    public InventoryReconciliationJob(InventoryLedger inventoryLedger) {
+        this.inventoryLedger = inventoryLedger;
+    }
+
+    @Scheduled(cron = "${app.inventory.ledger.reconcile.cron:0 30 3 * * *}")
+    public void reconcile() {
+        try {
+            inventoryLedger.reconcile(repair);
+        } catch (IllegalStateException e) {
+            logger.warn("Scheduled inventory reconciliation skipped: {}", e.getMessage());
+        }
+    }
+}
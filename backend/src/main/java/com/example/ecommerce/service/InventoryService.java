@@ -0,0 +1,446 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.entity.InventoryLedgerReason;
+import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.entity.OrderItem;
+import com.example.ecommerce.entity.OrderItemStatus;
+import com.example.ecommerce.entity.StockReservationStatus;
+import com.example.ecommerce.event.ProductStockChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Set-based stock movements for checkout, payment and cancellation.
+ * <p>
+ * Checkout does not take stock away yet. It places a time-boxed hold per order item
+ * ({@code stock_reservations}) and raises {@code products.reserved_quantity} by the same amount.
+ * Available stock is {@code stock_quantity - reserved_quantity}. When payment succeeds the held
+ * quantity is moved out of {@code stock_quantity}. When payment fails, the hold expires, or the item
+ * is cancelled first, the hold is released.
+ * <p>
+ * Every counter change is a conditional {@code UPDATE}, so the database decides atomically whether
+ * a line fits and two checkouts can never both take the last unit. Lines are sent as one JDBC batch
+ * in ascending product id order, so concurrent transactions lock rows in the same order. Hold rows
+ * are always locked or written before product rows, for the same reason.
+ * <p>
+ * Products in hot SKU mode skip the row updates. Their lines go through {@link HotSkuInventory}'s
+ * in-memory counters and write-behind journal instead.
+ * <p>
+ * Every change of {@code stock_quantity} (payment, restock after cancellation) is also recorded per
+ * order item in the {@link InventoryLedger}. Holds and releases only move {@code reserved_quantity}
+ * and are tracked in {@code stock_reservations}.
+ */
+@Service
+public class InventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
+
+    private static final String HOLD_SQL =
+            "UPDATE products SET reserved_quantity = reserved_quantity + ?, updated_at = ? " +
+            "WHERE id = ? AND is_active = TRUE AND hot_sku = FALSE AND stock_quantity - reserved_quantity >= ?";
+    private static final String RELEASE_SQL =
+            "UPDATE products SET reserved_quantity = GREATEST(reserved_quantity - ?, 0), updated_at = ? WHERE id = ?";
+    // Satıcı stoğu elle düşürmüş olabilir; sayaçlar hiçbir durumda eksiye inmez
+    private static final String COMMIT_SQL =
+            "UPDATE products SET stock_quantity = GREATEST(stock_quantity - ?, 0), " +
+            "reserved_quantity = GREATEST(reserved_quantity - ?, 0), updated_at = ? WHERE id = ?";
+    // Süresi dolmuş bir ayırmanın ödemesi gelirse stok, ayırma olmadan doğrudan (yine koşullu) düşülür
+    private static final String TAKE_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ?, updated_at = ? " +
+            "WHERE id = ? AND hot_sku = FALSE AND stock_quantity - reserved_quantity >= ?";
+    private static final String RESTOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity + ?, updated_at = ? WHERE id = ?";
+
+    private static final String INSERT_HOLD_SQL =
+            "INSERT INTO stock_reservations (product_id, order_id, order_item_id, quantity, status, expires_at, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_HOLDS_BY_ITEMS_SQL =
+            "SELECT id, order_item_id, product_id, quantity, status FROM stock_reservations " +
+            "WHERE order_item_id IN (:itemIds) ORDER BY id FOR UPDATE";
+    private static final String SELECT_EXPIRED_HOLDS_SQL =
+            "SELECT id, order_item_id, product_id, quantity, status FROM stock_reservations " +
+            "WHERE status = 'ACTIVE' AND expires_at < :now ORDER BY id LIMIT :limit FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HotSkuInventory hotSkuInventory;
+    private final InventoryLedger inventoryLedger;
+
+    @Value("${app.inventory.hold.ttl-minutes:30}")
+    private long holdTtlMinutes;
+
+    @Autowired
+    public InventoryService(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher, HotSkuInventory hotSkuInventory,
+                            InventoryLedger inventoryLedger) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.eventPublisher = eventPublisher;
+        this.hotSkuInventory = hotSkuInventory;
+        this.inventoryLedger = inventoryLedger;
+    }
+
+    /**
+     * Holds stock for every item of a freshly saved order, all or nothing. Must run inside the
+     * caller's transaction: if any line is short, or its product is missing or inactive, an
+     * {@link IllegalArgumentException} naming every short line is thrown and the caller's transaction
+     * rolls back the order together with the holds already placed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void holdForOrder(Order order) {
+        List<OrderItem> items = order.getOrderItems();
+        if (items.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp expiresAt = Timestamp.valueOf(LocalDateTime.now().plusMinutes(holdTtlMinutes));
+        jdbcTemplate.batchUpdate(INSERT_HOLD_SQL, items, items.size(), (ps, item) -> {
+            ps.setLong(1, item.getProduct().getId());
+            ps.setLong(2, order.getId());
+            ps.setLong(3, item.getId());
+            ps.setInt(4, item.getQuantity());
+            ps.setString(5, StockReservationStatus.ACTIVE.name());
+            ps.setTimestamp(6, expiresAt);
+            ps.setTimestamp(7, now);
+        });
+        SortedMap<Long, Integer> lines = new TreeMap<>();
+        items.forEach(item -> lines.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum));
+        acquire(lines);
+        logger.debug("Stock held for order ID {} until {}", order.getId(), expiresAt);
+    }
+
+    /**
+     * Called before payment starts: extends the order's active holds to a full TTL again and re-takes
+     * holds that expired in the meantime. Throws {@link IllegalArgumentException} if an expired line
+     * no longer fits; nothing has been charged at that point.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refreshHolds(Order order) {
+        List<Hold> holds = lockHolds(activeItemIds(order));
+        Timestamp expiresAt = Timestamp.valueOf(LocalDateTime.now().plusMinutes(holdTtlMinutes));
+        List<Hold> expired = filter(holds, StockReservationStatus.RELEASED);
+        if (!expired.isEmpty()) {
+            acquire(sumByProduct(expired));
+        }
+        List<Hold> toExtend = new ArrayList<>(expired);
+        toExtend.addAll(filter(holds, StockReservationStatus.ACTIVE));
+        updateStatus(toExtend, StockReservationStatus.ACTIVE, expiresAt);
+        logger.debug("Stock holds for order ID {} refreshed until {} ({} re-acquired)", order.getId(), expiresAt, expired.size());
+    }
+
+    /**
+     * Payment succeeded: moves the order's held quantities out of stock. Holds that already expired
+     * are taken directly if the stock is still there. Otherwise the line is logged for manual
+     * follow-up, because the payment can no longer be refused.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void commitHolds(Order order) {
+        List<Hold> holds = lockHolds(activeItemIds(order));
+        List<Hold> active = filter(holds, StockReservationStatus.ACTIVE);
+        List<Hold> committed = new ArrayList<>(active);
+        Set<Long> changed = new HashSet<>();
+        if (!active.isEmpty()) {
+            SortedMap<Long, Integer> lines = sumByProduct(active);
+            SortedMap<Long, Integer> hotLines = splitHot(lines);
+            hotSkuInventory.journalOnly(hotLines, -1, -1);
+            batch(COMMIT_SQL, lines, 2);
+            changed.addAll(lines.keySet());
+        }
+
+        List<Hold> expired = filter(holds, StockReservationStatus.RELEASED);
+        if (!expired.isEmpty()) {
+            SortedMap<Long, Integer> lines = sumByProduct(expired);
+            Set<Long> taken = new HashSet<>();
+            splitHot(lines).forEach((productId, quantity) -> {
+                if (hotSkuInventory.take(productId, quantity, -1, 0)) {
+                    taken.add(productId);
+                } else {
+                    logLateShort(order, productId, quantity);
+                }
+            });
+            List<Long> productIds = new ArrayList<>(lines.keySet());
+            int[] counts = batch(TAKE_SQL, lines, 1, true);
+            for (int i = 0; i < productIds.size(); i++) {
+                if (counts[i] != 0) {
+                    taken.add(productIds.get(i));
+                } else {
+                    logLateShort(order, productIds.get(i), lines.get(productIds.get(i)));
+                }
+            }
+            expired.stream().filter(hold -> taken.contains(hold.productId)).forEach(committed::add);
+            changed.addAll(taken);
+        }
+        updateStatus(committed, StockReservationStatus.COMMITTED, null);
+        for (Hold hold : committed) {
+            inventoryLedger.record(hold.productId, -hold.quantity, InventoryLedgerReason.ORDER_PAID, order.getId(), hold.orderItemId);
+        }
+        publish(changed);
+        logger.debug("Stock holds committed for order ID {}: {} of {}", order.getId(), committed.size(), holds.size());
+    }
+
+    /** Payment failed: releases every active hold of the order. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseHolds(Order order) {
+        List<Long> itemIds = order.getOrderItems().stream().map(OrderItem::getId).collect(Collectors.toList());
+        release(filter(lockHolds(itemIds), StockReservationStatus.ACTIVE));
+        logger.debug("Stock holds released for order ID {}", order.getId());
+    }
+
+    /**
+     * Puts cancelled items back: an active hold is released, a committed one (or an item from before
+     * holds existed) is restocked, and an expired hold needs nothing. Products that no longer exist are
+     * skipped with a warning, so a cancellation is never blocked by a deleted product.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void returnStock(Collection<OrderItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Map<Long, Hold> holdsByItemId = lockHolds(items.stream().map(OrderItem::getId).collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(hold -> hold.orderItemId, hold -> hold));
+        List<Hold> toRelease = new ArrayList<>();
+        List<Hold> toRestock = new ArrayList<>();
+        for (OrderItem item : items) {
+            Hold hold = holdsByItemId.get(item.getId());
+            if (hold == null) {
+                toRestock.add(new Hold(null, item.getId(), item.getProduct().getId(), item.getQuantity(), StockReservationStatus.COMMITTED));
+            } else if (hold.status == StockReservationStatus.ACTIVE) {
+                toRelease.add(hold);
+            } else if (hold.status == StockReservationStatus.COMMITTED) {
+                toRestock.add(hold);
+            }
+        }
+        release(toRelease);
+        if (!toRestock.isEmpty()) {
+            SortedMap<Long, Integer> lines = sumByProduct(toRestock);
+            hotSkuInventory.giveBackAfterCommit(splitHot(lines), 1, 0);
+            List<Long> productIds = new ArrayList<>(lines.keySet());
+            int[] counts = batch(RESTOCK_SQL, lines, 1);
+            Set<Long> missingIds = new HashSet<>();
+            for (int i = 0; i < productIds.size(); i++) {
+                if (counts[i] == 0) {
+                    missingIds.add(productIds.get(i));
+                    logger.warn("Restock skipped for missing product ID {} (quantity {}).", productIds.get(i), lines.get(productIds.get(i)));
+                }
+            }
+            Map<Long, Long> orderIdsByItemId = items.stream()
+                    .collect(Collectors.toMap(OrderItem::getId, item -> item.getOrder().getId(), (a, b) -> a));
+            for (Hold hold : toRestock) {
+                if (!missingIds.contains(hold.productId)) {
+                    inventoryLedger.record(hold.productId, hold.quantity, InventoryLedgerReason.ORDER_CANCELLED,
+                            orderIdsByItemId.get(hold.orderItemId), hold.orderItemId);
+                }
+            }
+            publish(lines.keySet());
+        }
+        logger.debug("Stock returned for {} items: {} holds released, {} restocked", items.size(), toRelease.size(), toRestock.size());
+    }
+
+    /**
+     * Releases up to {@code limit} holds whose time ran out, oldest first.
+     *
+     * @return number of holds released; less than {@code limit} means nothing is left for now
+     */
+    @Transactional
+    public int releaseExpiredHolds(int limit) {
+        List<Hold> expired = namedJdbcTemplate.query(SELECT_EXPIRED_HOLDS_SQL, new MapSqlParameterSource()
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()))
+                .addValue("limit", limit), (rs, rowNum) -> mapHold(rs));
+        release(expired);
+        return expired.size();
+    }
+
+    // --- yardımcılar ----------------------------------------------------------------------------
+
+    // Sıcak ürünler önce bellekten alınır; satır kilidi gerektiren UPDATE'ler yalnızca diğerleri için çalışır
+    private void acquire(SortedMap<Long, Integer> lines) {
+        SortedMap<Long, Integer> coldLines = new TreeMap<>(lines);
+        SortedMap<Long, Integer> hotLines = splitHot(coldLines);
+        List<Long> shortIds = new ArrayList<>(hotSkuInventory.takeAll(hotLines, 0, 1));
+        if (shortIds.isEmpty()) {
+            List<Long> productIds = new ArrayList<>(coldLines.keySet());
+            int[] counts = batch(HOLD_SQL, coldLines, 1, true);
+            for (int i = 0; i < productIds.size(); i++) {
+                if (counts[i] == 0) {
+                    shortIds.add(productIds.get(i));
+                }
+            }
+        }
+        if (!shortIds.isEmpty()) {
+            // Rollback çağıranın transaction'ında olur (bellekten alınanlar da iade edilir); burada yalnızca hata mesajı kurulur
+            throw new IllegalArgumentException(describeShortLines(shortIds, lines));
+        }
+        publish(coldLines.keySet());
+    }
+
+    private void release(List<Hold> holds) {
+        if (holds.isEmpty()) {
+            return;
+        }
+        updateStatus(holds, StockReservationStatus.RELEASED, null);
+        SortedMap<Long, Integer> lines = sumByProduct(holds);
+        hotSkuInventory.giveBackAfterCommit(splitHot(lines), 0, -1);
+        batch(RELEASE_SQL, lines, 1);
+        publish(lines.keySet());
+    }
+
+    private int[] batch(String sql, SortedMap<Long, Integer> lines, int quantityParams) {
+        return batch(sql, lines, quantityParams, false);
+    }
+
+    // Parametre sırası: miktar (quantityParams kez), updated_at, id [, koşul için miktar]
+    private int[] batch(String sql, SortedMap<Long, Integer> lines, int quantityParams, boolean trailingQuantity) {
+        // Sepetteki her satır sıcak üründe lines boş kalır; boş batch hiç sonuç grubu döndürmez
+        if (lines.isEmpty()) {
+            return new int[0];
+        }
+        List<Long> productIds = new ArrayList<>(lines.keySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(sql, productIds, productIds.size(), (ps, productId) -> {
+            int quantity = lines.get(productId);
+            int index = 1;
+            for (int i = 0; i < quantityParams; i++) {
+                ps.setInt(index++, quantity);
+            }
+            ps.setTimestamp(index++, now);
+            ps.setLong(index++, productId);
+            if (trailingQuantity) {
+                ps.setInt(index, quantity);
+            }
+        });
+        return counts[0];
+    }
+
+    // Sıcak ürün satırlarını lines'tan çıkarıp ayrı döner; onların veritabanı sütunları journal üzerinden güncellenir
+    private SortedMap<Long, Integer> splitHot(SortedMap<Long, Integer> lines) {
+        SortedMap<Long, Integer> hotLines = new TreeMap<>();
+        lines.entrySet().removeIf(line -> {
+            if (hotSkuInventory.isHot(line.getKey())) {
+                hotLines.put(line.getKey(), line.getValue());
+                return true;
+            }
+            return false;
+        });
+        return hotLines;
+    }
+
+    private static void logLateShort(Order order, Long productId, int quantity) {
+        logger.error("CRITICAL: Order ID {} was paid after its stock hold expired and product ID {} is now short by {}. Manual follow-up needed!",
+                order.getId(), productId, quantity);
+    }
+
+    private List<Hold> lockHolds(List<Long> orderItemIds) {
+        if (orderItemIds.isEmpty()) {
+            return List.of();
+        }
+        return namedJdbcTemplate.query(SELECT_HOLDS_BY_ITEMS_SQL, new MapSqlParameterSource("itemIds", orderItemIds),
+                (rs, rowNum) -> mapHold(rs));
+    }
+
+    private void updateStatus(List<Hold> holds, StockReservationStatus status, Timestamp expiresAt) {
+        List<Long> ids = holds.stream().map(hold -> hold.id).filter(Objects::nonNull).collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids).addValue("status", status.name());
+        if (expiresAt != null) {
+            namedJdbcTemplate.update("UPDATE stock_reservations SET status = :status, expires_at = :expiresAt WHERE id IN (:ids)",
+                    params.addValue("expiresAt", expiresAt));
+        } else {
+            namedJdbcTemplate.update("UPDATE stock_reservations SET status = :status WHERE id IN (:ids)", params);
+        }
+    }
+
+    // Ödeme bekleyen ya da ödenmiş siparişte hâlâ geçerli olan kalemler (iptal edilenlerin ayırması zaten bırakılmıştır)
+    private static List<Long> activeItemIds(Order order) {
+        return order.getOrderItems().stream()
+                .filter(item -> item.getStatus() == OrderItemStatus.ACTIVE)
+                .map(OrderItem::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Hold> filter(List<Hold> holds, StockReservationStatus status) {
+        return holds.stream().filter(hold -> hold.status == status).collect(Collectors.toList());
+    }
+
+    // Aynı ürünün birden çok satırı toplanır; id sırası kilit sırasını belirler
+    private static SortedMap<Long, Integer> sumByProduct(List<Hold> holds) {
+        SortedMap<Long, Integer> lines = new TreeMap<>();
+        for (Hold hold : holds) {
+            lines.merge(hold.productId, hold.quantity, Integer::sum);
+        }
+        return lines;
+    }
+
+    // Yalnızca stok değişti: ürün yeniden okunup indekslenmez, cache düşürülür ve stokta bayrağı tazelenir
+    private void publish(Collection<Long> productIds) {
+        if (!productIds.isEmpty()) {
+            eventPublisher.publishEvent(new ProductStockChangedEvent(productIds));
+        }
+    }
+
+    private static Hold mapHold(ResultSet rs) throws SQLException {
+        return new Hold(rs.getLong("id"), rs.getLong("order_item_id"), rs.getLong("product_id"),
+                rs.getInt("quantity"), StockReservationStatus.valueOf(rs.getString("status")));
+    }
+
+    private String describeShortLines(List<Long> shortIds, Map<Long, Integer> lines) {
+        Map<Long, String> descriptions = new TreeMap<>();
+        namedJdbcTemplate.query("SELECT id, name, stock_quantity, reserved_quantity, is_active FROM products WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", shortIds), rs -> {
+                    long id = rs.getLong("id");
+                    long available = hotSkuInventory.isHot(id) ? hotSkuInventory.available(id)
+                            : Math.max(0, rs.getInt("stock_quantity") - rs.getInt("reserved_quantity"));
+                    String reason = rs.getBoolean("is_active")
+                            ? "Requested: " + lines.get(id) + ", Available: " + available
+                            : "product is no longer available";
+                    descriptions.put(id, rs.getString("name") + " (" + reason + ")");
+                });
+        List<String> parts = new ArrayList<>(shortIds.size());
+        for (Long id : shortIds) {
+            parts.add(descriptions.getOrDefault(id, "product " + id + " (not found)"));
+        }
+        logger.info("Checkout rejected, insufficient stock for product IDs {}", shortIds);
+        return "Insufficient stock during checkout for: " + String.join("; ", parts);
+    }
+
+    private static final class Hold {
+        private final Long id;
+        private final long orderItemId;
+        private final long productId;
+        private final int quantity;
+        private final StockReservationStatus status;
+
+        private Hold(Long id, long orderItemId, long productId, int quantity, StockReservationStatus status) {
+            this.id = id;
+            this.orderItemId = orderItemId;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.status = status;
+        }
+    }
+}
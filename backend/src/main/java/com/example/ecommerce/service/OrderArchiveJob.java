@@ -0,0 +1,31 @@
+package com.example.ecommerce.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nightly move of completed orders to the archive tables ({@link OrderArchiveService#archiveCompletedOrders()}).
+ * Safe to run on several instances at once: a chunk that another instance already moved is found empty under lock.
+ */
+@Component
+public class OrderArchiveJob {
+
+    private final OrderArchiveService orderArchiveService;
+
+    @Value("${app.orders.archive.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    public OrderArchiveJob(OrderArchiveService orderArchiveService) {
+        this.orderArchiveService = orderArchiveService;
+    }
+
+    @Scheduled(cron = "${app.orders.archive.cron:0 0 4 * * *}")
+    public void archive() {
+        if (enabled) {
+            orderArchiveService.archiveCompletedOrders();
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.AddressDto;
+import com.example.ecommerce.dto.OrderDto;
+import com.example.ecommerce.dto.OrderItemDto;
+import com.example.ecommerce.dto.OrderSummaryDto;
+import com.example.ecommerce.entity.OrderItemStatus;
+import com.example.ecommerce.entity.OrderStatus;
+import com.example.ecommerce.entity.StockReservationStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cold storage for completed orders ({@code orders_archive}, {@code order_items_archive}).
+ * <p>
+ * {@link #archiveCompletedOrders()} moves DELIVERED and CANCELLED orders older than {@code min-age-days}
+ * whose items are all DELIVERED, CANCELLED or REFUNDED, in chunks of {@code chunk-size}. Candidates are
+ * found with plain reads, so hot rows are never locked. Each chunk then locks only its own old rows,
+ * checks them again and copies and deletes them in one short transaction. The job pauses between chunks.
+ * <p>
+ * Read paths use {@link #getWatermark()} to decide if a page can reach archived orders at all. Every
+ * archived order is at or below the newest archived id and order date, so pages of recent orders
+ * never touch the archive tables. Archived orders are read with plain JDBC into the same DTOs as
+ * live ones.
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    private static final int CHUNK_LIMIT = 1000;
+
+    private static final List<OrderStatus> ARCHIVABLE_ORDER_STATUSES = List.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED);
+    // İade bekleyen (REFUND_PROCESSING) veya iade talebindeki kalemi olan sipariş sıcak tabloda kalır
+    private static final Set<OrderItemStatus> FINISHED_ITEM_STATUSES =
+            EnumSet.of(OrderItemStatus.DELIVERED, OrderItemStatus.CANCELLED, OrderItemStatus.REFUNDED);
+
+    private static final String ORDER_COLUMNS =
+            "id, order_date, status, total_amount, customer_user_id, shipping_address_id, stripe_payment_intent_id, total_refunded_amount";
+    private static final String ITEM_COLUMNS =
+            "id, order_id, product_id, seller_id, order_date, quantity, price_at_purchase, status, stripe_refund_id, refunded_amount";
+
+    // Aday siparişler kilitsiz okunur; (tarih, id) keyset'i idx_orders_status_date_id üzerinden ilerler
+    private static final String CANDIDATES_SQL =
+            "SELECT id, order_date FROM orders WHERE status = :status AND order_date < :cutoff ";
+    private static final String CANDIDATES_AFTER_CURSOR =
+            "AND order_date >= :afterDate AND (order_date > :afterDate OR id > :afterId) ";
+    private static final String UNFINISHED_ITEMS_SQL =
+            "SELECT DISTINCT order_id FROM order_items WHERE order_id IN (:ids) AND status NOT IN (:finished)";
+    private static final String ACTIVE_HOLDS_SQL =
+            "SELECT DISTINCT order_id FROM stock_reservations WHERE order_id IN (:ids) AND status = :active";
+
+    private static final String LOCK_ORDERS_SQL =
+            "SELECT id FROM orders WHERE id IN (:ids) AND status IN (:statuses) AND order_date < :cutoff ORDER BY id FOR UPDATE";
+    private static final String LOCK_ITEMS_SQL =
+            "SELECT order_id, status FROM order_items WHERE order_id IN (:ids) ORDER BY id FOR UPDATE";
+
+    private static final String WATERMARK_SQL = "SELECT MAX(id) AS max_id, MAX(order_date) AS max_date FROM orders_archive";
+
+    private static final String SUMMARY_PAGE_SQL =
+            "SELECT o.id, o.order_date, o.status, o.total_amount, COUNT(oi.id) AS item_count, SUM(oi.quantity) AS total_quantity " +
+            "FROM orders_archive o LEFT JOIN order_items_archive oi ON oi.order_id = o.id " +
+            "WHERE o.customer_user_id = :customerId AND o.id < :beforeId " +
+            "GROUP BY o.id, o.order_date, o.status, o.total_amount ORDER BY o.id DESC LIMIT :limit";
+    private static final String ID_PAGE_SQL =
+            "SELECT id FROM orders_archive WHERE customer_user_id = :customerId AND id < :beforeId ORDER BY id DESC LIMIT :limit";
+
+    private static final String HEADERS_SQL =
+            "SELECT o.id, o.order_date, o.status, o.total_amount, o.customer_user_id, u.username, o.stripe_payment_intent_id, " +
+            "a.id AS address_id, a.phone_number, a.country, a.city, a.postal_code, a.address_text, a.user_id AS address_user_id " +
+            "FROM orders_archive o LEFT JOIN users u ON u.id = o.customer_user_id " +
+            "LEFT JOIN addresses a ON a.id = o.shipping_address_id " +
+            "WHERE o.id IN (:orderIds)";
+    // Arşivde yabancı anahtar yok; silinmiş ürünün kalemi adsız döner
+    private static final String ITEMS_SQL =
+            "SELECT oi.id, oi.order_id, oi.product_id, p.name, oi.quantity, oi.price_at_purchase, oi.status, " +
+            "oi.stripe_refund_id, oi.refunded_amount " +
+            "FROM order_items_archive oi LEFT JOIN products p ON p.id = oi.product_id " +
+            "WHERE oi.order_id IN (:orderIds) ";
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.orders.archive.min-age-days:90}")
+    private int minAgeDays;
+
+    @Value("${app.orders.archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.orders.archive.pause-ms:200}")
+    private long pauseMillis;
+
+    @Value("${app.orders.archive.max-orders-per-run:50000}")
+    private int maxOrdersPerRun;
+
+    @Autowired
+    public OrderArchiveService(NamedParameterJdbcTemplate namedJdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        // Her parça kendi kısa transaction'ında taşınır; kilitler parça bitince bırakılır
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** Newest archived order id and order date; every archived order is at or below both. */
+    public static final class Watermark {
+        private final long maxId;
+        private final LocalDateTime maxOrderDate;
+
+        private Watermark(long maxId, LocalDateTime maxOrderDate) {
+            this.maxId = maxId;
+            this.maxOrderDate = maxOrderDate;
+        }
+
+        public long getMaxId() { return maxId; }
+        public LocalDateTime getMaxOrderDate() { return maxOrderDate; }
+    }
+
+    /** The archive's watermark, or {@code null} while the archive is empty. Two index lookups. */
+    public Watermark getWatermark() {
+        return namedJdbcTemplate.query(WATERMARK_SQL, rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            Long maxId = rs.getObject("max_id", Long.class);
+            Timestamp maxDate = rs.getTimestamp("max_date");
+            return maxId == null ? null : new Watermark(maxId, maxDate.toLocalDateTime());
+        });
+    }
+
+    /**
+     * Whether a page ordered by id (newest first) must also look in the archive.
+     *
+     * @param fetched         rows read from the live table, at most {@code wanted}
+     * @param wanted          rows the page needs (page size + 1)
+     * @param lowestFetchedId id of the last row read, or {@code null} if none
+     */
+    public boolean isNeededForIdPage(int fetched, int wanted, Long lowestFetchedId) {
+        Watermark watermark = getWatermark();
+        if (watermark == null) {
+            return false;
+        }
+        return fetched < wanted || lowestFetchedId < watermark.getMaxId();
+    }
+
+    /**
+     * Whether a page ordered by (order date, id), newest first, must also look in the archive.
+     *
+     * @param lowestFetchedDate order date of the last row read, or {@code null} if none
+     * @param fromDate          lower bound of the requested range, or {@code null}
+     */
+    public boolean isNeededForDatePage(int fetched, int wanted, LocalDateTime lowestFetchedDate, LocalDateTime fromDate) {
+        Watermark watermark = getWatermark();
+        if (watermark == null || (fromDate != null && fromDate.isAfter(watermark.getMaxOrderDate()))) {
+            return false;
+        }
+        return fetched < wanted || !lowestFetchedDate.isAfter(watermark.getMaxOrderDate());
+    }
+
+    /** Whether a query limited to {@code fromDate} and later can match archived orders at all. */
+    public boolean coversDate(LocalDateTime fromDate) {
+        Watermark watermark = getWatermark();
+        return watermark != null && (fromDate == null || !fromDate.isAfter(watermark.getMaxOrderDate()));
+    }
+
+    /** Archived counterpart of {@code OrderRepository.findSummaryPageBefore}. */
+    public List<OrderSummaryDto> findSummaryPageBefore(Long customerId, Long beforeId, int limit) {
+        return namedJdbcTemplate.query(SUMMARY_PAGE_SQL,
+                new MapSqlParameterSource("customerId", customerId).addValue("beforeId", beforeId).addValue("limit", limit),
+                (rs, rowNum) -> new OrderSummaryDto(
+                        rs.getLong("id"),
+                        rs.getTimestamp("order_date").toLocalDateTime(),
+                        OrderStatus.valueOf(rs.getString("status")),
+                        rs.getBigDecimal("total_amount"),
+                        rs.getLong("item_count"),
+                        rs.getObject("total_quantity") == null ? null : rs.getLong("total_quantity")));
+    }
+
+    /** Archived counterpart of {@code OrderRepository.findIdPageBefore}. */
+    public List<Long> findIdPageBefore(Long customerId, Long beforeId, int limit) {
+        return namedJdbcTemplate.queryForList(ID_PAGE_SQL,
+                new MapSqlParameterSource("customerId", customerId).addValue("beforeId", beforeId).addValue("limit", limit),
+                Long.class);
+    }
+
+    /**
+     * Condition that continues a page ordered by (order date, id), newest first, after the cursor order,
+     * which may be live or archived. Binds {@code beforeDate} and {@code beforeId} on {@code params}.
+     *
+     * @param alias    alias of the paged table; it must have an {@code order_date} column
+     * @param idColumn that table's order id column
+     * @throws IllegalArgumentException if no live or archived order has the cursor id
+     */
+    public String afterDateCursor(Long cursor, String alias, String idColumn, MapSqlParameterSource params) {
+        Timestamp cursorDate = findOrderDate("orders", cursor)
+                .or(() -> findOrderDate("orders_archive", cursor))
+                .orElseThrow(() -> new IllegalArgumentException("Invalid cursor: " + cursor));
+        params.addValue("beforeDate", cursorDate).addValue("beforeId", cursor);
+        // İlk koşul indekste aralık taramasını sağlar, ikincisi aynı tarihteki siparişleri id ile ayırır
+        return "AND " + alias + ".order_date <= :beforeDate AND (" + alias + ".order_date < :beforeDate OR "
+                + alias + "." + idColumn + " < :beforeId) ";
+    }
+
+    private Optional<Timestamp> findOrderDate(String table, Long orderId) {
+        return namedJdbcTemplate.queryForList("SELECT order_date FROM " + table + " WHERE id = :id",
+                new MapSqlParameterSource("id", orderId), Timestamp.class).stream().findFirst();
+    }
+
+    /** Whether the archived order has an item of the given seller. */
+    public boolean hasSellerItems(Long orderId, Long sellerId) {
+        return !namedJdbcTemplate.queryForList(
+                "SELECT 1 FROM order_items_archive WHERE order_id = :orderId AND seller_id = :sellerId LIMIT 1",
+                new MapSqlParameterSource("orderId", orderId).addValue("sellerId", sellerId), Integer.class).isEmpty();
+    }
+
+    /**
+     * Archived orders with their items, address and customer, keyed by id. Unknown ids are skipped.
+     *
+     * @param sellerId if set, each order carries only this seller's items and their subtotal as total
+     */
+    public Map<Long, OrderDto> findOrdersWithDetails(Collection<Long> orderIds, Long sellerId) {
+        Map<Long, OrderDto> ordersById = new HashMap<>();
+        List<Long> ids = new ArrayList<>(new HashSet<>(orderIds));
+        for (int from = 0; from < ids.size(); from += CHUNK_LIMIT) {
+            loadChunk(ids.subList(from, Math.min(from + CHUNK_LIMIT, ids.size())), sellerId, ordersById);
+        }
+        return ordersById;
+    }
+
+    private void loadChunk(List<Long> orderIds, Long sellerId, Map<Long, OrderDto> ordersById) {
+        MapSqlParameterSource params = new MapSqlParameterSource("orderIds", orderIds);
+        String itemsSql = ITEMS_SQL;
+        if (sellerId != null) {
+            itemsSql += "AND oi.seller_id = :sellerId ";
+            params.addValue("sellerId", sellerId);
+        }
+        Map<Long, List<OrderItemDto>> itemsByOrder = new HashMap<>();
+        namedJdbcTemplate.query(itemsSql + "ORDER BY oi.order_id, oi.id", params, rs -> {
+            itemsByOrder.computeIfAbsent(rs.getLong("order_id"), id -> new ArrayList<>()).add(new OrderItemDto(
+                    rs.getLong("id"),
+                    rs.getLong("product_id"),
+                    rs.getString("name"),
+                    rs.getInt("quantity"),
+                    rs.getBigDecimal("price_at_purchase"),
+                    rs.getString("status"),
+                    rs.getString("stripe_refund_id"),
+                    rs.getBigDecimal("refunded_amount")));
+        });
+
+        namedJdbcTemplate.query(HEADERS_SQL, params, rs -> {
+            long orderId = rs.getLong("id");
+            List<OrderItemDto> items = itemsByOrder.getOrDefault(orderId, new ArrayList<>());
+            BigDecimal total = sellerId == null ? rs.getBigDecimal("total_amount") : items.stream()
+                    .map(item -> item.getPriceAtPurchase().multiply(new BigDecimal(item.getQuantity())))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            Long addressId = rs.getObject("address_id", Long.class);
+            AddressDto shippingAddress = addressId == null ? null : new AddressDto(addressId,
+                    rs.getString("phone_number"), rs.getString("country"), rs.getString("city"),
+                    rs.getString("postal_code"), rs.getString("address_text"), rs.getLong("address_user_id"));
+            ordersById.put(orderId, new OrderDto(
+                    orderId,
+                    rs.getTimestamp("order_date").toLocalDateTime(),
+                    OrderStatus.valueOf(rs.getString("status")),
+                    total,
+                    rs.getLong("customer_user_id"),
+                    rs.getString("username"),
+                    items,
+                    shippingAddress,
+                    rs.getString("stripe_payment_intent_id")));
+        });
+    }
+
+    /**
+     * Moves completed orders older than {@code min-age-days} to the archive tables, at most
+     * {@code max-orders-per-run} per call. Returns the number of orders moved.
+     */
+    public int archiveCompletedOrders() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(minAgeDays));
+        int archived = 0;
+        for (OrderStatus status : ARCHIVABLE_ORDER_STATUSES) {
+            Timestamp afterDate = null;
+            Long afterId = null;
+            while (archived < maxOrdersPerRun && !Thread.currentThread().isInterrupted()) {
+                MapSqlParameterSource params = new MapSqlParameterSource("status", status.name())
+                        .addValue("cutoff", cutoff)
+                        .addValue("limit", Math.min(chunkSize, maxOrdersPerRun - archived));
+                String sql = CANDIDATES_SQL;
+                if (afterId != null) {
+                    sql += CANDIDATES_AFTER_CURSOR;
+                    params.addValue("afterDate", afterDate).addValue("afterId", afterId);
+                }
+                List<Long> candidateIds = new ArrayList<>();
+                List<Timestamp> candidateDates = new ArrayList<>();
+                namedJdbcTemplate.query(sql + "ORDER BY order_date, id LIMIT :limit", params, rs -> {
+                    candidateIds.add(rs.getLong("id"));
+                    candidateDates.add(rs.getTimestamp("order_date"));
+                });
+                if (candidateIds.isEmpty()) {
+                    break;
+                }
+                afterId = candidateIds.get(candidateIds.size() - 1);
+                afterDate = candidateDates.get(candidateDates.size() - 1);
+
+                List<Long> eligibleIds = withoutUnfinishedOrders(candidateIds);
+                if (!eligibleIds.isEmpty()) {
+                    Integer moved = transactionTemplate.execute(tx -> moveChunk(eligibleIds, cutoff));
+                    archived += moved == null ? 0 : moved;
+                    pause();
+                }
+                if (candidateIds.size() < chunkSize) {
+                    break;
+                }
+            }
+        }
+        if (archived > 0) {
+            logger.info("Archived {} completed orders older than {} days", archived, minAgeDays);
+        }
+        return archived;
+    }
+
+    // Kilitsiz ön eleme: bitmemiş kalemi veya aktif stok ayırması olan siparişler kilitlenmeden atlanır
+    private List<Long> withoutUnfinishedOrders(List<Long> orderIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", orderIds)
+                .addValue("finished", FINISHED_ITEM_STATUSES.stream().map(Enum::name).collect(Collectors.toList()))
+                .addValue("active", StockReservationStatus.ACTIVE.name());
+        Set<Long> unfinished = new HashSet<>(namedJdbcTemplate.queryForList(UNFINISHED_ITEMS_SQL, params, Long.class));
+        unfinished.addAll(namedJdbcTemplate.queryForList(ACTIVE_HOLDS_SQL, params, Long.class));
+        return orderIds.stream().filter(id -> !unfinished.contains(id)).collect(Collectors.toList());
+    }
+
+    // Kilitler altında koşullar tekrar kontrol edilir; arada değişen sipariş bu turda taşınmaz
+    private int moveChunk(List<Long> candidateIds, Timestamp cutoff) {
+        MapSqlParameterSource lockParams = new MapSqlParameterSource("ids", candidateIds)
+                .addValue("statuses", ARCHIVABLE_ORDER_STATUSES.stream().map(Enum::name).collect(Collectors.toList()))
+                .addValue("cutoff", cutoff);
+        List<Long> locked = namedJdbcTemplate.queryForList(LOCK_ORDERS_SQL, lockParams, Long.class);
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        Set<Long> unfinished = new HashSet<>();
+        namedJdbcTemplate.query(LOCK_ITEMS_SQL, new MapSqlParameterSource("ids", locked), rs -> {
+            if (!FINISHED_ITEM_STATUSES.contains(OrderItemStatus.valueOf(rs.getString("status")))) {
+                unfinished.add(rs.getLong("order_id"));
+            }
+        });
+        unfinished.addAll(namedJdbcTemplate.queryForList(ACTIVE_HOLDS_SQL,
+                new MapSqlParameterSource("ids", locked).addValue("active", StockReservationStatus.ACTIVE.name()), Long.class));
+        List<Long> ids = locked.stream().filter(id -> !unfinished.contains(id)).collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids)
+                .addValue("archivedAt", Timestamp.valueOf(LocalDateTime.now()));
+        namedJdbcTemplate.update("INSERT INTO orders_archive (" + ORDER_COLUMNS + ", archived_at) " +
+                "SELECT " + ORDER_COLUMNS + ", :archivedAt FROM orders WHERE id IN (:ids)", params);
+        namedJdbcTemplate.update("INSERT INTO order_items_archive (" + ITEM_COLUMNS + ", archived_at) " +
+                "SELECT " + ITEM_COLUMNS + ", :archivedAt FROM order_items WHERE order_id IN (:ids)", params);
+        // Biten siparişlerin ayırma kayıtları (COMMITTED/RELEASED) artık gerekmez; stok geçmişi envanter defterindedir
+        namedJdbcTemplate.update("DELETE FROM stock_reservations WHERE order_id IN (:ids)", params);
+        namedJdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (:ids)", params);
+        namedJdbcTemplate.update("DELETE FROM orders WHERE id IN (:ids)", params);
+        return ids.size();
+    }
+
+    private void pause() {
+        if (pauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -10,19 +10,19 @@ import com.example.ecommerce.repository.CartRepository;
 import com.example.ecommerce.repository.OrderRepository;
 import com.example.ecommerce.repository.ProductRepository;
 import com.example.ecommerce.repository.UserRepository;
+import com.example.ecommerce.repository.CartItemRepository;
 import com.example.ecommerce.repository.OrderItemRepository; // EKLENECEK
 import com.stripe.model.Refund;
 import com.stripe.param.RefundCreateParams;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.PaymentIntentCreateParams;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.jpa.domain.Specification;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication; // Import Authentication
@@ -31,12 +31,10 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional; // Ensure this is imported
-import jakarta.persistence.criteria.Predicate;
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Map; // EKLENECEK
 import java.util.function.Function; // EKLENECEK
 import java.util.List;
@@ -61,13 +59,39 @@ public class OrderService {
     @Autowired
     private CartService cartService;
     @Autowired
-    private ProductService productService;
-    @Autowired
     private OrderItemRepository orderItemRepository;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    @Autowired
+    private OrderStatusTransitionService orderStatusTransitionService;
+    @Autowired
+    private OutboxService outboxService;
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Value("${app.orders.page-size.default:20}")
+    private int defaultPageSize;
+
+    @Value("${app.orders.page-size.max:100}")
+    private int maxPageSize;
+
+    @Value("${app.orders.my-orders.max-results:200}")
+    private int myOrdersMaxResults;
 
     @Transactional // Bu metod veritabanını (Order entity) ve harici bir sistemi (Stripe)
                    // etkileyebilir
     public String processStripeRefund(String paymentIntentId, BigDecimal amountToRefund) throws StripeException {
+        return processStripeRefund(paymentIntentId, amountToRefund, null);
+    }
+
+    /**
+     * Creates a Stripe refund. With an idempotency key, a retried call returns the refund created by the
+     * first one instead of refunding twice.
+     */
+    public String processStripeRefund(String paymentIntentId, BigDecimal amountToRefund, String idempotencyKey)
+            throws StripeException {
         if (paymentIntentId == null || paymentIntentId.isBlank()) {
             logger.warn("PaymentIntent ID is null or empty. Cannot process refund.");
             throw new IllegalArgumentException("PaymentIntent ID is required to process a refund.");
@@ -90,7 +114,8 @@ public class OrderService {
 
         logger.info("Attempting to create Stripe refund for PaymentIntent ID: {}, Amount: {} kuruş", paymentIntentId,
                 amountInKurus);
-        Refund refund = Refund.create(params); // Stripe API çağrısı
+        Refund refund = idempotencyKey == null ? Refund.create(params) // Stripe API çağrısı
+                : Refund.create(params, RequestOptions.builder().setIdempotencyKey(idempotencyKey).build());
         logger.info("Stripe refund successful. Refund ID: {}, Status: {}", refund.getId(), refund.getStatus());
 
         return refund.getId(); // Stripe tarafından verilen iade ID'sini döndür
@@ -146,19 +171,16 @@ public class OrderService {
             if (order.getStatus() == OrderStatus.PENDING || order.getStatus() == OrderStatus.PREPARING) {
                 logger.info("Owner {} cancelling order ID: {} (status: {}). No refund processed at this stage.",
                         actorUsername, orderId, order.getStatus());
+                List<OrderItem> cancelledItems = new ArrayList<>();
                 for (OrderItem item : order.getOrderItems()) {
                     if (item.getStatus() == OrderItemStatus.ACTIVE) { // Sadece aktif olanları iptal et
                         item.setStatus(OrderItemStatus.CANCELLED);
                         orderItemRepository.save(item);
-                        try {
-                            productService.increaseStock(item.getProduct().getId(), item.getQuantity());
-                        } catch (Exception e) {
-                            logger.error(
-                                    "CRITICAL: Failed to increase stock for product ID {} while owner cancelling order item ID {}. Error: {}",
-                                    item.getProduct().getId(), item.getId(), e.getMessage(), e);
-                        }
+                        cancelledItems.add(item);
                     }
                 }
+                // Ödeme bekleyen kalemlerin ayırması bırakılır, ödenmiş olanlar stoğa geri eklenir
+                inventoryService.returnStock(cancelledItems);
                 order.setStatus(OrderStatus.CANCELLED); // Siparişin genel durumunu da iptal et
                 Order cancelledOrder = orderRepository.save(order);
                 return convertToDto(cancelledOrder);
@@ -184,7 +206,8 @@ public class OrderService {
         boolean isAdmin = actorRoles.contains("ROLE_ADMIN");
         boolean isSeller = actorRoles.contains("ROLE_SELLER");
 
-        Order order = orderRepository.findById(orderId)
+        // Aynı kalem için eşzamanlı iki iptal iki REFUND_REQUESTED yazmasın; completeRefund da aynı kilidi alır
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
 
         if (order.getStatus() == OrderStatus.CANCELLED || order.getStatus() == OrderStatus.DELIVERED) {
@@ -226,10 +249,10 @@ public class OrderService {
 
             // Yetki Kontrolü: Admin her kalemi iptal edebilir, Satıcı sadece kendi ürününü.
             if (!isAdmin) { // Eğer admin değilse, satıcı kontrolü yap
-                if (!isSeller || !item.getProduct().getSeller().getId().equals(actor.getId())) {
+                if (!isSeller || !actor.getId().equals(item.getSellerId())) {
                     logger.warn(
                             "Seller {} (ID: {}) is not authorized to cancel OrderItem ID {} (Product Seller ID: {}).",
-                            actorUsername, actor.getId(), itemId, item.getProduct().getSeller().getId());
+                            actorUsername, actor.getId(), itemId, item.getSellerId());
                     throw new AccessDeniedException(
                             "You are not authorized to cancel one or more of the selected items.");
                 }
@@ -246,23 +269,15 @@ public class OrderService {
                     "None of the provided item IDs were valid for cancellation/refund in order " + orderId);
         }
 
-        String stripeRefundId = null;
-        if (totalAmountToRefund.compareTo(BigDecimal.ZERO) > 0 && canAttemptMonetaryRefund) {
-            try {
-                logger.info("Processing partial refund for order ID {}. Amount: {}. Items: {}",
-                        orderId, totalAmountToRefund, itemsSuccessfullyProcessedForRefund.stream().map(OrderItem::getId)
-                                .collect(Collectors.toList()));
-                stripeRefundId = processStripeRefund(order.getStripePaymentIntentId(), totalAmountToRefund);
-
-                // İade edilen toplam tutarı siparişte güncelle
-                order.setTotalRefundedAmount(order.getTotalRefundedAmount().add(totalAmountToRefund));
-
-            } catch (StripeException e) {
-                logger.error("Stripe partial refund failed for order ID: {}. Amount: {}. Error: {}",
-                        orderId, totalAmountToRefund, e.getMessage(), e);
-                throw new RuntimeException("Stripe refund processing failed: " + e.getMessage(), e);
-            }
-        } else if (totalAmountToRefund.compareTo(BigDecimal.ZERO) > 0 && !canAttemptMonetaryRefund) {
+        // Stripe iadesi istek içinde yapılmaz: kalemler REFUND_PROCESSING'e alınır ve aynı transaction'da
+        // outbox'a REFUND_REQUESTED yazılır. İade OutboxRelay tarafından, hata olursa tekrar denenerek yapılır
+        // (bkz. completeRefund).
+        boolean refundRequested = totalAmountToRefund.compareTo(BigDecimal.ZERO) > 0 && canAttemptMonetaryRefund;
+        if (refundRequested) {
+            logger.info("Requesting refund for order ID {}. Amount: {}. Items: {}",
+                    orderId, totalAmountToRefund, itemsSuccessfullyProcessedForRefund.stream().map(OrderItem::getId)
+                            .collect(Collectors.toList()));
+        } else if (totalAmountToRefund.compareTo(BigDecimal.ZERO) > 0) {
             logger.info("Total amount for specified items is greater than zero for order ID {}, but monetary refund cannot be attempted (e.g. no Payment Intent ID). Items will be marked as CANCELLED.", orderId);
         } else {
             logger.info(
@@ -272,37 +287,25 @@ public class OrderService {
 
         // Başarıyla iade için işlenen kalemlerin durumunu ve stoklarını güncelle
         for (OrderItem item : itemsSuccessfullyProcessedForRefund) {
-            // If a Stripe refund was processed and successful, or if it was intended but couldn't be (e.g. no PI) but items are being cancelled.
-            // Status should be REFUNDED if stripeRefundId is present, otherwise CANCELLED.
-            item.setStatus((stripeRefundId != null) ? OrderItemStatus.REFUNDED : OrderItemStatus.CANCELLED);
-            item.setStripeRefundId(stripeRefundId); 
-            // Set refunded amount on item only if a monetary refund happened for this item through Stripe
-            if (stripeRefundId != null) {
-                item.setRefundedAmount(item.getPriceAtPurchase().multiply(new BigDecimal(item.getQuantity())));
-            } else {
-                item.setRefundedAmount(BigDecimal.ZERO); // No monetary refund for this item
-            }
+            // İade isteniyorsa kalem REFUND_PROCESSING'de bekler; iade tutarı ve Stripe ID'si iade yapılınca yazılır
+            item.setStatus(refundRequested ? OrderItemStatus.REFUND_PROCESSING : OrderItemStatus.CANCELLED);
+            item.setRefundedAmount(BigDecimal.ZERO);
             orderItemRepository.save(item); // Her bir kalemi kaydet
-
-            try {
-                productService.increaseStock(item.getProduct().getId(), item.getQuantity());
-                logger.info("Stock increased for product ID {} by quantity {} due to item cancellation.",
-                        item.getProduct().getId(), item.getQuantity());
-            } catch (Exception e) {
-                logger.error(
-                        "CRITICAL: Failed to increase stock for product ID {} while cancelling order item ID {}. Error: {}",
-                        item.getProduct().getId(), item.getId(), e.getMessage(), e);
-            }
         }
+        if (refundRequested) {
+            requestRefund(order, itemsSuccessfullyProcessedForRefund, totalAmountToRefund);
+        }
+        // Stoklar tek batch'te iade edilir (id sırasıyla, checkout ile aynı kilit sırası)
+        inventoryService.returnStock(itemsSuccessfullyProcessedForRefund);
 
         // Siparişin genel durumunu kontrol et ve güncelle
         updateOverallOrderStatus(order);
 
         Order savedOrder = orderRepository.save(order);
-        logger.info("Order ID {} items ({}) cancelled/refunded by {}. Stripe Refund ID (if any): {}",
+        logger.info("Order ID {} items ({}) cancelled by {}. Refund requested: {}",
                 orderId,
                 itemsSuccessfullyProcessedForRefund.stream().map(OrderItem::getId).collect(Collectors.toList()),
-                actorUsername, stripeRefundId);
+                actorUsername, refundRequested);
         return convertToDto(savedOrder); // convertToDto'nun OrderItemDto'ları da içermesi ve OrderItemDto'nun yeni
                                          // alanları yansıtması gerekir.
     }
@@ -310,6 +313,7 @@ public class OrderService {
     private void updateOverallOrderStatus(Order order) {
         boolean allItemsCancelledOrRefunded = order.getOrderItems().stream()
                 .allMatch(item -> item.getStatus() == OrderItemStatus.CANCELLED
+                        || item.getStatus() == OrderItemStatus.REFUND_PROCESSING
                         || item.getStatus() == OrderItemStatus.REFUNDED);
 
         boolean anyItemActive = order.getOrderItems().stream()
@@ -376,23 +380,23 @@ public class OrderService {
         List<OrderItem> newOrderItems = new ArrayList<>();
         List<CartItem> itemsToProcess = new ArrayList<>(cart.getItems());
 
+        // Ürünler tek sorguda okunur; stok kontrolü Java'da değil, aşağıdaki koşullu UPDATE'lerde yapılır
+        Map<Long, Product> productsById = productRepository.findAllById(itemsToProcess.stream()
+                        .map(cartItem -> cartItem.getProduct().getId()).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
         for (CartItem cartItem : itemsToProcess) {
-            Product product = cartItem.getProduct();
+            Long productId = cartItem.getProduct().getId();
             int quantity = cartItem.getQuantity();
-            Product currentProductState = productRepository.findById(product.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Product with id: " + product.getId() + " not found during order creation."));
-
-            logger.debug("Checking stock for product ID {}. Requested: {}, Available: {}", currentProductState.getId(),
-                    quantity, currentProductState.getStockQuantity());
-            if (currentProductState.getStockQuantity() < quantity) {
-                throw new IllegalArgumentException("Insufficient stock during checkout for product: "
-                        + currentProductState.getName() + ". Requested: " + quantity + ", Available: "
-                        + currentProductState.getStockQuantity());
+            Product currentProductState = productsById.get(productId);
+            if (currentProductState == null) {
+                throw new ResourceNotFoundException("Product with id: " + productId + " not found during order creation.");
             }
 
             OrderItem orderItem = new OrderItem();
             orderItem.setProduct(currentProductState);
+            orderItem.setSellerId(currentProductState.getSeller().getId());
+            orderItem.setOrderDate(order.getOrderDate());
             orderItem.setQuantity(quantity);
             orderItem.setPriceAtPurchase(currentProductState.getPrice());
 
@@ -400,7 +404,7 @@ public class OrderService {
 
             BigDecimal itemTotal = currentProductState.getPrice().multiply(new BigDecimal(quantity));
             totalAmount = totalAmount.add(itemTotal);
-            logger.debug("Added item: Product ID {}, Qty: {}, Price: {}, ItemTotal: {}", product.getId(), quantity,
+            logger.debug("Added item: Product ID {}, Qty: {}, Price: {}, ItemTotal: {}", productId, quantity,
                     orderItem.getPriceAtPurchase(), itemTotal);
         }
 
@@ -408,19 +412,17 @@ public class OrderService {
         newOrderItems.forEach(order::addOrderItem);
         logger.info("Order calculated. Total Amount: {}, Item Count: {}", totalAmount, newOrderItems.size());
 
-        Order savedOrder = orderRepository.save(order);
-        logger.info("Order created successfully with ID: {}", savedOrder.getId());
+        // Sipariş ve kalemleri tek flush'ta batch insert edilir; stok ayrımı JDBC ile order_items'a
+        // referans verdiğinden satırların holdForOrder'dan önce yazılmış olması gerekir
+        Order savedOrder = orderRepository.saveAndFlush(order);
 
-        logger.debug("Decreasing stock for order ID: {}", savedOrder.getId());
-        for (OrderItem savedItem : savedOrder.getOrderItems()) {
-            try {
-                productService.decreaseStock(savedItem.getProduct().getId(), savedItem.getQuantity());
-            } catch (Exception e) {
-                logger.error(
-                        "CRITICAL: Failed to decrease stock for product ID {} for order ID {}. Manual correction needed! Error: {}",
-                        savedItem.getProduct().getId(), savedOrder.getId(), e.getMessage(), e);
-            }
-        }
+        // Tüm sepet için ödeme süresince geçerli stok ayrılır; bir satır bile yetmezse exception siparişi de geri alır
+        inventoryService.holdForOrder(savedOrder);
+        outboxService.append(OutboxEventType.ORDER_PLACED, savedOrder.getId(), Map.of(
+                "orderId", savedOrder.getId(),
+                "customerId", customer.getId(),
+                "totalAmount", totalAmount));
+        logger.info("Order created successfully with ID: {}", savedOrder.getId());
 
         logger.debug("Clearing cart ID: {} for user ID: {}", cart.getId(), customer.getId());
         try {
@@ -434,46 +436,52 @@ public class OrderService {
         return convertToDto(savedOrder);
     }
 
+    /**
+     * Cheap up-front checks for an asynchronous checkout, so that obviously invalid requests are
+     * rejected before they are queued. {@link #createOrder} repeats them when the checkout runs.
+     */
     @Transactional(readOnly = true)
-    public Page<OrderDto> getAllOrdersForAdmin(Pageable pageable, String customerUsername,
-            OrderStatus status, LocalDate startDate, LocalDate endDate) {
-        logger.debug(
-                "Fetching all orders for admin with filters - Username: {}, Status: {}, StartDate: {}, EndDate: {}, Page: {}",
-                customerUsername, status, startDate, endDate, pageable);
-
-        Specification<Order> spec = (root, query, criteriaBuilder) -> {
-            List<Predicate> predicates = new ArrayList<>();
-
-            if (customerUsername != null && !customerUsername.isEmpty()) {
-                // Join User entity and filter by username
-                predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("customer").get("username")),
-                        "%" + customerUsername.toLowerCase() + "%"));
-            }
-            if (status != null) {
-                predicates.add(criteriaBuilder.equal(root.get("status"), status));
-            }
-            if (startDate != null) {
-                LocalDateTime startDateTime = startDate.atStartOfDay();
-                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("orderDate"), startDateTime));
-            }
-            if (endDate != null) {
-                LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX); // Günün sonuna kadar
-                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("orderDate"), endDateTime));
-            }
-            // Siparişleri en yeniden eskiye doğru sırala (default)
-            query.orderBy(criteriaBuilder.desc(root.get("orderDate")));
-
-            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
-        };
+    public void validateCheckoutRequest(CreateOrderRequestDto requestDto) {
+        User customer = getCurrentAuthenticatedUserEntity();
+        if (cartItemRepository.findProductIdsByUsername(customer.getUsername()).isEmpty()) {
+            throw new IllegalArgumentException("Cannot create order from an empty cart.");
+        }
+        Address shippingAddress = addressRepository.findById(requestDto.getShippingAddressId())
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Shipping address not found with id: " + requestDto.getShippingAddressId()));
+        if (!shippingAddress.getUser().getId().equals(customer.getId())) {
+            throw new AccessDeniedException("Shipping address does not belong to the current user.");
+        }
+    }
 
-        Page<Order> orderPage = orderRepository.findAll(spec, pageable);
-        return orderPage.map(this::convertToDto); // Mevcut convertToDto'yu kullan
+    /**
+     * Full DTOs of the given orders, in the given order, loaded with items, products, address and customer
+     * in one entity-graph query. Ids not found there are looked up in the archive. Unknown ids are skipped.
+     */
+    @Transactional(readOnly = true)
+    public List<OrderDto> getOrdersWithDetails(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, OrderDto> ordersById = orderRepository.findWithDetailsByIdIn(orderIds).stream()
+                .collect(Collectors.toMap(Order::getId, this::convertToDto));
+        List<Long> missingIds = orderIds.stream().filter(id -> !ordersById.containsKey(id)).collect(Collectors.toList());
+        if (!missingIds.isEmpty()) {
+            ordersById.putAll(orderArchiveService.findOrdersWithDetails(missingIds, null));
+        }
+        return orderIds.stream()
+                .map(ordersById::get)
+                .filter(order -> order != null)
+                .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public OrderDto getOrderDetailsForAdmin(Long orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+        Optional<Order> liveOrder = orderRepository.findById(orderId);
+        if (liveOrder.isEmpty()) {
+            return findArchivedOrder(orderId, null);
+        }
+        Order order = liveOrder.get();
         // Admin olduğu için ekstra yetki kontrolüne gerek yok, direkt tüm detayları
         // dönebiliriz.
         // convertToDto zaten gerekli bilgileri içeriyor. İstenirse daha fazla detay
@@ -484,79 +492,82 @@ public class OrderService {
 
     @Transactional
     public OrderDto updateOrderStatusByAdmin(Long orderId, UpdateOrderStatusRequestDto requestDto) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
-
         OrderStatus newStatus = requestDto.getNewStatus();
-        logger.info("Admin attempting to update order ID {} from status {} to {}", orderId, order.getStatus(),
-                newStatus);
-
-        // Adminin hangi durumlara geçiş yapabileceğine dair kurallar eklenebilir.
-        // Örneğin, DELIVERED olan bir siparişi tekrar PENDING yapmasına izin
-        // verilmeyebilir.
-        // Şimdilik adminin her duruma geçebileceğini varsayalım, CANCELLED hariç (onun
-        // için /cancel endpointi var).
+        // İptal için /cancel endpoint'i kullanılır (stok ve iade işlemleri orada yapılır)
         if (newStatus == OrderStatus.CANCELLED) {
             throw new IllegalArgumentException(
                     "Admin should use the /cancel endpoint to cancel orders, not status update.");
         }
-
-        // Sipariş durumu CANCELLED ise ve yeni status CANCELLED değilse, stok iadesi
-        // yapılmış olabilir.
-        // Bu durumu yönetmek karmaşıklaşabilir. Şimdilik CANCELLED bir siparişin
-        // durumunun değiştirilemeyeceğini varsayalım.
-        if (order.getStatus() == OrderStatus.CANCELLED && newStatus != OrderStatus.CANCELLED) {
-            throw new IllegalStateException("Cannot change status of an already CANCELED order via this method.");
-        }
-
-        // Eğer yeni durum DELIVERED ise ve ödeme yapılmamışsa (örn:
-        // StripePaymentIntentId boş veya ödeme başarısız)
-        // bu bir sorun olabilir. Ödeme kontrolü eklenebilir.
-        // if (newStatus == OrderStatus.DELIVERED && (order.getStripePaymentIntentId()
-        // == null || order.getStatus() == OrderStatus.PAYMENT_FAILED)) {
-        // throw new IllegalStateException("Cannot mark order as DELIVERED if payment
-        // was not successful or initiated.");
-        // }
-
-        order.setStatus(newStatus);
-        Order updatedOrder = orderRepository.save(order);
-        logger.info("Order ID {} status updated to {} by admin.", orderId, newStatus);
-        return convertToDto(updatedOrder);
+        // Geçiş kuralları OrderStatus durum makinesindedir (ör. CANCELLED/DELIVERED bir sipariş değiştirilemez)
+        OrderStatusUpdateResultDto result = applyStatusTransition(orderId, newStatus, true, null);
+        logger.info("Order ID {} status updated from {} to {} by admin.", orderId, result.getPreviousStatus(), newStatus);
+        return convertToDto(orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId)));
     }
 
+    /**
+     * The current user's newest orders, at most {@code my-orders.max-results} of them. Older orders are
+     * only reachable through {@link #getMyOrdersPage}.
+     */
     @Transactional(readOnly = true)
     public List<OrderDto> getOrdersForCurrentUser() {
         User customer = getCurrentAuthenticatedUserEntity();
-        List<Order> orders = orderRepository.findByCustomerUsername(customer.getUsername());
-        for (Order order : orders) {
-            if (order == null) {
-                logger.error("Order list contains null order!");
-            } else {
-                if (order.getCustomer() == null) {
-                    logger.error("Order {} has null customer!", order.getId());
-                }
-                if (order.getOrderItems() == null) {
-                    logger.warn("Order {} has null orderItems list!", order.getId());
-                } else {
-                    for (OrderItem item : order.getOrderItems()) {
-                        if (item == null) {
-                            logger.error("Order {} has null OrderItem in orderItems list!", order.getId());
-                        } else {
-                            if (item.getProduct() == null) {
-                                logger.error("OrderItem {} in Order {} has null product!", item.getId(), order.getId());
-                            }
-                        }
-                    }
-                }
-                if (order.getShippingAddress() == null) {
-                    logger.warn("Order {} has null shippingAddress!", order.getId());
-                }
-                if (order.getTotalAmount() == null) {
-                    logger.warn("Order {} has null totalAmount!", order.getId());
-                }
+        return getOrdersWithDetails(findIdPageBefore(customer.getId(), Long.MAX_VALUE, myOrdersMaxResults));
+    }
+
+    /**
+     * One page of the current user's orders, newest first. By default only {@link OrderSummaryDto}s are
+     * returned (one aggregate query); with {@code details} the page's orders are loaded with their items,
+     * products and address in a single entity-graph query and returned as {@link OrderDto}s.
+     *
+     * @param cursor {@code nextCursor} of the previous page, or {@code null} for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<?> getMyOrdersPage(Long cursor, Integer size, boolean details) {
+        int limit = PageSizes.resolve(size, defaultPageSize, maxPageSize);
+        Long customerId = getCurrentAuthenticatedUserEntity().getId();
+        Long beforeId = cursor == null ? Long.MAX_VALUE : cursor;
+        // Bir fazla satır istenir; gelirse sonraki sayfa vardır
+        Pageable limitPlusOne = Pageable.ofSize(limit + 1);
+
+        if (!details) {
+            List<OrderSummaryDto> summaries = orderRepository.findSummaryPageBefore(customerId, beforeId, limitPlusOne);
+            // Arşive yalnızca sayfa en yeni arşivlenmiş siparişin altına iniyorsa bakılır
+            if (orderArchiveService.isNeededForIdPage(summaries.size(), limit + 1,
+                    summaries.isEmpty() ? null : summaries.get(summaries.size() - 1).getId())) {
+                summaries = new ArrayList<>(summaries);
+                summaries.addAll(orderArchiveService.findSummaryPageBefore(customerId, beforeId, limit + 1));
+                summaries.sort(Comparator.comparing(OrderSummaryDto::getId).reversed());
+                summaries = summaries.subList(0, Math.min(summaries.size(), limit + 1));
+            }
+            boolean hasNext = summaries.size() > limit;
+            if (hasNext) {
+                summaries = summaries.subList(0, limit);
             }
+            return new CursorPageDto<>(summaries, hasNext, hasNext ? summaries.get(limit - 1).getId() : null);
+        }
+
+        // Koleksiyon fetch'i ile LIMIT birlikte kullanılamadığından (Hibernate sayfalamayı bellekte yapar)
+        // önce sayfanın id'leri alınır, sonra yalnızca o siparişler detaylarıyla yüklenir
+        List<Long> orderIds = findIdPageBefore(customerId, beforeId, limit + 1);
+        boolean hasNext = orderIds.size() > limit;
+        if (hasNext) {
+            orderIds = orderIds.subList(0, limit);
         }
-        return orders.stream().map(this::convertToDto) /* Uses simple convertToDto for customer */ .collect(Collectors.toList());
+        return new CursorPageDto<>(getOrdersWithDetails(orderIds), hasNext, hasNext ? orderIds.get(limit - 1) : null);
+    }
+
+    // Müşterinin beforeId'den küçük en yeni en fazla limit sipariş id'si; arşive yalnızca gerekirse bakılır
+    private List<Long> findIdPageBefore(Long customerId, Long beforeId, int limit) {
+        List<Long> orderIds = orderRepository.findIdPageBefore(customerId, beforeId, Pageable.ofSize(limit));
+        if (orderArchiveService.isNeededForIdPage(orderIds.size(), limit,
+                orderIds.isEmpty() ? null : orderIds.get(orderIds.size() - 1))) {
+            orderIds = new ArrayList<>(orderIds);
+            orderIds.addAll(orderArchiveService.findIdPageBefore(customerId, beforeId, limit));
+            orderIds.sort(Comparator.reverseOrder());
+            orderIds = orderIds.subList(0, Math.min(orderIds.size(), limit));
+        }
+        return orderIds;
     }
 
     @Transactional(readOnly = true)
@@ -565,8 +576,11 @@ public class OrderService {
         User currentUser = getCurrentAuthenticatedUserEntity(authentication);
         Set<String> currentUserRoles = getUserRoles(authentication);
 
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+        Optional<Order> liveOrder = orderRepository.findById(orderId);
+        if (liveOrder.isEmpty()) {
+            return getArchivedOrderForCurrentUser(orderId, currentUser, currentUserRoles);
+        }
+        Order order = liveOrder.get();
 
         boolean isAdmin = currentUserRoles.contains("ROLE_ADMIN");
         boolean isOwner = order.getCustomer().getId().equals(currentUser.getId());
@@ -579,8 +593,7 @@ public class OrderService {
 
         // If it's a seller, they must have a product in the order
         if (currentUserRoles.contains("ROLE_SELLER")) {
-            boolean orderContainsSellersProduct = order.getOrderItems().stream()
-                    .anyMatch(item -> item.getProduct().getSeller().getId().equals(currentUser.getId()));
+            boolean orderContainsSellersProduct = orderItemRepository.existsByOrderIdAndSellerId(orderId, currentUser.getId());
             if (orderContainsSellersProduct) {
                 // Seller sees only their items and their specific total
                 return convertToDto(order, currentUser, currentUserRoles);
@@ -589,16 +602,24 @@ public class OrderService {
         throw new AccessDeniedException("You are not authorized to view this order.");
     }
 
-    @Transactional(readOnly = true)
-    public List<OrderDto> getOrdersForSeller() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User seller = getCurrentAuthenticatedUserEntity(authentication);
-        Set<String> sellerRoles = getUserRoles(authentication); // Should predominantly be ROLE_SELLER
+    // Arşivlenmiş sipariş için getOrderByIdForCurrentUser ile aynı yetki kuralları
+    private OrderDto getArchivedOrderForCurrentUser(Long orderId, User currentUser, Set<String> currentUserRoles) {
+        OrderDto order = findArchivedOrder(orderId, null);
+        if (currentUserRoles.contains("ROLE_ADMIN") || currentUser.getId().equals(order.getCustomerId())) {
+            return order;
+        }
+        if (currentUserRoles.contains("ROLE_SELLER") && orderArchiveService.hasSellerItems(orderId, currentUser.getId())) {
+            return findArchivedOrder(orderId, currentUser.getId());
+        }
+        throw new AccessDeniedException("You are not authorized to view this order.");
+    }
 
-        List<Order> orders = orderRepository.findOrdersContainingProductFromSeller(seller.getId());
-        return orders.stream()
-                     .map(order -> convertToDto(order, seller, sellerRoles)) // Use new convertToDto for seller list
-                     .collect(Collectors.toList());
+    private OrderDto findArchivedOrder(Long orderId, Long sellerId) {
+        OrderDto order = orderArchiveService.findOrdersWithDetails(List.of(orderId), sellerId).get(orderId);
+        if (order == null) {
+            throw new ResourceNotFoundException("Order not found with id: " + orderId);
+        }
+        return order;
     }
 
     @Transactional
@@ -607,9 +628,6 @@ public class OrderService {
         User currentUser = getCurrentAuthenticatedUserEntity(authentication);
         Set<String> currentUserRoles = getUserRoles(authentication);
 
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
-
         OrderStatus newStatus = requestDto.getNewStatus();
         // Prevent setting CANCELLED via this method, use cancelOrder instead
         if (newStatus == OrderStatus.CANCELLED) {
@@ -618,30 +636,30 @@ public class OrderService {
 
         boolean isAdmin = currentUserRoles.contains("ROLE_ADMIN");
         boolean isSeller = currentUserRoles.contains("ROLE_SELLER");
+        // Yetki (satıcı kendi kalemi olan siparişte PREPARING/SHIPPED/DELIVERED) ve geçiş kontrolü toplu güncellemeyle aynıdır
+        applyStatusTransition(orderId, newStatus, isAdmin, isSeller ? currentUser.getId() : null);
 
-        if (isAdmin) {
-            order.setStatus(newStatus);
-        } else if (isSeller) {
-            boolean orderContainsSellersProduct = order.getOrderItems().stream()
-                    .anyMatch(item -> item.getProduct().getSeller().getId().equals(currentUser.getId()));
-            if (!orderContainsSellersProduct) {
-                throw new AccessDeniedException("Seller is not authorized to update status for this order.");
-            }
-            // Allow seller to set these statuses
-            if (newStatus == OrderStatus.PREPARING || newStatus == OrderStatus.SHIPPED
-                    || newStatus == OrderStatus.DELIVERED) {
-                order.setStatus(newStatus);
-            } else { // PENDING or other potentially invalid statuses for seller action
-                throw new AccessDeniedException("Seller cannot set status to " + newStatus);
-            }
-        } else { // User is not ADMIN or relevant SELLER
-            throw new AccessDeniedException("User is not authorized to update order status.");
-        }
-
-        Order updatedOrder = orderRepository.save(order);
+        Order updatedOrder = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
         return convertToDto(updatedOrder);
     }
 
+    // Tek siparişlik geçiş; toplu sonuçtaki başarısızlık GlobalExceptionHandler'ın eşlediği istisnalara çevrilir
+    private OrderStatusUpdateResultDto applyStatusTransition(Long orderId, OrderStatus newStatus, boolean isAdmin, Long sellerId) {
+        OrderStatusUpdateResultDto result = orderStatusTransitionService
+                .transition(List.of(orderId), newStatus, isAdmin, sellerId).get(0);
+        switch (result.getOutcome()) {
+            case NOT_FOUND:
+                throw new ResourceNotFoundException(result.getMessage());
+            case FORBIDDEN:
+                throw new AccessDeniedException(result.getMessage());
+            case INVALID_TRANSITION:
+                throw new IllegalStateException(result.getMessage());
+            default:
+                return result;
+        }
+    }
+
     // --- Helper Methods ---
     // Overload or modify getCurrentAuthenticatedUserEntity to accept Authentication
     private User getCurrentAuthenticatedUserEntity() {
@@ -683,7 +701,7 @@ public class OrderService {
 
             if (currentUserRoles.contains("ROLE_SELLER") && !currentUserRoles.contains("ROLE_ADMIN")) {
                 // If the current user is a SELLER (and not an ADMIN), filter items by seller ID
-                itemStream = itemStream.filter(item -> item.getProduct().getSeller().getId().equals(currentUser.getId()));
+                itemStream = itemStream.filter(item -> currentUser.getId().equals(item.getSellerId()));
             }
             itemDtos = itemStream.map(this::convertItemToDto).collect(Collectors.toList());
         } else {
@@ -765,6 +783,16 @@ public class OrderService {
 
     @Transactional // Modifies order by saving paymentIntentId
     public PaymentIntentDto createPaymentIntent(Long orderId) throws StripeException {
+        return createPaymentIntent(orderId, null);
+    }
+
+    /**
+     * Creates a Stripe PaymentIntent for the order. If the client sent an idempotency key, it is passed
+     * on to Stripe as well, so a retry can never create a second PaymentIntent for the same request,
+     * even if our own stored response was lost.
+     */
+    @Transactional // Modifies order by saving paymentIntentId
+    public PaymentIntentDto createPaymentIntent(Long orderId, String idempotencyKey) throws StripeException {
         User currentUser = getCurrentAuthenticatedUserEntity();
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
@@ -780,6 +808,9 @@ public class OrderService {
             throw new IllegalStateException("Payment cannot be initiated for order with status: " + order.getStatus());
         }
 
+        // Ödeme süresince stok ayrılı kalsın; süresi dolmuş ayırmalar yeniden alınır (stok yetmezse ödeme başlamaz)
+        inventoryService.refreshHolds(order);
+
         long amountInKurus = order.getTotalAmount().multiply(new BigDecimal("100")).longValueExact();
         String currency = "try"; // Or get from config/order details
 
@@ -795,7 +826,11 @@ public class OrderService {
                 .putMetadata("customer_username", order.getCustomer().getUsername())
                 .build();
 
-        PaymentIntent paymentIntent = PaymentIntent.create(params);
+        RequestOptions requestOptions = idempotencyKey == null ? RequestOptions.getDefault()
+                : RequestOptions.builder()
+                        .setIdempotencyKey("order-" + orderId + "-" + currentUser.getUsername() + "-" + idempotencyKey)
+                        .build();
+        PaymentIntent paymentIntent = PaymentIntent.create(params, requestOptions);
         logger.info("Created PaymentIntent ID: {} for Order ID: {}", paymentIntent.getId(), orderId);
 
         // Save the PaymentIntent ID to the order (important for tracking/webhooks)
@@ -818,8 +853,11 @@ public class OrderService {
         }
         Order order = orderOpt.get();
         if (order.getStatus() == OrderStatus.PENDING) {
+            inventoryService.commitHolds(order);
             order.setStatus(OrderStatus.PROCESSING); // Veya PAID
             orderRepository.save(order);
+            outboxService.append(OutboxEventType.PAYMENT_SUCCEEDED, order.getId(), Map.of(
+                    "orderId", order.getId(), "paymentIntentId", paymentIntentId));
             logger.info("Order ID: {} status updated to {} due to successful payment.", order.getId(),
                     order.getStatus());
         } else {
@@ -841,8 +879,11 @@ public class OrderService {
         
         Order order = orderOpt.get();
         if (order.getStatus() == OrderStatus.PENDING) {
+            inventoryService.releaseHolds(order);
             order.setStatus(OrderStatus.PAYMENT_FAILED);
             orderRepository.save(order);
+            outboxService.append(OutboxEventType.PAYMENT_FAILED, order.getId(), Map.of(
+                    "orderId", order.getId(), "paymentIntentId", paymentIntentId));
             logger.info("Order ID: {} status updated to {} due to failed payment.", order.getId(),
                     order.getStatus());
         } else {
@@ -886,7 +927,7 @@ public class OrderService {
     }
 
     /**
-     * Satıcı veya admin bir sipariş kalemi için iade talebini onaylar ve Stripe refund işlemini başlatır
+     * Satıcı veya admin bir sipariş kalemi için iade talebini onaylar; Stripe refund işlemi outbox üzerinden yapılır
      */
     @Transactional
     public OrderDto approveReturnForOrderItem(Long orderId, Long itemId, String actorUsername) throws Exception {
@@ -906,7 +947,7 @@ public class OrderService {
             throw new IllegalStateException("Only items with RETURN_REQUESTED status can be approved for refund.");
         }
         // Satıcı ise sadece kendi ürününü onaylayabilir
-        if (isSeller && !item.getProduct().getSeller().getId().equals(actor.getId())) {
+        if (isSeller && !actor.getId().equals(item.getSellerId())) {
             throw new AccessDeniedException("Seller can only approve returns for their own products.");
         }
         // Stripe refund işlemi
@@ -915,19 +956,62 @@ public class OrderService {
         }
         // İade edilecek tutar: ürünün toplam fiyatı
         BigDecimal refundAmount = item.getPriceAtPurchase().multiply(new BigDecimal(item.getQuantity()));
-        String refundId = processStripeRefund(order.getStripePaymentIntentId(), refundAmount);
-        item.setStatus(OrderItemStatus.REFUNDED);
-        item.setStripeRefundId(refundId);
-        item.setRefundedAmount(refundAmount);
+        item.setStatus(OrderItemStatus.REFUND_PROCESSING);
         orderItemRepository.save(item);
-        // Siparişin toplam iade tutarını güncelle
-        if (order.getTotalRefundedAmount() == null) order.setTotalRefundedAmount(BigDecimal.ZERO);
-        order.setTotalRefundedAmount(order.getTotalRefundedAmount().add(refundAmount));
+        requestRefund(order, List.of(item), refundAmount);
         updateOverallOrderStatus(order);
         orderRepository.save(order);
         return convertToDto(order);
     }
 
+    private void requestRefund(Order order, List<OrderItem> items, BigDecimal amount) {
+        outboxService.append(OutboxEventType.REFUND_REQUESTED, order.getId(), Map.of(
+                "orderId", order.getId(),
+                "itemIds", items.stream().map(OrderItem::getId).collect(Collectors.toList()),
+                "amount", amount,
+                "paymentIntentId", order.getStripePaymentIntentId()));
+    }
+
+    /**
+     * Performs a refund requested through the outbox ({@code REFUND_REQUESTED}). Only the given items
+     * that are still in REFUND_PROCESSING are refunded and moved to REFUNDED, so a redelivered event
+     * does nothing. The order row is locked before that check, so two deliveries of the same event
+     * run one after the other and the second finds nothing left to refund. The Stripe call uses an
+     * idempotency key derived from the event id. If the commit fails after Stripe has refunded, the
+     * retry gets the same refund back instead of a second one.
+     */
+    @Transactional
+    public void completeRefund(Long eventId, Long orderId, List<Long> itemIds, String paymentIntentId)
+            throws StripeException {
+        // Sipariş satırı kilitlenmeden REFUND_PROCESSING kontrolü yapılırsa aynı olayın iki teslimi
+        // kalemleri birlikte görür ve totalRefundedAmount'a iki kez eklenir
+        Order order = orderRepository.findByIdForUpdate(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+        List<OrderItem> items = order.getOrderItems().stream()
+                .filter(item -> itemIds.contains(item.getId()) && item.getStatus() == OrderItemStatus.REFUND_PROCESSING)
+                .collect(Collectors.toList());
+        if (items.isEmpty()) {
+            logger.info("Refund event {} for order ID {}: no items left in REFUND_PROCESSING, nothing to do.", eventId, orderId);
+            return;
+        }
+        BigDecimal amount = items.stream()
+                .map(item -> item.getPriceAtPurchase().multiply(new BigDecimal(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        String refundId = processStripeRefund(paymentIntentId, amount, "refund-outbox-" + eventId);
+        for (OrderItem item : items) {
+            item.setStatus(OrderItemStatus.REFUNDED);
+            item.setStripeRefundId(refundId);
+            item.setRefundedAmount(item.getPriceAtPurchase().multiply(new BigDecimal(item.getQuantity())));
+        }
+        orderItemRepository.saveAll(items);
+        if (order.getTotalRefundedAmount() == null) order.setTotalRefundedAmount(BigDecimal.ZERO);
+        order.setTotalRefundedAmount(order.getTotalRefundedAmount().add(amount));
+        updateOverallOrderStatus(order);
+        orderRepository.save(order);
+        logger.info("Order ID {} items ({}) refunded. Amount: {}, Stripe Refund ID: {}",
+                orderId, items.stream().map(OrderItem::getId).collect(Collectors.toList()), amount, refundId);
+    }
+
     /**
      * Satıcı veya admin bir sipariş kalemi için iade talebini reddeder
      */
@@ -949,7 +1033,7 @@ public class OrderService {
             throw new IllegalStateException("Only items with RETURN_REQUESTED status can be rejected.");
         }
         // Satıcı ise sadece kendi ürününü reddedebilir
-        if (isSeller && !item.getProduct().getSeller().getId().equals(actor.getId())) {
+        if (isSeller && !actor.getId().equals(item.getSellerId())) {
             throw new AccessDeniedException("Seller can only reject returns for their own products.");
         }
         item.setStatus(OrderItemStatus.DELIVERED); // Reddedilirse tekrar teslim edildi statüsüne alınır
@@ -0,0 +1,207 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.BulkOrderStatusUpdateResultDto;
+import com.example.ecommerce.dto.OrderStatusUpdateResultDto;
+import com.example.ecommerce.dto.OrderStatusUpdateResultDto.Outcome;
+import com.example.ecommerce.entity.OrderItemStatus;
+import com.example.ecommerce.entity.OrderStatus;
+import com.example.ecommerce.exception.ResourceNotFoundException;
+import com.example.ecommerce.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Order status changes by sellers and admins, validated against the {@link OrderStatus} state machine.
+ * <p>
+ * Any number of orders is handled with a few set-based statements per chunk of ids. The orders' current
+ * statuses are read and locked in one query. For a seller, ownership is checked in one query on the
+ * denormalized {@code order_items.seller_id}. Then one {@code UPDATE} moves the orders and, for
+ * SHIPPED/DELIVERED, one more moves their items. No entity is loaded for the change itself. Every requested order
+ * gets its own outcome; one bad id never fails the others. The single-order endpoints go through the same
+ * path, so both follow the same rules. Unpaid orders (PENDING, PAYMENT_FAILED) can only be moved by an
+ * admin; an admin marking one paid commits its stock holds like the payment webhook does.
+ */
+@Service
+public class OrderStatusTransitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusTransitionService.class);
+
+    private static final int CHUNK_SIZE = 1000;
+
+    // Satıcılar yalnızca teslimat akışını ilerletebilir; ödeme durumları Stripe webhook'u ve admin içindir
+    private static final Set<OrderStatus> SELLER_TARGETS = EnumSet.of(OrderStatus.PREPARING, OrderStatus.SHIPPED, OrderStatus.DELIVERED);
+
+    private static final Set<OrderItemStatus> FULFILLMENT_ITEM_STATUSES = EnumSet.of(OrderItemStatus.ACTIVE, OrderItemStatus.SHIPPED);
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final OrderRepository orderRepository;
+    private final InventoryService inventoryService;
+
+    @Value("${app.orders.bulk-status.max-orders:5000}")
+    private int maxOrders;
+
+    @Autowired
+    public OrderStatusTransitionService(NamedParameterJdbcTemplate namedJdbcTemplate, OrderRepository orderRepository,
+                                        InventoryService inventoryService) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.orderRepository = orderRepository;
+        this.inventoryService = inventoryService;
+    }
+
+    /** Moves the given orders to {@code newStatus} as the current user and reports the outcome per order. */
+    @Transactional
+    public BulkOrderStatusUpdateResultDto updateStatuses(List<Long> orderIds, OrderStatus newStatus) {
+        Set<Long> distinctIds = new LinkedHashSet<>(orderIds);
+        if (distinctIds.size() > maxOrders) {
+            throw new IllegalArgumentException("At most " + maxOrders + " orders can be updated at once. Requested: " + distinctIds.size());
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+        Set<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+        boolean isAdmin = roles.contains("ROLE_ADMIN");
+        Long sellerId = null;
+        if (!isAdmin && roles.contains("ROLE_SELLER")) {
+            sellerId = findUserId(username);
+        }
+
+        List<OrderStatusUpdateResultDto> results = transition(distinctIds, newStatus, isAdmin, sellerId);
+        int updated = (int) results.stream().filter(result -> result.getOutcome() == Outcome.UPDATED).count();
+        logger.info("Bulk status change to {} by {}: {} requested, {} updated", newStatus, username, distinctIds.size(), updated);
+        return new BulkOrderStatusUpdateResultDto(distinctIds.size(), updated, results);
+    }
+
+    /**
+     * Applies the status change for the given actor and returns one result per order, in the given order.
+     * Must run inside a transaction; the orders stay locked until it ends.
+     *
+     * @param sellerId the acting seller's user id; {@code null} for admins and for users without the seller role
+     */
+    @Transactional
+    public List<OrderStatusUpdateResultDto> transition(Collection<Long> orderIds, OrderStatus newStatus,
+                                                       boolean isAdmin, Long sellerId) {
+        if (newStatus == OrderStatus.CANCELLED) {
+            throw new IllegalArgumentException("Please use the /cancel endpoint to cancel orders.");
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        Map<Long, OrderStatus> currentStatuses = lockStatuses(ids);
+        Set<Long> ownedIds = isAdmin || sellerId == null ? Set.of() : findOrdersWithSellerItems(ids, sellerId);
+
+        List<OrderStatusUpdateResultDto> results = new ArrayList<>(ids.size());
+        List<Long> toUpdate = new ArrayList<>();
+        List<Long> markedPaid = new ArrayList<>();
+        for (Long id : ids) {
+            OrderStatus current = currentStatuses.get(id);
+            if (current == null) {
+                results.add(new OrderStatusUpdateResultDto(id, Outcome.NOT_FOUND, null, "Order not found with id: " + id));
+            } else if (!isAdmin && (sellerId == null || !ownedIds.contains(id))) {
+                results.add(new OrderStatusUpdateResultDto(id, Outcome.FORBIDDEN, current,
+                        "Not authorized to update status for this order."));
+            } else if (!isAdmin && !SELLER_TARGETS.contains(newStatus)) {
+                results.add(new OrderStatusUpdateResultDto(id, Outcome.FORBIDDEN, current, "Seller cannot set status to " + newStatus));
+            } else if (!isAdmin && current.isAwaitingPayment()) {
+                results.add(new OrderStatusUpdateResultDto(id, Outcome.FORBIDDEN, current,
+                        "Order is not paid yet (" + current + "); it cannot be fulfilled."));
+            } else if (current == newStatus) {
+                results.add(new OrderStatusUpdateResultDto(id, Outcome.UNCHANGED, current, null));
+            } else if (!current.canTransitionTo(newStatus)) {
+                results.add(new OrderStatusUpdateResultDto(id, Outcome.INVALID_TRANSITION, current,
+                        "Cannot change order status from " + current + " to " + newStatus + "."));
+            } else {
+                results.add(new OrderStatusUpdateResultDto(id, Outcome.UPDATED, current, null));
+                toUpdate.add(id);
+                if (current.isAwaitingPayment() && newStatus == OrderStatus.PROCESSING) {
+                    markedPaid.add(id);
+                }
+            }
+        }
+
+        OrderItemStatus itemStatus = newStatus.itemStatus();
+        // Kalemler siparişi yalnızca teslimat akışında izler; iptal, iade ve iade talebindeki kalemlere dokunulmaz
+        List<String> itemSources = itemStatus == null ? List.of()
+                : FULFILLMENT_ITEM_STATUSES.stream().filter(from -> from.canTransitionTo(itemStatus))
+                        .map(Enum::name).collect(Collectors.toList());
+        for (List<Long> chunk : chunks(toUpdate)) {
+            // Satırlar kilitli olduğundan durum arada değişemez; her sipariş tek UPDATE ile güncellenir
+            namedJdbcTemplate.update("UPDATE orders SET status = :status WHERE id IN (:ids)",
+                    new MapSqlParameterSource("status", newStatus.name()).addValue("ids", chunk));
+            if (itemStatus != null) {
+                // Satıcı yalnızca kendi kalemlerini taşır
+                MapSqlParameterSource params = new MapSqlParameterSource("status", itemStatus.name())
+                        .addValue("ids", chunk).addValue("sources", itemSources);
+                String sql = "UPDATE order_items SET status = :status WHERE order_id IN (:ids) AND status IN (:sources)";
+                if (!isAdmin) {
+                    sql += " AND seller_id = :sellerId";
+                    params.addValue("sellerId", sellerId);
+                }
+                namedJdbcTemplate.update(sql, params);
+            }
+        }
+        // Admin ödemeyi elle onaylarsa stok, ödeme webhook'unda olduğu gibi ayırmadan kesin düşümle alınır;
+        // yoksa süresi dolan ayırma stoğu geri bırakır ve aynı adet ikinci kez satılır
+        for (Long id : markedPaid) {
+            orderRepository.findById(id).ifPresent(inventoryService::commitHolds);
+        }
+        return results;
+    }
+
+    // Siparişler id sırasıyla kilitlenir; eşzamanlı iki toplu işlem birbirini kilitlenmeye (deadlock) sokmaz
+    private Map<Long, OrderStatus> lockStatuses(List<Long> ids) {
+        Map<Long, OrderStatus> statuses = new HashMap<>(ids.size() * 2);
+        List<Long> sorted = ids.stream().sorted().collect(Collectors.toList());
+        for (List<Long> chunk : chunks(sorted)) {
+            namedJdbcTemplate.query("SELECT id, status FROM orders WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+                    new MapSqlParameterSource("ids", chunk),
+                    rs -> { statuses.put(rs.getLong("id"), OrderStatus.valueOf(rs.getString("status"))); });
+        }
+        return statuses;
+    }
+
+    private Set<Long> findOrdersWithSellerItems(List<Long> ids, Long sellerId) {
+        Set<Long> owned = new HashSet<>();
+        for (List<Long> chunk : chunks(ids)) {
+            owned.addAll(namedJdbcTemplate.queryForList(
+                    "SELECT DISTINCT order_id FROM order_items WHERE seller_id = :sellerId AND order_id IN (:ids)",
+                    new MapSqlParameterSource("sellerId", sellerId).addValue("ids", chunk), Long.class));
+        }
+        return owned;
+    }
+
+    private Long findUserId(String username) {
+        List<Long> ids = namedJdbcTemplate.queryForList("SELECT id FROM users WHERE username = :username",
+                new MapSqlParameterSource("username", username), Long.class);
+        if (ids.isEmpty()) {
+            throw new ResourceNotFoundException("User not found: " + username);
+        }
+        return ids.get(0);
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.entity.OutboxEventStatus;
+import com.example.ecommerce.entity.OutboxEventType;
+import com.example.ecommerce.outbox.OutboxEventHandler;
+import com.example.ecommerce.outbox.OutboxMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Dispatches outbox events to their {@link OutboxEventHandler}s.
+ * <p>
+ * Every poll claims a batch of due events with {@code SELECT ... FOR UPDATE SKIP LOCKED} and leases
+ * them by pushing {@code available_at} forward, all in one short transaction. Several instances can
+ * therefore poll together without blocking each other or taking the same events. Each event then runs
+ * in its own transaction, and the handler's changes commit together with the event's DONE mark. That
+ * transaction first locks the event's row and re-checks that it is still pending with the claimed
+ * attempt count. The batch lease can run out while earlier events call slow services, and another
+ * instance may claim the rest. The row lock still gives every event a single owner while it runs,
+ * and an event the other instance already handled is skipped. A failed event is retried with
+ * exponential backoff until {@code max-attempts}, then marked FAILED. An instance that dies mid-batch
+ * leaves its events to be picked up again when the lease ends (at-least-once). Events of a type
+ * without a handler are simply marked DONE.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String CLAIM_SQL =
+            "SELECT id, event_type, aggregate_id, payload, attempts FROM outbox_events " +
+            "WHERE status = :status AND available_at <= :now ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED";
+    private static final String LEASE_SQL =
+            "UPDATE outbox_events SET available_at = :leaseUntil WHERE id IN (:ids)";
+    private static final String LOCK_SQL =
+            "SELECT attempts FROM outbox_events WHERE id = ? AND status = ? FOR UPDATE SKIP LOCKED";
+    private static final String DONE_SQL =
+            "UPDATE outbox_events SET status = ?, processed_at = ? WHERE id = ?";
+    private static final String RETRY_SQL =
+            "UPDATE outbox_events SET status = ?, attempts = ?, available_at = ?, last_error = ? " +
+            "WHERE id = ? AND status = ? AND attempts = ?";
+    private static final String DELETE_DONE_SQL =
+            "DELETE FROM outbox_events WHERE status = ? AND processed_at < ? LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<OutboxEventType, OutboxEventHandler> handlers = new EnumMap<>(OutboxEventType.class);
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${app.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.backoff-initial-ms:1000}")
+    private long backoffInitialMillis;
+
+    @Value("${app.outbox.backoff-max-ms:600000}")
+    private long backoffMaxMillis;
+
+    @Value("${app.outbox.retention-hours:168}")
+    private long retentionHours;
+
+    @Value("${app.outbox.cleanup-batch-size:1000}")
+    private int cleanupBatchSize;
+
+    @Autowired
+    public OutboxRelay(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                       List<OutboxEventHandler> handlers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        // Her olay (ve her claim) kendi transaction'ında; çağıranın transaction'ına katılmaz
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (OutboxEventHandler handler : handlers) {
+            OutboxEventHandler previous = this.handlers.put(handler.getEventType(), handler);
+            if (previous != null) {
+                throw new IllegalStateException("More than one outbox handler for " + handler.getEventType());
+            }
+        }
+    }
+
+    /** Dispatches due events until none are left; returns the number of events handled. */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public int relay() {
+        int handled = 0;
+        List<OutboxMessage> batch;
+        do {
+            batch = claimBatch();
+            for (OutboxMessage message : batch) {
+                dispatch(message);
+            }
+            handled += batch.size();
+        } while (batch.size() == batchSize);
+        return handled;
+    }
+
+    /** Deletes DONE events older than the retention period, in batches. FAILED events are kept. */
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup-interval-ms:3600000}",
+            initialDelayString = "${app.outbox.cleanup-interval-ms:3600000}")
+    public void deleteProcessedEvents() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours));
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(DELETE_DONE_SQL, OutboxEventStatus.DONE.name(), cutoff, cleanupBatchSize);
+            total += deleted;
+        } while (deleted == cleanupBatchSize);
+        if (total > 0) {
+            logger.info("Deleted {} processed outbox events", total);
+        }
+    }
+
+    private List<OutboxMessage> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxMessage> claimed = namedJdbcTemplate.query(CLAIM_SQL,
+                    new MapSqlParameterSource("status", OutboxEventStatus.PENDING.name())
+                            .addValue("now", Timestamp.valueOf(now))
+                            .addValue("limit", batchSize),
+                    (rs, rowNum) -> new OutboxMessage(rs.getLong("id"), OutboxEventType.valueOf(rs.getString("event_type")),
+                            rs.getLong("aggregate_id"), rs.getString("payload"), rs.getInt("attempts")));
+            if (!claimed.isEmpty()) {
+                namedJdbcTemplate.update(LEASE_SQL, new MapSqlParameterSource("leaseUntil", Timestamp.valueOf(now.plusSeconds(leaseSeconds)))
+                        .addValue("ids", claimed.stream().map(OutboxMessage::getId).collect(Collectors.toList())));
+            }
+            return claimed;
+        });
+    }
+
+    private void dispatch(OutboxMessage message) {
+        OutboxEventHandler handler = handlers.get(message.getEventType());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Olay başına kilit: lease dolup olayı başka bir instance aldıysa ya da işlediyse burada atlanır
+                List<Integer> attempts = jdbcTemplate.queryForList(LOCK_SQL, Integer.class,
+                        message.getId(), OutboxEventStatus.PENDING.name());
+                if (attempts.isEmpty() || attempts.get(0) != message.getAttempts()) {
+                    logger.debug("Outbox event {} is handled elsewhere, skipping", message.getId());
+                    return;
+                }
+                if (handler != null) {
+                    try {
+                        handler.handle(message);
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new OutboxHandlerException(e);
+                    }
+                }
+                jdbcTemplate.update(DONE_SQL, OutboxEventStatus.DONE.name(), Timestamp.valueOf(LocalDateTime.now()), message.getId());
+            });
+        } catch (RuntimeException e) {
+            Throwable cause = e instanceof OutboxHandlerException ? e.getCause() : e;
+            scheduleRetry(message, cause);
+        }
+    }
+
+    private void scheduleRetry(OutboxMessage message, Throwable cause) {
+        int attempts = message.getAttempts() + 1;
+        boolean exhausted = attempts >= maxAttempts;
+        // Üstel bekleme: 1s, 2s, 4s ... en fazla backoff-max-ms
+        long backoffMillis = Math.min(backoffMaxMillis, backoffInitialMillis << Math.min(attempts - 1, 30));
+        String error = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        // Kilit bırakıldıktan sonra olayı başka bir instance işlemiş olabilir; onun sonucu ezilmez
+        int updated = jdbcTemplate.update(RETRY_SQL, (exhausted ? OutboxEventStatus.FAILED : OutboxEventStatus.PENDING).name(), attempts,
+                Timestamp.valueOf(LocalDateTime.now().plusNanos(backoffMillis * 1_000_000)), error, message.getId(),
+                OutboxEventStatus.PENDING.name(), message.getAttempts());
+        if (updated == 0) {
+            logger.debug("Outbox event {} changed while failing, retry not scheduled: {}", message.getId(), error);
+            return;
+        }
+        if (exhausted) {
+            logger.error("Outbox event {} ({} of order {}) failed {} times and was marked FAILED: {}",
+                    message.getId(), message.getEventType(), message.getAggregateId(), attempts, error, cause);
+        } else {
+            logger.warn("Outbox event {} ({} of order {}) failed (attempt {}), retrying in {} ms: {}",
+                    message.getId(), message.getEventType(), message.getAggregateId(), attempts, backoffMillis, error);
+        }
+    }
+
+    // Handler'ın checked exception'ını transaction callback'inden dışarı taşır
+    private static final class OutboxHandlerException extends RuntimeException {
+        private OutboxHandlerException(Exception cause) {
+            super(cause);
+        }
+    }
+}
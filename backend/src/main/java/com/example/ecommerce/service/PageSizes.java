@@ -0,0 +1,25 @@
+package com.example.ecommerce.service;
+
+/**
+ * Page size handling shared by the paginated listings: a missing size falls back to the listing's
+ * default, and the maximum always applies.
+ */
+final class PageSizes {
+
+    private PageSizes() {
+    }
+
+    /**
+     * @param requestedSize size asked for by the caller, or {@code null}
+     * @throws IllegalArgumentException if {@code requestedSize} is below 1
+     */
+    static int resolve(Integer requestedSize, int defaultSize, int maxSize) {
+        if (requestedSize == null) {
+            return Math.min(defaultSize, maxSize);
+        }
+        if (requestedSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1.");
+        }
+        return Math.min(requestedSize, maxSize); // Üst sınır her zaman uygulanır
+    }
+}
@@ -14,7 +14,6 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class ProductComparisonService {
@@ -40,10 +39,7 @@ public class ProductComparisonService {
     @Transactional(readOnly = true)
     public List<ProductDto> getComparisonListForCurrentUser() {
         User user = getCurrentUser();
-        List<ProductComparison> comparisons = comparisonRepository.findByUser(user);
-        return comparisons.stream()
-                .map(pc -> toProductDto(pc.getProduct()))
-                .collect(Collectors.toList());
+        return comparisonRepository.findProductDtosByUserId(user.getId());
     }
 
     @Transactional
@@ -69,25 +65,4 @@ public class ProductComparisonService {
         User user = getCurrentUser();
         comparisonRepository.deleteByUser(user);
     }
-
-    private ProductDto toProductDto(Product product) {
-        if (product == null) return null;
-        return new ProductDto(
-            product.getId(),
-            product.getName(),
-            product.getDescription(),
-            product.getPrice(),
-            product.getStockQuantity(),
-            product.getCategory() != null ? product.getCategory().getId() : null,
-            product.getCategory() != null ? product.getCategory().getName() : null,
-            product.getImageUrl(),
-            product.getAverageRating(),
-            product.getReviewCount(),
-            product.isActive(),
-            product.getDeactivationReason(),
-            product.getDeactivatedAt(),
-            product.getSeller() != null ? product.getSeller().getId() : null,
-            product.getSeller() != null ? product.getSeller().getUsername() : null
-        );
-    }
 } 
\ No newline at end of file
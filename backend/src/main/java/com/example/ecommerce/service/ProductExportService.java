@@ -0,0 +1,86 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the active catalog as NDJSON (one {@link ProductDto} per line) straight from a forward-only
+ * database cursor, so neither the result set nor the JSON is ever held in memory as a whole.
+ */
+@Service
+public class ProductExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductExportService.class);
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter productWriter;
+
+    @Autowired
+    public ProductExportService(ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.productWriter = objectMapper.writerFor(ProductDto.class);
+    }
+
+    /**
+     * Streams every active product to {@code out}, optionally gzip-compressed. The caller owns
+     * {@code out}; it is flushed (and the gzip trailer written) but not closed.
+     *
+     * @return number of products written
+     */
+    public long exportActiveProducts(OutputStream out, boolean gzip) throws IOException {
+        long started = System.currentTimeMillis();
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, OUTPUT_BUFFER_SIZE) : null;
+        BufferedOutputStream buffered = new BufferedOutputStream(gzip ? gzipOut : out, OUTPUT_BUFFER_SIZE);
+
+        Long written;
+        try {
+            // Cursor, transaction açık kaldığı sürece geçerlidir; bu yüzden yazma da transaction içinde yapılır
+            written = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<ProductDto> products = productRepository.streamAllActiveDtos()) {
+                    Iterator<ProductDto> it = products.iterator();
+                    while (it.hasNext()) {
+                        buffered.write(productWriter.writeValueAsBytes(it.next()));
+                        buffered.write('\n');
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+        } catch (UncheckedIOException e) {
+            // Çoğunlukla istemci bağlantıyı kapatmıştır
+            logger.warn("Catalog export aborted after {} ms: {}", System.currentTimeMillis() - started, e.getCause().getMessage());
+            throw e.getCause();
+        }
+        buffered.flush();
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+        logger.info("Catalog export finished: {} products in {} ms (gzip: {})", written, System.currentTimeMillis() - started, gzip);
+        return written;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.CursorPageDto;
+import com.example.ecommerce.dto.FacetCountDto;
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.dto.ProductFilterResultDto;
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.event.ProductChangedEvent;
+import com.example.ecommerce.event.ProductStockChangedEvent;
+import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.search.FacetQuery;
+import com.example.ecommerce.search.ProductFacetIndex;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Faceted product filtering (category, price range, minimum rating, in stock) backed by an
+ * in-memory {@link ProductFacetIndex}. Built at startup and kept current from {@link ProductChangedEvent}s
+ * by {@link CatalogIndexLoader}. Stock-only changes ({@link ProductStockChangedEvent}) are collected and
+ * applied to the in-stock flag in one query per {@code stock-refresh-interval-ms}.
+ */
+@Service
+public class ProductFacetService implements CatalogIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetService.class);
+
+    private static final int STOCK_REFRESH_BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private ProductFacetIndex index;
+    // Stok olayları yalnızca işaretlenir; stokta bayrakları tek sorguyla, periyodik olarak tazelenir
+    private final Set<Long> stockChangedIds = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.catalog.facets.price-buckets:100,250,500,1000,2500,5000}")
+    private List<BigDecimal> priceBucketUpperBounds;
+
+    @Value("${app.catalog.page-size.default:20}")
+    private int defaultPageSize;
+
+    @Value("${app.catalog.page-size.max:100}")
+    private int maxPageSize;
+
+    @Autowired
+    public ProductFacetService(ProductRepository productRepository, CategoryRepository categoryRepository) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    @PostConstruct
+    void createIndex() {
+        this.index = new ProductFacetIndex(priceBucketUpperBounds);
+    }
+
+    @Override
+    public void addAll(List<ProductDto> activeProducts) {
+        activeProducts.forEach(index::put);
+    }
+
+    @Override
+    public void endBuild(long elapsedMillis) {
+        logger.info("Product facet index built with {} active products in {} ms", index.activeCount(), elapsedMillis);
+    }
+
+    @Override
+    public void update(Set<Long> productIds, Map<Long, ProductDto> current) {
+        for (Long productId : productIds) {
+            ProductDto product = current.get(productId);
+            if (product != null) {
+                index.put(product);
+            } else {
+                index.remove(productId);
+            }
+        }
+        logger.debug("Facet index updated for product IDs: {}", productIds);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(ProductStockChangedEvent event) {
+        stockChangedIds.addAll(event.getProductIds());
+    }
+
+    /** Re-reads the available quantity of products whose stock changed and flips their in-stock flag. */
+    @Scheduled(fixedDelayString = "${app.catalog.facets.stock-refresh-interval-ms:1000}")
+    public void refreshStock() {
+        if (stockChangedIds.isEmpty()) {
+            return;
+        }
+        List<Long> productIds = new ArrayList<>(stockChangedIds);
+        stockChangedIds.removeAll(productIds);
+        Map<Long, Integer> available;
+        try {
+            available = productRepository.findAvailableQuantitiesByIdInBatches(productIds, STOCK_REFRESH_BATCH_SIZE);
+        } catch (DataAccessException e) {
+            stockChangedIds.addAll(productIds);
+            logger.warn("In-stock facet could not be refreshed: {}", e.getMessage());
+            return;
+        }
+        available.forEach((productId, quantity) -> index.setInStock(productId, quantity > 0));
+        logger.debug("In-stock facet refreshed for {} products", available.size());
+    }
+
+    @Transactional(readOnly = true)
+    public ProductFilterResultDto filter(Set<Long> categoryIds, BigDecimal minPrice, BigDecimal maxPrice,
+                                         Integer minRating, boolean inStockOnly, Long cursor, Integer size) {
+        if (minPrice != null && minPrice.signum() < 0 || maxPrice != null && maxPrice.signum() < 0) {
+            throw new IllegalArgumentException("Price filters must not be negative.");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice.");
+        }
+        if (minRating != null && (minRating < 1 || minRating > 5)) {
+            throw new IllegalArgumentException("minRating must be between 1 and 5.");
+        }
+        int limit = PageSizes.resolve(size, defaultPageSize, maxPageSize);
+        long afterId = cursor != null ? cursor : 0L;
+
+        FacetQuery query = new FacetQuery(categoryIds, minPrice, maxPrice, minRating, inStockOnly);
+        ProductFacetIndex.FacetResult result = index.query(query, afterId, limit);
+
+        List<ProductDto> items = loadInOrder(result.getProductIds());
+        Long nextCursor = result.isHasNext() ? result.getProductIds().get(result.getProductIds().size() - 1) : null;
+        CursorPageDto<ProductDto> page = new CursorPageDto<>(items, result.isHasNext(), nextCursor);
+
+        return new ProductFilterResultDto(page, result.getTotalCount(), categoryFacets(result),
+                priceFacets(result), ratingFacets(result), result.getInStockCount());
+    }
+
+    private List<ProductDto> loadInOrder(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, ProductDto> byId = productRepository.findDtosByIdIn(productIds).stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+        List<ProductDto> items = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            ProductDto product = byId.get(productId);
+            if (product != null) {
+                items.add(product);
+            }
+        }
+        return items;
+    }
+
+    // Kategori adları her seferinde tablodan okunur; isim değişiklikleri indeksi etkilemez
+    private List<FacetCountDto> categoryFacets(ProductFacetIndex.FacetResult result) {
+        Map<Long, String> names = categoryRepository.findAllById(result.getCategoryCounts().keySet()).stream()
+                .collect(Collectors.toMap(Category::getId, Category::getName));
+        List<FacetCountDto> facets = new ArrayList<>(result.getCategoryCounts().size());
+        result.getCategoryCounts().forEach((categoryId, count) ->
+                facets.add(new FacetCountDto(String.valueOf(categoryId), names.get(categoryId), count)));
+        return facets;
+    }
+
+    private List<FacetCountDto> priceFacets(ProductFacetIndex.FacetResult result) {
+        List<BigDecimal[]> buckets = index.getPriceBuckets();
+        List<FacetCountDto> facets = new ArrayList<>(buckets.size());
+        for (int i = 0; i < buckets.size(); i++) {
+            BigDecimal from = buckets.get(i)[0].stripTrailingZeros();
+            BigDecimal to = buckets.get(i)[1];
+            String value = to != null ? from.toPlainString() + "-" + to.stripTrailingZeros().toPlainString() : from.toPlainString() + "-";
+            String label = to != null ? from.toPlainString() + " - " + to.stripTrailingZeros().toPlainString() : from.toPlainString() + "+";
+            facets.add(new FacetCountDto(value, label, result.getPriceBucketCount(i)));
+        }
+        return facets;
+    }
+
+    private List<FacetCountDto> ratingFacets(ProductFacetIndex.FacetResult result) {
+        List<FacetCountDto> facets = new ArrayList<>(ProductFacetIndex.MAX_RATING_THRESHOLD);
+        for (int stars = ProductFacetIndex.MAX_RATING_THRESHOLD; stars >= 1; stars--) {
+            facets.add(new FacetCountDto(String.valueOf(stars), stars + "+", result.getRatingAtLeastCount(stars)));
+        }
+        return facets;
+    }
+}
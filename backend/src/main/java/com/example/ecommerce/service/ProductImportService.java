@@ -0,0 +1,455 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.ProductImportErrorDto;
+import com.example.ecommerce.dto.ProductImportResultDto;
+import com.example.ecommerce.dto.ProductRequestDto;
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.entity.InventoryLedgerReason;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.event.ProductChangedEvent;
+import com.example.ecommerce.exception.ResourceNotFoundException;
+import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.repository.UserRepository;
+import com.example.ecommerce.search.TextAnalyzer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import for sellers. The upload (CSV with a header row, or NDJSON) is read as a stream,
+ * one row at a time; valid rows are collected into chunks and each chunk is written in its own
+ * transaction with JDBC-batched inserts. Rows that fail parsing or validation, and every row of a chunk
+ * whose write fails, are listed in the returned report; the rest of the file is still imported.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final int MAX_ROW_LENGTH = 16_384;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    // Kolon adları büyük/küçük harf, '_', '-' ve boşluk farkı gözetmeden eşleşir
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
+    private static final String PRICE = "price";
+    private static final String STOCK_QUANTITY = "stockquantity";
+    private static final String CATEGORY_ID = "categoryid";
+    private static final String CATEGORY_NAME = "categoryname";
+    private static final String IMAGE_URL = "imageurl";
+    private static final Map<String, String> COLUMN_ALIASES = Map.of("category", CATEGORY_NAME, "stock", STOCK_QUANTITY);
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format fromMediaType(MediaType mediaType) {
+            if (TEXT_CSV.includes(mediaType)) {
+                return CSV;
+            }
+            if (APPLICATION_NDJSON.includes(mediaType)) {
+                return NDJSON;
+            }
+            throw new IllegalArgumentException("Unsupported import content type: " + mediaType);
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final InventoryLedger inventoryLedger;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.catalog.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.catalog.import.max-rows:200000}")
+    private int maxRows;
+
+    @Value("${app.catalog.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Autowired
+    public ProductImportService(UserRepository userRepository,
+                                CategoryRepository categoryRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                InventoryLedger inventoryLedger) {
+        this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.inventoryLedger = inventoryLedger;
+    }
+
+    /**
+     * Imports the products in {@code body}.
+     *
+     * @param sellerId seller to import for; required for admins, must be omitted (or the caller's own id) for sellers
+     * @throws IllegalArgumentException if the file is empty or the CSV header lacks required columns
+     */
+    public ProductImportResultDto importProducts(InputStream body, Format format, Charset charset, Long sellerId) throws IOException {
+        long started = System.currentTimeMillis();
+        User seller = resolveSeller(sellerId);
+        ImportRun run = new ImportRun(seller.getId(), loadCategories());
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset), READ_BUFFER_SIZE);
+        if (format == Format.CSV) {
+            readCsv(reader, run);
+        } else {
+            readNdjson(reader, run);
+        }
+        writeChunk(run);
+
+        long duration = System.currentTimeMillis() - started;
+        logger.info("Product import for seller {} finished: {} rows, {} imported, {} failed in {} ms",
+                seller.getUsername(), run.totalRows, run.importedCount, run.failedCount, duration);
+        return new ProductImportResultDto(run.totalRows, run.importedCount, run.failedCount,
+                run.errors, run.errorsTruncated, duration);
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader, MAX_ROW_LENGTH);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IllegalArgumentException("Import file is empty.");
+        }
+        List<String> columns = header.stream().map(ProductImportService::normalizeColumn).collect(Collectors.toList());
+        if (!columns.contains(NAME) || !columns.contains(PRICE) || !columns.contains(STOCK_QUANTITY)
+                || !columns.contains(CATEGORY_ID) && !columns.contains(CATEGORY_NAME)) {
+            throw new IllegalArgumentException("CSV header must contain name, price, stockQuantity and categoryId or categoryName columns.");
+        }
+
+        while (true) {
+            List<String> record;
+            try {
+                record = csv.next();
+            } catch (IllegalArgumentException e) {
+                if (!run.countRow(csv.getRecordLine())) {
+                    return;
+                }
+                run.fail(csv.getRecordLine(), e.getMessage());
+                continue;
+            }
+            if (record == null) {
+                return;
+            }
+            if (!run.countRow(csv.getRecordLine())) {
+                return;
+            }
+            if (record.size() > columns.size()) {
+                run.fail(csv.getRecordLine(), "Row has " + record.size() + " fields but the header has " + columns.size() + ".");
+                continue;
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < record.size(); i++) {
+                values.putIfAbsent(columns.get(i), record.get(i));
+            }
+            acceptRow(run, csv.getRecordLine(), values);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (!run.countRow(lineNumber)) {
+                return;
+            }
+            if (line.length() > MAX_ROW_LENGTH) {
+                run.fail(lineNumber, "Row is longer than " + MAX_ROW_LENGTH + " characters.");
+                continue;
+            }
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                run.fail(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            if (!node.isObject()) {
+                run.fail(lineNumber, "Each line must be a JSON object.");
+                continue;
+            }
+            Map<String, String> values = new HashMap<>();
+            for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                if (field.getValue().isValueNode() && !field.getValue().isNull()) {
+                    values.putIfAbsent(normalizeColumn(field.getKey()), field.getValue().asText());
+                }
+            }
+            acceptRow(run, lineNumber, values);
+        }
+        if (run.totalRows == 0) {
+            throw new IllegalArgumentException("Import file is empty.");
+        }
+    }
+
+    private void acceptRow(ImportRun run, long line, Map<String, String> values) {
+        ProductRequestDto request = new ProductRequestDto();
+        request.setName(trimToNull(values.get(NAME)));
+        request.setDescription(trimToNull(values.get(DESCRIPTION)));
+        request.setImageUrl(trimToNull(values.get(IMAGE_URL)));
+
+        List<String> problems = new ArrayList<>();
+        String price = trimToNull(values.get(PRICE));
+        if (price != null) {
+            try {
+                request.setPrice(new BigDecimal(price));
+            } catch (NumberFormatException e) {
+                problems.add("price: '" + price + "' is not a number");
+            }
+        }
+        String stock = trimToNull(values.get(STOCK_QUANTITY));
+        if (stock != null) {
+            try {
+                request.setStockQuantity(Integer.valueOf(stock));
+            } catch (NumberFormatException e) {
+                problems.add("stockQuantity: '" + stock + "' is not a whole number");
+            }
+        }
+        Category category = resolveCategory(run, values, problems);
+        if (category != null) {
+            request.setCategoryId(category.getId());
+        }
+
+        // Ayrıştırılamayan alan ya da bulunamayan kategori için ikinci bir "null olamaz" mesajı üretme
+        for (ConstraintViolation<ProductRequestDto> violation : validator.validate(request)) {
+            String field = violation.getPropertyPath().toString();
+            boolean categoryReported = "categoryId".equals(field) && category == null;
+            if (!categoryReported && problems.stream().noneMatch(p -> p.startsWith(field + ":"))) {
+                problems.add(field + ": " + violation.getMessage());
+            }
+        }
+        if (!problems.isEmpty()) {
+            problems.sort(null);
+            run.fail(line, String.join("; ", problems));
+            return;
+        }
+
+        run.pendingLines.add(line);
+        run.pendingRows.add(request);
+        if (run.pendingRows.size() >= chunkSize) {
+            writeChunk(run);
+        }
+    }
+
+    private Category resolveCategory(ImportRun run, Map<String, String> values, List<String> problems) {
+        String categoryId = trimToNull(values.get(CATEGORY_ID));
+        if (categoryId != null) {
+            try {
+                Category category = run.categoriesById.get(Long.valueOf(categoryId));
+                if (category == null) {
+                    problems.add("categoryId: Category not found with id: " + categoryId);
+                }
+                return category;
+            } catch (NumberFormatException e) {
+                problems.add("categoryId: '" + categoryId + "' is not a valid id");
+                return null;
+            }
+        }
+        String categoryName = trimToNull(values.get(CATEGORY_NAME));
+        if (categoryName != null) {
+            Category category = run.categoriesByName.get(TextAnalyzer.normalize(categoryName));
+            if (category == null) {
+                problems.add("categoryName: Category not found with name: " + categoryName);
+            }
+            return category;
+        }
+        problems.add("categoryId: categoryId or categoryName is required");
+        return null;
+    }
+
+    /**
+     * Writes the pending rows in one transaction. Ids come from the pooled sequence, so Hibernate can
+     * send the inserts as JDBC batches; the persistence context is cleared afterwards so that memory
+     * use stays flat however large the file is.
+     */
+    private void writeChunk(ImportRun run) {
+        if (run.pendingRows.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> productIds = transactionTemplate.execute(status -> {
+                User sellerRef = entityManager.getReference(User.class, run.sellerId);
+                List<Product> products = new ArrayList<>(run.pendingRows.size());
+                for (ProductRequestDto row : run.pendingRows) {
+                    Product product = new Product();
+                    product.setName(row.getName());
+                    product.setDescription(row.getDescription());
+                    product.setPrice(row.getPrice());
+                    product.setStockQuantity(row.getStockQuantity());
+                    product.setImageUrl(row.getImageUrl());
+                    product.setCategory(entityManager.getReference(Category.class, row.getCategoryId()));
+                    product.setSeller(sellerRef);
+                    entityManager.persist(product);
+                    products.add(product);
+                }
+                entityManager.flush();
+                entityManager.clear();
+                for (Product product : products) {
+                    inventoryLedger.record(product.getId(), product.getStockQuantity(), InventoryLedgerReason.INITIAL_STOCK, null, null);
+                }
+                List<Long> ids = products.stream().map(Product::getId).collect(Collectors.toList());
+                eventPublisher.publishEvent(new ProductChangedEvent(ids));
+                return ids;
+            });
+            run.importedCount += productIds.size();
+        } catch (RuntimeException e) {
+            entityManager.clear();
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            logger.warn("Product import chunk of {} rows (lines {}-{}) failed: {}", run.pendingRows.size(),
+                    run.pendingLines.get(0), run.pendingLines.get(run.pendingLines.size() - 1), cause);
+            for (Long line : run.pendingLines) {
+                run.fail(line, "Not imported, the batch containing this row could not be saved: " + cause);
+            }
+        } finally {
+            run.pendingRows.clear();
+            run.pendingLines.clear();
+        }
+    }
+
+    private User resolveSeller(Long sellerId) {
+        User currentUser = getCurrentAuthenticatedUserEntity();
+        boolean isAdmin = currentUser.getRoles().stream().anyMatch(role -> role.getName().equals("ROLE_ADMIN"));
+        if (isAdmin) {
+            if (sellerId == null) {
+                throw new IllegalArgumentException("Admin must specify a sellerId to import products.");
+            }
+            return userRepository.findById(sellerId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Seller not found with id: " + sellerId));
+        }
+        if (currentUser.getRoles().stream().noneMatch(role -> role.getName().equals("ROLE_SELLER"))) {
+            throw new AccessDeniedException("Only sellers can import products.");
+        }
+        if (sellerId != null && !sellerId.equals(currentUser.getId())) {
+            throw new AccessDeniedException("Sellers can only import products for themselves.");
+        }
+        return currentUser;
+    }
+
+    // Kategoriler import başına bir kez okunur; satır başına sorgu atılmaz
+    private List<Category> loadCategories() {
+        return categoryRepository.findAll();
+    }
+
+    private User getCurrentAuthenticatedUserEntity() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        String username;
+        if (principal instanceof UserDetails) {
+            username = ((UserDetails) principal).getUsername();
+        } else if (principal != null) {
+            username = principal.toString();
+        } else {
+            throw new IllegalStateException("Cannot get username from anonymous or unauthenticated user.");
+        }
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Authenticated user '" + username + "' not found in database"));
+    }
+
+    private static String normalizeColumn(String column) {
+        StringBuilder normalized = new StringBuilder(column.length());
+        for (char c : column.trim().toCharArray()) {
+            if (c != '_' && c != '-' && c != ' ') {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return COLUMN_ALIASES.getOrDefault(normalized.toString(), normalized.toString());
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /** Mutable state of a single import request. */
+    private final class ImportRun {
+        private final Long sellerId;
+        private final Map<Long, Category> categoriesById = new HashMap<>();
+        private final Map<String, Category> categoriesByName = new HashMap<>();
+        private final List<ProductRequestDto> pendingRows = new ArrayList<>();
+        private final List<Long> pendingLines = new ArrayList<>();
+        private final List<ProductImportErrorDto> errors = new ArrayList<>();
+        private long totalRows;
+        private long importedCount;
+        private long failedCount;
+        private boolean errorsTruncated;
+
+        private ImportRun(Long sellerId, List<Category> categories) {
+            this.sellerId = sellerId;
+            for (Category category : categories) {
+                categoriesById.put(category.getId(), category);
+                categoriesByName.putIfAbsent(TextAnalyzer.normalize(category.getName()), category);
+            }
+        }
+
+        /** Counts a data row; returns false (and reports it) once the file exceeds the row limit. */
+        private boolean countRow(long line) {
+            if (totalRows >= maxRows) {
+                // Okunmayan satırlar hatalı sayılmaz; rapora yalnızca bir not düşülür
+                errors.add(new ProductImportErrorDto(line, "Import is limited to " + maxRows + " rows; this and the following rows were not read."));
+                return false;
+            }
+            totalRows++;
+            return true;
+        }
+
+        private void fail(long line, String message) {
+            failedCount++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ProductImportErrorDto(line, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+}
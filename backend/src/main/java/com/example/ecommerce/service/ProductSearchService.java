@@ -0,0 +1,105 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.event.ProductChangedEvent;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.search.ProductSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text product search backed by an in-memory {@link ProductSearchIndex}.
+ * The index is built once at startup and then kept up to date from {@link ProductChangedEvent}s
+ * by {@link CatalogIndexLoader}; only active products are searchable.
+ */
+@Service
+public class ProductSearchService implements CatalogIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchService.class);
+
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @Value("${app.catalog.page-size.default:20}")
+    private int defaultPageSize;
+
+    @Value("${app.catalog.page-size.max:100}")
+    private int maxPageSize;
+
+    @Autowired
+    public ProductSearchService(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @Override
+    public void addAll(List<ProductDto> activeProducts) {
+        activeProducts.forEach(index::put);
+    }
+
+    @Override
+    public void endBuild(long elapsedMillis) {
+        logger.info("Product search index built with {} products in {} ms", index.size(), elapsedMillis);
+    }
+
+    /** Active products are (re)indexed, inactive or deleted ones are dropped. */
+    @Override
+    public void update(Set<Long> productIds, Map<Long, ProductDto> current) {
+        for (Long productId : productIds) {
+            ProductDto product = current.get(productId);
+            if (product != null && product.isActive()) {
+                index.put(product);
+            } else {
+                index.remove(productId);
+            }
+        }
+        logger.debug("Search index updated for product IDs: {}", productIds);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ProductDto> search(String query, Integer page, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty.");
+        }
+        int pageNumber = page != null ? page : 0;
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page number must not be negative.");
+        }
+        int pageSize = PageSizes.resolve(size, defaultPageSize, maxPageSize);
+        if ((long) pageNumber * pageSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Page number is too large.");
+        }
+
+        ProductSearchIndex.SearchHits hits = index.search(query, pageNumber, pageSize);
+        PageRequest pageRequest = PageRequest.of(pageNumber, pageSize);
+        if (hits.getProductIds().isEmpty()) {
+            return new PageImpl<>(Collections.emptyList(), pageRequest, hits.getTotalHits());
+        }
+
+        // DB'den gelen sıra önemsiz; indeksin puan sırası korunur
+        Map<Long, ProductDto> byId = productRepository.findDtosByIdIn(hits.getProductIds()).stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+        List<ProductDto> content = new ArrayList<>(hits.getProductIds().size());
+        for (Long productId : hits.getProductIds()) {
+            ProductDto product = byId.get(productId);
+            if (product != null) {
+                content.add(product);
+            }
+        }
+        return new PageImpl<>(content, pageRequest, hits.getTotalHits());
+    }
+}
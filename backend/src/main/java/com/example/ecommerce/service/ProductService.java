@@ -1,10 +1,17 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.cache.ProductCache;
+import com.example.ecommerce.dto.CursorPageDto;
+import com.example.ecommerce.dto.ProductBatchResponseDto;
+import com.example.ecommerce.dto.ProductBulkUpdateItemDto;
+import com.example.ecommerce.dto.ProductBulkUpdateResultDto;
 import com.example.ecommerce.dto.ProductDto;
 import com.example.ecommerce.dto.ProductRequestDto;
 import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.entity.InventoryLedgerReason;
 import com.example.ecommerce.entity.Product;
 import com.example.ecommerce.entity.User;
+import com.example.ecommerce.event.ProductChangedEvent;
 import com.example.ecommerce.exception.ResourceNotFoundException;
 import com.example.ecommerce.repository.CategoryRepository;
 import com.example.ecommerce.repository.ProductRepository;
@@ -12,13 +19,31 @@ import com.example.ecommerce.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
@@ -27,42 +52,104 @@ public class ProductService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
 
+    // Toplu güncellemede hem IN listesi hem JDBC batch boyutu
+    private static final int BULK_UPDATE_BATCH_SIZE = 500;
+
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductCache productCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final HotSkuInventory hotSkuInventory;
+    private final InventoryLedger inventoryLedger;
+
+    @Value("${app.catalog.page-size.default:20}")
+    private int defaultPageSize;
+
+    @Value("${app.catalog.page-size.max:100}")
+    private int maxPageSize;
+
+    @Value("${app.catalog.batch.max-ids:200}")
+    private int maxBatchSize;
+
+    @Value("${app.catalog.bulk-update.max-items:5000}")
+    private int maxBulkUpdateItems;
 
     @Autowired
-    public ProductService(ProductRepository productRepository, UserRepository userRepository, CategoryRepository categoryRepository) {
+    public ProductService(ProductRepository productRepository, UserRepository userRepository, CategoryRepository categoryRepository,
+                          ApplicationEventPublisher eventPublisher, ProductCache productCache, JdbcTemplate jdbcTemplate,
+                          HotSkuInventory hotSkuInventory, InventoryLedger inventoryLedger) {
         this.productRepository = productRepository;
         this.userRepository = userRepository;
         this.categoryRepository = categoryRepository;
+        this.eventPublisher = eventPublisher;
+        this.productCache = productCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.hotSkuInventory = hotSkuInventory;
+        this.inventoryLedger = inventoryLedger;
     }
 
     @Transactional(readOnly = true)
     public List<ProductDto> getAllProducts() {
-        return productRepository.findAllByIsActiveTrue().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return productRepository.findAllActiveDtos();
     }
 
     @Transactional(readOnly = true)
     public List<ProductDto> getAllProductsForAdmin() {
-        return productRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return productRepository.findAllDtos();
     }
 
-    @Transactional(readOnly = true)
-    public List<ProductDto> getProductsByIds(List<Long> ids) {
+    /**
+     * Multi-get by id: duplicates are dropped, cached products are served from memory and all misses
+     * are loaded with a single query. Products come back in request order; ids with no product are
+     * listed in {@code missingIds}.
+     */
+    // Cache'li okumalarda @Transactional yok: cache hit'te DB bağlantısı hiç alınmasın
+    public ProductBatchResponseDto getProductBatch(List<Long> ids) {
         if (ids == null || ids.isEmpty()) {
-            logger.info("ProductService: getProductsByIds called with empty or null ID list.");
-            return Collections.emptyList();
+            logger.info("ProductService: getProductBatch called with empty or null ID list.");
+            return new ProductBatchResponseDto(Collections.emptyList(), Collections.emptyList());
         }
-        logger.info("ProductService: Fetching products for IDs: {}", ids);
-        List<Product> products = productRepository.findAllById(ids);
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        uniqueIds.remove(null);
+        if (uniqueIds.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " distinct product IDs can be requested at once. Requested: " + uniqueIds.size());
+        }
+        logger.debug("ProductService: Fetching {} products by ID ({} requested)", uniqueIds.size(), ids.size());
+
+        Map<Long, ProductDto> found = productCache.getAll(uniqueIds, missingIds ->
+                productRepository.findDtosByIdIn(missingIds).stream()
+                        .collect(Collectors.toMap(ProductDto::getId, Function.identity())));
+
+        List<ProductDto> products = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            ProductDto product = found.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ProductBatchResponseDto(products, missingIds);
+    }
+
+    /**
+     * ETag of the {@code GET /api/products} listing, computed from row count and latest {@code updatedAt}
+     * without loading the products themselves.
+     */
+    @Transactional(readOnly = true)
+    public String getProductListETag(Long categoryId, boolean includeInactive) {
+        if (categoryId != null) {
+            return productRepository.findActiveVersionByCategoryId(categoryId).toETag("products-c" + categoryId);
+        }
+        if (includeInactive) {
+            return productRepository.findVersion().toETag("products-all");
+        }
+        return productRepository.findActiveVersion().toETag("products");
     }
 
     @Transactional(readOnly = true)
@@ -72,16 +159,48 @@ public class ProductService {
             return getAllProducts(); 
         }
         logger.debug("Fetching active products for category ID: {}", categoryId);
-        List<Product> products = productRepository.findByCategoryIdAndIsActiveTrue(categoryId);
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return productRepository.findActiveDtosByCategoryId(categoryId);
     }
 
+    /**
+     * Cursor (keyset) sayfalı ürün listesi. {@code cursor} bir önceki sayfanın {@code nextCursor} değeridir
+     * (ilk sayfa için null). Admin değilse sadece aktif ürünler döner; categoryId verilirse her zaman sadece
+     * o kategorideki aktif ürünler döner (mevcut liste endpoint'i ile aynı kural).
+     */
     @Transactional(readOnly = true)
+    public CursorPageDto<ProductDto> getProductsPage(Long categoryId, Long cursor, Integer size, boolean includeInactive) {
+        int limit = PageSizes.resolve(size, defaultPageSize, maxPageSize);
+        long afterId = cursor != null ? cursor : 0L;
+        PageRequest pageRequest = PageRequest.of(0, limit + 1);
+
+        List<ProductDto> products;
+        if (categoryId != null) {
+            products = productRepository.findActiveDtoPageByCategoryAfter(categoryId, afterId, pageRequest);
+        } else if (includeInactive) {
+            products = productRepository.findDtoPageAfter(afterId, pageRequest);
+        } else {
+            products = productRepository.findActiveDtoPageAfter(afterId, pageRequest);
+        }
+        return toCursorPage(products, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDto<ProductDto> getProductsBySellerUsernamePage(String username, Long cursor, Integer size) {
+        int limit = PageSizes.resolve(size, defaultPageSize, maxPageSize);
+        long afterId = cursor != null ? cursor : 0L;
+        List<ProductDto> products = productRepository.findActiveDtoPageBySellerAfter(username, afterId, PageRequest.of(0, limit + 1));
+        if (products.isEmpty() && cursor == null) {
+            userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("Seller not found with username: " + username));
+        }
+        return toCursorPage(products, limit);
+    }
+
     public ProductDto getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product (any status) not found with id: " + id));
+        ProductDto product = productCache.get(id, productId -> productRepository.findDtoById(productId).orElse(null));
+        if (product == null) {
+            throw new ResourceNotFoundException("Product (any status) not found with id: " + id);
+        }
 
         if (!product.isActive()) {
             // Ürün pasif ise sadece admin veya ürünün satıcısı görebilir.
@@ -95,7 +214,7 @@ public class ProductService {
             //        PublicController -> productService.getPublicProductDetails(id)
             logger.warn("Product with ID: {} is inactive. Accessing details.", id);
         }
-        return convertToDto(product); // Her zaman tüm detayları dön, isActive bilgisi DTO'da var.
+        return product; // Her zaman tüm detayları dön, isActive bilgisi DTO'da var.
     }
 
     @Transactional
@@ -121,12 +240,16 @@ public class ProductService {
         mapDtoToEntity(requestDto, newProduct, seller, category);
 
         Product savedProduct = productRepository.save(newProduct);
+        inventoryLedger.record(savedProduct.getId(), savedProduct.getStockQuantity(), InventoryLedgerReason.INITIAL_STOCK, null, null);
+        eventPublisher.publishEvent(ProductChangedEvent.of(savedProduct.getId()));
         logger.info("Product created with ID: {} by seller: {}", savedProduct.getId(), seller.getUsername());
         return convertToDto(savedProduct);
     }
 
     @Transactional
     public ProductDto updateProduct(Long id, ProductRequestDto requestDto) {
+        // Satır önce kilitlenir: aradaki bir ödeme stoğu düşerse, eski değerin üzerine yazılıp kaybolmaz
+        Integer currentStock = lockStockQuantities(Map.of(id, requestDto.getStockQuantity())).get(id);
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
         Category category = findCategoryById(requestDto.getCategoryId());
@@ -143,9 +266,14 @@ public class ProductService {
             }
         }
 
+        if (hotSkuInventory.isHot(id) && !Objects.equals(existingProduct.getStockQuantity(), requestDto.getStockQuantity())) {
+            throw new IllegalStateException("Stock of product " + id + " is managed in hot SKU mode and cannot be edited until the mode is switched off.");
+        }
         mapDtoToEntity(requestDto, existingProduct, sellerToUpdate, category);
 
         Product updatedProduct = productRepository.save(existingProduct);
+        inventoryLedger.record(id, requestDto.getStockQuantity() - currentStock, InventoryLedgerReason.STOCK_ADJUSTMENT, null, null);
+        eventPublisher.publishEvent(ProductChangedEvent.of(updatedProduct.getId()));
         logger.info("Product updated with ID: {}", updatedProduct.getId());
         return convertToDto(updatedProduct);
     }
@@ -168,6 +296,7 @@ public class ProductService {
         product.setDeactivatedAt(java.time.LocalDateTime.now()); // LocalDateTime importu zaten olmalı
         
         Product deactivatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(deactivatedProduct.getId()));
         logger.info("Product with ID: {} deactivated. Reason: {}", id, reason);
         return convertToDto(deactivatedProduct);
     }
@@ -199,81 +328,124 @@ public class ProductService {
         product.setDeactivatedAt(null);      // Clear deactivation timestamp
 
         Product reactivatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(reactivatedProduct.getId()));
         logger.info("Product with ID: {} reactivated by seller: {}", productId, currentUser.getUsername());
         return convertToDto(reactivatedProduct);
     }
 
+    /**
+     * Applies partial price/stock changes to many products at once. Ownership is checked with a single
+     * id -> seller query; products owned by someone else (unless the caller is an admin) or not found are
+     * skipped and reported. Changes are sent as JDBC batches of column-level updates, so unchanged columns
+     * are neither loaded nor rewritten. One {@link ProductChangedEvent} refreshes caches and indexes.
+     */
+    @Transactional
+    public ProductBulkUpdateResultDto bulkUpdateProducts(List<ProductBulkUpdateItemDto> items) {
+        if (items.size() > maxBulkUpdateItems) {
+            throw new IllegalArgumentException("At most " + maxBulkUpdateItems + " products can be updated at once. Requested: " + items.size());
+        }
+        Map<Long, ProductBulkUpdateItemDto> byId = new LinkedHashMap<>();
+        for (ProductBulkUpdateItemDto item : items) {
+            if (item.getPrice() == null && item.getStockQuantity() == null) {
+                throw new IllegalArgumentException("Product " + item.getId() + ": at least one of price or stockQuantity must be given.");
+            }
+            if (byId.putIfAbsent(item.getId(), item) != null) {
+                throw new IllegalArgumentException("Product " + item.getId() + " appears more than once in the request.");
+            }
+        }
+
+        User currentUser = getCurrentAuthenticatedUserEntity();
+        boolean isAdmin = currentUser.getRoles().stream().anyMatch(role -> "ROLE_ADMIN".equals(role.getName()));
+        Map<Long, Long> sellerIds = productRepository.findSellerIdsByIdInBatches(byId.keySet(), BULK_UPDATE_BATCH_SIZE);
+
+        List<ProductBulkUpdateItemDto> toUpdate = new ArrayList<>(byId.size());
+        List<Long> notFoundIds = new ArrayList<>();
+        List<Long> notOwnedIds = new ArrayList<>();
+        byId.forEach((id, item) -> {
+            Long sellerId = sellerIds.get(id);
+            if (sellerId == null) {
+                notFoundIds.add(id);
+            } else if (!isAdmin && !sellerId.equals(currentUser.getId())) {
+                notOwnedIds.add(id);
+            } else {
+                toUpdate.add(item);
+            }
+        });
+        if (!notOwnedIds.isEmpty()) {
+            logger.warn("User {} attempted to bulk update {} products owned by other sellers: {}", currentUser.getUsername(), notOwnedIds.size(), notOwnedIds);
+        }
+        List<Long> hotIds = toUpdate.stream()
+                .filter(item -> item.getStockQuantity() != null && hotSkuInventory.isHot(item.getId()))
+                .map(ProductBulkUpdateItemDto::getId)
+                .collect(Collectors.toList());
+        if (!hotIds.isEmpty()) {
+            throw new IllegalStateException("Stock of products " + hotIds + " is managed in hot SKU mode and cannot be edited until the mode is switched off.");
+        }
+
+        if (!toUpdate.isEmpty()) {
+            Map<Long, Integer> currentStock = lockStockQuantities(toUpdate.stream()
+                    .filter(item -> item.getStockQuantity() != null)
+                    .collect(Collectors.toMap(ProductBulkUpdateItemDto::getId, ProductBulkUpdateItemDto::getStockQuantity,
+                            (first, last) -> last)));
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            // COALESCE: null gelen alan mevcut değerini korur
+            jdbcTemplate.batchUpdate(
+                    "UPDATE products SET price = COALESCE(?, price), stock_quantity = COALESCE(?, stock_quantity), updated_at = ? WHERE id = ?",
+                    toUpdate, BULK_UPDATE_BATCH_SIZE, (ps, item) -> {
+                        ps.setBigDecimal(1, item.getPrice());
+                        ps.setObject(2, item.getStockQuantity(), Types.INTEGER);
+                        ps.setTimestamp(3, now);
+                        ps.setLong(4, item.getId());
+                    });
+            currentStock.forEach((id, stock) -> inventoryLedger.record(id, byId.get(id).getStockQuantity() - stock,
+                    InventoryLedgerReason.STOCK_ADJUSTMENT, null, null));
+            eventPublisher.publishEvent(new ProductChangedEvent(toUpdate.stream().map(ProductBulkUpdateItemDto::getId).collect(Collectors.toList())));
+        }
+        logger.info("Bulk update by {}: {} requested, {} updated, {} not found, {} not owned",
+                currentUser.getUsername(), items.size(), toUpdate.size(), notFoundIds.size(), notOwnedIds.size());
+        return new ProductBulkUpdateResultDto(items.size(), toUpdate.size(), notFoundIds, notOwnedIds);
+    }
+
     @Transactional(readOnly = true)
     public void checkStockAvailability(Long productId, int quantityNeeded) {
         logger.debug("Checking stock for Product ID: {}, Quantity Needed: {}", productId, quantityNeeded);
         Product product = productRepository.findById(productId)
              .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId + " during stock check."));
 
-        if (product.getStockQuantity() < quantityNeeded) {
-            logger.warn("Insufficient stock for Product ID: {}. Requested: {}, Available: {}", productId, quantityNeeded, product.getStockQuantity());
+        if (product.getAvailableQuantity() < quantityNeeded) {
+            logger.warn("Insufficient stock for Product ID: {}. Requested: {}, Available: {}", productId, quantityNeeded, product.getAvailableQuantity());
             throw new IllegalArgumentException("Insufficient stock for product: " + product.getName() +
                                                ". Requested: " + quantityNeeded +
-                                               ", Available: " + product.getStockQuantity());
+                                               ", Available: " + product.getAvailableQuantity());
         }
          logger.debug("Stock check passed for Product ID: {}", productId);
     }
 
-    public void decreaseStock(Long productId, int quantityToDecrease) {
-        if (quantityToDecrease <= 0) {
-            return;
-        }
-        logger.info("Decreasing stock for Product ID: {} by Quantity: {}", productId, quantityToDecrease);
-        Product product = productRepository.findById(productId)
-             .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId + " while decreasing stock."));
-
-        int newStock = product.getStockQuantity() - quantityToDecrease;
-        if (newStock < 0) {
-             logger.error("Attempted to decrease stock below zero for Product ID: {}. Current: {}, Decrease: {}",
-                     productId, product.getStockQuantity(), quantityToDecrease);
-            throw new IllegalArgumentException("Stock cannot go below zero for product: " + product.getName());
-        }
-        product.setStockQuantity(newStock);
-        productRepository.save(product);
-         logger.info("Stock updated for Product ID: {}. New Stock: {}", productId, newStock);
-    }
-
-    @Transactional
-    public void increaseStock(Long productId, int quantityToIncrease) {
-        if (quantityToIncrease <= 0) {
-            return;
-        }
-        logger.info("Increasing stock for Product ID: {} by Quantity: {}", productId, quantityToIncrease);
-        Product product = productRepository.findById(productId)
-             .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId + " while increasing stock."));
-
-        int newStock = product.getStockQuantity() + quantityToIncrease;
-        product.setStockQuantity(newStock);
-        productRepository.save(product);
-         logger.info("Stock updated for Product ID: {}. New Stock: {}", productId, newStock);
-    }
-
     @Transactional(readOnly = true)
     public List<ProductDto> getProductsForCurrentSeller() {
         User currentUser = getCurrentAuthenticatedUserEntity();
         logger.debug("Fetching products for current seller: {}", currentUser.getUsername());
-        List<Product> products = productRepository.findBySellerUsername(currentUser.getUsername());
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return productRepository.findDtosBySellerUsername(currentUser.getUsername());
     }
 
     @Transactional(readOnly = true)
     public List<ProductDto> getProductsBySellerUsername(String username) {
         logger.debug("Fetching active products for seller username: {}", username);
-        List<Product> products = productRepository.findBySellerUsernameAndIsActiveTrue(username);
+        List<ProductDto> products = productRepository.findActiveDtosBySellerUsername(username);
         if (products.isEmpty()) {
             // Optional: Check if seller exists to differentiate no products vs. no seller
             userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("Seller not found with username: " + username));
         }
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return products;
+    }
+
+    // Sorgu limit + 1 satır getirir; fazladan gelen satır sadece sonraki sayfanın varlığını gösterir.
+    private CursorPageDto<ProductDto> toCursorPage(List<ProductDto> products, int limit) {
+        boolean hasNext = products.size() > limit;
+        List<ProductDto> items = hasNext ? products.subList(0, limit) : products;
+        Long nextCursor = hasNext ? items.get(items.size() - 1).getId() : null;
+        return new CursorPageDto<>(items, hasNext, nextCursor);
     }
 
     private User getCurrentAuthenticatedUserEntity() {
@@ -291,6 +463,32 @@ public class ProductService {
                  .orElseThrow(() -> new RuntimeException("Authenticated user '" + username + "' not found in database"));
      }
 
+    // Stok değişikliğinin defter kaydı için güncel değer; kilit transaction sonuna kadar tutulur (id sırasıyla).
+    // Yeni stok, ödemesi beklenen siparişlerin ayırdığı adedin altına inemez: ödeme gelince ayrılan adet
+    // stoktan düşülür ve defterdeki satış kaydı gerçekte düşülenle aynı kalmalı.
+    private Map<Long, Integer> lockStockQuantities(Map<Long, Integer> newStock) {
+        Map<Long, Integer> stock = new HashMap<>();
+        Map<Long, Integer> belowReserved = new TreeMap<>();
+        List<Long> sortedIds = newStock.keySet().stream().sorted().collect(Collectors.toList());
+        for (int from = 0; from < sortedIds.size(); from += BULK_UPDATE_BATCH_SIZE) {
+            List<Long> chunk = sortedIds.subList(from, Math.min(from + BULK_UPDATE_BATCH_SIZE, sortedIds.size()));
+            namedJdbcTemplate.query("SELECT id, stock_quantity, reserved_quantity FROM products WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+                    new MapSqlParameterSource("ids", chunk), rs -> {
+                        long id = rs.getLong("id");
+                        int reserved = rs.getInt("reserved_quantity");
+                        stock.put(id, rs.getInt("stock_quantity"));
+                        if (newStock.get(id) < reserved) {
+                            belowReserved.put(id, reserved);
+                        }
+                    });
+        }
+        if (!belowReserved.isEmpty()) {
+            throw new IllegalStateException("Stock cannot be set below the quantity reserved by unpaid orders "
+                    + "(product ID = reserved): " + belowReserved);
+        }
+        return stock;
+    }
+
     private Category findCategoryById(Long categoryId) {
          return categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + categoryId));
@@ -324,7 +522,9 @@ public class ProductService {
                 product.getDeactivationReason(),
                 product.getDeactivatedAt(),
                 product.getSeller() != null ? product.getSeller().getId() : null,
-                product.getSeller() != null ? product.getSeller().getUsername() : null
+                product.getSeller() != null ? product.getSeller().getUsername() : null,
+                product.getUpdatedAt(),
+                product.getReservedQuantity()
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,262 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.dto.ProductSuggestionsDto;
+import com.example.ecommerce.dto.SuggestionDto;
+import com.example.ecommerce.event.ProductChangedEvent;
+import com.example.ecommerce.event.ProductStockChangedEvent;
+import com.example.ecommerce.repository.OrderItemRepository;
+import com.example.ecommerce.search.SuggestionTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Search-as-you-type suggestions for product and category names, served from in-memory
+ * {@link SuggestionTrie}s. Products are ranked by popularity (units sold plus reviews); a category
+ * ranks by the popularity and number of its active products. Built at startup and patched from
+ * {@link ProductChangedEvent}s by {@link CatalogIndexLoader}. Units sold only change with orders, which
+ * move stock: products named in {@link ProductStockChangedEvent}s are re-counted together once per
+ * {@code popularity-refresh-interval-ms}.
+ */
+@Service
+public class ProductSuggestService implements CatalogIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSuggestService.class);
+
+    // Yorum yazan müşteri az olduğundan bir yorum birkaç satışa denk sayılır
+    private static final double REVIEW_WEIGHT = 3.0;
+
+    private static final int POPULARITY_REFRESH_BATCH_SIZE = 1000;
+
+    private final OrderItemRepository orderItemRepository;
+    private final SuggestionTrie productTrie = new SuggestionTrie();
+    private final SuggestionTrie categoryTrie = new SuggestionTrie();
+
+    // Kategori puanlarını artımlı güncelleyebilmek için ürünlerin indekslenmiş son hali
+    private final Object indexLock = new Object();
+    private final Map<Long, IndexedProduct> indexedProducts = new HashMap<>();
+    private final Map<Long, CategoryStats> categoryStats = new HashMap<>();
+    // Satış adedi değişmiş olabilecek ürünler; periyodik olarak toplu sayılır
+    private final Set<Long> salesChangedIds = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.search.suggest.default-limit:8}")
+    private int defaultLimit;
+
+    // Yalnızca açılıştaki tam yükleme sırasında dolu
+    private Map<Long, Long> unitsSoldAtBuild = Map.of();
+
+    @Autowired
+    public ProductSuggestService(OrderItemRepository orderItemRepository) {
+        this.orderItemRepository = orderItemRepository;
+    }
+
+    @Override
+    public void beginBuild() {
+        unitsSoldAtBuild = toUnitsSoldMap(orderItemRepository.findUnitsSoldPerProduct());
+    }
+
+    @Override
+    public void addAll(List<ProductDto> activeProducts) {
+        for (ProductDto product : activeProducts) {
+            put(product, unitsSoldAtBuild.getOrDefault(product.getId(), 0L));
+        }
+    }
+
+    @Override
+    public void endBuild(long elapsedMillis) {
+        unitsSoldAtBuild = Map.of();
+        logger.info("Suggestion index built with {} products and {} categories in {} ms",
+                productTrie.size(), categoryTrie.size(), elapsedMillis);
+    }
+
+    // Ürün değişikliği satış adedini değiştirmez; indeksteki son adet kullanılır
+    @Override
+    public void update(Set<Long> productIds, Map<Long, ProductDto> current) {
+        for (Long productId : productIds) {
+            ProductDto product = current.get(productId);
+            if (product != null && product.isActive()) {
+                if (!putKeepingUnitsSold(product)) {
+                    // Yeni ya da yeniden etkinleşen ürün: adedi bir sonraki tazelemede sayılır
+                    salesChangedIds.add(productId);
+                }
+            } else {
+                remove(productId);
+            }
+        }
+        logger.debug("Suggestion index updated for product IDs: {}", productIds);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(ProductStockChangedEvent event) {
+        salesChangedIds.addAll(event.getProductIds());
+    }
+
+    /** Re-counts units sold for products whose stock moved and re-ranks those whose count changed. */
+    @Scheduled(fixedDelayString = "${app.search.suggest.popularity-refresh-interval-ms:60000}")
+    public void refreshPopularity() {
+        if (salesChangedIds.isEmpty()) {
+            return;
+        }
+        List<Long> productIds = new ArrayList<>(salesChangedIds);
+        salesChangedIds.removeAll(productIds);
+        Map<Long, Long> unitsSold = new HashMap<>(productIds.size() * 2);
+        try {
+            for (int from = 0; from < productIds.size(); from += POPULARITY_REFRESH_BATCH_SIZE) {
+                unitsSold.putAll(toUnitsSoldMap(orderItemRepository.findUnitsSoldByProductIdIn(
+                        productIds.subList(from, Math.min(from + POPULARITY_REFRESH_BATCH_SIZE, productIds.size())))));
+            }
+        } catch (DataAccessException e) {
+            salesChangedIds.addAll(productIds);
+            logger.warn("Suggestion popularity could not be refreshed: {}", e.getMessage());
+            return;
+        }
+        int changed = 0;
+        for (Long productId : productIds) {
+            if (rescore(productId, unitsSold.getOrDefault(productId, 0L))) {
+                changed++;
+            }
+        }
+        logger.debug("Suggestion popularity refreshed for {} products, {} re-ranked", productIds.size(), changed);
+    }
+
+    public ProductSuggestionsDto suggest(String prefix, Integer limit) {
+        int resolvedLimit = resolveLimit(limit);
+        if (prefix == null || prefix.isBlank()) {
+            return new ProductSuggestionsDto(List.of(), List.of());
+        }
+        return new ProductSuggestionsDto(toDtos(productTrie.suggest(prefix, resolvedLimit)),
+                toDtos(categoryTrie.suggest(prefix, resolvedLimit)));
+    }
+
+    // Ürün indekste yoksa false döner (adet 0 kabul edilir)
+    private boolean putKeepingUnitsSold(ProductDto product) {
+        synchronized (indexLock) {
+            IndexedProduct previous = indexedProducts.get(product.getId());
+            put(product, previous != null ? previous.unitsSold : 0L);
+            return previous != null;
+        }
+    }
+
+    private boolean rescore(Long productId, long unitsSold) {
+        synchronized (indexLock) {
+            IndexedProduct previous = indexedProducts.get(productId);
+            if (previous == null || previous.unitsSold == unitsSold) {
+                return false;
+            }
+            IndexedProduct rescored = new IndexedProduct(previous.categoryId, previous.name, unitsSold, previous.reviewCount);
+            indexedProducts.put(productId, rescored);
+            adjustCategory(previous.categoryId, null, 0, rescored.popularity - previous.popularity);
+            productTrie.put(productId, previous.name, rescored.popularity);
+            return true;
+        }
+    }
+
+    private void put(ProductDto product, long unitsSold) {
+        int reviewCount = product.getReviewCount() != null ? product.getReviewCount() : 0;
+        IndexedProduct indexed = new IndexedProduct(product.getCategoryId(), product.getName(), unitsSold, reviewCount);
+        double popularity = indexed.popularity;
+        synchronized (indexLock) {
+            IndexedProduct previous = indexedProducts.put(product.getId(), indexed);
+            if (previous != null && Objects.equals(previous.categoryId, product.getCategoryId())) {
+                adjustCategory(product.getCategoryId(), product.getCategoryName(), 0, popularity - previous.popularity);
+            } else {
+                if (previous != null) {
+                    adjustCategory(previous.categoryId, null, -1, -previous.popularity);
+                }
+                adjustCategory(product.getCategoryId(), product.getCategoryName(), 1, popularity);
+            }
+            productTrie.put(product.getId(), product.getName(), popularity);
+        }
+    }
+
+    private void remove(Long productId) {
+        synchronized (indexLock) {
+            IndexedProduct previous = indexedProducts.remove(productId);
+            if (previous != null) {
+                adjustCategory(previous.categoryId, null, -1, -previous.popularity);
+            }
+            productTrie.remove(productId);
+        }
+    }
+
+    // name null ise mevcut ad korunur (yalnızca ürün çıkarılırken)
+    private void adjustCategory(Long categoryId, String name, int productDelta, double popularityDelta) {
+        if (categoryId == null) {
+            return;
+        }
+        CategoryStats stats = categoryStats.computeIfAbsent(categoryId, id -> new CategoryStats());
+        stats.productCount += productDelta;
+        stats.popularity += popularityDelta;
+        if (name != null) {
+            stats.name = name;
+        }
+        if (stats.productCount <= 0) {
+            categoryStats.remove(categoryId);
+            categoryTrie.remove(categoryId);
+        } else if (stats.name != null) {
+            categoryTrie.put(categoryId, stats.name, stats.popularity + stats.productCount);
+        }
+    }
+
+    private static Map<Long, Long> toUnitsSoldMap(List<Object[]> rows) {
+        Map<Long, Long> unitsSold = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            unitsSold.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+        return unitsSold;
+    }
+
+    private static List<SuggestionDto> toDtos(List<SuggestionTrie.Suggestion> suggestions) {
+        return suggestions.stream()
+                .map(s -> new SuggestionDto(s.getId(), s.getText()))
+                .collect(Collectors.toList());
+    }
+
+    private int resolveLimit(Integer requestedLimit) {
+        if (requestedLimit == null) {
+            return Math.min(defaultLimit, SuggestionTrie.MAX_SUGGESTIONS);
+        }
+        if (requestedLimit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1.");
+        }
+        return Math.min(requestedLimit, SuggestionTrie.MAX_SUGGESTIONS);
+    }
+
+    private static final class IndexedProduct {
+        private final Long categoryId;
+        private final String name;
+        private final long unitsSold;
+        private final int reviewCount;
+        private final double popularity;
+
+        private IndexedProduct(Long categoryId, String name, long unitsSold, int reviewCount) {
+            this.categoryId = categoryId;
+            this.name = name;
+            this.unitsSold = unitsSold;
+            this.reviewCount = reviewCount;
+            this.popularity = unitsSold + REVIEW_WEIGHT * reviewCount;
+        }
+    }
+
+    private static final class CategoryStats {
+        private String name;
+        private int productCount;
+        private double popularity;
+    }
+}
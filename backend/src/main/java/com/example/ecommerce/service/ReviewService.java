@@ -6,6 +6,7 @@ import com.example.ecommerce.dto.UserReviewDto;
 import com.example.ecommerce.entity.Product;
 import com.example.ecommerce.entity.Review;
 import com.example.ecommerce.entity.User;
+import com.example.ecommerce.event.ProductChangedEvent;
 import com.example.ecommerce.exception.ResourceNotFoundException;
 import com.example.ecommerce.repository.ProductRepository;
 import com.example.ecommerce.repository.ReviewRepository;
@@ -13,6 +14,7 @@ import com.example.ecommerce.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -38,12 +40,15 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public ReviewService(ReviewRepository reviewRepository, ProductRepository productRepository, UserRepository userRepository) {
+    public ReviewService(ReviewRepository reviewRepository, ProductRepository productRepository, UserRepository userRepository,
+                         ApplicationEventPublisher eventPublisher) {
         this.reviewRepository = reviewRepository;
         this.productRepository = productRepository;
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -72,6 +77,13 @@ public class ReviewService {
         return convertToDtoSafe(savedReview);
     }
 
+    // Sıralama serviste her zaman reviewDate DESC olduğu için ETag'e sadece sayfa numarası ve boyutu girer
+    @Transactional(readOnly = true)
+    public String getReviewsETag(Long productId, Pageable pageable) {
+        return reviewRepository.findVersionByProductId(productId)
+                .toETag("reviews-" + productId + "-" + pageable.getPageNumber() + "-" + pageable.getPageSize());
+    }
+
     @Transactional(readOnly = true)
     public Page<ReviewDto> getReviewsForProduct(Long productId, Pageable pageableFromController) {
         if (!productRepository.existsById(productId)) {
@@ -230,6 +242,7 @@ public class ReviewService {
 
         try {
             productRepository.save(product);
+            eventPublisher.publishEvent(ProductChangedEvent.of(productId));
             logger.info("Successfully updated rating stats for product ID {}", productId);
         } catch (Exception e) {
             logger.error("Failed to save updated rating stats for product ID {}: {}", productId, e.getMessage(), e);
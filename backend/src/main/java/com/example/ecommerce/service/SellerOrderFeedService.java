@@ -0,0 +1,249 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.AddressDto;
+import com.example.ecommerce.dto.CursorPageDto;
+import com.example.ecommerce.dto.OrderDto;
+import com.example.ecommerce.dto.OrderItemDto;
+import com.example.ecommerce.entity.OrderStatus;
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.exception.ResourceNotFoundException;
+import com.example.ecommerce.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A seller's orders, newest first, read from the denormalized {@code order_items.seller_id} and
+ * {@code order_items.order_date} columns.
+ * <p>
+ * A page is found on the {@code (seller_id, order_date, order_id)} index alone, together with the
+ * seller's subtotal per order. Order headers and the seller's own items are then read for just those
+ * orders, one query each. No entity is loaded, so there is no lazy walk over items and products.
+ * The cursor is the id of the last order of the previous page; the page continues after that
+ * order's date. Archived orders are read from {@code order_items_archive}, which has the same index,
+ * only once a page reaches the newest archived order's date.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class SellerOrderFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SellerOrderFeedService.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    // Kolonlar eklenmeden önce yazılmış kalemler açılışta parça parça doldurulur
+    private static final String BACKFILL_SQL =
+            "UPDATE order_items SET " +
+            "seller_id = (SELECT p.seller_user_id FROM products p WHERE p.id = order_items.product_id), " +
+            "order_date = (SELECT o.order_date FROM orders o WHERE o.id = order_items.order_id) " +
+            "WHERE seller_id IS NULL LIMIT " + BACKFILL_BATCH_SIZE;
+
+    private static final String PAGE_SELECT =
+            "SELECT oi.order_id, oi.order_date, SUM(oi.price_at_purchase * oi.quantity) AS seller_total FROM ";
+    private static final String PAGE_WHERE = " oi WHERE oi.seller_id = :sellerId ";
+    // Gruplama kolonları indeksle (seller_id, order_date, order_id) aynı sırada: grup ve sıralama indeks
+    // sırasıyla yapılır, LIMIT erken durur (geçici tablo ve filesort yok)
+    private static final String PAGE_ORDER =
+            "GROUP BY oi.order_date, oi.order_id ORDER BY oi.order_date DESC, oi.order_id DESC LIMIT :limit";
+
+    private static final String HEADERS_SQL =
+            "SELECT o.id, o.order_date, o.status, o.customer_user_id, u.username, o.stripe_payment_intent_id, " +
+            "a.id AS address_id, a.phone_number, a.country, a.city, a.postal_code, a.address_text, a.user_id AS address_user_id " +
+            "FROM orders o JOIN users u ON u.id = o.customer_user_id " +
+            "LEFT JOIN addresses a ON a.id = o.shipping_address_id " +
+            "WHERE o.id IN (:orderIds)";
+
+    private static final String ITEMS_SQL =
+            "SELECT oi.id, oi.order_id, oi.product_id, p.name, oi.quantity, oi.price_at_purchase, oi.status, " +
+            "oi.stripe_refund_id, oi.refunded_amount " +
+            "FROM order_items oi JOIN products p ON p.id = oi.product_id " +
+            "WHERE oi.seller_id = :sellerId AND oi.order_id IN (:orderIds) ORDER BY oi.order_id, oi.id";
+
+    private static final Comparator<PageRow> NEWEST_FIRST =
+            Comparator.comparing((PageRow row) -> row.orderDate).thenComparingLong(row -> row.orderId).reversed();
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final UserRepository userRepository;
+    private final OrderArchiveService orderArchiveService;
+
+    @Value("${app.orders.page-size.default:20}")
+    private int defaultPageSize;
+
+    @Value("${app.orders.page-size.max:100}")
+    private int maxPageSize;
+
+    @Autowired
+    public SellerOrderFeedService(NamedParameterJdbcTemplate namedJdbcTemplate, UserRepository userRepository,
+                                  OrderArchiveService orderArchiveService) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.userRepository = userRepository;
+        this.orderArchiveService = orderArchiveService;
+    }
+
+    @PostConstruct
+    void backfillDenormalizedColumns() {
+        try {
+            int total = 0;
+            int updated;
+            do {
+                updated = namedJdbcTemplate.getJdbcTemplate().update(BACKFILL_SQL);
+                total += updated;
+            } while (updated == BACKFILL_BATCH_SIZE);
+            if (total > 0) {
+                logger.info("Filled seller_id/order_date on {} existing order items", total);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("seller_id/order_date of existing order items could not be filled: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * One page of the seller's orders, newest first. Each order carries only the seller's own items,
+     * and its total is the seller's subtotal.
+     *
+     * @param cursor {@code nextCursor} of the previous page, or {@code null} for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<OrderDto> getSellerOrders(String sellerUsername, Long cursor, Integer size) {
+        int limit = PageSizes.resolve(size, defaultPageSize, maxPageSize);
+        Long sellerId = findSellerId(sellerUsername);
+
+        MapSqlParameterSource params = new MapSqlParameterSource("sellerId", sellerId).addValue("limit", limit + 1);
+        String pageWhere = PAGE_WHERE;
+        if (cursor != null) {
+            pageWhere += orderArchiveService.afterDateCursor(cursor, "oi", "order_id", params);
+        }
+
+        List<PageRow> rows = findPageRows("order_items", pageWhere, params);
+        // Arşivlenmiş kalemlere yalnızca sayfa en yeni arşivlenmiş siparişin tarihine iniyorsa bakılır
+        Set<Long> archivedIds = new HashSet<>();
+        if (orderArchiveService.isNeededForDatePage(rows.size(), limit + 1,
+                rows.isEmpty() ? null : rows.get(rows.size() - 1).orderDate, null)) {
+            List<PageRow> archivedRows = findPageRows("order_items_archive", pageWhere, params);
+            archivedRows.forEach(row -> archivedIds.add(row.orderId));
+            rows.addAll(archivedRows);
+            rows.sort(NEWEST_FIRST);
+        }
+
+        boolean hasNext = rows.size() > limit;
+        rows = rows.subList(0, Math.min(rows.size(), limit));
+        Map<Long, BigDecimal> sellerTotals = new LinkedHashMap<>();
+        rows.forEach(row -> sellerTotals.put(row.orderId, row.sellerTotal));
+        List<Long> orderIds = new ArrayList<>(sellerTotals.keySet());
+
+        List<Long> liveIds = orderIds.stream().filter(id -> !archivedIds.contains(id)).collect(Collectors.toList());
+        Map<Long, OrderDto> ordersById = loadOrders(sellerId, liveIds, sellerTotals);
+        List<Long> pageArchivedIds = orderIds.stream().filter(archivedIds::contains).collect(Collectors.toList());
+        if (!pageArchivedIds.isEmpty()) {
+            ordersById.putAll(orderArchiveService.findOrdersWithDetails(pageArchivedIds, sellerId));
+        }
+
+        // Sayfa sırası (tarih, id azalan) korunur
+        List<OrderDto> orders = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            OrderDto order = ordersById.get(orderId);
+            if (order != null) {
+                orders.add(order);
+            }
+        }
+        return new CursorPageDto<>(orders, hasNext, hasNext ? orderIds.get(orderIds.size() - 1) : null);
+    }
+
+    /** All of the seller's orders, newest first, read page by page. */
+    @Transactional(readOnly = true)
+    public List<OrderDto> getAllSellerOrders(String sellerUsername) {
+        List<OrderDto> orders = new ArrayList<>();
+        Long cursor = null;
+        CursorPageDto<OrderDto> page;
+        do {
+            page = getSellerOrders(sellerUsername, cursor, maxPageSize);
+            orders.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (page.isHasNext());
+        return orders;
+    }
+
+    private List<PageRow> findPageRows(String table, String where, MapSqlParameterSource params) {
+        return namedJdbcTemplate.query(PAGE_SELECT + table + where + PAGE_ORDER, params, (rs, rowNum) -> new PageRow(
+                rs.getLong("order_id"), rs.getTimestamp("order_date").toLocalDateTime(), rs.getBigDecimal("seller_total")));
+    }
+
+    private static final class PageRow {
+        private final long orderId;
+        private final LocalDateTime orderDate;
+        private final BigDecimal sellerTotal;
+
+        private PageRow(long orderId, LocalDateTime orderDate, BigDecimal sellerTotal) {
+            this.orderId = orderId;
+            this.orderDate = orderDate;
+            this.sellerTotal = sellerTotal;
+        }
+    }
+
+    private Map<Long, OrderDto> loadOrders(Long sellerId, List<Long> orderIds, Map<Long, BigDecimal> sellerTotals) {
+        Map<Long, OrderDto> ordersById = new HashMap<>();
+        if (orderIds.isEmpty()) {
+            return ordersById;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("sellerId", sellerId).addValue("orderIds", orderIds);
+
+        Map<Long, List<OrderItemDto>> itemsByOrder = new HashMap<>();
+        namedJdbcTemplate.query(ITEMS_SQL, params, rs -> {
+            itemsByOrder.computeIfAbsent(rs.getLong("order_id"), id -> new ArrayList<>()).add(new OrderItemDto(
+                    rs.getLong("id"),
+                    rs.getLong("product_id"),
+                    rs.getString("name"),
+                    rs.getInt("quantity"),
+                    rs.getBigDecimal("price_at_purchase"),
+                    rs.getString("status"),
+                    rs.getString("stripe_refund_id"),
+                    rs.getBigDecimal("refunded_amount")));
+        });
+
+        namedJdbcTemplate.query(HEADERS_SQL, params, rs -> {
+            long orderId = rs.getLong("id");
+            Long addressId = rs.getObject("address_id", Long.class);
+            AddressDto shippingAddress = addressId == null ? null : new AddressDto(addressId,
+                    rs.getString("phone_number"), rs.getString("country"), rs.getString("city"),
+                    rs.getString("postal_code"), rs.getString("address_text"), rs.getLong("address_user_id"));
+            ordersById.put(orderId, new OrderDto(
+                    orderId,
+                    rs.getTimestamp("order_date").toLocalDateTime(),
+                    OrderStatus.valueOf(rs.getString("status")),
+                    sellerTotals.get(orderId),
+                    rs.getLong("customer_user_id"),
+                    rs.getString("username"),
+                    itemsByOrder.getOrDefault(orderId, new ArrayList<>()),
+                    shippingAddress,
+                    rs.getString("stripe_payment_intent_id")));
+        });
+        return ordersById;
+    }
+
+    private Long findSellerId(String username) {
+        return userRepository.findByUsername(username)
+                .map(User::getId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
+    }
+}
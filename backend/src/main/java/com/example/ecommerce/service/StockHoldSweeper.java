@@ -0,0 +1,42 @@
+package com.example.ecommerce.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically gives back the stock of holds whose order was not paid in time. Each batch runs in
+ * its own transaction, so a large backlog never holds row locks for long.
+ */
+@Component
+public class StockHoldSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockHoldSweeper.class);
+
+    private final InventoryService inventoryService;
+
+    @Value("${app.inventory.hold.sweep-batch-size:500}")
+    private int batchSize;
+
+    @Autowired
+    public StockHoldSweeper(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.hold.sweep-interval-ms:60000}",
+            initialDelayString = "${app.inventory.hold.sweep-interval-ms:60000}")
+    public void releaseExpiredHolds() {
+        int total = 0;
+        int released;
+        do {
+            released = inventoryService.releaseExpiredHolds(batchSize);
+            total += released;
+        } while (released == batchSize);
+        if (total > 0) {
+            logger.info("Released {} expired stock holds", total);
+        }
+    }
+}
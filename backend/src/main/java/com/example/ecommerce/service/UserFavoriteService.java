@@ -16,7 +16,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class UserFavoriteService {
@@ -108,33 +107,8 @@ public class UserFavoriteService {
         return userFavoriteRepository.save(newUserFavorite);
     }
 
-    private ProductDto convertProductToDto(Product product) {
-        if (product == null) return null;
-        Long categoryId = (product.getCategory() != null) ? product.getCategory().getId() : null;
-        String categoryName = (product.getCategory() != null) ? product.getCategory().getName() : null;
-        return new ProductDto(
-            product.getId(),
-            product.getName(),
-            product.getDescription(),
-            product.getPrice(),
-            product.getStockQuantity(),
-            categoryId,
-            categoryName,
-            product.getImageUrl(),
-            null,
-            0,
-            product.isActive(),
-            product.getDeactivationReason(),
-            product.getDeactivatedAt(),
-            product.getSeller().getId(),
-            product.getSeller().getUsername()
-        );
-    }
-
     private UserFavoriteDto convertToDto(UserFavorite userFavorite) {
-        List<ProductDto> productDtos = userFavorite.getProducts().stream()
-                .map(this::convertProductToDto)
-                .collect(Collectors.toList());
+        List<ProductDto> productDtos = userFavoriteRepository.findProductDtosByFavoriteId(userFavorite.getId());
 
         return new UserFavoriteDto(
                 userFavorite.getId(),
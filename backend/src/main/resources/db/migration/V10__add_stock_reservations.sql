@@ -0,0 +1,21 @@
+-- Time-boxed stock holds from checkout until payment.
+-- products.reserved_quantity is the sum of the product's ACTIVE holds; available stock = stock_quantity - reserved_quantity.
+ALTER TABLE products ADD COLUMN reserved_quantity INT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS stock_reservations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    order_item_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    CONSTRAINT uk_stock_reservations_order_item UNIQUE (order_item_id),
+    CONSTRAINT fk_stock_reservations_product FOREIGN KEY (product_id) REFERENCES products (id),
+    CONSTRAINT fk_stock_reservations_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_stock_reservations_order_item FOREIGN KEY (order_item_id) REFERENCES order_items (id)
+);
+
+CREATE INDEX idx_stock_reservations_status_expires ON stock_reservations (status, expires_at);
+CREATE INDEX idx_stock_reservations_order ON stock_reservations (order_id);
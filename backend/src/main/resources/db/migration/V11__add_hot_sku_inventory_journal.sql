@@ -0,0 +1,13 @@
+-- Hot SKU mode: flagged products count available stock in memory and persist changes write-behind
+-- through inventory_journal (one row per change, folded into products in coalesced batches).
+ALTER TABLE products ADD COLUMN hot_sku BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE TABLE IF NOT EXISTS inventory_journal (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    stock_delta INT NOT NULL,
+    reserved_delta INT NOT NULL,
+    created_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_inventory_journal_product ON inventory_journal (product_id);
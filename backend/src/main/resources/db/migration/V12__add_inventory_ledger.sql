@@ -0,0 +1,16 @@
+-- Append-only inventory ledger: one row per change of products.stock_quantity, with reason and reference.
+-- The sum of a product's quantity_delta equals its stock (plus unflushed hot SKU journal rows).
+CREATE TABLE IF NOT EXISTS inventory_ledger (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    quantity_delta INT NOT NULL,
+    reason VARCHAR(32) NOT NULL,
+    order_id BIGINT NULL,
+    order_item_id BIGINT NULL,
+    actor VARCHAR(100) NULL,
+    created_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_inventory_ledger_product ON inventory_ledger (product_id, id);
+
+-- Ledger'ı olmayan ürünlerin açılış bakiyesi uygulama açılışında (InventoryLedger) yazılır
@@ -0,0 +1,18 @@
+-- Orders, order items and cart items move from AUTO_INCREMENT to Hibernate pooled sequences
+-- (same scheme as products_seq in V9) so checkout can batch its inserts.
+CREATE TABLE IF NOT EXISTS orders_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS order_items_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS cart_items_seq (next_val BIGINT);
+
+-- Start past the existing AUTO_INCREMENT ids (plus one allocation block, see IdSequenceInitializer)
+INSERT INTO orders_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM orders
+WHERE NOT EXISTS (SELECT 1 FROM orders_seq);
+
+INSERT INTO order_items_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM order_items
+WHERE NOT EXISTS (SELECT 1 FROM order_items_seq);
+
+INSERT INTO cart_items_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM cart_items
+WHERE NOT EXISTS (SELECT 1 FROM cart_items_seq);
@@ -0,0 +1,13 @@
+-- Seller and order date copied onto order items so a seller's orders can be listed from one index,
+-- without joining orders and products. Filled at checkout; existing rows are filled here (and, if this
+-- script was skipped, in batches at startup by SellerOrderFeedService).
+ALTER TABLE order_items ADD COLUMN seller_id BIGINT NULL;
+ALTER TABLE order_items ADD COLUMN order_date DATETIME(6) NULL;
+
+UPDATE order_items oi
+JOIN products p ON p.id = oi.product_id
+JOIN orders o ON o.id = oi.order_id
+SET oi.seller_id = p.seller_user_id, oi.order_date = o.order_date
+WHERE oi.seller_id IS NULL;
+
+CREATE INDEX idx_order_items_seller_date ON order_items (seller_id, order_date, order_id);
@@ -0,0 +1,5 @@
+-- Composite indexes for the keyset admin order search (GET /api/admin/orders/search), newest first on
+-- (order_date, id). The status and customer variants serve the matching filters without a filesort.
+CREATE INDEX idx_orders_date_id ON orders (order_date, id);
+CREATE INDEX idx_orders_status_date_id ON orders (status, order_date, id);
+CREATE INDEX idx_orders_customer_date_id ON orders (customer_user_id, order_date, id);
@@ -0,0 +1,16 @@
+-- Transactional outbox: order and payment events written in the same transaction as the change,
+-- dispatched by OutboxRelay (SELECT ... FOR UPDATE SKIP LOCKED) with retry and backoff.
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL,
+    available_at DATETIME(6) NOT NULL,
+    last_error VARCHAR(1000) NULL,
+    created_at DATETIME(6) NOT NULL,
+    processed_at DATETIME(6) NULL
+);
+
+CREATE INDEX idx_outbox_events_status_available ON outbox_events (status, available_at, id);
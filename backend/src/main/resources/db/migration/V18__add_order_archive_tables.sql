@@ -0,0 +1,36 @@
+-- Cold storage for completed orders. OrderArchiveService moves DELIVERED/CANCELLED orders whose items are
+-- all finished, once they are older than app.orders.archive.min-age-days; read paths union these tables
+-- only when a page reaches past the newest archived order.
+CREATE TABLE IF NOT EXISTS orders_archive (
+    id BIGINT PRIMARY KEY,
+    order_date DATETIME(6) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    total_amount DECIMAL(10,2) NOT NULL,
+    customer_user_id BIGINT NOT NULL,
+    shipping_address_id BIGINT NOT NULL,
+    stripe_payment_intent_id VARCHAR(255) NULL,
+    total_refunded_amount DECIMAL(10,2) NULL,
+    archived_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_orders_archive_customer_id ON orders_archive (customer_user_id, id);
+CREATE INDEX idx_orders_archive_date_id ON orders_archive (order_date, id);
+CREATE INDEX idx_orders_archive_status_date_id ON orders_archive (status, order_date, id);
+CREATE INDEX idx_orders_archive_customer_date_id ON orders_archive (customer_user_id, order_date, id);
+
+CREATE TABLE IF NOT EXISTS order_items_archive (
+    id BIGINT PRIMARY KEY,
+    order_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    seller_id BIGINT NULL,
+    order_date DATETIME(6) NULL,
+    quantity INT NOT NULL,
+    price_at_purchase DECIMAL(10,2) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    stripe_refund_id VARCHAR(255) NULL,
+    refunded_amount DECIMAL(10,2) NULL,
+    archived_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_order_items_archive_order ON order_items_archive (order_id);
+CREATE INDEX idx_order_items_archive_seller_date ON order_items_archive (seller_id, order_date, order_id);
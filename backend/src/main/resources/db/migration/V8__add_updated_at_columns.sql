@@ -0,0 +1,13 @@
+-- updated_at columns used for ETag / conditional GET support
+ALTER TABLE products ADD COLUMN updated_at DATETIME(6) NULL;
+ALTER TABLE categories ADD COLUMN updated_at DATETIME(6) NULL;
+ALTER TABLE reviews ADD COLUMN updated_at DATETIME(6) NULL;
+
+-- Existing rows get a starting value so their ETags are stable
+UPDATE products SET updated_at = COALESCE(deactivated_at, CURRENT_TIMESTAMP(6)) WHERE updated_at IS NULL;
+UPDATE categories SET updated_at = CURRENT_TIMESTAMP(6) WHERE updated_at IS NULL;
+UPDATE reviews SET updated_at = review_date WHERE updated_at IS NULL;
+
+CREATE INDEX idx_products_active_updated ON products (is_active, updated_at);
+CREATE INDEX idx_products_category_active_updated ON products (category_id, is_active, updated_at);
+CREATE INDEX idx_reviews_product_updated ON reviews (product_id, updated_at);
@@ -0,0 +1,8 @@
+-- Product ids are now allocated in blocks from a Hibernate pooled sequence so inserts can be JDBC-batched.
+-- MySQL has no native sequences; Hibernate emulates them with a single-row table.
+CREATE TABLE IF NOT EXISTS products_seq (next_val BIGINT);
+
+-- Start past the existing AUTO_INCREMENT ids (plus one allocation block, see IdSequenceInitializer)
+INSERT INTO products_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM products
+WHERE NOT EXISTS (SELECT 1 FROM products_seq);
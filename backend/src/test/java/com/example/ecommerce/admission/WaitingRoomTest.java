@@ -0,0 +1,156 @@
+package com.example.ecommerce.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WaitingRoomTest {
+
+    private static final long SECOND_NANOS = 1_000_000_000L;
+    private static final long START_MILLIS = 1_000_000L;
+    private static final long WINDOW_MILLIS = 120_000L;
+    private static final long ABANDON_MILLIS = 60_000L;
+
+    @Test
+    void admitsInJoinOrder() {
+        WaitingRoom room = new WaitingRoom(7L, 1.0, 10, 0);
+        String first = room.join("a", START_MILLIS).getTicketId();
+        String second = room.join("b", START_MILLIS).getTicketId();
+        String third = room.join("c", START_MILLIS).getTicketId();
+        assertEquals(3, room.poll(third, START_MILLIS).getPosition());
+
+        List<String> expected = List.of(first, second, third);
+        for (int tick = 1; tick <= expected.size(); tick++) {
+            List<WaitingRoom.Snapshot> changed = admit(room, tick);
+            assertEquals(1, changed.size());
+            assertEquals(QueueTicketStatus.ADMITTED, changed.get(0).getStatus());
+            assertEquals(expected.get(tick - 1), changed.get(0).getTicketId());
+        }
+        assertEquals(0, room.stats().getWaiting());
+        assertEquals(3, room.stats().getAdmitted());
+    }
+
+    @Test
+    void positionsMoveUpAsTheHeadIsAdmitted() {
+        WaitingRoom room = new WaitingRoom(7L, 1.0, 10, 0);
+        room.join("a", START_MILLIS);
+        String second = room.join("b", START_MILLIS).getTicketId();
+        String third = room.join("c", START_MILLIS).getTicketId();
+
+        admit(room, 1);
+
+        assertEquals(1, room.poll(second, START_MILLIS).getPosition());
+        assertEquals(2, room.poll(third, START_MILLIS).getPosition());
+        assertEquals(2, room.poll(third, START_MILLIS).getEstimatedWaitSeconds());
+    }
+
+    @Test
+    void tokenBucketRefillsAtTheRateAndCapsTheBurstAtOneSecond() {
+        WaitingRoom room = new WaitingRoom(7L, 2.0, 10, 0);
+        for (String user : List.of("a", "b", "c", "d", "e")) {
+            room.join(user, START_MILLIS);
+        }
+
+        // Ten idle seconds still allow only one second's worth of admissions
+        assertEquals(2, admit(room, 10).size());
+        assertEquals(0, room.admit(10 * SECOND_NANOS + SECOND_NANOS / 4, START_MILLIS, WINDOW_MILLIS, ABANDON_MILLIS).size());
+        assertEquals(1, room.admit(10 * SECOND_NANOS + SECOND_NANOS / 2, START_MILLIS, WINDOW_MILLIS, ABANDON_MILLIS).size());
+        assertEquals(2, room.stats().getWaiting());
+    }
+
+    @Test
+    void abandonedTicketIsSkippedWithoutSpendingAToken() {
+        WaitingRoom room = new WaitingRoom(7L, 1.0, 10, 0);
+        String gone = room.join("a", START_MILLIS).getTicketId();
+        String present = room.join("b", START_MILLIS).getTicketId();
+        long later = START_MILLIS + ABANDON_MILLIS + 1;
+        room.poll(present, later);
+
+        List<WaitingRoom.Snapshot> changed = room.admit(SECOND_NANOS, later, WINDOW_MILLIS, ABANDON_MILLIS);
+
+        assertEquals(List.of(gone, present), changed.stream().map(WaitingRoom.Snapshot::getTicketId).collect(Collectors.toList()));
+        assertEquals(QueueTicketStatus.EXPIRED, changed.get(0).getStatus());
+        assertEquals(QueueTicketStatus.ADMITTED, changed.get(1).getStatus());
+    }
+
+    @Test
+    void fullQueueRefusesNewBuyersButReturnsExistingTickets() {
+        WaitingRoom room = new WaitingRoom(7L, 1.0, 2, 0);
+        String first = room.join("a", START_MILLIS).getTicketId();
+        room.join("b", START_MILLIS);
+
+        assertNull(room.join("c", START_MILLIS));
+        assertEquals(first, room.join("a", START_MILLIS).getTicketId());
+    }
+
+    @Test
+    void admittedTicketCanBeClaimedOnce() {
+        WaitingRoom room = new WaitingRoom(7L, 1.0, 10, 0);
+        String ticket = room.join("a", START_MILLIS).getTicketId();
+        admit(room, 1);
+
+        assertFalse(room.claim(ticket, "b", START_MILLIS));
+        assertTrue(room.claim(ticket, "a", START_MILLIS));
+        assertFalse(room.claim(ticket, "a", START_MILLIS));
+        assertEquals(QueueTicketStatus.IN_USE, room.poll(ticket, START_MILLIS).getStatus());
+
+        room.markUsed(ticket, START_MILLIS);
+        assertEquals(QueueTicketStatus.USED, room.poll(ticket, START_MILLIS).getStatus());
+        assertFalse(room.claim(ticket, "a", START_MILLIS));
+        // Harcanan biletin sahibi yeniden sıraya girebilir
+        assertNotEquals(ticket, room.join("a", START_MILLIS).getTicketId());
+    }
+
+    @Test
+    void releasedTicketCanBeClaimedAgainWithinItsWindow() {
+        WaitingRoom room = new WaitingRoom(7L, 1.0, 10, 0);
+        String ticket = room.join("a", START_MILLIS).getTicketId();
+        admit(room, 1);
+
+        assertTrue(room.claim(ticket, "a", START_MILLIS));
+        room.release(ticket);
+
+        assertEquals(QueueTicketStatus.ADMITTED, room.poll(ticket, START_MILLIS).getStatus());
+        assertTrue(room.claim(ticket, "a", START_MILLIS));
+    }
+
+    @Test
+    void waitingOrExpiredTicketCannotBeClaimed() {
+        WaitingRoom room = new WaitingRoom(7L, 1.0, 10, 0);
+        String ticket = room.join("a", START_MILLIS).getTicketId();
+        assertFalse(room.claim(ticket, "a", START_MILLIS));
+
+        admit(room, 1);
+        assertFalse(room.claim(ticket, "a", START_MILLIS + WINDOW_MILLIS));
+        assertFalse(room.claim("7-unknown", "a", START_MILLIS));
+    }
+
+    @Test
+    void ticketInUseOutlivesItsWindowUntilReleased() {
+        WaitingRoom room = new WaitingRoom(7L, 1.0, 10, 0);
+        String ticket = room.join("a", START_MILLIS).getTicketId();
+        admit(room, 1);
+        assertTrue(room.claim(ticket, "a", START_MILLIS));
+        long afterWindow = START_MILLIS + WINDOW_MILLIS + 1;
+
+        assertTrue(room.admit(2 * SECOND_NANOS, afterWindow, WINDOW_MILLIS, ABANDON_MILLIS).isEmpty());
+        assertEquals(QueueTicketStatus.IN_USE, room.poll(ticket, afterWindow).getStatus());
+
+        room.release(ticket);
+        List<WaitingRoom.Snapshot> changed = room.admit(3 * SECOND_NANOS, afterWindow, WINDOW_MILLIS, ABANDON_MILLIS);
+        assertEquals(1, changed.size());
+        assertEquals(QueueTicketStatus.EXPIRED, changed.get(0).getStatus());
+        assertEquals(0, room.stats().getAdmitted());
+    }
+
+    private static List<WaitingRoom.Snapshot> admit(WaitingRoom room, long seconds) {
+        return room.admit(seconds * SECOND_NANOS, START_MILLIS, WINDOW_MILLIS, ABANDON_MILLIS);
+    }
+}
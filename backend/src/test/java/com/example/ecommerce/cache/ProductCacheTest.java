@@ -0,0 +1,68 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.event.ProductChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductCacheTest {
+
+    private final ProductCache cache = new ProductCache(100, 30);
+
+    @Test
+    void bulkLoadedProductsAreCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getAll(List.of(1L, 2L), ids -> {
+            loads.incrementAndGet();
+            return Map.of(1L, product(1L, "v1"), 2L, product(2L, "v1"));
+        });
+        Map<Long, ProductDto> again = cache.getAll(List.of(1L, 2L), ids -> {
+            loads.incrementAndGet();
+            return Map.of();
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals("v1", again.get(2L).getName());
+    }
+
+    @Test
+    void bulkLoadThatRacesWithAnInvalidationIsNotCached() {
+        // Yükleme eski satırı okuduktan sonra ürün değişip commit edilir
+        Map<Long, ProductDto> first = cache.getAll(List.of(1L), ids -> {
+            ProductDto stale = product(1L, "v1");
+            cache.onProductChanged(ProductChangedEvent.of(1L));
+            return Map.of(1L, stale);
+        });
+
+        ProductDto reloaded = cache.get(1L, id -> product(id, "v2"));
+
+        assertEquals("v1", first.get(1L).getName());
+        assertEquals("v2", reloaded.getName());
+    }
+
+    @Test
+    void unrelatedInvalidationDuringBulkLoadOnlyDropsTheLoadedIds() {
+        cache.get(3L, id -> product(id, "v1"));
+
+        cache.getAll(List.of(1L), ids -> {
+            cache.invalidate(List.of(9L));
+            return Map.of(1L, product(1L, "v1"));
+        });
+
+        assertEquals("v1", cache.get(3L, id -> product(id, "v2")).getName());
+        assertEquals("v2", cache.get(1L, id -> product(id, "v2")).getName());
+    }
+
+    private static ProductDto product(Long id, String name) {
+        ProductDto product = new ProductDto();
+        product.setId(id);
+        product.setName(name);
+        return product;
+    }
+}
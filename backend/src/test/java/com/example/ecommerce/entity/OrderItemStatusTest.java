@@ -0,0 +1,43 @@
+package com.example.ecommerce.entity;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderItemStatusTest {
+
+    @ParameterizedTest
+    @EnumSource(value = OrderItemStatus.class, names = {"CANCELLED", "REFUNDED"})
+    void finalStatusesHaveNoTransitions(OrderItemStatus terminal) {
+        for (OrderItemStatus to : OrderItemStatus.values()) {
+            assertFalse(terminal.canTransitionTo(to), terminal + " -> " + to);
+        }
+    }
+
+    @Test
+    void fulfilmentMovesForward() {
+        assertTrue(OrderItemStatus.ACTIVE.canTransitionTo(OrderItemStatus.SHIPPED));
+        assertTrue(OrderItemStatus.ACTIVE.canTransitionTo(OrderItemStatus.DELIVERED));
+        assertTrue(OrderItemStatus.SHIPPED.canTransitionTo(OrderItemStatus.DELIVERED));
+        assertFalse(OrderItemStatus.SHIPPED.canTransitionTo(OrderItemStatus.ACTIVE));
+        assertFalse(OrderItemStatus.DELIVERED.canTransitionTo(OrderItemStatus.SHIPPED));
+    }
+
+    @Test
+    void deliveredItemIsRefundedOnlyThroughAReturn() {
+        assertFalse(OrderItemStatus.DELIVERED.canTransitionTo(OrderItemStatus.REFUNDED));
+        assertTrue(OrderItemStatus.DELIVERED.canTransitionTo(OrderItemStatus.RETURN_REQUESTED));
+        assertTrue(OrderItemStatus.RETURN_REQUESTED.canTransitionTo(OrderItemStatus.REFUND_PROCESSING));
+        assertTrue(OrderItemStatus.RETURN_REQUESTED.canTransitionTo(OrderItemStatus.DELIVERED));
+        assertTrue(OrderItemStatus.REFUND_PROCESSING.canTransitionTo(OrderItemStatus.REFUNDED));
+    }
+
+    @ParameterizedTest
+    @EnumSource(OrderItemStatus.class)
+    void noStatusTransitionsToItself(OrderItemStatus status) {
+        assertFalse(status.canTransitionTo(status));
+    }
+}
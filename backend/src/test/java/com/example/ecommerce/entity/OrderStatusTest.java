@@ -0,0 +1,77 @@
+package com.example.ecommerce.entity;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStatusTest {
+
+    private static final Set<OrderStatus> FULFILMENT =
+            EnumSet.of(OrderStatus.PREPARING, OrderStatus.SHIPPED, OrderStatus.DELIVERED);
+
+    @ParameterizedTest
+    @EnumSource(value = OrderStatus.class, names = {"PENDING", "PAYMENT_FAILED"})
+    void unpaidOrderCannotEnterFulfilment(OrderStatus unpaid) {
+        assertTrue(unpaid.isAwaitingPayment());
+        for (OrderStatus target : FULFILMENT) {
+            assertFalse(unpaid.canTransitionTo(target), unpaid + " -> " + target);
+        }
+    }
+
+    @Test
+    void unpaidOrderMovesOnlyThroughPaymentOrCancellation() {
+        assertEquals(EnumSet.of(OrderStatus.PROCESSING, OrderStatus.PAYMENT_FAILED, OrderStatus.CANCELLED),
+                targetsOf(OrderStatus.PENDING));
+        assertEquals(EnumSet.of(OrderStatus.PENDING, OrderStatus.PROCESSING, OrderStatus.CANCELLED),
+                targetsOf(OrderStatus.PAYMENT_FAILED));
+    }
+
+    @Test
+    void paidOrderMovesForwardOnly() {
+        assertEquals(EnumSet.of(OrderStatus.PREPARING, OrderStatus.SHIPPED, OrderStatus.DELIVERED, OrderStatus.CANCELLED),
+                targetsOf(OrderStatus.PROCESSING));
+        assertEquals(EnumSet.of(OrderStatus.SHIPPED, OrderStatus.DELIVERED, OrderStatus.CANCELLED),
+                targetsOf(OrderStatus.PREPARING));
+        assertEquals(EnumSet.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED), targetsOf(OrderStatus.SHIPPED));
+        assertFalse(OrderStatus.SHIPPED.canTransitionTo(OrderStatus.PREPARING));
+        assertFalse(OrderStatus.PROCESSING.canTransitionTo(OrderStatus.PENDING));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = OrderStatus.class, names = {"DELIVERED", "CANCELLED"})
+    void finalStatusesHaveNoTransitions(OrderStatus terminal) {
+        assertTrue(targetsOf(terminal).isEmpty());
+    }
+
+    @ParameterizedTest
+    @EnumSource(OrderStatus.class)
+    void noStatusTransitionsToItself(OrderStatus status) {
+        assertFalse(status.canTransitionTo(status));
+    }
+
+    @Test
+    void onlyShippingAndDeliveryMoveTheItems() {
+        assertEquals(OrderItemStatus.SHIPPED, OrderStatus.SHIPPED.itemStatus());
+        assertEquals(OrderItemStatus.DELIVERED, OrderStatus.DELIVERED.itemStatus());
+        assertNull(OrderStatus.PREPARING.itemStatus());
+        assertNull(OrderStatus.PROCESSING.itemStatus());
+    }
+
+    private static Set<OrderStatus> targetsOf(OrderStatus from) {
+        Set<OrderStatus> targets = EnumSet.noneOf(OrderStatus.class);
+        for (OrderStatus to : OrderStatus.values()) {
+            if (from.canTransitionTo(to)) {
+                targets.add(to);
+            }
+        }
+        return targets;
+    }
+}
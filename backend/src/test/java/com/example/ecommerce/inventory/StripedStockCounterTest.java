@@ -0,0 +1,108 @@
+package com.example.ecommerce.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedStockCounterTest {
+
+    private static final int THREADS = 16;
+
+    @Test
+    void takeSpansStripesAllOrNothing() {
+        StripedStockCounter counter = new StripedStockCounter(10, 4);
+
+        assertFalse(counter.tryTake(11));
+        assertEquals(10, counter.available());
+
+        assertTrue(counter.tryTake(10));
+        assertEquals(0, counter.available());
+        assertFalse(counter.tryTake(1));
+        assertEquals(0, counter.available());
+    }
+
+    @Test
+    void invalidArgumentsAreHandled() {
+        assertThrows(IllegalArgumentException.class, () -> new StripedStockCounter(10, 0));
+        assertEquals(0, new StripedStockCounter(-5, 4).available());
+        assertTrue(new StripedStockCounter(0, 4).tryTake(0));
+    }
+
+    @Test
+    void concurrentTakesNeverOversell() throws Exception {
+        long initial = 5_000;
+        StripedStockCounter counter = new StripedStockCounter(initial, 8);
+        AtomicLong sold = new AtomicLong();
+
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int refusals = 0;
+            // Sıfıra yakın iki alış birbirini geçici olarak reddedebilir; birkaç ret üst üste gelince durulur
+            while (refusals < 100) {
+                int quantity = 1 + random.nextInt(3);
+                if (counter.tryTake(quantity)) {
+                    sold.addAndGet(quantity);
+                    refusals = 0;
+                } else {
+                    refusals++;
+                }
+            }
+        });
+
+        assertTrue(sold.get() <= initial, "sold " + sold.get() + " of " + initial);
+        assertEquals(initial - sold.get(), counter.available());
+        assertTrue(counter.available() < 3, "left unsold: " + counter.available());
+    }
+
+    @Test
+    void concurrentTakesAndReturnsKeepEveryUnit() throws Exception {
+        long initial = 200;
+        StripedStockCounter counter = new StripedStockCounter(initial, 4);
+
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 20_000; i++) {
+                int quantity = 1 + random.nextInt(5);
+                if (counter.tryTake(quantity)) {
+                    counter.add(quantity);
+                }
+            }
+        });
+
+        assertEquals(initial, counter.available());
+    }
+
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>(THREADS);
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
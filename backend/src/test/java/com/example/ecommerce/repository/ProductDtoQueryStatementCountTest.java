@@ -0,0 +1,143 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.dto.ProductDto;
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.entity.ProductComparison;
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.entity.UserFavorite;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The ProductDto projections ({@link ProductRepository#PRODUCT_DTO_SELECT}) must load a page with a
+ * single statement however many products it holds. Every product gets its own category and seller,
+ * so a lazy association touched per row would show up as extra statements.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:dto-queries;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE,KEY",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductDtoQueryStatementCountTest {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserFavoriteRepository userFavoriteRepository;
+
+    @Autowired
+    private ProductComparisonRepository productComparisonRepository;
+
+    private final List<Long> productIds = new ArrayList<>();
+    private User buyer;
+
+    @BeforeEach
+    void createCatalog() {
+        buyer = persistUser("buyer");
+        for (int i = 0; i < MAX_PAGE_SIZE; i++) {
+            Category category = new Category("Category " + i);
+            entityManager.persist(category);
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(BigDecimal.TEN);
+            product.setStockQuantity(10);
+            product.setCategory(category);
+            product.setSeller(persistUser("seller" + i));
+            entityManager.persist(product);
+            productIds.add(product.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, MAX_PAGE_SIZE})
+    void findsProductsByIdWithOneStatement(int pageSize) {
+        List<Long> ids = productIds.subList(0, pageSize);
+
+        assertSingleStatement(pageSize, () -> productRepository.findDtosByIdIn(ids));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, MAX_PAGE_SIZE})
+    void loadsKeysetPageWithOneStatement(int pageSize) {
+        assertSingleStatement(pageSize, () -> productRepository.findActiveDtoPageAfter(0L, PageRequest.of(0, pageSize)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, MAX_PAGE_SIZE})
+    void loadsFavoritesWithOneStatement(int pageSize) {
+        UserFavorite favorite = new UserFavorite(entityManager.find(User.class, buyer.getId()));
+        for (Long id : productIds.subList(0, pageSize)) {
+            favorite.getProducts().add(entityManager.getReference(Product.class, id));
+        }
+        entityManager.persist(favorite);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertSingleStatement(pageSize, () -> userFavoriteRepository.findProductDtosByFavoriteId(favorite.getId()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, MAX_PAGE_SIZE})
+    void loadsComparisonWithOneStatement(int pageSize) {
+        User user = entityManager.find(User.class, buyer.getId());
+        for (Long id : productIds.subList(0, pageSize)) {
+            entityManager.persist(new ProductComparison(user, entityManager.getReference(Product.class, id)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        assertSingleStatement(pageSize, () -> productComparisonRepository.findProductDtosByUserId(buyer.getId()));
+    }
+
+    private void assertSingleStatement(int expectedRows, Supplier<List<ProductDto>> query) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ProductDto> products = query.get();
+
+        assertEquals(expectedRows, products.size());
+        assertEquals(expectedRows, products.stream().map(ProductDto::getCategoryName).collect(Collectors.toSet()).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private User persistUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("password");
+        user.setEmail(username + "@example.com");
+        entityManager.persist(user);
+        return user;
+    }
+}
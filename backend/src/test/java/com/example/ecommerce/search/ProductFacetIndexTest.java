@@ -0,0 +1,108 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.dto.ProductDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductFacetIndexTest {
+
+    private static final FacetQuery ALL = new FacetQuery(Set.of(), null, null, null, false);
+
+    private final ProductFacetIndex index = new ProductFacetIndex(List.of(new BigDecimal("100"), new BigDecimal("500")));
+
+    @Test
+    void lateLowerIdsArePagedInIdOrder() {
+        // Havuzlu id dizileriyle commit sırası id sırasından farklı olabilir
+        for (long id : new long[]{10, 3, 7, 1, 12, 5}) {
+            index.put(product(id, 1L, "50", 4));
+        }
+
+        assertEquals(List.of(1L, 3L, 5L, 7L, 10L, 12L), allPages(ALL, 2));
+        assertEquals(List.of(7L, 10L), index.query(ALL, 5, 2).getProductIds());
+    }
+
+    @Test
+    void filtersAndCountsAreKeptWhenIdsArriveOutOfOrder() {
+        index.put(product(20L, 1L, "50", 4));
+        index.put(product(10L, 2L, "200", 2));
+        index.put(product(15L, 1L, "600", 0));
+
+        FacetQuery categoryOne = new FacetQuery(Set.of(1L), null, null, null, false);
+        ProductFacetIndex.FacetResult result = index.query(categoryOne, 0, 10);
+
+        assertEquals(List.of(15L, 20L), result.getProductIds());
+        assertEquals(2, result.getTotalCount());
+        assertEquals(1, result.getCategoryCounts().get(2L));
+        assertEquals(1, result.getPriceBucketCount(0));
+        assertEquals(1, result.getPriceBucketCount(2));
+        FacetQuery midPrice = new FacetQuery(Set.of(), new BigDecimal("100"), new BigDecimal("500"), null, false);
+        assertEquals(List.of(10L), index.query(midPrice, 0, 10).getProductIds());
+        FacetQuery wellRated = new FacetQuery(Set.of(), null, null, 3, false);
+        assertEquals(List.of(20L), index.query(wellRated, 0, 10).getProductIds());
+    }
+
+    @Test
+    void updatesKeepTheirPlaceAndRemovedProductsStopMatching() {
+        index.put(product(2L, 1L, "50", 1));
+        index.put(product(1L, 1L, "50", 1));
+        index.put(product(3L, 1L, "50", 1));
+
+        index.put(product(1L, 2L, "700", 5));
+        index.remove(3L);
+
+        assertEquals(List.of(1L, 2L), allPages(ALL, 1));
+        assertEquals(List.of(1L), index.query(new FacetQuery(Set.of(2L), null, null, null, false), 0, 10).getProductIds());
+        assertEquals(2, index.activeCount());
+    }
+
+    @Test
+    void inStockFlagFollowsStockChanges() {
+        index.put(product(2L, 1L, "50", 0));
+        index.put(product(1L, 1L, "50", 0));
+        FacetQuery inStockOnly = new FacetQuery(Set.of(), null, null, null, true);
+
+        index.setInStock(2L, false);
+
+        assertEquals(List.of(1L), index.query(inStockOnly, 0, 10).getProductIds());
+        assertEquals(1, index.query(ALL, 0, 10).getInStockCount());
+
+        index.setInStock(2L, true);
+
+        assertEquals(List.of(1L, 2L), index.query(inStockOnly, 0, 10).getProductIds());
+    }
+
+    private List<Long> allPages(FacetQuery query, int limit) {
+        List<Long> ids = new ArrayList<>();
+        long cursor = 0;
+        ProductFacetIndex.FacetResult page;
+        do {
+            page = index.query(query, cursor, limit);
+            assertTrue(page.getProductIds().size() <= limit);
+            ids.addAll(page.getProductIds());
+            if (!page.getProductIds().isEmpty()) {
+                cursor = page.getProductIds().get(page.getProductIds().size() - 1);
+            }
+        } while (page.isHasNext());
+        assertFalse(page.isHasNext());
+        return ids;
+    }
+
+    private static ProductDto product(long id, Long categoryId, String price, int stars) {
+        ProductDto product = new ProductDto();
+        product.setId(id);
+        product.setCategoryId(categoryId);
+        product.setPrice(new BigDecimal(price));
+        product.setAverageRating(BigDecimal.valueOf(stars));
+        product.setAvailableQuantity(5);
+        product.setActive(true);
+        return product;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.ecommerce.search;
+
+import com.example.ecommerce.dto.ProductDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @Test
+    void nameMatchesOutrankDescriptionMatches() {
+        index.put(product(1L, "Çelik Termos", "Kahve için"));
+        index.put(product(2L, "Kahve Makinesi", "Filtre kahve"));
+        index.put(product(3L, "Kupa", "Seramik"));
+
+        ProductSearchIndex.SearchHits hits = index.search("kahve", 0, 10);
+
+        assertEquals(2, hits.getTotalHits());
+        assertEquals(List.of(2L, 1L), hits.getProductIds());
+    }
+
+    @Test
+    void pagesFollowTheRanking() {
+        for (long id = 1; id <= 5; id++) {
+            index.put(product(id, "Defter " + id, null));
+        }
+
+        assertEquals(List.of(1L, 2L), index.search("defter", 0, 2).getProductIds());
+        assertEquals(List.of(3L, 4L), index.search("defter", 1, 2).getProductIds());
+        assertEquals(List.of(5L), index.search("defter", 2, 2).getProductIds());
+        assertEquals(5, index.search("defter", 2, 2).getTotalHits());
+        assertTrue(index.search("defter", 3, 2).getProductIds().isEmpty());
+    }
+
+    @Test
+    void lastTermMatchesAsPrefixAndAllTermsAreRequired() {
+        index.put(product(1L, "Mavi Kalem", null));
+        index.put(product(2L, "Mavi Kupa", null));
+
+        assertEquals(List.of(1L), index.search("mavi kal", 0, 10).getProductIds());
+        assertTrue(index.search("kırmızı kalem", 0, 10).getProductIds().isEmpty());
+    }
+
+    @Test
+    void updateWithSameTermsKeepsItsPlace() {
+        index.put(product(1L, "Bardak", null));
+        index.put(product(2L, "Bardak", null));
+
+        ProductDto repriced = product(1L, "Bardak", null);
+        repriced.setPrice(BigDecimal.ONE);
+        index.put(repriced);
+
+        // Eşit puanda eski kayıt önde; yeniden eklenseydi 1 sona geçerdi
+        assertEquals(List.of(1L, 2L), index.search("bardak", 0, 10).getProductIds());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void updateWithNewTermsReplacesTheOldOnes() {
+        index.put(product(1L, "Kırmızı Kupa", null));
+        index.put(product(2L, "Kupa", null));
+
+        index.put(product(1L, "Yeşil Kupa", null));
+
+        assertTrue(index.search("kirmizi", 0, 10).getProductIds().isEmpty());
+        assertEquals(List.of(1L), index.search("yesil", 0, 10).getProductIds());
+        assertEquals(2, index.search("kupa", 0, 10).getTotalHits());
+
+        index.remove(1L);
+
+        assertEquals(List.of(2L), index.search("kupa", 0, 10).getProductIds());
+        assertEquals(1, index.size());
+    }
+
+    private static ProductDto product(Long id, String name, String description) {
+        ProductDto product = new ProductDto();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setCategoryName("Ev");
+        product.setPrice(BigDecimal.TEN);
+        return product;
+    }
+}
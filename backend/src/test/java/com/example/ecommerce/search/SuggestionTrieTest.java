@@ -0,0 +1,119 @@
+package com.example.ecommerce.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestionTrieTest {
+
+    private final SuggestionTrie trie = new SuggestionTrie();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ışık", "IŞIK", "isik", "Işı", "i̇şik"})
+    void turkishSpellingsMeetOnTheSameEntry(String prefix) {
+        trie.put(1L, "Işık Masa Lambası", 1.0);
+        trie.put(2L, "İstanbul Çayı", 1.0);
+
+        assertEquals(List.of(1L), ids(trie.suggest(prefix, 5)));
+    }
+
+    @Test
+    void dottedCapitalIAndCedillaAreFolded() {
+        trie.put(2L, "İstanbul Çayı", 1.0);
+
+        assertEquals(List.of(2L), ids(trie.suggest("istanbul cay", 5)));
+        assertEquals(List.of(2L), ids(trie.suggest("İSTANBUL ÇAYI", 5)));
+        // Sonuç her zaman girdinin özgün yazımıyla döner
+        assertEquals("İstanbul Çayı", trie.suggest("ist", 5).get(0).getText());
+    }
+
+    @Test
+    void laterWordsArePrefixesToo() {
+        trie.put(1L, "Apple MacBook Pro 14", 1.0);
+
+        assertEquals(List.of(1L), ids(trie.suggest("macbook", 5)));
+        assertEquals(List.of(1L), ids(trie.suggest("pro", 5)));
+        assertTrue(trie.suggest("book", 5).isEmpty());
+    }
+
+    @Test
+    void trailingSeparatorMatchesWholeWordOnly() {
+        trie.put(1L, "Ayakkabı Bağcığı", 1.0);
+        trie.put(2L, "Ayakkabılık", 2.0);
+
+        assertEquals(List.of(2L, 1L), ids(trie.suggest("ayakkabı", 5)));
+        assertEquals(List.of(1L), ids(trie.suggest("ayakkabı ", 5)));
+    }
+
+    @Test
+    void higherScoreRanksFirstThenShorterTextThenLowerId() {
+        trie.put(4L, "Kalem Seti", 1.0);
+        trie.put(3L, "Kalemlik", 1.0);
+        trie.put(2L, "Kalem Kutusu", 1.0);
+        trie.put(1L, "Kalem Ucu Uzun Paket", 5.0);
+        trie.put(5L, "Kalemtıraş", 1.0);
+
+        // Kalemlik (8) < Kalem Seti = Kalemtıraş (10, id 4 < 5) < Kalem Kutusu (12)
+        assertEquals(List.of(1L, 3L, 4L, 5L, 2L), ids(trie.suggest("kalem", 10)));
+    }
+
+    @Test
+    void reScoringAnEntryMovesIt() {
+        trie.put(1L, "Defter A4", 1.0);
+        trie.put(2L, "Defter A5", 2.0);
+        assertEquals(List.of(2L, 1L), ids(trie.suggest("defter", 5)));
+
+        trie.put(1L, "Defter A4", 3.0);
+
+        assertEquals(List.of(1L, 2L), ids(trie.suggest("defter", 5)));
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    void renamedEntryIsNoLongerFoundUnderItsOldText() {
+        trie.put(1L, "Kırmızı Kupa", 1.0);
+
+        trie.put(1L, "Mavi Kupa", 1.0);
+
+        assertTrue(trie.suggest("kirmizi", 5).isEmpty());
+        assertEquals(List.of(1L), ids(trie.suggest("mavi", 5)));
+        assertEquals(List.of(1L), ids(trie.suggest("kupa", 5)));
+    }
+
+    @Test
+    void removingARankedEntryLetsTheNextOneIn() {
+        for (long id = 1; id <= SuggestionTrie.MAX_SUGGESTIONS + 2; id++) {
+            trie.put(id, "Bardak " + id, id);
+        }
+        long best = SuggestionTrie.MAX_SUGGESTIONS + 2;
+        assertEquals(SuggestionTrie.MAX_SUGGESTIONS, trie.suggest("bardak", 100).size());
+        assertEquals(best, trie.suggest("bardak", 1).get(0).getId());
+
+        trie.remove(best);
+
+        List<Long> ids = ids(trie.suggest("bardak", SuggestionTrie.MAX_SUGGESTIONS));
+        assertEquals(best - 1, ids.get(0));
+        assertEquals(2L, ids.get(ids.size() - 1));
+        assertEquals(SuggestionTrie.MAX_SUGGESTIONS + 1, trie.size());
+    }
+
+    @Test
+    void blankOrUnknownPrefixSuggestsNothing() {
+        trie.put(1L, "Çanta", 1.0);
+
+        assertTrue(trie.suggest("", 5).isEmpty());
+        assertTrue(trie.suggest("  - ", 5).isEmpty());
+        assertTrue(trie.suggest("cantalar", 5).isEmpty());
+        assertTrue(trie.suggest("canta", 0).isEmpty());
+    }
+
+    private static List<Long> ids(List<SuggestionTrie.Suggestion> suggestions) {
+        return suggestions.stream().map(SuggestionTrie.Suggestion::getId).collect(Collectors.toList());
+    }
+}
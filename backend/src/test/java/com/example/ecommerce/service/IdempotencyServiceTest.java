@@ -0,0 +1,116 @@
+package com.example.ecommerce.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A key whose operation may have run must never run it again, whether its response could not be
+ * stored or its owner disappeared mid-operation. Only a claim that never started is taken over.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE,KEY",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.idempotency.poll-interval-ms=1"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({IdempotencyService.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    private static final String USER = "customer";
+    private static final String ENDPOINT = "POST /api/orders";
+    private static final Map<String, Long> REQUEST = Map.of("shippingAddressId", 1L);
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @Test
+    void storedResponseIsReplayed() {
+        IdempotencyService.Result<String> first = execute("replay", "order-1");
+        IdempotencyService.Result<String> second = execute("replay", "order-2");
+
+        assertFalse(first.isReplayed());
+        assertTrue(second.isReplayed());
+        assertEquals("order-1", second.getBody());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void operationWhoseResponseCannotBeStoredIsNotRunAgain() {
+        // Boş bir nesne JSON'a yazılamaz; cevap saklanamaz ama işlem yapılmıştır
+        idempotencyService.execute(USER, "unstorable", ENDPOINT, REQUEST, Object.class, () -> {
+            runs.incrementAndGet();
+            return new Object();
+        });
+
+        assertEquals("UNRECORDED", status("unstorable"));
+        assertThrows(IllegalStateException.class, () -> execute("unstorable", "order-2"));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void startedOperationIsNeverTakenOver() {
+        execute("started", "order-1");
+        age("started", "IN_PROGRESS");
+
+        assertThrows(IllegalStateException.class, () -> execute("started", "order-2"));
+        assertEquals(1, runs.get());
+        assertEquals("IN_PROGRESS", status("started"));
+    }
+
+    @Test
+    void claimThatNeverStartedIsTakenOver() {
+        execute("claimed", "order-1");
+        age("claimed", "CLAIMED");
+
+        IdempotencyService.Result<String> retry = execute("claimed", "order-2");
+
+        assertFalse(retry.isReplayed());
+        assertEquals("order-2", retry.getBody());
+        assertEquals(2, runs.get());
+        assertEquals("COMPLETED", status("claimed"));
+    }
+
+    private IdempotencyService.Result<String> execute(String key, String response) {
+        return idempotencyService.execute(USER, key, ENDPOINT, REQUEST, String.class, () -> {
+            runs.incrementAndGet();
+            return response;
+        });
+    }
+
+    // Sahibi kilit süresinden çok önce bu durumda kalmış gibi gösterir
+    private void age(String key, String status) {
+        jdbcTemplate.update("UPDATE idempotency_keys SET status = ?, response_body = NULL, created_at = ? " +
+                "WHERE username = ? AND idempotency_key = ?", status,
+                Timestamp.valueOf(LocalDateTime.now().minusHours(1)), USER, key);
+    }
+
+    private String status(String key) {
+        return jdbcTemplate.queryForObject("SELECT status FROM idempotency_keys WHERE username = ? AND idempotency_key = ?",
+                String.class, USER, key);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.cache.ProductCache;
+import com.example.ecommerce.entity.Category;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.entity.User;
+import com.example.ecommerce.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Deactivating a product saves the loaded entity. A stock change committed through JDBC between the
+ * load and the save must survive, so the entity update may only write the columns it changed.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-deactivation;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE,KEY",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProductService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductDeactivationStockTest {
+
+    // InventoryService'teki ödeme onayıyla aynı güncelleme
+    private static final String COMMIT_SQL =
+            "UPDATE products SET stock_quantity = GREATEST(stock_quantity - ?, 0), " +
+            "reserved_quantity = GREATEST(reserved_quantity - ?, 0), updated_at = ? WHERE id = ?";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private ProductCache productCache;
+
+    @MockBean
+    private HotSkuInventory hotSkuInventory;
+
+    @MockBean
+    private InventoryLedger inventoryLedger;
+
+    @Test
+    void stockCommittedBetweenLoadAndSaveIsKept() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Long productId = transactionTemplate.execute(status -> createProduct(10));
+        jdbcTemplate.update("UPDATE products SET reserved_quantity = 3 WHERE id = ?", productId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Ürün bu işlemde kilitsiz okunur; deactivateProduct aynı (artık eski) nesneyi kaydeder
+            productRepository.findById(productId).orElseThrow();
+            commitPaymentOnAnotherConnection(productId, 3);
+            productService.deactivateProduct(productId, "discontinued");
+        });
+
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertFalse(product.isActive());
+        assertEquals(7, product.getStockQuantity());
+        assertEquals(0, product.getReservedQuantity());
+    }
+
+    // Kilitsiz okunan satır başka bir bağlantıdan güncellenip commit edilir
+    private void commitPaymentOnAnotherConnection(Long productId, int quantity) {
+        CompletableFuture.runAsync(() -> jdbcTemplate.update(COMMIT_SQL, quantity, quantity,
+                Timestamp.valueOf(LocalDateTime.now()), productId)).orTimeout(10, TimeUnit.SECONDS).join();
+    }
+
+    private Long createProduct(int stock) {
+        User seller = new User();
+        seller.setUsername("seller");
+        seller.setPassword("password");
+        seller.setEmail("seller@example.com");
+        entityManager.persist(seller);
+        Category category = new Category("Category");
+        entityManager.persist(category);
+        Product product = new Product();
+        product.setName("Product");
+        product.setPrice(BigDecimal.TEN);
+        product.setStockQuantity(stock);
+        product.setSeller(seller);
+        product.setCategory(category);
+        entityManager.persist(product);
+        return product.getId();
+    }
+}
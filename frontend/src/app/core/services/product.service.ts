@@ -10,6 +10,7 @@ export interface Product {
   description?: string;
   price: number;
   stockQuantity: number;
+  availableQuantity?: number; // Stok - ödeme bekleyen siparişlerin ayırdığı adet
   categoryId: number;
   categoryName?: string;
   imageUrl?: string;
@@ -24,6 +25,11 @@ export interface Product {
   deactivatedAt?: string | Date; // Backend LocalDateTime gönderir, frontend Date olarak işleyebilir.
 }
 
+export interface ProductBatchResponse {
+  products: Product[];
+  missingIds: number[];
+}
+
 export interface ProductRequest {
   name: string;
   description?: string;
@@ -95,8 +101,14 @@ export class ProductService {
       return new Observable(observer => observer.next([])); // Veya of([]) rxjs operatörü
     }
     console.log(`ProductService: Fetching products for IDs (batch): ${ids} from API`);
-    // Backend artık { ids: [...] } formatında obje bekliyor
-    return this.httpClient.post<Product[]>(`${this.apiUrl}/batch`, { ids }).pipe(
+    // Backend { ids: [...] } bekliyor; cevap { products, missingIds } (ürünler istek sırasında, tekrarsız)
+    return this.httpClient.post<ProductBatchResponse>(`${this.apiUrl}/batch`, { ids }).pipe(
+      tap(response => {
+        if (response.missingIds.length > 0) {
+          console.warn(`ProductService: Products not found for IDs: ${response.missingIds}`);
+        }
+      }),
+      map(response => response.products),
       tap(products => console.log(`ProductService: Fetched ${products.length} products in batch for IDs: ${ids}.`)),
       catchError(this.handleError<Product[]>('getProductsByIds', []))
     );
@@ -53,7 +53,8 @@ export class ProductCardComponent implements OnInit, OnDestroy {
       return;
     }
     
-    if (this.product.stockQuantity !== undefined && this.product.stockQuantity < 1) {
+    const available = this.product.availableQuantity ?? this.product.stockQuantity;
+    if (available !== undefined && available < 1) {
       this.snackBar.open(`'${this.product.name}' stokta bulunmamaktadır!`, 'Kapat', { 
         duration: 3000, 
         panelClass: ['warning-snackbar'] 